@@ -18,7 +18,7 @@ import java.util.List;
 import org.eclipse.fordiac.ide.application.Messages;
 import org.eclipse.fordiac.ide.application.actions.CopyPasteMessage.CopyStatus;
 import org.eclipse.fordiac.ide.application.commands.CutAndPasteFromSubAppCommand;
-import org.eclipse.fordiac.ide.model.commands.delete.DeleteFBNetworkElementCommand;
+import org.eclipse.fordiac.ide.model.commands.delete.DeleteFBNetworkElementsCommand;
 import org.eclipse.fordiac.ide.model.helpers.FBNetworkHelper;
 import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
 import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
@@ -68,12 +68,16 @@ public class CutEditPartsAction extends CopyEditPartsAction {
 	}
 
 	private static Command getFBDeleteCommands(final List<Object> templates) {
-		final CompoundCommand cmd = new CompoundCommand();
+		final List<FBNetworkElement> elements = new ArrayList<>();
 		for (final Object obj : templates) {
 			if (obj instanceof FBNetworkElement) {
-				cmd.add(new DeleteFBNetworkElementCommand((FBNetworkElement) obj));
+				elements.add((FBNetworkElement) obj);
 			}
 		}
+		final CompoundCommand cmd = new CompoundCommand();
+		if (!elements.isEmpty()) {
+			cmd.add(new DeleteFBNetworkElementsCommand(elements));
+		}
 		return cmd;
 	}
 
@@ -17,14 +17,19 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.fordiac.ide.application.editparts.ConnectionEditPart;
+import org.eclipse.fordiac.ide.model.commands.delete.DeleteFBNetworkElementCommand;
+import org.eclipse.fordiac.ide.model.commands.delete.DeleteFBNetworkElementsCommand;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
 import org.eclipse.gef.EditPart;
 import org.eclipse.gef.commands.Command;
+import org.eclipse.gef.commands.CompoundCommand;
 import org.eclipse.gef.ui.actions.DeleteAction;
 import org.eclipse.ui.IWorkbenchPart;
 
 /**
  * This special delete object will sort the commands that way that first the
- * connections are added and then the other objects.
+ * connections are added and then the other objects. Several FB network elements
+ * are deleted with one batched command.
  *
  */
 public class DeleteFBNetworkAction extends DeleteAction {
@@ -57,7 +62,34 @@ public class DeleteFBNetworkAction extends DeleteAction {
 			}
 		}
 
-		return super.createDeleteCommand(list);
+		return batchElementDeletes(super.createDeleteCommand(list));
+	}
+
+	/*
+	 * several FB network elements are deleted with one command, so that their
+	 * connections are collected and removed only once
+	 */
+	private static Command batchElementDeletes(final Command deleteCommand) {
+		if (!(deleteCommand instanceof CompoundCommand)) {
+			return deleteCommand;
+		}
+		final List<FBNetworkElement> elements = new ArrayList<>();
+		final List<Command> otherCommands = new ArrayList<>();
+		for (final Object cmd : ((CompoundCommand) deleteCommand).getCommands()) {
+			if (cmd instanceof DeleteFBNetworkElementCommand) {
+				elements.add(((DeleteFBNetworkElementCommand) cmd).getFBNetworkElement());
+			} else {
+				otherCommands.add((Command) cmd);
+			}
+		}
+		if (elements.size() < 2) {
+			return deleteCommand;
+		}
+
+		final CompoundCommand batched = new CompoundCommand(deleteCommand.getLabel());
+		otherCommands.forEach(batched::add);
+		batched.add(new DeleteFBNetworkElementsCommand(elements));
+		return batched;
 	}
 
 }
@@ -13,29 +13,25 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.application.actions;
 
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.eclipse.fordiac.ide.application.editparts.AbstractFBNElementEditPart;
-import org.eclipse.fordiac.ide.model.commands.change.MapToCommand;
+import org.eclipse.fordiac.ide.model.commands.change.MapToResourcesCommand;
 import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
 import org.eclipse.fordiac.ide.model.libraryElement.Resource;
-import org.eclipse.gef.EditPart;
-import org.eclipse.gef.commands.CompoundCommand;
 import org.eclipse.gef.ui.actions.SelectionAction;
 import org.eclipse.ui.IWorkbenchPart;
 
 /**
- * The Class MapAction. Creates a compound command that contains several
- * "MapCommands".
+ * The Class MapAction. Maps all selected network elements to the resource in
+ * one command.
  */
 public class MapAction extends SelectionAction {
 
 	/** The resource. */
 	private final Resource resource;
 
-	/** The map command. */
-	private final CompoundCommand mapCommand = new CompoundCommand();
-
 	/**
 	 * The Constructor.
 	 *
@@ -56,23 +52,14 @@ public class MapAction extends SelectionAction {
 	@Override
 	public void run() {
 		update();
-		for (Iterator<?> iterator = getSelectedObjects().iterator(); iterator.hasNext();) {
-			EditPart ep = (EditPart) iterator.next();
-			if (ep instanceof AbstractFBNElementEditPart) {
-				MapToCommand cmd = new MapToCommand((FBNetworkElement) ep.getModel(), resource);
-				if (cmd.canExecute()) {
-					mapCommand.add(cmd);
-				}
+		final Map<FBNetworkElement, Resource> assignment = new LinkedHashMap<>();
+		for (final Object selected : getSelectedObjects()) {
+			if (selected instanceof AbstractFBNElementEditPart) {
+				assignment.put(((AbstractFBNElementEditPart) selected).getModel(), resource);
 			}
 		}
-		executeMapToCmds();
-	}
-
-	/**
-	 * Executes the mapCommand
-	 */
-	private void executeMapToCmds() {
-		if (getCommandStack() != null) {
+		final MapToResourcesCommand mapCommand = new MapToResourcesCommand(assignment);
+		if ((getCommandStack() != null) && mapCommand.canExecute()) {
 			getCommandStack().execute(mapCommand);
 		}
 	}
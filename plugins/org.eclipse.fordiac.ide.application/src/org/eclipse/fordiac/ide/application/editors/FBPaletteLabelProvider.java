@@ -14,11 +14,17 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.application.editors;
 
+import java.util.Collection;
+import java.util.function.Consumer;
+
 import org.eclipse.core.resources.IFile;
 import org.eclipse.fordiac.ide.model.typelibrary.TypeLibrary;
 import org.eclipse.fordiac.ide.typemanagement.navigator.FBTypeLabelProvider;
+import org.eclipse.fordiac.ide.typemanagement.navigator.ProblemSeverityCache;
 import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.LabelProviderChangedEvent;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.model.WorkbenchLabelProvider;
 
 /**
@@ -27,10 +33,17 @@ import org.eclipse.ui.model.WorkbenchLabelProvider;
  *
  * For the images we'll use the default images for folders and FB type files.
  * For type file names we hide the extension to make the palette look clearer.
+ * The problem overlay of a type is refreshed once the severity of its markers
+ * is known or has changed.
  */
 public class FBPaletteLabelProvider extends LabelProvider {
 
 	private final WorkbenchLabelProvider wbLabelProvider = new WorkbenchLabelProvider();
+	private final Consumer<Collection<IFile>> severityListener = this::severityChanged;
+
+	public FBPaletteLabelProvider() {
+		ProblemSeverityCache.getInstance().addListener(severityListener);
+	}
 
 	@Override
 	public String getText(final Object element) {
@@ -49,4 +62,16 @@ public class FBPaletteLabelProvider extends LabelProvider {
 		return wbLabelProvider.getImage(element);
 	}
 
+	@Override
+	public void dispose() {
+		ProblemSeverityCache.getInstance().removeListener(severityListener);
+		wbLabelProvider.dispose();
+		super.dispose();
+	}
+
+	private void severityChanged(final Collection<IFile> files) {
+		final LabelProviderChangedEvent event = new LabelProviderChangedEvent(this, files.toArray());
+		Display.getDefault().asyncExec(() -> fireLabelProviderChanged(event));
+	}
+
 }
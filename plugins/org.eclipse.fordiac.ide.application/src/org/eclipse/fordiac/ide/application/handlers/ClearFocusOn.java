@@ -13,24 +13,16 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.application.handlers;
 
-import java.util.Map;
-import java.util.Map.Entry;
-
 import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.ExecutionException;
-import org.eclipse.fordiac.ide.application.editparts.ConnectionEditPart;
-import org.eclipse.fordiac.ide.gef.editparts.AbstractViewEditPart;
-import org.eclipse.fordiac.ide.model.libraryElement.Connection;
-import org.eclipse.fordiac.ide.model.libraryElement.FB;
+import org.eclipse.fordiac.ide.application.utilities.FocusOnHighlighter;
 import org.eclipse.fordiac.ide.model.ui.editors.HandlerHelper;
 import org.eclipse.gef.GraphicalViewer;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.handlers.HandlerUtil;
 
 public class ClearFocusOn extends AbstractHandler {
-	private static final int NOT_TRANSPARENT = 255;
-
 	/**
 	 * the command has been executed, so extract the needed information from the
 	 * application context.
@@ -39,20 +31,8 @@ public class ClearFocusOn extends AbstractHandler {
 	public Object execute(ExecutionEvent event) throws ExecutionException {
 		final IEditorPart part = HandlerUtil.getActiveEditor(event);
 		final GraphicalViewer viewer = HandlerHelper.getViewer(part);
-		final Map<?, ?> map = viewer.getEditPartRegistry();
-		for (final Entry<?, ?> entry : map.entrySet()) {
-			final Object obj = entry.getKey();
-			if (obj instanceof FB) {
-				final Object editPartAsObject = entry.getValue();
-				if (editPartAsObject instanceof AbstractViewEditPart) {
-					((AbstractViewEditPart) editPartAsObject).setTransparency(NOT_TRANSPARENT);
-				}
-			} else if (obj instanceof Connection) {
-				final Object editPartAsObject = entry.getValue();
-				if (editPartAsObject instanceof ConnectionEditPart) {
-					((ConnectionEditPart) editPartAsObject).setTransparency(NOT_TRANSPARENT);
-				}
-			}
+		if (null != viewer) {
+			FocusOnHighlighter.clear(viewer);
 		}
 		return null;
 	}
@@ -0,0 +1,24 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.application.handlers;
+
+import org.eclipse.fordiac.ide.model.helpers.FBNetworkTraversal.Direction;
+
+public class FocusOnSuccessor extends FocusOnPredecessor {
+
+	@Override
+	protected Direction getDirection() {
+		return Direction.SUCCESSORS;
+	}
+
+}
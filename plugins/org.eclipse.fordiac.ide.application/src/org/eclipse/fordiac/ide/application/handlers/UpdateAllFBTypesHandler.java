@@ -14,12 +14,17 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.application.handlers;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.fordiac.ide.model.commands.change.UpdateFBTypesCommand;
 import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
 import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.fordiac.ide.model.libraryElement.StructManipulator;
 import org.eclipse.gef.commands.Command;
 import org.eclipse.gef.commands.CommandStack;
 import org.eclipse.gef.commands.CompoundCommand;
@@ -36,14 +41,22 @@ public class UpdateAllFBTypesHandler extends AbstractHandler {
 		final FBNetwork fbnetwork = editor.getAdapter(FBNetwork.class);
 		final CommandStack stack = editor.getAdapter(CommandStack.class);
 
+		// the struct manipulators need their own command, all others are updated together
+		final List<FBNetworkElement> typedElements = new ArrayList<>();
 		for (final FBNetworkElement element : fbnetwork.getNetworkElements()) {
-			if (null != element.getType()) {
+			if (element instanceof StructManipulator) {
 				final Command updateFBTypeCmd = UpdateFBTypeHandler.getUpdateCommand(element);
 				if (updateFBTypeCmd.canExecute()) {
 					cmd.add(updateFBTypeCmd);
 				}
+			} else if (null != element.getType()) {
+				typedElements.add(element);
 			}
 		}
+		final Command updateFBTypesCmd = new UpdateFBTypesCommand(fbnetwork, typedElements);
+		if (updateFBTypesCmd.canExecute()) {
+			cmd.add(updateFBTypesCmd);
+		}
 		if (null != stack) {
 			stack.execute(cmd);
 		}
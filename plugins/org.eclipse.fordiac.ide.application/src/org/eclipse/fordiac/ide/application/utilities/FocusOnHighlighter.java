@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.application.utilities;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.fordiac.ide.application.editparts.ConnectionEditPart;
+import org.eclipse.fordiac.ide.gef.editparts.AbstractViewEditPart;
+import org.eclipse.fordiac.ide.model.libraryElement.Connection;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.gef.GraphicalViewer;
+
+/**
+ * Shows the elements focused on opaque and all other network elements and
+ * connections half transparent.
+ *
+ * The focused elements are remembered in the viewer, so that a new focus or
+ * clearing the focus only changes the edit parts whose transparency changes.
+ */
+public final class FocusOnHighlighter {
+
+	private static final int HALF_TRANSPARENT = 50;
+	private static final int NON_TRANSPARENT = 255;
+
+	private static final String FOCUSED_ELEMENTS = "org.eclipse.fordiac.ide.application.focusedElements"; //$NON-NLS-1$
+
+	/** @param viewer  the viewer showing the network
+	 * @param focused the network elements and connections to be shown opaque */
+	public static void focus(final GraphicalViewer viewer, final Set<?> focused) {
+		final Set<?> previous = getFocusedElements(viewer);
+		if (null == previous) {
+			// everything is opaque so far
+			viewer.getEditPartRegistry().forEach((model, editPart) -> {
+				if (!focused.contains(model)) {
+					setTransparency(model, editPart, HALF_TRANSPARENT);
+				}
+			});
+		} else {
+			final Map<?, ?> registry = viewer.getEditPartRegistry();
+			previous.stream().filter(model -> !focused.contains(model))
+			.forEach(model -> setTransparency(model, registry.get(model), HALF_TRANSPARENT));
+			focused.stream().filter(model -> !previous.contains(model))
+			.forEach(model -> setTransparency(model, registry.get(model), NON_TRANSPARENT));
+		}
+		viewer.setProperty(FOCUSED_ELEMENTS, new HashSet<>(focused));
+	}
+
+	/** Show all network elements and connections opaque again. */
+	public static void clear(final GraphicalViewer viewer) {
+		final Set<?> previous = getFocusedElements(viewer);
+		viewer.getEditPartRegistry().forEach((model, editPart) -> {
+			if ((null == previous) || !previous.contains(model)) {
+				setTransparency(model, editPart, NON_TRANSPARENT);
+			}
+		});
+		viewer.setProperty(FOCUSED_ELEMENTS, null);
+	}
+
+	private static Set<?> getFocusedElements(final GraphicalViewer viewer) {
+		final Object focused = viewer.getProperty(FOCUSED_ELEMENTS);
+		return (focused instanceof Set) ? (Set<?>) focused : null;
+	}
+
+	// the interface elements are changed together with their network element
+	private static void setTransparency(final Object model, final Object editPart, final int transparency) {
+		if ((model instanceof FBNetworkElement) && (editPart instanceof AbstractViewEditPart)) {
+			((AbstractViewEditPart) editPart).setTransparency(transparency);
+		} else if ((model instanceof Connection) && (editPart instanceof ConnectionEditPart)) {
+			((ConnectionEditPart) editPart).setTransparency(transparency);
+		}
+	}
+
+	private FocusOnHighlighter() {
+		throw new UnsupportedOperationException("Helper class FocusOnHighlighter should not be instantiated!"); //$NON-NLS-1$
+	}
+}
@@ -16,7 +16,10 @@
 package org.eclipse.fordiac.ide.comgeneration.implementation;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.fordiac.ide.model.libraryElement.Application;
 import org.eclipse.fordiac.ide.model.libraryElement.Connection;
@@ -26,17 +29,36 @@ import org.eclipse.fordiac.ide.model.libraryElement.Event;
 import org.eclipse.fordiac.ide.model.libraryElement.EventConnection;
 import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
 import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
+import org.eclipse.fordiac.ide.model.libraryElement.InterfaceList;
 import org.eclipse.fordiac.ide.model.libraryElement.Link;
 import org.eclipse.fordiac.ide.model.libraryElement.Resource;
+import org.eclipse.fordiac.ide.model.libraryElement.Segment;
 import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
 import org.eclipse.fordiac.ide.model.libraryElement.With;
 
+/**
+ * Collects the communication channels of the connections between FBs mapped
+ * to different resources.
+ *
+ * Interface elements of the mapped FBs, the segments of the devices and the
+ * available media between two devices are indexed once per run, so that large
+ * systems with many connections between the same devices are analyzed in
+ * linear time.
+ */
 public class Analyzer {
 
 	private CommunicationModel communicationModel;
 
+	private final Map<FBNetworkElement, Map<String, IInterfaceElement>> interfaceElements = new HashMap<>();
+	private final Map<Device, Map<Segment, List<Link>>> deviceSegments = new HashMap<>();
+	private final Map<Device, Map<Device, List<CommunicationMediaInfo>>> media = new HashMap<>();
+
 	public CommunicationModel analyze(final Application application) {
 		communicationModel = new CommunicationModel();
+		// the system may have changed since the last run
+		interfaceElements.clear();
+		deviceSegments.clear();
+		media.clear();
 		for (final EventConnection connection : application.getFBNetwork().getEventConnections()) {
 			collectChannels(connection);
 		}
@@ -74,7 +96,7 @@ public class Analyzer {
 						destinationPortList = new ArrayList<>();
 						destination.getDestinationPorts().put(Integer.valueOf(portIndex), destinationPortList);
 					}
-					destinationPortList.add(mappedElement.getInterfaceElement(connection.getDestination().getName()));
+					destinationPortList.add(getInterfaceElement(mappedElement, connection.getDestination().getName()));
 				}
 			}
 		}
@@ -96,21 +118,47 @@ public class Analyzer {
 		return portIndex;
 	}
 
-	private static List<Event> getSourceEvents(final Connection connection) {
+	private List<Event> getSourceEvents(final Connection connection) {
 		final List<Event> sourceEvents = new ArrayList<>();
 		final FBNetworkElement mappedElement = connection.getSourceElement().getOpposite();
 		if (connection instanceof EventConnection) {
-			sourceEvents.add((Event) mappedElement.getInterfaceElement(connection.getSource().getName()));
+			sourceEvents.add((Event) getInterfaceElement(mappedElement, connection.getSource().getName()));
 		} else if (connection instanceof DataConnection) {
 			for (final With with : ((VarDeclaration) connection.getSource()).getWiths()) {
 				if (with.eContainer() instanceof Event) {
-					sourceEvents.add((Event) mappedElement.getInterfaceElement(((Event) with.eContainer()).getName()));
+					sourceEvents.add((Event) getInterfaceElement(mappedElement, ((Event) with.eContainer()).getName()));
 				}
 			}
 		}
 		return sourceEvents;
 	}
 
+	/** Same as {@link FBNetworkElement#getInterfaceElement(String)} but indexed by name. */
+	private IInterfaceElement getInterfaceElement(final FBNetworkElement element, final String name) {
+		return interfaceElements.computeIfAbsent(element, Analyzer::createInterfaceIndex).get(name);
+	}
+
+	private static Map<String, IInterfaceElement> createInterfaceIndex(final FBNetworkElement element) {
+		final Map<String, IInterfaceElement> index = new HashMap<>();
+		final InterfaceList interfaceList = element.getInterface();
+		if (null != interfaceList) {
+			// keep the lookup order of InterfaceList.getInterfaceElement
+			addToIndex(index, interfaceList.getEventInputs());
+			addToIndex(index, interfaceList.getEventOutputs());
+			addToIndex(index, interfaceList.getInputVars());
+			addToIndex(index, interfaceList.getOutputVars());
+			addToIndex(index, interfaceList.getPlugs());
+			addToIndex(index, interfaceList.getSockets());
+			addToIndex(index, interfaceList.getErrorMarker());
+		}
+		return index;
+	}
+
+	private static void addToIndex(final Map<String, IInterfaceElement> index,
+			final List<? extends IInterfaceElement> elements) {
+		elements.forEach(element -> index.putIfAbsent(element.getName(), element));
+	}
+
 	private CommunicationChannel getComChannel(final boolean local, final Event sourceEvent, final Connection connection) {
 		CommunicationChannel channel = communicationModel.getChannels().get(sourceEvent);
 		if (null == channel) {
@@ -135,22 +183,39 @@ public class Analyzer {
 		}
 	}
 
-	private static void collectMediaInformation(final CommunicationChannel channel) {
+	private void collectMediaInformation(final CommunicationChannel channel) {
 		for (final CommunicationChannelDestination destination : channel.getDestinations()) {
 			collectMediaInformation(destination);
 		}
 	}
 
-	private static void collectMediaInformation(final CommunicationChannelDestination destination) {
+	private void collectMediaInformation(final CommunicationChannelDestination destination) {
 		final Device sourceDevice = (Device) destination.getCommunicationChannel().getSourceResource().eContainer();
 		final Device destinationDevice = (Device) destination.getDestinationResource().eContainer();
+		destination.getAvailableMedia().addAll(media.computeIfAbsent(sourceDevice, device -> new HashMap<>())
+				.computeIfAbsent(destinationDevice, device -> findMedia(sourceDevice, device)));
+	}
+
+	/** @return the media of all segments both devices are linked to */
+	private List<CommunicationMediaInfo> findMedia(final Device sourceDevice, final Device destinationDevice) {
+		final Map<Segment, List<Link>> destinationSegments = getSegments(destinationDevice);
+		final List<CommunicationMediaInfo> result = new ArrayList<>();
 		for (final Link sourceLink : sourceDevice.getInConnections()) {
-			for (final Link destinationLink : destinationDevice.getInConnections()) {
-				if (sourceLink.getSegment() == destinationLink.getSegment()) {
-					destination.getAvailableMedia()
-					.add(new CommunicationMediaInfo(sourceLink, destinationLink, sourceLink.getSegment()));
-				}
+			for (final Link destinationLink : destinationSegments.getOrDefault(sourceLink.getSegment(),
+					Collections.emptyList())) {
+				result.add(new CommunicationMediaInfo(sourceLink, destinationLink, sourceLink.getSegment()));
 			}
 		}
+		return Collections.unmodifiableList(result);
+	}
+
+	private Map<Segment, List<Link>> getSegments(final Device device) {
+		return deviceSegments.computeIfAbsent(device, d -> {
+			final Map<Segment, List<Link>> segments = new HashMap<>();
+			for (final Link link : d.getInConnections()) {
+				segments.computeIfAbsent(link.getSegment(), segment -> new ArrayList<>()).add(link);
+			}
+			return segments;
+		});
 	}
 }
@@ -44,7 +44,7 @@ import org.eclipse.fordiac.ide.deployment.IDeviceManagementCommunicationHandler;
 import org.eclipse.fordiac.ide.deployment.data.FBDeploymentData;
 import org.eclipse.fordiac.ide.deployment.devResponse.Response;
 import org.eclipse.fordiac.ide.deployment.exceptions.DeploymentException;
-import org.eclipse.fordiac.ide.export.forte_lua.ForteLuaExportFilter;
+import org.eclipse.fordiac.ide.export.forte_lua.LuaTypeCache;
 import org.eclipse.fordiac.ide.model.Annotations;
 import org.eclipse.fordiac.ide.model.Palette.FBTypePaletteEntry;
 import org.eclipse.fordiac.ide.model.Palette.ResourceTypeEntry;
@@ -180,9 +180,8 @@ public class DynamicTypeLoadDeploymentExecutor extends DeploymentExecutor {
 	}
 
 	private String createLuaXmlRequestMessage(final FBType fbType) {
-		final ForteLuaExportFilter luaFilter = new ForteLuaExportFilter();
-
-		final String escapedLuaScript = escapeXmlCharacters(luaFilter.createLUA(fbType));
+		// the source is shared by all devices the type is deployed to
+		final String escapedLuaScript = escapeXmlCharacters(LuaTypeCache.getInstance().getLua(fbType));
 
 		return MessageFormat.format(CREATE_FB_TYPE, getNextId(), fbType.getName(), escapedLuaScript);
 	}
@@ -218,8 +217,7 @@ public class DynamicTypeLoadDeploymentExecutor extends DeploymentExecutor {
 		setAttribute(getDevice(), "AdapterType", getAdapterTypes()); //$NON-NLS-1$
 
 		if (!getAdapterTypes().contains(adapterKey) || !isAttribute(getDevice(), adapterKey, "AdapterType")) { //$NON-NLS-1$
-			final ForteLuaExportFilter luaFilter = new ForteLuaExportFilter();
-			final String luaSkript = luaFilter.createLUA(adapters.get(adapterKey));
+			final String luaSkript = LuaTypeCache.getInstance().getLua(adapters.get(adapterKey));
 			final String request = MessageFormat.format(CREATE_ADAPTER_TYPE, getNextId(), adapterKey, luaSkript);
 			sendCreateAdapterTypeREQ(adapterKey, request);
 		}
@@ -41,7 +41,6 @@ public final class Messages extends NLS {
 
 	public static String CreateBootfilesWizard_GeneratingBootFilesForTheSelectedResources;
 
-	public static String CreateBootfilesWizard_IProgressMonitorMonitor;
 
 	public static String CreateBootfilesWizard_BootFileCreationError;
 
@@ -114,8 +113,6 @@ public final class Messages extends NLS {
 	/** The Output_ download warning. */
 	public static String Output_DownloadWarning;
 
-	public static String Output_FormattedXML;
-
 	public static String XMLFormatter_ExceptionDuringXMLFormating;
 
 	static {
@@ -74,7 +74,8 @@ public class LogListener implements IDocumentListener {
 			final IDocument doc = event.getDocument();
 			final FindReplaceDocumentAdapter search = new FindReplaceDocumentAdapter(doc);
 			int offset = event.getOffset();
-			if (event.getDocument().getLength() > 0) {
+			// only appended text has to be searched, removing old lines adds nothing new
+			if ((event.getDocument().getLength() > 0) && (null != event.getText()) && !event.getText().isEmpty()) {
 				IRegion region;
 				do {
 					// find beginning of "Reason" Argument in Mgr-Response, if
@@ -14,25 +14,15 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.deployment.ui.views;
 
-import java.io.ByteArrayOutputStream;
-import java.io.OutputStream;
-import java.io.StringReader;
-import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.TransformerFactoryConfigurationError;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-
+import org.eclipse.fordiac.ide.deployment.ui.Activator;
 import org.eclipse.fordiac.ide.deployment.ui.Messages;
 import org.eclipse.fordiac.ide.deployment.ui.xml.XMLConfiguration;
 import org.eclipse.fordiac.ide.deployment.ui.xml.XMLPartitionScanner;
@@ -40,15 +30,16 @@ import org.eclipse.fordiac.ide.deployment.util.IDeploymentListener;
 import org.eclipse.fordiac.ide.ui.providers.SourceViewerColorProvider;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IToolBarManager;
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.DefaultInformationControl;
 import org.eclipse.jface.text.Document;
-import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IDocumentPartitioner;
 import org.eclipse.jface.text.IInformationControl;
 import org.eclipse.jface.text.IInformationControlCreator;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITextHover;
 import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.rules.FastPartitioner;
 import org.eclipse.jface.text.source.Annotation;
 import org.eclipse.jface.text.source.AnnotationBarHoverManager;
@@ -73,7 +64,6 @@ import org.eclipse.ui.IActionBars;
 import org.eclipse.ui.ISharedImages;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.part.ViewPart;
-import org.xml.sax.InputSource;
 
 /**
  * The Class Output.
@@ -172,6 +162,7 @@ public class Output extends ViewPart implements IDeploymentListener {
 	private static final String WARNIGN_TYPE = Messages.Output_DownloadWarning;
 	private static final int OVERVIEW_RULER_WIDTH = 12;
 	private static final int ANNOTATION_RULES_COLUMN_WIDTH = 16;
+	private static final int UPDATE_INTERVAL = 200;
 
 	/** The annotation model. */
 	private final AnnotationModel fAnnotationModel = new AnnotationModel();
@@ -253,21 +244,25 @@ public class Output extends ViewPart implements IDeploymentListener {
 		 * .text.source.ISourceViewer, int)
 		 */
 		@Override
-		@SuppressWarnings({ "unchecked", "rawtypes" })
 		public String getHoverInfo(final ISourceViewer sourceViewer, final int lineNumber) {
-
-			final Map annotations = new HashMap();
-
-			for (final Iterator iterator = fAnnotationModel.getAnnotationIterator(); iterator.hasNext();) {
+			for (final Iterator<?> iterator = fAnnotationModel.getAnnotationIterator(); iterator.hasNext();) {
 				final Annotation annotation = (Annotation) iterator.next();
-				if (annotation instanceof ErrorAnnotation) {
-					final ErrorAnnotation err = (ErrorAnnotation) annotation;
-					annotations.put(Integer.toString(err.getLine()), err.getText());
+				// the line stored in the annotation is outdated when old lines were removed
+				final Position position = fAnnotationModel.getPosition(annotation);
+				if ((annotation instanceof ErrorAnnotation) && (null != position) && !position.isDeleted()
+						&& (lineNumber == getLine(sourceViewer, position))) {
+					return ((ErrorAnnotation) annotation).getText();
 				}
-
 			}
+			return null;
+		}
 
-			return (String) annotations.get(Integer.toString(lineNumber));
+		private int getLine(final ISourceViewer sourceViewer, final Position position) {
+			try {
+				return sourceViewer.getDocument().getLineOfOffset(position.getOffset());
+			} catch (final BadLocationException e) {
+				return -1;
+			}
 		}
 
 		/*
@@ -321,48 +316,11 @@ public class Output extends ViewPart implements IDeploymentListener {
 		// nothing to do here
 	}
 
-	/**
-	 * Gets the formatted xml.
-	 *
-	 * @param command the command
-	 *
-	 * @return the formatted xml
-	 *
-	 * @throws TransformerFactoryConfigurationError the transformer factory
-	 *                                              configuration error
-	 */
-	private static String getFormattedXML(final String command) throws TransformerFactoryConfigurationError {
-		final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-		documentBuilderFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");  //$NON-NLS-1$
-		documentBuilderFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, ""); //$NON-NLS-1$
-		DocumentBuilder documentBuilder;
-		try {
-			documentBuilder = documentBuilderFactory.newDocumentBuilder();
-
-			final org.w3c.dom.Document doc = documentBuilder.parse(new InputSource(new StringReader(command)));
-
-			final TransformerFactory transformerFactory = TransformerFactory.newInstance();
-			transformerFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, ""); //$NON-NLS-1$
-			transformerFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, ""); //$NON-NLS-1$
-			final Transformer transformer = transformerFactory.newTransformer();
-			transformer.setOutputProperty(OutputKeys.INDENT, "yes"); //$NON-NLS-1$
-			transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes"); //$NON-NLS-1$
-
-			transformer.setOutputProperty("{http://xml.apache.org/xalan}indent-amount", "2"); //$NON-NLS-1$ //$NON-NLS-2$
-
-			final DOMSource domSource = new DOMSource(doc);
-
-			final OutputStream outputStream = new ByteArrayOutputStream();
-			final StreamResult streamResult = new StreamResult(outputStream);
-			transformer.transform(domSource, streamResult);
-			return outputStream.toString();
-		} catch (final Exception e) {
-			return MessageFormat.format(Messages.Output_FormattedXML, command, e.getMessage());
-		}
-	}
+	/** The log shown in the viewer. */
+	private final OutputLog log = new OutputLog();
 
-	/** The buffer. */
-	private StringBuilder buffer = new StringBuilder();
+	/** Set while an update of the viewer is scheduled. */
+	private final AtomicBoolean updateScheduled = new AtomicBoolean();
 
 	@Override
 	public void connectionOpened() {
@@ -371,35 +329,66 @@ public class Output extends ViewPart implements IDeploymentListener {
 
 	@Override
 	public void postResponseReceived(final String response, final String source) {
-		Display.getDefault().asyncExec(() -> {
-			buffer.append("\n");//$NON-NLS-1$
-			buffer.append(getFormattedXML(response));
-		});
+		log.addResponse(response);
+		scheduleUpdate();
 	}
 
 	@Override
 	public void postCommandSent(final String info, final String destination, final String command) {
-		Display.getDefault().asyncExec(() -> {
-
-			final String temp = MessageFormat.format(Messages.Output_Comment, info);
-			buffer.append("\n\n");//$NON-NLS-1$
-			buffer.append(temp);
-			buffer.append("\n");//$NON-NLS-1$
-			buffer.append(getFormattedXML(command));
-		});
+		log.addCommand(info, command);
+		scheduleUpdate();
 	}
 
 	@Override
 	public void connectionClosed() {
-		final IDocument document = sv.getDocument();
-		if (null != document) {
-			Display.getDefault().asyncExec(() -> document.set(buffer.toString()));
-		}
+		scheduleUpdate();
 	}
 
 	public void clearOutput() {
+		log.clear();
 		sv.getDocument().set(""); //$NON-NLS-1$
-		buffer = buffer.delete(0, buffer.length());
+		fAnnotationModel.removeAllAnnotations();
+	}
+
+	/**
+	 * Update the viewer at most every UPDATE_INTERVAL ms, all messages received in
+	 * the meantime are appended at once.
+	 */
+	private void scheduleUpdate() {
+		if (updateScheduled.compareAndSet(false, true)) {
+			final Display display = Display.getDefault();
+			display.asyncExec(() -> display.timerExec(UPDATE_INTERVAL, this::updateDocument));
+		}
+	}
+
+	private void updateDocument() {
+		updateScheduled.set(false);
+		if ((null == sv) || sv.getControl().isDisposed()) {
+			return;
+		}
+		final OutputLog.Update update = log.takeUpdate();
+		if (null != update) {
+			try {
+				update.apply(sv.getDocument());
+			} catch (final BadLocationException e) {
+				Activator.getDefault().logError(e.getMessage(), e);
+			}
+			if (update.getRemovedLength() > 0) {
+				removeDeletedAnnotations();
+			}
+		}
+	}
+
+	private void removeDeletedAnnotations() {
+		final List<Annotation> deleted = new ArrayList<>();
+		for (final Iterator<?> iterator = fAnnotationModel.getAnnotationIterator(); iterator.hasNext();) {
+			final Annotation annotation = (Annotation) iterator.next();
+			final Position position = fAnnotationModel.getPosition(annotation);
+			if ((null == position) || position.isDeleted()) {
+				deleted.add(annotation);
+			}
+		}
+		deleted.forEach(fAnnotationModel::removeAnnotation);
 	}
 
 }
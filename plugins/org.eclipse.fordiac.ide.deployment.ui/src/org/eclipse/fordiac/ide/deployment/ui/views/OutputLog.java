@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.deployment.ui.views;
+
+import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.eclipse.fordiac.ide.deployment.ui.Messages;
+import org.eclipse.fordiac.ide.deployment.ui.xml.XMLFormatter;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+
+/**
+ * Collects the formatted commands and responses shown in the output view.
+ *
+ * Messages can be added from any thread. They are handed to the document in
+ * batches with {@link #takeUpdate()} and {@link Update#apply(IDocument)}, so
+ * that only the new text is appended. The log keeps at most a given number of
+ * lines, the oldest lines are removed from the start of the document.
+ */
+public class OutputLog {
+
+	public static final int DEFAULT_MAX_LINES = 20000;
+
+	private static final char LINE_DELIMITER = '\n';
+	private static final String NEW_LINE = "\n"; //$NON-NLS-1$
+
+	/** Changes of the document since the last update */
+	public static final class Update {
+		private final int removedLength;
+		private final String appendedText;
+
+		private Update(final int removedLength, final String appendedText) {
+			this.removedLength = removedLength;
+			this.appendedText = appendedText;
+		}
+
+		/** @return the number of characters to be removed at the start */
+		public int getRemovedLength() {
+			return removedLength;
+		}
+
+		/** @return the text to be appended at the end */
+		public String getAppendedText() {
+			return appendedText;
+		}
+
+		/** Apply the changes to the document showing the log. */
+		public void apply(final IDocument document) throws BadLocationException {
+			if (removedLength > 0) {
+				document.replace(0, Math.min(removedLength, document.getLength()), ""); //$NON-NLS-1$
+			}
+			if (!appendedText.isEmpty()) {
+				document.replace(document.getLength(), 0, appendedText);
+			}
+		}
+	}
+
+	private final int maxLines;
+	private final int trimmedLines;
+
+	// the lengths of all complete lines in the document and the pending text
+	private final Deque<Integer> lineLengths = new ArrayDeque<>();
+	private int lastLineLength;
+	private int documentLength;
+	private int pendingRemoval;
+	private final StringBuilder pending = new StringBuilder();
+
+	public OutputLog() {
+		this(DEFAULT_MAX_LINES);
+	}
+
+	/**
+	 * @param maxLines the maximum number of lines kept, when it is exceeded a tenth
+	 *                 of the lines is removed at once
+	 */
+	public OutputLog(final int maxLines) {
+		this.maxLines = Math.max(1, maxLines);
+		this.trimmedLines = Math.max(1, this.maxLines / 10);
+	}
+
+	/** Add a command sent to a device. */
+	public void addCommand(final String info, final String command) {
+		final String text = NEW_LINE + NEW_LINE + MessageFormat.format(Messages.Output_Comment, info) + NEW_LINE
+				+ format(command);
+		append(text);
+	}
+
+	/** Add a response received from a device. */
+	public void addResponse(final String response) {
+		append(NEW_LINE + format(response));
+	}
+
+	/**
+	 * Take the changes collected since the last call.
+	 *
+	 * @return the changes or null if there are none
+	 */
+	public synchronized Update takeUpdate() {
+		if ((0 == pendingRemoval) && (0 == pending.length())) {
+			return null;
+		}
+		final Update update = new Update(pendingRemoval, pending.toString());
+		documentLength = (documentLength - pendingRemoval) + pending.length();
+		pendingRemoval = 0;
+		pending.setLength(0);
+		return update;
+	}
+
+	/** Forget all content, the document has to be cleared as well. */
+	public synchronized void clear() {
+		lineLengths.clear();
+		lastLineLength = 0;
+		documentLength = 0;
+		pendingRemoval = 0;
+		pending.setLength(0);
+	}
+
+	/** @return the number of lines of the document after the next update */
+	public synchronized int getLineCount() {
+		return lineLengths.size() + 1;
+	}
+
+	private synchronized void append(final String text) {
+		pending.append(text);
+		for (int i = 0; i < text.length(); i++) {
+			lastLineLength++;
+			if (LINE_DELIMITER == text.charAt(i)) {
+				lineLengths.addLast(Integer.valueOf(lastLineLength));
+				lastLineLength = 0;
+			}
+		}
+		if (lineLengths.size() >= maxLines) {
+			trim();
+		}
+	}
+
+	private void trim() {
+		int removed = 0;
+		// remove more lines than necessary, so that the text is not trimmed on every
+		// new message
+		while (lineLengths.size() >= (maxLines - trimmedLines)) {
+			removed += lineLengths.removeFirst().intValue();
+		}
+		final int fromDocument = Math.min(removed, documentLength - pendingRemoval);
+		pendingRemoval += fromDocument;
+		pending.delete(0, removed - fromDocument);
+	}
+
+	private static String format(final String xml) {
+		final XMLFormatter formatter = new XMLFormatter();
+		formatter.setDefaultLineDelimiter(NEW_LINE);
+		// the formatter uses shared tag readers
+		synchronized (XMLFormatter.class) {
+			// lines are only delimited by new lines in the log
+			return formatter.format(xml).replace("\r", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+}
@@ -14,24 +14,84 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.deployment.ui.wizard;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.fordiac.ide.deployment.AbstractFileManagementHandler;
+import org.eclipse.fordiac.ide.deployment.BootFileGenerator;
 import org.eclipse.fordiac.ide.deployment.DeploymentCoordinator;
+import org.eclipse.fordiac.ide.deployment.IDeviceManagementCommunicationHandler;
+import org.eclipse.fordiac.ide.deployment.exceptions.DeploymentException;
+import org.eclipse.fordiac.ide.deployment.ui.Activator;
+import org.eclipse.fordiac.ide.deployment.ui.Messages;
+import org.eclipse.fordiac.ide.deployment.util.IDeploymentListener;
+import org.eclipse.fordiac.ide.model.libraryElement.Device;
+import org.eclipse.jface.dialogs.ProgressMonitorDialog;
+import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.swt.widgets.Shell;
 
 public class BootFileDeviceManagementCommunicationHandler extends AbstractFileManagementHandler {
 
-	public static void createBootFile(List<Object> workList, String fileName, Shell shell) {
-		if (null != fileName) {
-			BootFileDeviceManagementCommunicationHandler bootFileHandler = new BootFileDeviceManagementCommunicationHandler();
-			DeploymentCoordinator.INSTANCE.performDeployment(workList.toArray(), bootFileHandler, null);
-			bootFileHandler.writeToBootFile(fileName, false, shell);
+	/**
+	 * Create the boot files of the given devices in parallel in a cancelable
+	 * progress dialog. The written commands are reported to the output view.
+	 *
+	 * @param workLoad  the devices with the elements (the device itself and/or its
+	 *                  resources) to be contained in their boot files
+	 * @param directory the directory the boot files are written to
+	 * @param shell     the shell for the user interaction, has to be called from
+	 *                  the UI thread
+	 */
+	public static void createBootFiles(final Map<Device, List<Object>> workLoad, final String directory,
+			final Shell shell) {
+		if (null == directory) {
+			return;
+		}
+		// the user is asked and the output view is looked up in the UI thread before
+		// the generation is forked
+		final Map<Device, List<Object>> toWrite = new LinkedHashMap<>();
+		workLoad.forEach((device, selection) -> {
+			if (confirmOverwrite(new File(directory, BootFileGenerator.getFileName(device)), shell)) {
+				toWrite.put(device, selection);
+			}
+		});
+		if (!toWrite.isEmpty()) {
+			writeBootFiles(toWrite, Paths.get(directory), DeploymentCoordinator.getOutputView(), shell);
+		}
+	}
+
+	private static void writeBootFiles(final Map<Device, List<Object>> workLoad, final Path directory,
+			final IDeploymentListener outputView, final Shell shell) {
+		final IRunnableWithProgress write = monitor -> {
+			monitor.beginTask(Messages.CreateBootfilesWizard_GeneratingBootFilesForTheSelectedResources,
+					workLoad.size());
+			try {
+				BootFileGenerator.writeAll(workLoad, directory, outputView, monitor);
+			} catch (final IOException | DeploymentException e) {
+				throw new InvocationTargetException(e);
+			} finally {
+				monitor.done();
+			}
+		};
+		try {
+			new ProgressMonitorDialog(shell).run(true, true, write);
+		} catch (final InvocationTargetException e) {
+			Activator.getDefault().logError(e.getCause().getMessage(), e.getCause());
+			IDeviceManagementCommunicationHandler.showErrorMessage(
+					Messages.CreateBootfilesWizard_BootFileCreationError + e.getCause().getMessage(), shell);
+		} catch (final InterruptedException e) {
+			// canceled, the boot files which were not complete keep their previous version
 		}
 	}
 
 	/*
-	 * only the static function of this class should be able to create an instance
+	 * the boot file is written by the BootFileGenerator, this class only provides the user interaction
 	 */
 	private BootFileDeviceManagementCommunicationHandler() {
 		super();
@@ -13,26 +13,19 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.deployment.ui.wizard;
 
-import java.io.File;
-import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import org.eclipse.fordiac.ide.deployment.ui.Activator;
 import org.eclipse.fordiac.ide.deployment.ui.Messages;
 import org.eclipse.fordiac.ide.model.libraryElement.Device;
 import org.eclipse.fordiac.ide.model.libraryElement.Resource;
 import org.eclipse.jface.dialogs.IDialogSettings;
-import org.eclipse.jface.dialogs.ProgressMonitorDialog;
-import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.wizard.Wizard;
-import org.eclipse.swt.SWT;
-import org.eclipse.swt.widgets.MessageBox;
 import org.eclipse.ui.IExportWizard;
 import org.eclipse.ui.IWorkbench;
 
@@ -69,45 +62,14 @@ public class CreateBootfilesWizard extends Wizard implements IExportWizard {
 
 	@Override
 	public boolean performFinish() {
-		final IRunnableWithProgress iop = monitor -> {
-			final String outputDirectory = bootFilePage.getDirectory();
-			final Map<Device, List<Object>> workLoad = prepareWorkload();
-			monitor.beginTask(Messages.CreateBootfilesWizard_GeneratingBootFilesForTheSelectedResources,
-					workLoad.size());
-			for (final Entry<Device, List<Object>> entry : workLoad.entrySet()) {
-				final String fileName = MessageFormat.format(Messages.CreateBootfilesWizard_IProgressMonitorMonitor,
-						outputDirectory, Character.valueOf(File.separatorChar),
-						entry.getKey().getAutomationSystem().getName(),
-						entry.getKey().getName());
-
-				BootFileDeviceManagementCommunicationHandler.createBootFile(entry.getValue(), fileName, getShell());
-				monitor.worked(1);
-			}
-			monitor.done();
-		};
-
-		try {
-			new ProgressMonitorDialog(getShell()).run(false, false, iop);
-		} catch (final InterruptedException e) {
-			Thread.currentThread().interrupt();  // mark interruption
-			showExceptionErrorDialog(e);
-		} catch (final Exception e) {
-			showExceptionErrorDialog(e);
-		}
-
+		BootFileDeviceManagementCommunicationHandler.createBootFiles(prepareWorkload(), bootFilePage.getDirectory(),
+				getShell());
 		return true;
 	}
 
-	protected void showExceptionErrorDialog(final Exception e) {
-		final MessageBox msg = new MessageBox(getShell(), SWT.ERROR);
-		msg.setMessage(Messages.CreateBootfilesWizard_BootFileCreationError + e.getMessage());
-		msg.open();
-		Activator.getDefault().logError(msg.getMessage(), e);
-	}
-
 	private Map<Device, List<Object>> prepareWorkload() {
 		final Object[] selectedElements = bootFilePage.getSelectedElements();
-		final Map<Device, List<Object>> workLoad = new HashMap<>();
+		final Map<Device, List<Object>> workLoad = new LinkedHashMap<>();
 
 		for (final Object object : selectedElements) {
 			if (object instanceof Resource) {
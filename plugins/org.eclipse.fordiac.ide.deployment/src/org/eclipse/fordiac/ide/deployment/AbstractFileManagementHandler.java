@@ -30,8 +30,21 @@ import org.eclipse.swt.widgets.Shell;
 public abstract class AbstractFileManagementHandler implements IDeviceManagementCommunicationHandler {
 
 	private StringBuilder stringBuffer = new StringBuilder();
+	private final Writer bootFileWriter;
 	private String origMgrID;
 
+	protected AbstractFileManagementHandler() {
+		this(null);
+	}
+
+	/**
+	 * @param bootFileWriter if not null the deployment commands are streamed to
+	 *                       this writer instead of being collected in memory
+	 */
+	protected AbstractFileManagementHandler(final Writer bootFileWriter) {
+		this.bootFileWriter = bootFileWriter;
+	}
+
 	protected StringBuilder getStringBuffer() {
 		return stringBuffer;
 	}
@@ -60,7 +73,8 @@ public abstract class AbstractFileManagementHandler implements IDeviceManagement
 		if (request.contains("Action=\"QUERY\"")) { // return an empty list always //$NON-NLS-1$
 			return "<Response ID=\"0\"/>"; //$NON-NLS-1$
 		}
-		stringBuffer.append(destination + ";" + request + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		final Appendable commands = (null != bootFileWriter) ? bootFileWriter : stringBuffer;
+		commands.append(destination).append(';').append(request).append('\n');
 		return ""; //$NON-NLS-1$
 	}
 
@@ -73,6 +87,21 @@ public abstract class AbstractFileManagementHandler implements IDeviceManagement
 		return info;
 	}
 
+	/**
+	 * Ask the user if an existing file should be overwritten.
+	 *
+	 * @return true if the file does not exist or may be overwritten
+	 */
+	protected static boolean confirmOverwrite(final File file, final Shell shell) {
+		if (file.exists()) {
+			final MessageBox msgBox = new MessageBox(shell, SWT.YES | SWT.NO | SWT.ICON_QUESTION);
+			msgBox.setMessage(
+					MessageFormat.format(Messages.AbstractFileManagementHandler_FileExists, file.getAbsolutePath()));
+			return SWT.YES == msgBox.open();
+		}
+		return true;
+	}
+
 	protected boolean writeToBootFile(final String fileName, final boolean overwriteWithouAsking, final Shell shell) {
 		return writeToAnyFile(fileName, stringBuffer.toString(), overwriteWithouAsking, shell);
 	}
@@ -100,12 +129,8 @@ public abstract class AbstractFileManagementHandler implements IDeviceManagement
 		final File bootFile = new File(fileName);
 		int res = SWT.YES;
 		if (bootFile.exists()) {
-			if (!overwriteWithouAsking) {
-				final MessageBox msgBox = new MessageBox(shell, SWT.YES | SWT.NO | SWT.ICON_QUESTION);
-				final String msg = MessageFormat.format(Messages.AbstractFileManagementHandler_FileExists,
-						bootFile.getAbsolutePath());
-				msgBox.setMessage(msg);
-				res = msgBox.open();
+			if (!overwriteWithouAsking && !confirmOverwrite(bootFile, shell)) {
+				res = SWT.NO;
 			}
 		} else {
 			try {
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.deployment;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.fordiac.ide.deployment.exceptions.DeploymentException;
+import org.eclipse.fordiac.ide.deployment.util.FileExportHelper;
+import org.eclipse.fordiac.ide.deployment.util.IDeploymentListener;
+import org.eclipse.fordiac.ide.model.libraryElement.Device;
+
+/**
+ * Creates boot files without any user interaction.
+ *
+ * The deployment commands are streamed through a buffered writer directly into
+ * the file channel of a new file instead of being collected in memory. The new
+ * file replaces the boot file only after it was written and closed completely.
+ * For the same model the generated files are byte-identical, also if several
+ * devices are written in parallel.
+ */
+public final class BootFileGenerator {
+
+	public static final String BOOT_FILE_ENDING = ".fboot"; //$NON-NLS-1$
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** File management handler writing the commands to the boot file writer */
+	private static final class BootFileHandler extends AbstractFileManagementHandler {
+		private BootFileHandler(final Writer writer) {
+			super(writer);
+		}
+	}
+
+	/** @return the name of the boot file created for the device */
+	public static String getFileName(final Device device) {
+		return device.getAutomationSystem().getName() + "_" + device.getName() + BOOT_FILE_ENDING; //$NON-NLS-1$
+	}
+
+	/**
+	 * Write the boot file for the given elements.
+	 *
+	 * An existing file is replaced once the new boot file is complete. If the
+	 * deployment fails the existing file is kept and no partial file is left
+	 * behind.
+	 *
+	 * @param selection the devices and resources to be contained in the boot file,
+	 *                  for devices the selected device parameters are written
+	 * @param file      the boot file
+	 * @throws IOException          if the file could not be written
+	 * @throws DeploymentException  if the deployment commands could not be created
+	 * @throws InterruptedException if the generation was interrupted
+	 */
+	public static void write(final List<?> selection, final Path file)
+			throws IOException, DeploymentException, InterruptedException {
+		write(selection, file, null, new NullProgressMonitor());
+	}
+
+	/**
+	 * Write the boot file for the given elements, see
+	 * {@link #write(List, Path)}.
+	 *
+	 * @param selection the devices and resources to be contained in the boot file
+	 * @param file      the boot file
+	 * @param listener  if not null it is informed about all written commands,
+	 *                  e.g., the output view
+	 * @param monitor   the progress monitor, canceling it stops the generation
+	 * @throws IOException          if the file could not be written
+	 * @throws DeploymentException  if the deployment commands could not be created
+	 * @throws InterruptedException if the generation was canceled or interrupted
+	 */
+	public static void write(final List<?> selection, final Path file, final IDeploymentListener listener,
+			final IProgressMonitor monitor) throws IOException, DeploymentException, InterruptedException {
+		FileExportHelper.replaceFile(file, newFile -> {
+			try (Writer writer = Channels.newWriter(
+					FileChannel.open(newFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+					StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE)) {
+				DeploymentCoordinator.INSTANCE.performHeadlessDeployment(selection.toArray(),
+						new BootFileHandler(writer), null, listener, monitor);
+			}
+		});
+	}
+
+	/**
+	 * Write the boot files of several devices in parallel.
+	 *
+	 * The model must not be modified while the boot files are written.
+	 *
+	 * @param workLoad  the devices with the elements (the device itself and/or its
+	 *                  resources) to be contained in their boot files
+	 * @param directory the directory the boot files are written to, it is created
+	 *                  if needed
+	 * @return the paths of the boot files in the order of the given devices
+	 * @throws IOException          if a file could not be written
+	 * @throws DeploymentException  if the deployment commands could not be created
+	 * @throws InterruptedException if the generation was interrupted
+	 */
+	public static List<Path> writeAll(final Map<Device, ? extends List<?>> workLoad, final Path directory)
+			throws IOException, DeploymentException, InterruptedException {
+		return writeAll(workLoad, directory, null, new NullProgressMonitor());
+	}
+
+	/**
+	 * Write the boot files of several devices in parallel.
+	 *
+	 * The model must not be modified while the boot files are written. One unit
+	 * of work is reported to the monitor for each device.
+	 *
+	 * @param workLoad  the devices with the elements (the device itself and/or its
+	 *                  resources) to be contained in their boot files
+	 * @param directory the directory the boot files are written to, it is created
+	 *                  if needed
+	 * @param listener  if not null it is informed about all written commands, it
+	 *                  has to be thread safe
+	 * @param monitor   the progress monitor, canceling it stops the generation
+	 * @return the paths of the boot files in the order of the given devices
+	 * @throws IOException          if a file could not be written
+	 * @throws DeploymentException  if the deployment commands could not be created
+	 * @throws InterruptedException if the generation was canceled or interrupted
+	 */
+	public static List<Path> writeAll(final Map<Device, ? extends List<?>> workLoad, final Path directory,
+			final IDeploymentListener listener, final IProgressMonitor monitor)
+			throws IOException, DeploymentException, InterruptedException {
+		if (workLoad.isEmpty()) {
+			return new ArrayList<>();
+		}
+		Files.createDirectories(directory);
+		final IProgressMonitor workerMonitor = FileExportHelper.getWorkerMonitor(monitor);
+		final ExecutorService executor = Executors
+				.newFixedThreadPool(Math.min(workLoad.size(), Runtime.getRuntime().availableProcessors()));
+		try {
+			final List<Future<Path>> results = new ArrayList<>(workLoad.size());
+			workLoad.forEach((device, selection) -> results.add(executor.submit(() -> {
+				final Path file = directory.resolve(getFileName(device));
+				write(selection, file, listener, workerMonitor);
+				return file;
+			})));
+			return FileExportHelper.getResults(results, monitor);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private BootFileGenerator() {
+		throw new UnsupportedOperationException("BootFileGenerator should not be instantiated"); //$NON-NLS-1$
+	}
+}
@@ -23,8 +23,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.fordiac.ide.deployment.data.DeviceDeploymentData;
 import org.eclipse.fordiac.ide.deployment.data.ResourceDeploymentData;
+import org.eclipse.fordiac.ide.deployment.exceptions.DeploymentException;
 import org.eclipse.fordiac.ide.deployment.interactors.IDeviceManagementInteractor;
 import org.eclipse.fordiac.ide.deployment.util.IDeploymentListener;
 import org.eclipse.fordiac.ide.model.libraryElement.Device;
@@ -84,20 +87,20 @@ public enum DeploymentCoordinator {
 		Display.getDefault().asyncExec(() -> {
 			final MessageBox messageBox = new MessageBox(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell(),
 					SWT.ICON_ERROR | SWT.OK);
-			final String resName = (null != res) ? res.getName() : ""; //$NON-NLS-1$
-
-			if (null != device.getProfile() && !device.getProfile().equals("")) { //$NON-NLS-1$
-				messageBox.setMessage(
-						MessageFormat.format(Messages.DeploymentCoordinator_MESSAGE_DefinedProfileNotSupported,
-								device.getProfile(), device.getName(), resName));
-			} else {
-				messageBox.setMessage(MessageFormat.format(Messages.DeploymentCoordinator_MESSAGE_ProfileNotSet,
-						device.getName(), resName));
-			}
+			messageBox.setMessage(getUnsupportedDeviceProfileMessage(device, res));
 			messageBox.open();
 		});
 	}
 
+	static String getUnsupportedDeviceProfileMessage(final Device device, final Resource res) {
+		final String resName = (null != res) ? res.getName() : ""; //$NON-NLS-1$
+		if (null != device.getProfile() && !device.getProfile().equals("")) { //$NON-NLS-1$
+			return MessageFormat.format(Messages.DeploymentCoordinator_MESSAGE_DefinedProfileNotSupported,
+					device.getProfile(), device.getName(), resName);
+		}
+		return MessageFormat.format(Messages.DeploymentCoordinator_MESSAGE_ProfileNotSet, device.getName(), resName);
+	}
+
 	/**
 	 * Perform deployment.
 	 *
@@ -108,10 +111,8 @@ public enum DeploymentCoordinator {
 	 */
 	public void performDeployment(final Object[] selection,
 			final IDeviceManagementCommunicationHandler overrideDevMgmCommHandler, final String profile) {
-		final IDeploymentListener outputView = (IDeploymentListener) PlatformUI.getWorkbench().getActiveWorkbenchWindow()
-				.getActivePage().findView(OUTPUT_VIEW_ID);
 		final DownloadRunnable download = new DownloadRunnable(createDeploymentdata(selection), overrideDevMgmCommHandler,
-				outputView, profile);
+				getOutputView(), profile);
 		final Shell shell = Display.getDefault().getActiveShell();
 		try {
 			new ProgressMonitorDialog(shell).run(true, true, download);
@@ -127,6 +128,64 @@ public enum DeploymentCoordinator {
 		performDeployment(selection, null, null);
 	}
 
+	/**
+	 * Perform the deployment in the calling thread without any user interaction.
+	 *
+	 * This allows to run a deployment into a file management handler (e.g., for
+	 * boot files or FMUs) from tests, build scripts, or worker threads. Existing
+	 * resources are replaced and the first error aborts the deployment.
+	 *
+	 * @param selection                 the selection
+	 * @param overrideDevMgmCommHandler if not null this device management
+	 *                                  communication should be used instead the one
+	 *                                  derived from the device profile.
+	 * @param profile                   if not null the profile to be used instead
+	 *                                  of the device's profile
+	 * @param monitor                   the progress monitor, may be null
+	 * @throws DeploymentException  if a device could not be deployed
+	 * @throws InterruptedException if the monitor was canceled
+	 */
+	public void performHeadlessDeployment(final Object[] selection,
+			final IDeviceManagementCommunicationHandler overrideDevMgmCommHandler, final String profile,
+			final IProgressMonitor monitor) throws DeploymentException, InterruptedException {
+		performHeadlessDeployment(selection, overrideDevMgmCommHandler, profile, null, monitor);
+	}
+
+	/**
+	 * Perform the deployment in the calling thread without any user interaction,
+	 * see {@link #performHeadlessDeployment(Object[],
+	 * IDeviceManagementCommunicationHandler, String, IProgressMonitor)}.
+	 *
+	 * @param listener if not null the listener is informed about all commands and
+	 *                 responses of the deployment, e.g., the output view
+	 */
+	public void performHeadlessDeployment(final Object[] selection,
+			final IDeviceManagementCommunicationHandler overrideDevMgmCommHandler, final String profile,
+			final IDeploymentListener listener, final IProgressMonitor monitor)
+			throws DeploymentException, InterruptedException {
+		final DownloadRunnable download = new DownloadRunnable(createDeploymentdata(selection), overrideDevMgmCommHandler,
+				listener, profile, true);
+		try {
+			download.run((null != monitor) ? monitor : new NullProgressMonitor());
+		} catch (final InvocationTargetException ex) {
+			if (ex.getCause() instanceof DeploymentException) {
+				throw (DeploymentException) ex.getCause();
+			}
+			throw new DeploymentException(Messages.DeploymentCoordinator_DepoymentError, ex.getCause());
+		}
+	}
+
+	/**
+	 * Get the output view of the active workbench page, has to be called from the
+	 * UI thread.
+	 *
+	 * @return the output view, null if it is not open
+	 */
+	public static IDeploymentListener getOutputView() {
+		return (IDeploymentListener) PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage()
+				.findView(OUTPUT_VIEW_ID);
+	}
+
 	/**
 	 * Enable output.
 	 *
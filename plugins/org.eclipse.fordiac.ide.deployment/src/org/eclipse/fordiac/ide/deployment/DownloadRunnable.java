@@ -56,6 +56,7 @@ class DownloadRunnable implements IRunnableWithProgress, IDeploymentListener {
 	private final IDeviceManagementCommunicationHandler overrideDevMgmCommHandler;
 	private final IDeploymentListener outputView;
 	private final String profile;
+	private final boolean headless;
 	private IProgressMonitor curMonitor;
 	private boolean errorOccured = false;
 
@@ -87,10 +88,35 @@ class DownloadRunnable implements IRunnableWithProgress, IDeploymentListener {
 	public DownloadRunnable(final List<DeviceDeploymentData> deploymentData,
 			final IDeviceManagementCommunicationHandler overrideDevMgmCommHandler, final IDeploymentListener outputView,
 			final String profile) {
+		this(deploymentData, overrideDevMgmCommHandler, outputView, profile, false);
+	}
+
+	/**
+	 * DownloadRunnable constructor.
+	 *
+	 * @param deploymentData            the collection of elements to deploy
+	 * @param overrideDevMgmCommHandler if not null this device management
+	 *                                  communication should be used instead the one
+	 *                                  derived from the device profile.
+	 * @param outputView                the view showing the download information
+	 * @param profile                   if not null the profile to be used instead
+	 *                                  of the device's profile
+	 * @param headless                  if true the user is never asked or informed
+	 *                                  via dialogs: existing resources are replaced,
+	 *                                  the monitoring state is left untouched, and
+	 *                                  any error aborts the download with an
+	 *                                  {@link InvocationTargetException} wrapping a
+	 *                                  {@link DeploymentException}
+	 */
+	public DownloadRunnable(final List<DeviceDeploymentData> deploymentData,
+			final IDeviceManagementCommunicationHandler overrideDevMgmCommHandler, final IDeploymentListener outputView,
+			final String profile, final boolean headless) {
 		this.deploymentData = deploymentData;
 		this.overrideDevMgmCommHandler = overrideDevMgmCommHandler;
 		this.outputView = outputView;
 		this.profile = profile;
+		this.headless = headless;
+		this.overrideAll = headless;
 	}
 
 	/**
@@ -114,6 +140,10 @@ class DownloadRunnable implements IRunnableWithProgress, IDeploymentListener {
 		}
 		reenableMonitoring();
 		if (errorOccured) {
+			if (headless) {
+				throw new InvocationTargetException(
+						new DeploymentException(Messages.DownloadRunnable_DeploymentErrorWarningMessage));
+			}
 			showDeploymenErrorDialog();
 		}
 		monitor.done();
@@ -130,11 +160,17 @@ class DownloadRunnable implements IRunnableWithProgress, IDeploymentListener {
 				deployResources(devData, executor);
 				deployDeviceData(devData, executor);
 			} catch (final DeploymentException e) {
+				if (headless) {
+					throw new InvocationTargetException(e);
+				}
 				showDeploymentErrorDialog(devData.getDevice(), e);
 			} finally {
 				removeDeploymentListener(executor);
 			}
 
+		} else if (headless) {
+			throw new InvocationTargetException(new DeploymentException(
+					DeploymentCoordinator.getUnsupportedDeviceProfileMessage(devData.getDevice(), null)));
 		} else {
 			DeploymentCoordinator.printUnsupportedDeviceProfileMessageBox(devData.getDevice(), null);
 		}
@@ -314,7 +350,7 @@ class DownloadRunnable implements IRunnableWithProgress, IDeploymentListener {
 
 	private void checkMonitoring(final AutomationSystem automationSystem)
 			throws InvocationTargetException, InterruptedException {
-		if (!monitoredSystems.contains(automationSystem)) {
+		if (!headless && !monitoredSystems.contains(automationSystem)) {
 			final AbstractMonitoringManager monitoringManager = AbstractMonitoringManager.getMonitoringManager();
 			if (monitoringManager.isSystemMonitored(automationSystem)) {
 				monitoringManager.disableSystemSynch(automationSystem, curMonitor);
@@ -74,7 +74,7 @@ public enum DeviceManagementInteractorFactory {
 				.collect(Collectors.toList());
 	}
 
-	private List<IDeviceManagementInteractorProvider> getDeviceManagementInteractorList() {
+	private synchronized List<IDeviceManagementInteractorProvider> getDeviceManagementInteractorList() {
 		if (null == deviceManagementInteractorProviders) {
 			deviceManagementInteractorProviders = loadDeviceManagmentInteractors();
 		}
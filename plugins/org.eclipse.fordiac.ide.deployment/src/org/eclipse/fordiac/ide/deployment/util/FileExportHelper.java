@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.deployment.util;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.fordiac.ide.deployment.exceptions.DeploymentException;
+
+/** Helpers for the headless creation of files from deployment commands, e.g., boot files or FMUs. */
+public final class FileExportHelper {
+
+	private static final String TEMP_FILE_ENDING = ".tmp"; //$NON-NLS-1$
+	/* the interval in which the cancellation of the monitor is checked while waiting for an export */
+	private static final long CANCEL_CHECK_INTERVAL = 100; // ms
+
+	/** Writes the content of a file */
+	@FunctionalInterface
+	public interface ContentWriter {
+		/**
+		 * @param file the file to create and write, it does not exist yet
+		 */
+		void write(Path file) throws IOException, DeploymentException, InterruptedException;
+	}
+
+	/**
+	 * Replace a file only after its new content has been written completely.
+	 *
+	 * The content is written to a new file next to the target, so that it is
+	 * created with the default permissions and on the same file system. Only
+	 * after the writer returned the new file is moved over the target. If the
+	 * writer fails the target is left untouched and the new file is removed.
+	 *
+	 * @param target  the file to create or replace
+	 * @param content the writer of the new content
+	 * @throws IOException          if the file could not be written or moved
+	 * @throws DeploymentException  if the writer failed to create the content
+	 * @throws InterruptedException if the writer was interrupted
+	 */
+	public static void replaceFile(final Path target, final ContentWriter content)
+			throws IOException, DeploymentException, InterruptedException {
+		final Path temp = target
+				.resolveSibling("." + target.getFileName() + "." + UUID.randomUUID() + TEMP_FILE_ENDING); //$NON-NLS-1$ //$NON-NLS-2$
+		boolean moved = false;
+		try {
+			content.write(temp);
+			try {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			moved = true;
+		} finally {
+			if (!moved) {
+				Files.deleteIfExists(temp);
+			}
+		}
+	}
+
+	/**
+	 * Wait for the results of file exports running in other threads.
+	 *
+	 * One unit of work is reported for each finished export. Canceling the monitor
+	 * aborts the waiting, the caller is responsible for stopping the exports.
+	 *
+	 * @param results the running exports
+	 * @param monitor the progress monitor of the waiting thread
+	 * @return the results of the exports in the order of the given exports
+	 * @throws IOException          if an export failed to write its file
+	 * @throws DeploymentException  if an export failed to create the deployment
+	 *                              commands
+	 * @throws InterruptedException if the monitor was canceled, or an export or
+	 *                              the waiting thread was interrupted
+	 */
+	public static <T> List<T> getResults(final List<Future<T>> results, final IProgressMonitor monitor)
+			throws IOException, DeploymentException, InterruptedException {
+		final List<T> values = new ArrayList<>(results.size());
+		for (final Future<T> result : results) {
+			values.add(getResult(result, monitor));
+			monitor.worked(1);
+		}
+		return values;
+	}
+
+	/**
+	 * @return a monitor for the threads of an export which only forwards the
+	 *         cancellation of the given monitor, progress monitors can not be
+	 *         shared between threads
+	 */
+	public static IProgressMonitor getWorkerMonitor(final IProgressMonitor monitor) {
+		return new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return monitor.isCanceled();
+			}
+		};
+	}
+
+	private static <T> T getResult(final Future<T> result, final IProgressMonitor monitor)
+			throws IOException, DeploymentException, InterruptedException {
+		while (true) {
+			try {
+				return result.get(CANCEL_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+			} catch (final TimeoutException e) {
+				if (monitor.isCanceled()) {
+					throw new InterruptedException();
+				}
+			} catch (final ExecutionException e) {
+				final Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				if (cause instanceof DeploymentException) {
+					throw (DeploymentException) cause;
+				}
+				if (cause instanceof InterruptedException) {
+					throw (InterruptedException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new IllegalStateException(cause);
+			}
+		}
+	}
+
+	private FileExportHelper() {
+		throw new UnsupportedOperationException("FileExportHelper utility class should not be instantiated!"); //$NON-NLS-1$
+	}
+}
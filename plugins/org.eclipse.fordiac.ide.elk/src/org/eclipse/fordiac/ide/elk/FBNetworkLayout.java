@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.elk;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.core.RecursiveGraphLayoutEngine;
+import org.eclipse.elk.core.data.LayoutMetaDataService;
+import org.eclipse.elk.core.options.CoreOptions;
+import org.eclipse.elk.core.options.PortConstraints;
+import org.eclipse.elk.core.options.PortSide;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.eclipse.elk.graph.ElkEdge;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.ElkPort;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.fordiac.ide.elk.commands.LayoutCommand;
+import org.eclipse.fordiac.ide.model.libraryElement.Connection;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.fordiac.ide.model.libraryElement.FBType;
+import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
+import org.eclipse.fordiac.ide.model.libraryElement.InterfaceList;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.Position;
+import org.eclipse.fordiac.ide.model.libraryElement.SubApp;
+
+/**
+ * Automatic layout of an FB network without an editor.
+ *
+ * In contrast to the {@link FordiacLayoutConnector} the layout graph is built
+ * from the model and not from the edit parts. The sizes of the blocks and the
+ * positions of their pins are estimated from the interface lists, so that large
+ * networks can be laid out without creating any figures. The contents of
+ * unfolded subapps are laid out together with the network.
+ *
+ * The result is a {@link LayoutCommand}, which is either executed on the
+ * command stack of an editor or directly for headless use.
+ */
+public final class FBNetworkLayout {
+
+	/* estimated dimensions of the block figures */
+	static final int LINE_HEIGHT = 16;
+	static final int CHAR_WIDTH = 7;
+	static final int MIN_WIDTH = 60;
+	/* horizontal space between the input and output pin names and at the borders */
+	static final int PIN_SPACING = 20;
+	/* lines of the middle part of a block showing the type name */
+	static final int TYPE_LINES = 2;
+
+	private static final int INSTANCE_COMMENT_OFFSET = 8;
+
+	private final FBNetwork network;
+	private final ElkNode graph = FordiacLayoutFactory.createFordiacLayoutGraph();
+
+	/* used for building the elk graph */
+	private final Map<ElkNode, FBNetworkElement> elements = new HashMap<>();
+	private final Map<IInterfaceElement, ElkPort> ports = new HashMap<>();
+	private final Map<ElkEdge, Connection> edges = new HashMap<>();
+	private InterfaceList editorInterface;
+
+	/* used for applying the layout */
+	private final Map<FBNetworkElement, Position> positions = new HashMap<>();
+	private final Map<Connection, PointList> connPoints = new HashMap<>();
+
+	private FBNetworkLayout(final FBNetwork network) {
+		this.network = network;
+	}
+
+	/** Lay out a network and its unfolded subapps.
+	 *
+	 * @param network the network to be laid out
+	 * @return the command moving the network elements and routing the connections, the network is not changed until
+	 *         the command is executed */
+	public static LayoutCommand createLayoutCommand(final FBNetwork network) {
+		final FBNetworkLayout layout = new FBNetworkLayout(network);
+		layout.buildLayoutGraph();
+		layout.layout();
+		return layout.createCommand();
+	}
+
+	/** @return the estimated size of a network element's block including its instance name */
+	static Dimension estimateSize(final FBNetworkElement element) {
+		final InterfaceList interfaceList = element.getInterface();
+		final int events = Math.max(interfaceList.getEventInputs().size(), interfaceList.getEventOutputs().size());
+		final int data = Math.max(countDataInputs(interfaceList), countDataOutputs(interfaceList));
+		final int height = (1 + events + TYPE_LINES + data) * LINE_HEIGHT;
+
+		final int pinChars = maxNameLength(interfaceList, true) + maxNameLength(interfaceList, false);
+		final int typeChars = (null != element.getTypeName()) ? element.getTypeName().length() : 0;
+		final int nameChars = (null != element.getName()) ? element.getName().length() : 0;
+		final int width = Math.max(pinChars * CHAR_WIDTH + 2 * PIN_SPACING,
+				Math.max(typeChars, nameChars) * CHAR_WIDTH + PIN_SPACING);
+		return new Dimension(Math.max(MIN_WIDTH, width), height);
+	}
+
+	private static int countDataInputs(final InterfaceList interfaceList) {
+		return interfaceList.getInputVars().size() + interfaceList.getSockets().size();
+	}
+
+	private static int countDataOutputs(final InterfaceList interfaceList) {
+		return interfaceList.getOutputVars().size() + interfaceList.getPlugs().size();
+	}
+
+	private static int maxNameLength(final InterfaceList interfaceList, final boolean input) {
+		int max = 0;
+		for (final IInterfaceElement ie : interfaceList.getAllInterfaceElements()) {
+			if ((ie.isIsInput() == input) && (null != ie.getName())) {
+				max = Math.max(max, ie.getName().length());
+			}
+		}
+		return max;
+	}
+
+	private void buildLayoutGraph() {
+		editorInterface = getEditorInterface(network);
+		if (null != editorInterface) {
+			/* add all editor interfaces to the elk graph to ensure the right order in the sidebar */
+			editorInterface.getAllInterfaceElements().forEach(ie -> ports.put(ie,
+					FordiacLayoutFactory.createFordiacLayoutPort(ie, graph, LINE_HEIGHT)));
+		}
+		final List<Connection> connections = new ArrayList<>();
+		buildGraphRecursively(graph, network, connections);
+		connections.forEach(this::createEdge);
+	}
+
+	private static InterfaceList getEditorInterface(final FBNetwork network) {
+		final EObject container = network.eContainer();
+		if (container instanceof FBType) {
+			return ((FBType) container).getInterfaceList();
+		}
+		if (container instanceof SubApp) {
+			return ((SubApp) container).getInterface();
+		}
+		return null;
+	}
+
+	private void buildGraphRecursively(final ElkNode parent, final FBNetwork fbNetwork,
+			final List<Connection> connections) {
+		for (final FBNetworkElement element : fbNetwork.getNetworkElements()) {
+			final ElkNode node = FordiacLayoutFactory.createFordiacLayoutNode(element, parent);
+			elements.put(node, element);
+			if (isUnfoldedSubApp(element)) {
+				createUnfoldedSubAppPorts(node, element.getInterface());
+				buildGraphRecursively(node, ((SubApp) element).getSubAppNetwork(), connections);
+			} else {
+				final Dimension size = estimateSize(element);
+				node.setDimensions(size.width, size.height);
+				createPorts(node, element.getInterface(), size.width);
+			}
+		}
+		connections.addAll(fbNetwork.getEventConnections());
+		connections.addAll(fbNetwork.getDataConnections());
+		connections.addAll(fbNetwork.getAdapterConnections());
+	}
+
+	private static boolean isUnfoldedSubApp(final FBNetworkElement element) {
+		return (element instanceof SubApp) && ((SubApp) element).isUnfolded()
+				&& (null != ((SubApp) element).getSubAppNetwork());
+	}
+
+	/* the pins are placed as in the block figures: the events above the type name, the data and adapters below */
+	private void createPorts(final ElkNode node, final InterfaceList interfaceList, final int width) {
+		createPorts(node, interfaceList.getEventInputs(), 0, 1);
+		createPorts(node, interfaceList.getEventOutputs(), width, 1);
+		final int dataStart = 1 + Math.max(interfaceList.getEventInputs().size(),
+				interfaceList.getEventOutputs().size()) + TYPE_LINES;
+		createPorts(node, interfaceList.getInputVars(), 0, dataStart);
+		createPorts(node, interfaceList.getSockets(), 0, dataStart + interfaceList.getInputVars().size());
+		createPorts(node, interfaceList.getOutputVars(), width, dataStart);
+		createPorts(node, interfaceList.getPlugs(), width, dataStart + interfaceList.getOutputVars().size());
+	}
+
+	private void createPorts(final ElkNode node, final List<? extends IInterfaceElement> pins, final int x,
+			final int firstLine) {
+		for (int i = 0; i < pins.size(); i++) {
+			/* "FIXED_POS" port constraint, the port is at the connection anchor in the middle of the pin */
+			final ElkPort port = ElkGraphUtil.createPort(node);
+			port.setDimensions(1, 1);
+			port.setLocation(x, ((firstLine + i) * LINE_HEIGHT) + (LINE_HEIGHT / 2));
+			ports.put(pins.get(i), port);
+		}
+	}
+
+	/* the size of an unfolded subapp follows from its content, only the sides of the pins are known */
+	private void createUnfoldedSubAppPorts(final ElkNode node, final InterfaceList interfaceList) {
+		node.setProperty(CoreOptions.PORT_CONSTRAINTS, PortConstraints.FIXED_SIDE);
+		interfaceList.getAllInterfaceElements().forEach(ie -> {
+			final ElkPort port = ElkGraphUtil.createPort(node);
+			port.setDimensions(1, LINE_HEIGHT);
+			port.setProperty(CoreOptions.PORT_SIDE, ie.isIsInput() ? PortSide.WEST : PortSide.EAST);
+			ports.put(ie, port);
+		});
+	}
+
+	private void createEdge(final Connection connection) {
+		final ElkPort source = ports.get(connection.getSource());
+		final ElkPort destination = ports.get(connection.getDestination());
+		if ((null != source) && (null != destination)) {
+			edges.put(ElkGraphUtil.createSimpleEdge(source, destination), connection);
+		}
+	}
+
+	private void layout() {
+		ensureLayeredAlgorithm();
+		new RecursiveGraphLayoutEngine().layout(graph, new BasicProgressMonitor());
+	}
+
+	/* without the workbench the layout algorithms are not registered from the extension point */
+	private static synchronized void ensureLayeredAlgorithm() {
+		final LayoutMetaDataService service = LayoutMetaDataService.getInstance();
+		if (null == service.getAlgorithmData(LayeredOptions.ALGORITHM_ID)) {
+			service.registerLayoutMetaDataProviders(new LayeredOptions());
+		}
+	}
+
+	private LayoutCommand createCommand() {
+		calculateNodePositionsRecursively(graph, 0, INSTANCE_COMMENT_OFFSET);
+		return new LayoutCommand(positions, connPoints, createPinOffsetData());
+	}
+
+	private void calculateNodePositionsRecursively(final ElkNode node, final double parentX, final double parentY) {
+		final int calculatedX = (int) (node.getX() + parentX);
+		final int calculatedY = (int) (node.getY() + parentY);
+		final FBNetworkElement element = elements.get(node);
+		if (null != element) { // the FBNetwork does not need a new position
+			final Position pos = LibraryElementFactory.eINSTANCE.createPosition();
+			pos.setX(calculatedX);
+			pos.setY(calculatedY);
+			positions.put(element, pos);
+		}
+		for (final ElkEdge edge : node.getContainedEdges()) {
+			if (!edge.getSections().isEmpty()) {
+				connPoints.put(edges.get(edge),
+						FordiacLayoutConnector.createPointList(node, (ElkPort) edge.getSources().get(0),
+								(ElkPort) edge.getTargets().get(0), edge.getSections().get(0).getBendPoints(),
+								calculatedX, calculatedY));
+			}
+		}
+		node.getChildren().forEach(child -> calculateNodePositionsRecursively(child, calculatedX, calculatedY));
+	}
+
+	private Map<IInterfaceElement, Integer> createPinOffsetData() {
+		final Map<IInterfaceElement, Integer> pins = new HashMap<>();
+		if (null != editorInterface) {
+			final List<IInterfaceElement> allIEs = editorInterface.getAllInterfaceElements();
+			for (int index = 0; index < allIEs.size(); index++) {
+				final IInterfaceElement pin = allIEs.get(index);
+				final ElkPort port = ports.get(pin);
+				int padding = (int) port.getY();
+				if ((index > 0) && (pin.isIsInput() == allIEs.get(index - 1).isIsInput())) {
+					padding -= (int) ports.get(allIEs.get(index - 1)).getY() + port.getHeight();
+				}
+				/* see FordiacLayoutConnector for the additional padding of the first input var */
+				if (!editorInterface.getInputVars().isEmpty() && pin.equals(editorInterface.getInputVars().get(0))) {
+					padding += 8;
+				}
+				pins.put(pin, Integer.valueOf(padding));
+			}
+		}
+		return pins;
+	}
+}
@@ -301,7 +301,7 @@ public class FordiacLayoutConnector implements IDiagramLayoutConnector {
 		node.getChildren().forEach(child -> calculateNodePositionsRecursively(mapping, child, calculatedX, calculatedY));
 	}
 
-	private static PointList createPointList(final ElkNode node, final ElkPort startPort, final ElkPort endPort,
+	static PointList createPointList(final ElkNode node, final ElkPort startPort, final ElkPort endPort,
 			final List<ElkBendPoint> bendPoints, final int calculatedX, final int calculatedY) {
 		final PointList list = new PointList();
 		if (startPort.getParent() == node) {
@@ -37,7 +37,12 @@ import org.eclipse.fordiac.ide.application.editparts.ConnectionEditPart;
 import org.eclipse.fordiac.ide.application.editparts.EditorWithInterfaceEditPart;
 import org.eclipse.fordiac.ide.application.editparts.SubAppForFBNetworkEditPart;
 import org.eclipse.fordiac.ide.gef.editparts.InterfaceEditPart;
+import org.eclipse.fordiac.ide.model.libraryElement.AdapterDeclaration;
+import org.eclipse.fordiac.ide.model.libraryElement.Event;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
 import org.eclipse.fordiac.ide.model.libraryElement.InterfaceList;
+import org.eclipse.fordiac.ide.model.libraryElement.SubApp;
 
 public class FordiacLayoutFactory {
 
@@ -66,6 +71,19 @@ public class FordiacLayoutFactory {
 		return node;
 	}
 
+	public static ElkNode createFordiacLayoutNode(final FBNetworkElement element, final ElkNode parent) {
+		final ElkNode node = ElkGraphUtil.createNode(parent);
+		configureNode(node);
+		if (element instanceof SubApp) {
+			if (((SubApp) element).isUnfolded()) {
+				configureUnfoldedSubapp(node);
+			} else {
+				configureSubapp(node);
+			}
+		}
+		return node;
+	}
+
 	public static ElkEdge createFordiacLayoutEdge(final ConnectionEditPart editPart, final ElkNode parent, final ElkConnectableShape source, final ElkConnectableShape target) {
 		return ElkGraphUtil.createSimpleEdge(source, target);
 	}
@@ -84,6 +102,20 @@ public class FordiacLayoutFactory {
 		return port;
 	}
 
+	/** creates a port for an interface element of the editor's sidebar
+	 *
+	 * @param ie     interface element of the type or subapp shown in the editor
+	 * @param graph  the root of the layout graph
+	 * @param height height of the interface element */
+	public static ElkPort createFordiacLayoutPort(final IInterfaceElement ie, final ElkNode graph, final double height) {
+		final ElkPort port = ElkGraphUtil.createPort(graph);
+		port.setDimensions(1, height);
+		/* "FIXED_ORDER" port constraint, inputs are shown on the left side */
+		port.setProperty(CoreOptions.PORT_SIDE, ie.isIsInput() ? PortSide.WEST : PortSide.EAST);
+		port.setProperty(CoreOptions.PORT_INDEX, Integer.valueOf(getLayoutInterfaceIndex(ie)));
+		return port;
+	}
+
 	private static void configureGraph(final ElkNode graph) {
 		graph.setProperty(CoreOptions.ALGORITHM, "org.eclipse.elk.layered") //$NON-NLS-1$
 		.setProperty(CoreOptions.EDGE_ROUTING, EdgeRouting.ORTHOGONAL)
@@ -131,34 +163,41 @@ public class FordiacLayoutFactory {
 	 * @return index of the InterfaceElement in the editors sidebar, goes clockwise starting at the top right interface
 	 *         element */
 	public static int getLayoutInterfaceIndex(final InterfaceEditPart ep) {
-		final InterfaceList ifList = (InterfaceList) ep.getModel().eContainer();
+		// use the model's isInput, InterfaceEditPart.isInput treats inputs as outputs for visual appearance
+		return getLayoutInterfaceIndex(ep.getModel());
+	}
+
+	/** @param ie InterfaceElement of the type or subapp shown in the editor
+	 * @return index of the InterfaceElement in the editors sidebar, goes clockwise starting at the top right interface
+	 *         element */
+	public static int getLayoutInterfaceIndex(final IInterfaceElement ie) {
+		final InterfaceList ifList = (InterfaceList) ie.eContainer();
 		int index = 0;
-		if (ep.getModel().isIsInput()) { // use model isInput! because EditPart.isInput treats inputs as
-			// outputs for visual appearance
+		if (ie.isIsInput()) {
 			final int rightSideIndices = ifList.getEventOutputs().size() + ifList.getOutputVars().size()
 					+ ifList.getPlugs().size();
-			if (ep.isEvent()) {
-				index = ifList.getEventInputs().size() - ifList.getEventInputs().indexOf(ep.getModel()) - 1;
+			if (ie instanceof Event) {
+				index = ifList.getEventInputs().size() - ifList.getEventInputs().indexOf(ie) - 1;
 				index += ifList.getInputVars().size();
 				index += ifList.getSockets().size();
 				index += rightSideIndices;
-			} else if (ep.isAdapter()) {
-				index = ifList.getSockets().size() - ifList.getSockets().indexOf(ep.getModel()) - 1;
+			} else if (ie instanceof AdapterDeclaration) {
+				index = ifList.getSockets().size() - ifList.getSockets().indexOf(ie) - 1;
 				index += rightSideIndices;
 			} else {
-				index = ifList.getInputVars().size() - ifList.getInputVars().indexOf(ep.getModel()) - 1;
+				index = ifList.getInputVars().size() - ifList.getInputVars().indexOf(ie) - 1;
 				index += ifList.getSockets().size();
 				index += rightSideIndices;
 			}
 		} else {
-			if (ep.isEvent()) {
-				index = ifList.getEventOutputs().indexOf(ep.getModel());
-			} else if (ep.isAdapter()) {
-				index = ifList.getPlugs().indexOf(ep.getModel());
+			if (ie instanceof Event) {
+				index = ifList.getEventOutputs().indexOf(ie);
+			} else if (ie instanceof AdapterDeclaration) {
+				index = ifList.getPlugs().indexOf(ie);
 				index += ifList.getEventOutputs().size();
 				index += ifList.getOutputVars().size();
 			} else {
-				index = ifList.getOutputVars().indexOf(ep.getModel());
+				index = ifList.getOutputVars().indexOf(ie);
 				index += ifList.getEventOutputs().size();
 			}
 		}
@@ -0,0 +1,314 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.export.forte_lua;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.fordiac.ide.model.Palette.PaletteEntry;
+import org.eclipse.fordiac.ide.model.dataexport.AbstractTypeExporter;
+import org.eclipse.fordiac.ide.model.libraryElement.AdapterDeclaration;
+import org.eclipse.fordiac.ide.model.libraryElement.CompositeFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.fordiac.ide.model.libraryElement.FBType;
+import org.eclipse.fordiac.ide.model.libraryElement.InterfaceList;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElement;
+import org.eclipse.fordiac.ide.ui.Abstract4DIACUIPlugin;
+
+/**
+ * Keeps the generated Lua sources of types.
+ *
+ * A source is identified by the kind, name, and file of its type and by a hash
+ * over the version of the generator, the type, and all types it depends on
+ * directly or indirectly, i.e., the adapters of its interface and, for
+ * composite FB types, the types in its network together with their own
+ * dependencies. The types are hashed as they are in memory, serialized like
+ * their type files, so changes not saved yet in an editor generate a new source
+ * just like they change the generated code. As long as none of these changes
+ * the source is generated only once, no matter how many devices it is deployed
+ * to. Optionally the sources are also written to a directory so that they
+ * survive the session and are not reused by another generator version.
+ *
+ * Types which are not backed by a type file are generated on every request.
+ * Sources of types whose type file was deleted are dropped with the next
+ * generated source. Sources are generated outside of the map, so that the
+ * generation of one type never blocks the requests for others.
+ */
+public class LuaTypeCache {
+
+	/** system property with the directory in which the sources are kept across sessions */
+	public static final String PERSISTENCE_PATH_PROPERTY = "4diac.lua.cache.path"; //$NON-NLS-1$
+
+	private static final String LUA_FILE_EXTENSION = ".lua"; //$NON-NLS-1$
+	private static final String DIGEST_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
+	private static LuaTypeCache instance;
+
+	private static final class CachedLua {
+		private final IFile file;
+		private final String hash;
+		private final String lua;
+
+		private CachedLua(final IFile file, final String hash, final String lua) {
+			this.file = file;
+			this.hash = hash;
+			this.lua = lua;
+		}
+	}
+
+	private final Function<LibraryElement, String> generator;
+	private final String generatorVersion;
+	private final Path persistenceDirectory;
+	private final Map<String, CachedLua> sources = new ConcurrentHashMap<>();
+
+	/**
+	 * @return the cache shared by all deployments, it keeps the sources in the
+	 *         directory given by {@link #PERSISTENCE_PATH_PROPERTY} if the property
+	 *         is set
+	 */
+	public static synchronized LuaTypeCache getInstance() {
+		if (null == instance) {
+			final String path = System.getProperty(PERSISTENCE_PATH_PROPERTY);
+			instance = new LuaTypeCache(type -> new ForteLuaExportFilter().createLUA(type),
+					((null != path) && !path.isEmpty()) ? Paths.get(path) : null);
+		}
+		return instance;
+	}
+
+	/**
+	 * @param generator            creates the Lua source of a type, its version is
+	 *                             the version of this bundle
+	 * @param persistenceDirectory the directory in which the sources are kept
+	 *                             across sessions, null to keep them in memory only
+	 */
+	public LuaTypeCache(final Function<LibraryElement, String> generator, final Path persistenceDirectory) {
+		this(generator, getBundleVersion(), persistenceDirectory);
+	}
+
+	/**
+	 * @param generator            creates the Lua source of a type
+	 * @param generatorVersion     the version of the generator, sources of other
+	 *                             versions are not reused
+	 * @param persistenceDirectory the directory in which the sources are kept
+	 *                             across sessions, null to keep them in memory only
+	 */
+	public LuaTypeCache(final Function<LibraryElement, String> generator, final String generatorVersion,
+			final Path persistenceDirectory) {
+		this.generator = generator;
+		this.generatorVersion = generatorVersion;
+		this.persistenceDirectory = persistenceDirectory;
+	}
+
+	private static String getBundleVersion() {
+		final Abstract4DIACUIPlugin activator = Activator.getDefault();
+		return (null != activator) ? activator.getBundle().getVersion().toString() : ""; //$NON-NLS-1$
+	}
+
+	/**
+	 * @param type a basic FB, composite FB, or adapter type
+	 * @return the Lua source of the type, generated only if the type or one of its
+	 *         dependencies changed since the last request
+	 */
+	public String getLua(final LibraryElement type) {
+		final String hash = computeHash(type);
+		if (null == hash) {
+			return generator.apply(type);
+		}
+		final String identity = getIdentity(type);
+		CachedLua current = sources.get(identity);
+		if ((null != current) && current.hash.equals(hash)) {
+			return current.lua;
+		}
+		String lua = loadPersisted(hash);
+		if (null == lua) {
+			lua = generator.apply(type);
+			persist(hash, lua);
+		}
+		evictDeletedTypes();
+		final CachedLua created = new CachedLua(type.getPaletteEntry().getFile(), hash, lua);
+		while (true) {
+			if (null == current) {
+				current = sources.putIfAbsent(identity, created);
+				if (null == current) {
+					return lua;
+				}
+			} else if (current.hash.equals(hash)) {
+				// another request generated the same source in the meantime
+				return current.lua;
+			} else if (sources.replace(identity, current, created)) {
+				deletePersisted(current.hash);
+				return lua;
+			} else {
+				current = sources.get(identity);
+			}
+		}
+	}
+
+	/** forget all sources kept in memory, persisted sources are kept */
+	public void clear() {
+		sources.clear();
+	}
+
+	/* the sources of deleted types would never be requested again */
+	private void evictDeletedTypes() {
+		sources.forEach((identity, cached) -> {
+			if (!cached.file.exists() && sources.remove(identity, cached)) {
+				deletePersisted(cached.hash);
+			}
+		});
+	}
+
+	/* types of the same name in different projects have different files */
+	private static String getIdentity(final LibraryElement type) {
+		final PaletteEntry entry = type.getPaletteEntry();
+		final IFile file = (null != entry) ? entry.getFile() : null;
+		return type.eClass().getName() + ':' + type.getName() + ':'
+				+ ((null != file) ? file.getFullPath().toString() : ""); //$NON-NLS-1$
+	}
+
+	/* null if the type or one of its dependencies has no type file or cannot be serialized */
+	private String computeHash(final LibraryElement type) {
+		final MessageDigest hash = createDigest();
+		hash.update(generatorVersion.getBytes(StandardCharsets.UTF_8));
+		hash.update((byte) 0);
+		hash.update(getIdentity(type).getBytes(StandardCharsets.UTF_8));
+		if (!addType(hash, type.getPaletteEntry(), type)) {
+			return null;
+		}
+		for (final PaletteEntry dependency : getDependencies(type)) {
+			if ((null == dependency) || !addType(hash, dependency, dependency.getType())) {
+				return null;
+			}
+		}
+		return toHex(hash.digest());
+	}
+
+	/* the dependencies of the type and of all types it depends on, each entry once */
+	private static Set<PaletteEntry> getDependencies(final LibraryElement type) {
+		final Set<PaletteEntry> dependencies = new LinkedHashSet<>();
+		addDependencies(type, dependencies);
+		return dependencies;
+	}
+
+	private static void addDependencies(final LibraryElement type, final Set<PaletteEntry> dependencies) {
+		for (final PaletteEntry dependency : getDirectDependencies(type)) {
+			// the set is also the visited set, types in a cycle are only followed once
+			if (dependencies.add(dependency) && (null != dependency) && (null != dependency.getType())) {
+				addDependencies(dependency.getType(), dependencies);
+			}
+		}
+	}
+
+	private static Set<PaletteEntry> getDirectDependencies(final LibraryElement type) {
+		final Set<PaletteEntry> dependencies = new LinkedHashSet<>();
+		if (type instanceof FBType) {
+			final InterfaceList interfaceList = ((FBType) type).getInterfaceList();
+			if (null != interfaceList) {
+				for (final AdapterDeclaration adapter : interfaceList.getPlugs()) {
+					dependencies.add(adapter.getPaletteEntry());
+				}
+				for (final AdapterDeclaration adapter : interfaceList.getSockets()) {
+					dependencies.add(adapter.getPaletteEntry());
+				}
+			}
+		}
+		if ((type instanceof CompositeFBType) && (null != ((CompositeFBType) type).getFBNetwork())) {
+			for (final FBNetworkElement element : ((CompositeFBType) type).getFBNetwork().getNetworkElements()) {
+				dependencies.add(element.getPaletteEntry());
+			}
+		}
+		return dependencies;
+	}
+
+	private static boolean addType(final MessageDigest hash, final PaletteEntry entry, final LibraryElement type) {
+		final IFile file = (null != entry) ? entry.getFile() : null;
+		if ((null == file) || !file.exists() || (null == type)) {
+			return false;
+		}
+		hash.update((byte) 0);
+		hash.update(file.getFullPath().toString().getBytes(StandardCharsets.UTF_8));
+		hash.update((byte) 0);
+		// the serialized type is streamed into the hash
+		try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), hash)) {
+			return AbstractTypeExporter.writeType(type, out);
+		} catch (final IOException e) {
+			Activator.getDefault().logError(e.getMessage(), e);
+			return false;
+		}
+	}
+
+	private String loadPersisted(final String hash) {
+		if (null != persistenceDirectory) {
+			final Path file = persistenceDirectory.resolve(hash + LUA_FILE_EXTENSION);
+			if (Files.isRegularFile(file)) {
+				try {
+					return Files.readString(file, StandardCharsets.UTF_8);
+				} catch (final IOException e) {
+					Activator.getDefault().logError(e.getMessage(), e);
+				}
+			}
+		}
+		return null;
+	}
+
+	private void persist(final String hash, final String lua) {
+		if (null != persistenceDirectory) {
+			try {
+				Files.createDirectories(persistenceDirectory);
+				Files.writeString(persistenceDirectory.resolve(hash + LUA_FILE_EXTENSION), lua, StandardCharsets.UTF_8);
+			} catch (final IOException e) {
+				Activator.getDefault().logError(e.getMessage(), e);
+			}
+		}
+	}
+
+	private void deletePersisted(final String hash) {
+		if (null != persistenceDirectory) {
+			try {
+				Files.deleteIfExists(persistenceDirectory.resolve(hash + LUA_FILE_EXTENSION));
+			} catch (final IOException e) {
+				Activator.getDefault().logError(e.getMessage(), e);
+			}
+		}
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance(DIGEST_ALGORITHM);
+		} catch (final NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(final byte[] bytes) {
+		final StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (final byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+}
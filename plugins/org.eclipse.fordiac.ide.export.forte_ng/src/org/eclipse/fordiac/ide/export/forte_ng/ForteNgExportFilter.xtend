@@ -16,6 +16,7 @@
 package org.eclipse.fordiac.ide.export.forte_ng
 
 import java.nio.file.Paths
+import org.eclipse.fordiac.ide.export.ExportException
 import org.eclipse.fordiac.ide.export.TemplateExportFilter
 import org.eclipse.fordiac.ide.export.forte_ng.adapter.AdapterFBHeaderTemplate
 import org.eclipse.fordiac.ide.export.forte_ng.adapter.AdapterFBImplTemplate
@@ -23,6 +24,7 @@ import org.eclipse.fordiac.ide.export.forte_ng.basic.BasicFBHeaderTemplate
 import org.eclipse.fordiac.ide.export.forte_ng.basic.BasicFBImplTemplate
 import org.eclipse.fordiac.ide.export.forte_ng.composite.CompositeFBHeaderTemplate
 import org.eclipse.fordiac.ide.export.forte_ng.composite.CompositeFBImplTemplate
+import org.eclipse.fordiac.ide.export.forte_ng.st.STAlgorithmExportContext
 import org.eclipse.fordiac.ide.export.forte_ng.service.ServiceInterfaceFBHeaderTemplate
 import org.eclipse.fordiac.ide.export.forte_ng.service.ServiceInterfaceFBImplTemplate
 import org.eclipse.fordiac.ide.export.forte_ng.simple.SimpleFBHeaderTemplate
@@ -42,6 +44,17 @@ import org.eclipse.fordiac.ide.model.typelibrary.CMakeListsMarker
 
 class ForteNgExportFilter extends TemplateExportFilter {
 
+	override protected generateFileContent(String destination, LibraryElement type) throws ExportException {
+		// header and implementation templates share the parsed ST code of the type
+		val context = STAlgorithmExportContext.attach(type)
+		try {
+			context?.parseAll
+			super.generateFileContent(destination, type)
+		} finally {
+			context?.detach
+		}
+	}
+
 	override protected getTemplates(LibraryElement type) {
 		switch (type) {
 			BasicFBType:
@@ -14,6 +14,7 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.export.forte_ng.composite
 
+import java.io.IOException
 import java.nio.file.Path
 import java.util.ArrayList
 import java.util.HashSet
@@ -47,18 +48,24 @@ class CompositeFBImplTemplate extends ForteFBTemplate {
 		fbs.addAll(type.FBNetwork.networkElements.filter[!(it.type instanceof AdapterFBType)])
 	}
 
-	override generate() '''
-		«generateHeader»
-
-		«generateImplIncludes»
-
-		«generateFBDefinition»
-
-		«generateFBInterfaceDefinition»
+	override generate() {
+		val out = new StringBuilder
+		generate(out)
+		return out
+	}
 
-		«generateFBInterfaceSpecDefinition»
+	override generate(Appendable out) throws IOException {
+		// hand the sections to the sink one by one, large networks are not copied into one buffer with the rest
+		out.append(generateHeader.section)
+		out.append(generateImplIncludes.section)
+		out.append(generateFBDefinition.section)
+		out.append(generateFBInterfaceDefinition.section)
+		out.append(generateFBInterfaceSpecDefinition.section)
+		out.append(generateFBNetwork.section)
+	}
 
-		«generateFBNetwork»
+	def private static section(CharSequence content) '''
+		«content»
 
 	'''
 
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Primetals Technologies Austria GmbH
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.export.forte_ng.st;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.fordiac.ide.model.data.StructuredType;
+import org.eclipse.fordiac.ide.model.libraryElement.AdapterDeclaration;
+import org.eclipse.fordiac.ide.model.libraryElement.AdapterFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.Algorithm;
+import org.eclipse.fordiac.ide.model.libraryElement.BaseFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.ECTransition;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElement;
+import org.eclipse.fordiac.ide.model.libraryElement.STAlgorithm;
+import org.eclipse.fordiac.ide.model.libraryElement.SimpleFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
+import org.eclipse.fordiac.ide.model.structuredtext.parser.antlr.StructuredTextParser;
+import org.eclipse.fordiac.ide.model.structuredtext.resource.StructuredTextResource;
+import org.eclipse.fordiac.ide.model.structuredtext.structuredText.StructuredTextAlgorithm;
+import org.eclipse.xtext.resource.IResourceServiceProvider;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.util.LazyStringInputStream;
+import org.eclipse.xtext.validation.CheckMode;
+import org.eclipse.xtext.validation.Issue;
+
+/**
+ * Parsing context for the ST algorithms and transition conditions of one FB
+ * type.
+ *
+ * The Xtext resource set including the resources for the FB type, its adapters
+ * and structured types is built only once. Every algorithm and every condition
+ * expression is parsed and validated exactly once, so that the header and
+ * implementation templates can share the results.
+ *
+ * During an export the context is attached to the exported type as an EMF
+ * adapter so that all templates of that type find the same instance.
+ *
+ * The FB type is moved into the resource set of the context only while code is
+ * parsed and is put back into its own resource afterwards. Adapter and
+ * structured types are shared by all types of a library, the context parses
+ * against its own copies of them so that the library stays untouched. Contexts
+ * of different types therefore parse in parallel, contexts of the same type
+ * take turns as they move the same FB type.
+ */
+public final class STAlgorithmExportContext extends AdapterImpl {
+
+	private static final String SYNTHETIC_URI_NAME = "__synthetic"; //$NON-NLS-1$
+	private static final String URI_SEPERATOR = "."; //$NON-NLS-1$
+	private static final String FB_URI_EXTENSION = "xtextfbt"; //$NON-NLS-1$
+	private static final String ST_URI_EXTENSION = "st"; //$NON-NLS-1$
+
+	private static final IResourceServiceProvider SERVICE_PROVIDER = IResourceServiceProvider.Registry.INSTANCE
+			.getResourceServiceProvider(URI.createURI(SYNTHETIC_URI_NAME + URI_SEPERATOR + ST_URI_EXTENSION));
+
+	/** Result of parsing and validating one piece of ST code. */
+	public static final class ParseResult {
+		private final XtextResource resource;
+		private final List<Issue> issues;
+
+		private ParseResult(final XtextResource resource, final List<Issue> issues) {
+			this.resource = resource;
+			this.issues = issues;
+		}
+
+		public XtextResource getResource() {
+			return resource;
+		}
+
+		public List<Issue> getIssues() {
+			return issues;
+		}
+	}
+
+	private final BaseFBType fbType;
+	private XtextResourceSet resourceSet;
+	private int uriCounter;
+	private final Map<String, ParseResult> algorithms = new HashMap<>();
+	private final Map<String, ParseResult> expressions = new HashMap<>();
+	/* the context's copies of the adapter and structured types the FB type uses */
+	private final Map<LibraryElement, LibraryElement> sharedTypeCopies = new HashMap<>();
+
+	/**
+	 * Attach a new export context to the given type if it is an FB type with ST
+	 * code.
+	 *
+	 * @return the attached context or null if the type does not need one
+	 */
+	public static STAlgorithmExportContext attach(final LibraryElement type) {
+		if (type instanceof BaseFBType) {
+			final STAlgorithmExportContext context = new STAlgorithmExportContext((BaseFBType) type);
+			type.eAdapters().add(context);
+			return context;
+		}
+		return null;
+	}
+
+	/** @return the context currently attached to the given type or null */
+	public static STAlgorithmExportContext getAttached(final BaseFBType type) {
+		return (STAlgorithmExportContext) EcoreUtil.getExistingAdapter(type, STAlgorithmExportContext.class);
+	}
+
+	public STAlgorithmExportContext(final BaseFBType fbType) {
+		this.fbType = fbType;
+	}
+
+	/** Remove this context from its type and release the parsed resources. */
+	public void detach() {
+		if (null != getTarget()) {
+			getTarget().eAdapters().remove(this);
+		}
+		algorithms.clear();
+		expressions.clear();
+		sharedTypeCopies.clear();
+		resourceSet = null;
+	}
+
+	@Override
+	public boolean isAdapterForType(final Object type) {
+		return STAlgorithmExportContext.class == type;
+	}
+
+	/** Parse and validate the given algorithm text, reusing earlier results. */
+	public ParseResult parseAlgorithm(final String text) {
+		return algorithms.computeIfAbsent(text, t -> parse(t, false));
+	}
+
+	/** Parse and validate the given condition expression, reusing earlier results. */
+	public ParseResult parseExpression(final String expression) {
+		return expressions.computeIfAbsent(expression, e -> parse(e, true));
+	}
+
+	/**
+	 * Parse all algorithms and transition conditions of the type in one go, so
+	 * that the templates only use the cached results.
+	 */
+	public void parseAll() {
+		if (fbType instanceof BasicFBType) {
+			final BasicFBType basicFBType = (BasicFBType) fbType;
+			basicFBType.getAlgorithm().forEach(this::parseIfST);
+			if (null != basicFBType.getECC()) {
+				basicFBType.getECC().getECTransition().stream().map(ECTransition::getConditionExpression)
+				.filter(expr -> (null != expr) && !expr.isEmpty()).forEach(this::parseExpression);
+			}
+		} else if (fbType instanceof SimpleFBType) {
+			parseIfST(((SimpleFBType) fbType).getAlgorithm());
+		}
+	}
+
+	private void parseIfST(final Algorithm alg) {
+		if (alg instanceof STAlgorithm) {
+			parseAlgorithm(((STAlgorithm) alg).getText());
+		}
+	}
+
+	private ParseResult parse(final String text, final boolean expression) {
+		// the type is taken out of its resource while code is parsed, contexts of
+		// the same type (e.g., of two concurrent exports) must not do this at once
+		synchronized (fbType) {
+			final Resource fbResource = getResourceSet().getResources().get(0);
+			final Resource.Internal originalResource = ((InternalEObject) fbType).eDirectResource();
+			final int originalIndex = (null != originalResource) ? originalResource.getContents().indexOf(fbType) : -1;
+			// the type itself is needed (not a copy) as the scoping resolves data types
+			// through its palette entry, which a copy does not get
+			fbResource.getContents().add(fbType);
+			try {
+				return doParse(text, expression);
+			} finally {
+				fbResource.getContents().remove(fbType);
+				if (null != originalResource) {
+					originalResource.getContents().add(Math.min(originalIndex, originalResource.getContents().size()),
+							fbType);
+				}
+			}
+		}
+	}
+
+	private ParseResult doParse(final String text, final boolean expression) {
+		final XtextResourceSet set = getResourceSet();
+		final XtextResource resource = (XtextResource) set.createResource(nextUri(ST_URI_EXTENSION));
+		final Map<String, Object> options = new HashMap<>();
+		if (expression) {
+			final StructuredTextParser parser = (StructuredTextParser) resource.getParser();
+			options.put(StructuredTextResource.OPTION_PARSER_RULE, parser.getGrammarAccess().getExpressionRule());
+		} else {
+			options.put(XtextResource.OPTION_RESOLVE_ALL, Boolean.TRUE);
+		}
+		try {
+			resource.load(new LazyStringInputStream(text), options);
+		} catch (final IOException e) {
+			throw new IllegalStateException(e);
+		}
+		if (resource.getParseResult().getRootASTElement() instanceof StructuredTextAlgorithm) {
+			final StructuredTextAlgorithm stalg = (StructuredTextAlgorithm) resource.getParseResult()
+					.getRootASTElement();
+			stalg.getLocalVariables().forEach(this::createStructResource);
+		}
+		final List<Issue> issues = resource.getResourceServiceProvider().getResourceValidator().validate(resource,
+				CheckMode.ALL, CancelIndicator.NullImpl);
+		// all references are resolved now, remove the resource so that its local
+		// variables are not visible to the code parsed afterwards, the copies of the
+		// structured types of the local variables stay in the resource set
+		EcoreUtil.resolveAll(resource);
+		set.getResources().remove(resource);
+		return new ParseResult(resource, issues);
+	}
+
+	private XtextResourceSet getResourceSet() {
+		if (null == resourceSet) {
+			resourceSet = (XtextResourceSet) SERVICE_PROVIDER.get(ResourceSet.class);
+			// the first resource holds the FB type while code is parsed
+			resourceSet.createResource(nextUri(FB_URI_EXTENSION));
+			fbType.getInterfaceList().getSockets().forEach(this::createAdapterResource);
+			fbType.getInterfaceList().getPlugs().forEach(this::createAdapterResource);
+			fbType.getInterfaceList().getInputVars().forEach(this::createStructResource);
+			fbType.getInterfaceList().getOutputVars().forEach(this::createStructResource);
+			fbType.getInternalVars().forEach(this::createStructResource);
+		}
+		return resourceSet;
+	}
+
+	/* adapter and structured types are shared by all types of the library, the context parses against copies */
+	private void createAdapterResource(final AdapterDeclaration adapter) {
+		final AdapterFBType adapterFBType = adapter.getType().getAdapterFBType();
+		if (!sharedTypeCopies.containsKey(adapterFBType)) {
+			final AdapterFBType copy = EcoreUtil.copy(adapterFBType);
+			sharedTypeCopies.put(adapterFBType, copy);
+			resourceSet.createResource(nextUri(FB_URI_EXTENSION)).getContents().add(copy);
+		}
+	}
+
+	private void createStructResource(final VarDeclaration variable) {
+		if ((variable.getType() instanceof StructuredType) && !sharedTypeCopies.containsKey(variable.getType())) {
+			final StructuredType type = (StructuredType) variable.getType();
+			final StructuredType copy = EcoreUtil.copy(type);
+			sharedTypeCopies.put(type, copy);
+			resourceSet.createResource(nextUri(FB_URI_EXTENSION)).getContents().add(copy);
+			copy.getMemberVariables().forEach(this::createStructResource);
+		}
+	}
+
+	private URI nextUri(final String fileExtension) {
+		// the context owns the resource set, a counter is enough to get unused URIs
+		return URI.createURI(SYNTHETIC_URI_NAME + uriCounter++ + URI_SEPERATOR + fileExtension);
+	}
+}
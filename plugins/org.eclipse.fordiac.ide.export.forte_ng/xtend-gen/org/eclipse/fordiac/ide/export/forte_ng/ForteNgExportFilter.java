@@ -20,6 +20,7 @@ import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import org.eclipse.fordiac.ide.export.ExportException;
 import org.eclipse.fordiac.ide.export.IExportTemplate;
 import org.eclipse.fordiac.ide.export.TemplateExportFilter;
 import org.eclipse.fordiac.ide.export.forte_ng.adapter.AdapterFBHeaderTemplate;
@@ -33,9 +34,11 @@ import org.eclipse.fordiac.ide.export.forte_ng.service.ServiceInterfaceFBHeaderT
 import org.eclipse.fordiac.ide.export.forte_ng.service.ServiceInterfaceFBImplTemplate;
 import org.eclipse.fordiac.ide.export.forte_ng.simple.SimpleFBHeaderTemplate;
 import org.eclipse.fordiac.ide.export.forte_ng.simple.SimpleFBImplTemplate;
+import org.eclipse.fordiac.ide.export.forte_ng.st.STAlgorithmExportContext;
 import org.eclipse.fordiac.ide.export.forte_ng.struct.StructBaseTemplate;
 import org.eclipse.fordiac.ide.export.forte_ng.struct.StructuredTypeHeaderTemplate;
 import org.eclipse.fordiac.ide.export.forte_ng.struct.StructuredTypeImplTemplate;
+import org.eclipse.fordiac.ide.export.utils.DelayedFiles;
 import org.eclipse.fordiac.ide.model.data.StructuredType;
 import org.eclipse.fordiac.ide.model.libraryElement.AdapterFBType;
 import org.eclipse.fordiac.ide.model.libraryElement.AdapterType;
@@ -50,6 +53,31 @@ import org.eclipse.xtext.xbase.lib.CollectionLiterals;
 
 @SuppressWarnings("all")
 public class ForteNgExportFilter extends TemplateExportFilter {
+  @Override
+  protected DelayedFiles generateFileContent(final String destination, final LibraryElement type) throws ExportException {
+    DelayedFiles _xblockexpression = null;
+    {
+      final STAlgorithmExportContext context = STAlgorithmExportContext.attach(type);
+      DelayedFiles _xtrycatchfinallyexpression = null;
+      try {
+        DelayedFiles _xblockexpression_1 = null;
+        {
+          if (context!=null) {
+            context.parseAll();
+          }
+          _xblockexpression_1 = super.generateFileContent(destination, type);
+        }
+        _xtrycatchfinallyexpression = _xblockexpression_1;
+      } finally {
+        if (context!=null) {
+          context.detach();
+        }
+      }
+      _xblockexpression = _xtrycatchfinallyexpression;
+    }
+    return _xblockexpression;
+  }
+  
   @Override
   protected Set<IExportTemplate> getTemplates(final LibraryElement type) {
     Set<IExportTemplate> _switchResult = null;
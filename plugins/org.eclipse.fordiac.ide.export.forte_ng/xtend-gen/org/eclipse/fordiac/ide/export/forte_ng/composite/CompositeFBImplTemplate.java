@@ -16,6 +16,7 @@ package org.eclipse.fordiac.ide.export.forte_ng.composite;
 
 import com.google.common.base.Objects;
 import com.google.common.collect.Iterables;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -37,6 +38,7 @@ import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
 import org.eclipse.xtend.lib.annotations.AccessorType;
 import org.eclipse.xtend.lib.annotations.Accessors;
 import org.eclipse.xtend2.lib.StringConcatenation;
+import org.eclipse.xtext.xbase.lib.Exceptions;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
 import org.eclipse.xtext.xbase.lib.Pure;
@@ -70,29 +72,28 @@ public class CompositeFBImplTemplate extends ForteFBTemplate {
   
   @Override
   public CharSequence generate() {
+    try {
+      final StringBuilder out = new StringBuilder();
+      this.generate(out);
+      return out;
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Override
+  public void generate(final Appendable out) throws IOException {
+    out.append(CompositeFBImplTemplate.section(this.generateHeader()));
+    out.append(CompositeFBImplTemplate.section(this.generateImplIncludes()));
+    out.append(CompositeFBImplTemplate.section(this.generateFBDefinition()));
+    out.append(CompositeFBImplTemplate.section(this.generateFBInterfaceDefinition()));
+    out.append(CompositeFBImplTemplate.section(this.generateFBInterfaceSpecDefinition()));
+    out.append(CompositeFBImplTemplate.section(this.generateFBNetwork()));
+  }
+  
+  private static CharSequence section(final CharSequence content) {
     StringConcatenation _builder = new StringConcatenation();
-    CharSequence _generateHeader = this.generateHeader();
-    _builder.append(_generateHeader);
-    _builder.newLineIfNotEmpty();
-    _builder.newLine();
-    CharSequence _generateImplIncludes = this.generateImplIncludes();
-    _builder.append(_generateImplIncludes);
-    _builder.newLineIfNotEmpty();
-    _builder.newLine();
-    CharSequence _generateFBDefinition = this.generateFBDefinition();
-    _builder.append(_generateFBDefinition);
-    _builder.newLineIfNotEmpty();
-    _builder.newLine();
-    CharSequence _generateFBInterfaceDefinition = this.generateFBInterfaceDefinition();
-    _builder.append(_generateFBInterfaceDefinition);
-    _builder.newLineIfNotEmpty();
-    _builder.newLine();
-    CharSequence _generateFBInterfaceSpecDefinition = this.generateFBInterfaceSpecDefinition();
-    _builder.append(_generateFBInterfaceSpecDefinition);
-    _builder.newLineIfNotEmpty();
-    _builder.newLine();
-    CharSequence _generateFBNetwork = this.generateFBNetwork();
-    _builder.append(_generateFBNetwork);
+    _builder.append(content);
     _builder.newLineIfNotEmpty();
     _builder.newLine();
     return _builder;
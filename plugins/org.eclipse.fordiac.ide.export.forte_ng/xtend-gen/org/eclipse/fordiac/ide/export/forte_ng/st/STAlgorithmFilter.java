@@ -22,23 +22,17 @@ import com.google.common.collect.Iterables;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
 import org.eclipse.emf.common.util.BasicEList;
 import org.eclipse.emf.common.util.EList;
-import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.resource.Resource;
-import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.fordiac.ide.export.forte_ng.ForteLibraryElementTemplate;
 import org.eclipse.fordiac.ide.model.FordiacKeywords;
 import org.eclipse.fordiac.ide.model.data.DataType;
-import org.eclipse.fordiac.ide.model.data.StructuredType;
 import org.eclipse.fordiac.ide.model.datatype.helper.IecTypes;
-import org.eclipse.fordiac.ide.model.libraryElement.AdapterDeclaration;
 import org.eclipse.fordiac.ide.model.libraryElement.AdapterFBType;
 import org.eclipse.fordiac.ide.model.libraryElement.BaseFBType;
 import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
@@ -49,8 +43,6 @@ import org.eclipse.fordiac.ide.model.libraryElement.InterfaceList;
 import org.eclipse.fordiac.ide.model.libraryElement.STAlgorithm;
 import org.eclipse.fordiac.ide.model.libraryElement.SimpleFBType;
 import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
-import org.eclipse.fordiac.ide.model.structuredtext.parser.antlr.StructuredTextParser;
-import org.eclipse.fordiac.ide.model.structuredtext.resource.StructuredTextResource;
 import org.eclipse.fordiac.ide.model.structuredtext.structuredText.AdapterRoot;
 import org.eclipse.fordiac.ide.model.structuredtext.structuredText.AdapterVariable;
 import org.eclipse.fordiac.ide.model.structuredtext.structuredText.Argument;
@@ -91,122 +83,34 @@ import org.eclipse.fordiac.ide.model.structuredtext.structuredText.Variable;
 import org.eclipse.fordiac.ide.model.structuredtext.structuredText.WhileStatement;
 import org.eclipse.fordiac.ide.model.structuredtext.validation.DatetimeLiteral;
 import org.eclipse.xtend2.lib.StringConcatenation;
-import org.eclipse.xtext.ParserRule;
 import org.eclipse.xtext.parser.IParseResult;
-import org.eclipse.xtext.parser.IParser;
-import org.eclipse.xtext.resource.IResourceServiceProvider;
 import org.eclipse.xtext.resource.XtextResource;
-import org.eclipse.xtext.resource.XtextResourceSet;
-import org.eclipse.xtext.util.CancelIndicator;
-import org.eclipse.xtext.util.LazyStringInputStream;
 import org.eclipse.xtext.util.Strings;
-import org.eclipse.xtext.validation.CheckMode;
-import org.eclipse.xtext.validation.IResourceValidator;
 import org.eclipse.xtext.validation.Issue;
-import org.eclipse.xtext.xbase.lib.CollectionLiterals;
 import org.eclipse.xtext.xbase.lib.Conversions;
-import org.eclipse.xtext.xbase.lib.Exceptions;
-import org.eclipse.xtext.xbase.lib.ExclusiveRange;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
 import org.eclipse.xtext.xbase.lib.ListExtensions;
-import org.eclipse.xtext.xbase.lib.Pair;
 
 @SuppressWarnings("all")
 public class STAlgorithmFilter {
-  private static final String SYNTHETIC_URI_NAME = "__synthetic";
-  
-  private static final String URI_SEPERATOR = ".";
-  
-  private static final String FB_URI_EXTENSION = "xtextfbt";
-  
-  private static final String ST_URI_EXTENSION = "st";
-  
   private static final CharSequence EXPORT_PREFIX = ForteLibraryElementTemplate.EXPORT_PREFIX;
   
-  private static final IResourceServiceProvider SERVICE_PROVIDER = IResourceServiceProvider.Registry.INSTANCE.getResourceServiceProvider(URI.createURI(((STAlgorithmFilter.SYNTHETIC_URI_NAME + STAlgorithmFilter.URI_SEPERATOR) + STAlgorithmFilter.ST_URI_EXTENSION)));
-  
-  public void createFBResource(final XtextResourceSet resourceSet, final BaseFBType fbType) {
-    final Resource fbResource = resourceSet.createResource(this.computeUnusedUri(resourceSet, STAlgorithmFilter.FB_URI_EXTENSION));
-    fbResource.getContents().add(fbType);
-    final Consumer<AdapterDeclaration> _function = (AdapterDeclaration adp) -> {
-      this.createAdapterResource(resourceSet, adp);
-    };
-    fbType.getInterfaceList().getSockets().forEach(_function);
-    final Consumer<AdapterDeclaration> _function_1 = (AdapterDeclaration adp) -> {
-      this.createAdapterResource(resourceSet, adp);
-    };
-    fbType.getInterfaceList().getPlugs().forEach(_function_1);
-    final Consumer<VarDeclaration> _function_2 = (VarDeclaration v) -> {
-      this.createStructResource(resourceSet, v);
-    };
-    fbType.getInterfaceList().getInputVars().forEach(_function_2);
-    final Consumer<VarDeclaration> _function_3 = (VarDeclaration v) -> {
-      this.createStructResource(resourceSet, v);
-    };
-    fbType.getInterfaceList().getOutputVars().forEach(_function_3);
-    final Consumer<VarDeclaration> _function_4 = (VarDeclaration v) -> {
-      this.createStructResource(resourceSet, v);
-    };
-    fbType.getInternalVars().forEach(_function_4);
-  }
-  
-  public void createAdapterResource(final XtextResourceSet resourceSet, final AdapterDeclaration adapter) {
-    final Resource adapterResource = resourceSet.createResource(this.computeUnusedUri(resourceSet, STAlgorithmFilter.FB_URI_EXTENSION));
-    adapterResource.getContents().add(adapter.getType().getAdapterFBType());
-  }
-  
-  public void createStructResource(final XtextResourceSet resourceSet, final VarDeclaration variable) {
-    DataType _type = variable.getType();
-    if ((_type instanceof StructuredType)) {
-      final Resource structResource = resourceSet.createResource(this.computeUnusedUri(resourceSet, STAlgorithmFilter.FB_URI_EXTENSION));
-      DataType _type_1 = variable.getType();
-      final StructuredType type = ((StructuredType) _type_1);
-      structResource.getContents().add(type);
-      final Consumer<VarDeclaration> _function = (VarDeclaration v) -> {
-        this.createStructResource(resourceSet, v);
-      };
-      type.getMemberVariables().forEach(_function);
-    }
-  }
-  
-  protected URI computeUnusedUri(final ResourceSet resourceSet, final String fileExtension) {
-    ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, Integer.MAX_VALUE, true);
-    for (final Integer i : _doubleDotLessThan) {
-      {
-        final URI syntheticUri = URI.createURI((((STAlgorithmFilter.SYNTHETIC_URI_NAME + i) + STAlgorithmFilter.URI_SEPERATOR) + fileExtension));
-        Resource _resource = resourceSet.getResource(syntheticUri, false);
-        boolean _tripleEquals = (_resource == null);
-        if (_tripleEquals) {
-          return syntheticUri;
-        }
-      }
+  protected STAlgorithmExportContext getExportContext(final BaseFBType fbType) {
+    STAlgorithmExportContext _elvis = null;
+    STAlgorithmExportContext _attached = STAlgorithmExportContext.getAttached(fbType);
+    if (_attached != null) {
+      _elvis = _attached;
+    } else {
+      STAlgorithmExportContext _sTAlgorithmExportContext = new STAlgorithmExportContext(fbType);
+      _elvis = _sTAlgorithmExportContext;
     }
-    throw new IllegalStateException();
+    return _elvis;
   }
   
   public XtextResource parseAlgorithm(final STAlgorithm alg) {
-    try {
-      ResourceSet _get = STAlgorithmFilter.SERVICE_PROVIDER.<ResourceSet>get(ResourceSet.class);
-      final XtextResourceSet resourceSet = ((XtextResourceSet) _get);
-      EObject _rootContainer = EcoreUtil.getRootContainer(alg);
-      this.createFBResource(resourceSet, ((BaseFBType) _rootContainer));
-      Resource _createResource = resourceSet.createResource(this.computeUnusedUri(resourceSet, STAlgorithmFilter.ST_URI_EXTENSION));
-      final XtextResource resource = ((XtextResource) _createResource);
-      String _text = alg.getText();
-      LazyStringInputStream _lazyStringInputStream = new LazyStringInputStream(_text);
-      Pair<String, Boolean> _mappedTo = Pair.<String, Boolean>of(XtextResource.OPTION_RESOLVE_ALL, Boolean.TRUE);
-      resource.load(_lazyStringInputStream, Collections.<String, Boolean>unmodifiableMap(CollectionLiterals.<String, Boolean>newHashMap(_mappedTo)));
-      EObject _rootASTElement = resource.getParseResult().getRootASTElement();
-      final StructuredTextAlgorithm stalg = ((StructuredTextAlgorithm) _rootASTElement);
-      final Consumer<VarDeclaration> _function = (VarDeclaration v) -> {
-        this.createStructResource(resourceSet, v);
-      };
-      stalg.getLocalVariables().forEach(_function);
-      return resource;
-    } catch (Throwable _e) {
-      throw Exceptions.sneakyThrow(_e);
-    }
+    EObject _rootContainer = EcoreUtil.getRootContainer(alg);
+    return this.getExportContext(((BaseFBType) _rootContainer)).parseAlgorithm(alg.getText()).getResource();
   }
   
   public EList<VarDeclaration> generateLocalVariables(final STAlgorithm alg) {
@@ -223,20 +127,18 @@ public class STAlgorithmFilter {
   public CharSequence generate(final STAlgorithm alg, final List<String> errors) {
     CharSequence _xblockexpression = null;
     {
-      final XtextResource resource = this.parseAlgorithm(alg);
-      final IParseResult parseResult = resource.getParseResult();
-      final IResourceValidator validator = resource.getResourceServiceProvider().getResourceValidator();
-      final List<Issue> issues = validator.validate(resource, CheckMode.ALL, CancelIndicator.NullImpl);
-      boolean _isEmpty = issues.isEmpty();
+      EObject _rootContainer = EcoreUtil.getRootContainer(alg);
+      final STAlgorithmExportContext.ParseResult result = this.getExportContext(((BaseFBType) _rootContainer)).parseAlgorithm(alg.getText());
+      boolean _isEmpty = result.getIssues().isEmpty();
       boolean _not = (!_isEmpty);
       if (_not) {
         final Function1<Issue, String> _function = (Issue it) -> {
           return MessageFormat.format("{0}, Line {1}: {2}", alg.getName(), Long.toString((it.getLineNumber()).intValue()), it.getMessage());
         };
-        errors.addAll(ListExtensions.<Issue, String>map(issues, _function));
+        errors.addAll(ListExtensions.<Issue, String>map(result.getIssues(), _function));
         return null;
       }
-      EObject _rootASTElement = parseResult.getRootASTElement();
+      EObject _rootASTElement = result.getResource().getParseResult().getRootASTElement();
       final StructuredTextAlgorithm stalg = ((StructuredTextAlgorithm) _rootASTElement);
       _xblockexpression = this.generateStructuredTextAlgorithm(stalg);
     }
@@ -244,42 +146,23 @@ public class STAlgorithmFilter {
   }
   
   public CharSequence generate(final String expression, final BasicFBType fb, final List<String> errors) {
-    try {
-      CharSequence _xblockexpression = null;
-      {
-        ResourceSet _get = STAlgorithmFilter.SERVICE_PROVIDER.<ResourceSet>get(ResourceSet.class);
-        final XtextResourceSet resourceSet = ((XtextResourceSet) _get);
-        BasicFBType _copy = EcoreUtil.<BasicFBType>copy(fb);
-        this.createFBResource(resourceSet, ((BaseFBType) _copy));
-        Resource _createResource = resourceSet.createResource(this.computeUnusedUri(resourceSet, STAlgorithmFilter.ST_URI_EXTENSION));
-        final XtextResource resource = ((XtextResource) _createResource);
-        IParser _parser = resource.getParser();
-        final StructuredTextParser parser = ((StructuredTextParser) _parser);
-        LazyStringInputStream _lazyStringInputStream = new LazyStringInputStream(expression);
-        ParserRule _expressionRule = parser.getGrammarAccess().getExpressionRule();
-        Pair<String, ParserRule> _mappedTo = Pair.<String, ParserRule>of(StructuredTextResource.OPTION_PARSER_RULE, _expressionRule);
-        resource.load(_lazyStringInputStream, 
-          Collections.<String, ParserRule>unmodifiableMap(CollectionLiterals.<String, ParserRule>newHashMap(_mappedTo)));
-        final IParseResult parseResult = resource.getParseResult();
-        final IResourceValidator validator = resource.getResourceServiceProvider().getResourceValidator();
-        final List<Issue> issues = validator.validate(resource, CheckMode.ALL, CancelIndicator.NullImpl);
-        boolean _isEmpty = issues.isEmpty();
-        boolean _not = (!_isEmpty);
-        if (_not) {
-          final Function1<Issue, String> _function = (Issue it) -> {
-            return it.getMessage();
-          };
-          errors.addAll(ListExtensions.<Issue, String>map(issues, _function));
-          return null;
-        }
-        EObject _rootASTElement = parseResult.getRootASTElement();
-        final Expression expr = ((Expression) _rootASTElement);
-        _xblockexpression = this.generateExpression(expr);
+    CharSequence _xblockexpression = null;
+    {
+      final STAlgorithmExportContext.ParseResult result = this.getExportContext(fb).parseExpression(expression);
+      boolean _isEmpty = result.getIssues().isEmpty();
+      boolean _not = (!_isEmpty);
+      if (_not) {
+        final Function1<Issue, String> _function = (Issue it) -> {
+          return it.getMessage();
+        };
+        errors.addAll(ListExtensions.<Issue, String>map(result.getIssues(), _function));
+        return null;
       }
-      return _xblockexpression;
-    } catch (Throwable _e) {
-      throw Exceptions.sneakyThrow(_e);
+      EObject _rootASTElement = result.getResource().getParseResult().getRootASTElement();
+      final Expression expr = ((Expression) _rootASTElement);
+      _xblockexpression = this.generateExpression(expr);
     }
+    return _xblockexpression;
   }
   
   protected CharSequence generateStructuredTextAlgorithm(final StructuredTextAlgorithm alg) {
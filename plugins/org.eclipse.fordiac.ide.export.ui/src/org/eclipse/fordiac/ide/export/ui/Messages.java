@@ -36,12 +36,8 @@ public final class Messages extends NLS {
 
 	public static String FordiacExportWizard_ERROR;
 
-	public static String FordiacExportWizard_ExportingCMakeLists;
-
 	public static String FordiacExportWizard_ExportingSelectedTypesUsingExporter;
 
-	public static String FordiacExportWizard_ExportingType;
-
 	public static String FordiacExportWizard_LABEL_Window_Title;
 
 	public static String FordiacExportWizard_TITLE_WizardPage;
@@ -66,6 +62,8 @@ public final class Messages extends NLS {
 
 	public static String SelectFBTypesWizardPage_DestinationDirectoryNeedsToBeChosen;
 
+	public static String SelectFBTypesWizardPage_IncrementalExport;
+
 	public static String SelectFBTypesWizardPage_NoTypeSelected;
 
 	public static String SelectFBTypesWizardPage_OverwriteWithoutWarning;
@@ -27,8 +27,9 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.fordiac.ide.export.ExportException;
 import org.eclipse.fordiac.ide.export.IExportFilter;
+import org.eclipse.fordiac.ide.export.ParallelExporter;
+import org.eclipse.fordiac.ide.export.ParallelExporter.ExportReport;
 import org.eclipse.fordiac.ide.export.ui.Activator;
 import org.eclipse.fordiac.ide.export.ui.Messages;
 import org.eclipse.fordiac.ide.model.Palette.PaletteEntry;
@@ -86,12 +87,13 @@ public class FordiacExportWizard extends Wizard implements IExportWizard {
 		page.saveWidgetValues();
 
 		final Exporter exporter = new Exporter(page.getSelectedExportFilter(), collectExportees(), page.getDirectory(),
-				page.overwriteWithoutWarning());
+				page.overwriteWithoutWarning(), page.incrementalExport());
 		try {
-			new ProgressMonitorDialog(getShell()).run(false, false, exporter);
+			// the types are exported in a separate thread so that the export can be canceled
+			new ProgressMonitorDialog(getShell()).run(true, true, exporter);
+			exporter.showErrorWarningSummary();
 		} catch (final InterruptedException e) {
-			Thread.currentThread().interrupt();  // mark interruption
-			showExceptionErrorDialog(e);
+			// the export was canceled by the user, the types written so far are kept
 		} catch (final Exception e) {
 			showExceptionErrorDialog(e);
 		}
@@ -108,9 +110,10 @@ public class FordiacExportWizard extends Wizard implements IExportWizard {
 
 	private final List<LibraryElement> collectExportees() {
 		final List<Object> resources = page.getSelectedResources();
-		final List<LibraryElement> exportees = resources.parallelStream().filter(IFile.class::isInstance)
+		// the types are loaded here in the UI thread, loading them is not thread safe
+		final List<LibraryElement> exportees = resources.stream().filter(IFile.class::isInstance)
 				.map(exportee -> TypeLibrary.getPaletteEntryForFile((IFile) exportee)).filter(Objects::nonNull)
-				.map(PaletteEntry::getType)
+				.map(PaletteEntry::getType).filter(Objects::nonNull)
 				.collect(Collectors.toList());
 
 		if (page.enableCMakeLists()) {
@@ -125,13 +128,16 @@ public class FordiacExportWizard extends Wizard implements IExportWizard {
 		private final String outputDirectory;
 		private final IConfigurationElement conf;
 		private final boolean overwriteWithoutWarning;
+		private final boolean incremental;
+		private ExportReport report;
 
 		public Exporter(final IConfigurationElement conf, final List<LibraryElement> exportees,
-				final String outputDirectory, final boolean overwriteWithoutWarning) {
+				final String outputDirectory, final boolean overwriteWithoutWarning, final boolean incremental) {
 			this.conf = conf;
 			this.exportees = exportees;
 			this.outputDirectory = outputDirectory;
 			this.overwriteWithoutWarning = overwriteWithoutWarning;
+			this.incremental = incremental;
 		}
 
 		@Override
@@ -139,55 +145,38 @@ public class FordiacExportWizard extends Wizard implements IExportWizard {
 			monitor.beginTask(MessageFormat.format(Messages.FordiacExportWizard_ExportingSelectedTypesUsingExporter,
 					conf.getAttribute("name")), exportees.size()); //$NON-NLS-1$
 
-			final IExportFilter filter = createExportFilter();
-			if (null != filter) {
-				for (final LibraryElement type : exportees) {
-					exportElement(monitor, filter, type);
-					monitor.worked(1);
-				}
-				showErrorWarningSummary(filter);
+			if (null != createExportFilter()) {
+				// every type gets its own filter instance so that types can be generated in parallel
+				final ParallelExporter parallelExporter = new ParallelExporter(this::createExportFilter,
+						outputDirectory, overwriteWithoutWarning);
+				parallelExporter.setIncremental(incremental);
+				// checks the monitor before each type and throws an InterruptedException when canceled
+				report = parallelExporter.export(exportees, monitor);
 			}
 			monitor.done();
 		}
 
-		private void exportElement(final IProgressMonitor monitor, final IExportFilter filter,
-				final LibraryElement type) {
-			try {
-				if (type instanceof CMakeListsMarker) {
-					monitor.subTask(Messages.FordiacExportWizard_ExportingCMakeLists);
-					filter.export(null, outputDirectory, overwriteWithoutWarning, type);
-				} else {
-					monitor.subTask(MessageFormat.format(Messages.FordiacExportWizard_ExportingType,
-							type.getPaletteEntry().getLabel()));
-					filter.export(type.getPaletteEntry().getFile(), outputDirectory, overwriteWithoutWarning,
-							type);
-				}
-
-			} catch (final ExportException e) {
-				Activator.getDefault().logError(e.getMessage(), e);
-				final MessageBox msg = new MessageBox(Display.getDefault().getActiveShell());
-				msg.setMessage(Messages.FordiacExportWizard_ERROR + e.getMessage());
-				msg.open();
-			}
-		}
-
 		private IExportFilter createExportFilter() {
 			IExportFilter filter = null;
 			try {
 				filter = (IExportFilter) conf.createExecutableExtension("class"); //$NON-NLS-1$
 			} catch (final CoreException e) {
 				Activator.getDefault().logError(e.getMessage(), e);
-				final MessageBox msg = new MessageBox(Display.getDefault().getActiveShell());
-				msg.setMessage(Messages.FordiacExportWizard_ERROR + e.getMessage());
-				msg.open();
+				// the filters are created in the export thread
+				Display.getDefault().syncExec(() -> {
+					final MessageBox msg = new MessageBox(Display.getDefault().getActiveShell());
+					msg.setMessage(Messages.FordiacExportWizard_ERROR + e.getMessage());
+					msg.open();
+				});
 			}
 			return filter;
 		}
 
-		private static void showErrorWarningSummary(final IExportFilter filter) {
-			if ((!filter.getErrors().isEmpty()) || (!filter.getWarnings().isEmpty())) {
-				new ExportStatusMessageDialog(Display.getDefault().getActiveShell(), filter.getWarnings(),
-						filter.getErrors()).open();
+		/* to be called in the UI thread after the export finished */
+		private void showErrorWarningSummary() {
+			if ((null != report) && ((!report.getErrors().isEmpty()) || (!report.getWarnings().isEmpty()))) {
+				new ExportStatusMessageDialog(Display.getDefault().getActiveShell(), report.getWarnings(),
+						report.getErrors()).open();
 			}
 		}
 
@@ -58,6 +58,9 @@ public class SelectFBTypesWizardPage extends WizardExportResourcesPage {
 	/** The CMakeLists option. */
 	private Button cmake;
 
+	/** The incremental export option. */
+	private Button incremental;
+
 	// dialog store id constants
 	private static final String STORE_DIRECTORY_NAMES_ID = "SelectFBTypesWizardPage.STORE_DIRECTORY_NAMES_ID"; //$NON-NLS-1$
 
@@ -65,6 +68,8 @@ public class SelectFBTypesWizardPage extends WizardExportResourcesPage {
 
 	private static final String STORE_OVERWRITE_CHECKBOX = "SelectFBTypesWizardPage.STORE_OVERWRITE_CHECKBOX"; //$NON-NLS-1$
 
+	private static final String STORE_INCREMENTAL_CHECKBOX = "SelectFBTypesWizardPage.STORE_INCREMENTAL_CHECKBOX"; //$NON-NLS-1$
+
 	/**
 	 * Instantiates a new SelectFBTypesWizardPage.
 	 *
@@ -175,6 +180,15 @@ public class SelectFBTypesWizardPage extends WizardExportResourcesPage {
 		return cmake.getSelection();
 	}
 
+	/**
+	 * Only export types which changed since the last export.
+	 *
+	 * @return true, if enabled
+	 */
+	public boolean incrementalExport() {
+		return incremental.getSelection();
+	}
+
 	/**
 	 * Gets the directory.
 	 *
@@ -197,6 +211,9 @@ public class SelectFBTypesWizardPage extends WizardExportResourcesPage {
 	protected void restoreWidgetValues() {
 		loadTargetDirctories();
 		loadLastSelectedFilter();
+		if (null != getDialogSettings()) {
+			incremental.setSelection(getDialogSettings().getBoolean(STORE_INCREMENTAL_CHECKBOX));
+		}
 	}
 
 	/**
@@ -250,6 +267,8 @@ public class SelectFBTypesWizardPage extends WizardExportResourcesPage {
 			getDialogSettings().put(STORE_CURRENT_FILTER_SELECTION_ID, getSelectedExportFilter().getAttribute(NAME));
 
 			getDialogSettings().put(STORE_OVERWRITE_CHECKBOX, overwrite.getSelection());
+
+			getDialogSettings().put(STORE_INCREMENTAL_CHECKBOX, incremental.getSelection());
 		}
 	}
 
@@ -313,6 +332,9 @@ public class SelectFBTypesWizardPage extends WizardExportResourcesPage {
 		cmake = new Button(optionsGroup, SWT.CHECK);
 		cmake.setText("Export CMakeLists.txt");
 
+		incremental = new Button(optionsGroup, SWT.CHECK);
+		incremental.setText(Messages.SelectFBTypesWizardPage_IncrementalExport);
+
 		final GridData twoColumns = new GridData();
 		twoColumns.grabExcessHorizontalSpace = true;
 		twoColumns.grabExcessVerticalSpace = false;
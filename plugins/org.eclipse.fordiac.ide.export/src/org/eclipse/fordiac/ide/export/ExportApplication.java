@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.export;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.fordiac.ide.export.ParallelExporter.ExportReport;
+import org.eclipse.fordiac.ide.model.Palette.PaletteEntry;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElement;
+import org.eclipse.fordiac.ide.model.typelibrary.TypeLibrary;
+
+/**
+ * Headless application exporting all FB, adapter and data types of a 4diac IDE
+ * project.
+ *
+ * Usage: {@code -application org.eclipse.fordiac.ide.export.export <exporter>
+ * <projectFolder> <outputFolder> [-incremental]}, where exporter is the name of
+ * a registered export filter (e.g., "FORTE 1.x NG"). Existing files are
+ * overwritten, with -incremental unchanged types are skipped. The exit code is
+ * 0 if no errors occurred and 1 otherwise.
+ */
+public class ExportApplication implements IApplication {
+
+	private static final Integer EXIT_FAILED = Integer.valueOf(1);
+	private static final String EXPORT_FILTER_EXTENSION_POINT = "org.eclipse.fordiac.ide.export.exportFilter"; //$NON-NLS-1$
+	private static final String NAME_ATTRIBUTE = "name"; //$NON-NLS-1$
+	private static final String CLASS_ATTRIBUTE = "class"; //$NON-NLS-1$
+	private static final String PROJECT_FILE = ".project"; //$NON-NLS-1$
+	private static final String INCREMENTAL_OPTION = "-incremental"; //$NON-NLS-1$
+
+	@Override
+	public Object start(final IApplicationContext context) throws Exception {
+		final String[] args = (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+		if ((null == args) || (args.length < 3)) {
+			System.err.println("Usage: <exporter> <projectFolder> <outputFolder> [-incremental]"); //$NON-NLS-1$
+			return EXIT_FAILED;
+		}
+
+		final IConfigurationElement filterConf = findExportFilter(args[0]);
+		if (null == filterConf) {
+			System.err.println("Unknown exporter: " + args[0]); //$NON-NLS-1$
+			return EXIT_FAILED;
+		}
+
+		final IProject project = openProject(args[1]);
+		final ParallelExporter exporter = new ParallelExporter(() -> createExportFilter(filterConf), args[2], true);
+		exporter.setIncremental(Arrays.asList(args).contains(INCREMENTAL_OPTION));
+		final ExportReport report = exporter.export(collectTypes(TypeLibrary.getTypeLibrary(project)),
+				new NullProgressMonitor());
+
+		report.getInfos().forEach(System.out::println);
+		report.getWarnings().forEach(System.out::println);
+		report.getErrors().forEach(System.err::println);
+		return report.getErrors().isEmpty() ? IApplication.EXIT_OK : EXIT_FAILED;
+	}
+
+	@Override
+	public void stop() {
+		// nothing to do, the export terminates on its own
+	}
+
+	private static IConfigurationElement findExportFilter(final String name) {
+		return Stream.of(Platform.getExtensionRegistry().getConfigurationElementsFor(EXPORT_FILTER_EXTENSION_POINT))
+				.filter(conf -> name.equals(conf.getAttribute(NAME_ATTRIBUTE))).findFirst().orElse(null);
+	}
+
+	private static IExportFilter createExportFilter(final IConfigurationElement conf) {
+		try {
+			return (IExportFilter) conf.createExecutableExtension(CLASS_ATTRIBUTE);
+		} catch (final CoreException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static IProject openProject(final String projectFolder) throws CoreException {
+		final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		final IProjectDescription description = workspace
+				.loadProjectDescription(new Path(projectFolder).append(PROJECT_FILE));
+		final IProject project = workspace.getRoot().getProject(description.getName());
+		if (!project.exists()) {
+			project.create(description, new NullProgressMonitor());
+		}
+		project.open(new NullProgressMonitor());
+		return project;
+	}
+
+	private static List<LibraryElement> collectTypes(final TypeLibrary typeLib) {
+		final List<PaletteEntry> entries = new ArrayList<>();
+		entries.addAll(typeLib.getBlockTypeLib().getFbTypes().values());
+		entries.addAll(typeLib.getBlockTypeLib().getAdapterTypes().values());
+		// load the types up front, the export workers only read the model
+		final List<LibraryElement> types = entries.stream().sorted(Comparator.comparing(PaletteEntry::getLabel))
+				.map(PaletteEntry::getType).filter(Objects::nonNull).collect(Collectors.toList());
+		types.addAll(typeLib.getDataTypeLibrary().getStructuredTypesSorted());
+		return types;
+	}
+}
@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.export;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -33,6 +34,17 @@ public interface IExportTemplate {
 	 */
 	CharSequence generate() throws ExportException;
 
+	/**
+	 * Generate the template contents into the given sink.
+	 *
+	 * The default implementation appends the result of {@link #generate()}.
+	 * Templates producing large contents may override it to write their contents
+	 * piece by piece.
+	 */
+	default void generate(final Appendable out) throws ExportException, IOException {
+		out.append(generate());
+	}
+
 	/**
 	 * Return the errors.
 	 */
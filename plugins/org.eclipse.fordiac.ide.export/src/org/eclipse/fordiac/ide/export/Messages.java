@@ -26,6 +26,14 @@ public final class Messages extends NLS {
 
 	public static String ExportTemplate_ExportTemplate;
 
+	public static String ParallelExporter_ExportingCMakeLists;
+
+	public static String ParallelExporter_ExportingType;
+
+	public static String ParallelExporter_ManifestNotLoaded;
+
+	public static String ParallelExporter_ManifestNotSaved;
+
 	public static String TemplateExportFilter_ErrorDuringTemplateGeneration;
 
 	public static String TemplateExportFilter_FILE_EXISTS;
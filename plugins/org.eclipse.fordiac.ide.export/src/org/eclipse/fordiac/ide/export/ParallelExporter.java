@@ -0,0 +1,376 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.export;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.fordiac.ide.export.utils.DelayedFiles;
+import org.eclipse.fordiac.ide.export.utils.ExportManifest;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElement;
+import org.eclipse.fordiac.ide.model.typelibrary.CMakeListsMarker;
+import org.eclipse.ui.PlatformUI;
+
+/**
+ * Exports several library elements with one export filter instance per
+ * element.
+ *
+ * For template based filters the file content of independent types is
+ * generated on a worker pool. Writing the files and all dialogs shown to the
+ * user are performed in the order of the given types on the UI thread, or on
+ * the calling thread if there is no workbench. The export may therefore be run
+ * in a forked progress dialog that can be canceled between two types. Other
+ * filters are exported sequentially in the same way. Errors, warnings and infos
+ * of all types are collected into one report.
+ */
+public class ParallelExporter {
+
+	/** Errors, warnings and infos of all exported types. */
+	public static final class ExportReport {
+		private final List<String> errors = new ArrayList<>();
+		private final List<String> warnings = new ArrayList<>();
+		private final List<String> infos = new ArrayList<>();
+
+		public List<String> getErrors() {
+			return errors;
+		}
+
+		public List<String> getWarnings() {
+			return warnings;
+		}
+
+		public List<String> getInfos() {
+			return infos;
+		}
+
+		private void add(final IExportFilter filter) {
+			errors.addAll(filter.getErrors());
+			warnings.addAll(filter.getWarnings());
+			infos.addAll(filter.getInfos());
+		}
+	}
+
+	private static final class PreparedExport {
+		private final LibraryElement type;
+		private final IExportFilter filter;
+		private final DelayedFiles files;
+		private final String sourceHash;
+		private final boolean upToDate;
+
+		private PreparedExport(final LibraryElement type, final IExportFilter filter, final DelayedFiles files,
+				final String sourceHash, final boolean upToDate) {
+			this.type = type;
+			this.filter = filter;
+			this.files = files;
+			this.sourceHash = sourceHash;
+			this.upToDate = upToDate;
+		}
+	}
+
+	private final Supplier<? extends IExportFilter> filterFactory;
+	private final String destination;
+	private final boolean forceOverwrite;
+	private final int parallelism;
+	private boolean incremental;
+	private ExportManifest manifest;
+	/* generated files that are not written yet, they are discarded if the export stops early */
+	private final Set<DelayedFiles> pendingFiles = new HashSet<>();
+	private boolean aborted;
+
+	public ParallelExporter(final Supplier<? extends IExportFilter> filterFactory, final String destination,
+			final boolean forceOverwrite) {
+		this(filterFactory, destination, forceOverwrite, Runtime.getRuntime().availableProcessors());
+	}
+
+	public ParallelExporter(final Supplier<? extends IExportFilter> filterFactory, final String destination,
+			final boolean forceOverwrite, final int parallelism) {
+		this.filterFactory = filterFactory;
+		this.destination = destination;
+		this.forceOverwrite = forceOverwrite;
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * In incremental mode types whose sources did not change since the last export
+	 * into the same destination and whose generated files were not modified are
+	 * skipped. The state of the last export is kept in an {@link ExportManifest}
+	 * in the destination.
+	 */
+	public void setIncremental(final boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	/**
+	 * Export the given types.
+	 *
+	 * @param types   the loaded types to export, files are written in this order
+	 * @param monitor progress monitor, one unit of work is reported per type
+	 * @return the collected messages of all filters
+	 * @throws InterruptedException if the export was canceled or interrupted
+	 */
+	public ExportReport export(final List<? extends LibraryElement> types, final IProgressMonitor monitor)
+			throws InterruptedException {
+		final IProgressMonitor progress = (null != monitor) ? monitor : new NullProgressMonitor();
+		final ExportReport report = new ExportReport();
+		manifest = incremental ? loadManifest(report) : null;
+		synchronized (pendingFiles) {
+			aborted = false;
+		}
+		final ExecutorService executor = Executors
+				.newFixedThreadPool(Math.min(parallelism, Math.max(1, types.size())));
+		boolean completed = false;
+		try {
+			loadTypes(types);
+			final List<IExportFilter> filters = new ArrayList<>(types.size());
+			final List<Future<PreparedExport>> preparedExports = new ArrayList<>(types.size());
+			for (final LibraryElement type : types) {
+				final IExportFilter filter = filterFactory.get();
+				filters.add(filter);
+				final Map<String, LibraryElement> sources = collectSources(type, filter);
+				preparedExports.add(executor.submit(() -> prepare(type, filter, sources)));
+			}
+			for (int i = 0; i < types.size(); i++) {
+				if (progress.isCanceled()) {
+					throw new InterruptedException();
+				}
+				final PreparedExport prepared = getPrepared(preparedExports.get(i), types.get(i), filters.get(i));
+				progress.subTask(getSubTaskName(prepared.type));
+				writeInUIThread(prepared);
+				report.add(prepared.filter);
+				progress.worked(1);
+			}
+			completed = true;
+		} finally {
+			if (!completed) {
+				discardPendingFiles();
+			}
+			executor.shutdownNow();
+		}
+		saveManifest(report);
+		return report;
+	}
+
+	/*
+	 * palette entries load their types lazily and not thread safe, therefore all
+	 * types used in the networks of the exported types are loaded in the calling
+	 * thread before the workers start
+	 */
+	private static void loadTypes(final List<? extends LibraryElement> types) {
+		final Set<LibraryElement> loaded = new HashSet<>();
+		types.forEach(type -> loadNetworkTypes(type, loaded));
+	}
+
+	private static void loadNetworkTypes(final LibraryElement type, final Set<LibraryElement> loaded) {
+		if (!loaded.add(type)) {
+			return;
+		}
+		type.eAllContents().forEachRemaining(object -> {
+			if ((object instanceof FBNetworkElement) && (null != ((FBNetworkElement) object).getPaletteEntry())) {
+				final LibraryElement elementType = ((FBNetworkElement) object).getPaletteEntry().getType();
+				if (null != elementType) {
+					loadNetworkTypes(elementType, loaded);
+				}
+			}
+		});
+	}
+
+	/* the sources are collected in the calling thread as they may load types */
+	private Map<String, LibraryElement> collectSources(final LibraryElement type, final IExportFilter filter) {
+		if ((null == manifest) || !(filter instanceof TemplateExportFilter)) {
+			return null;
+		}
+		return ExportManifest.collectSources(type);
+	}
+
+	private PreparedExport prepare(final LibraryElement type, final IExportFilter filter,
+			final Map<String, LibraryElement> sources) {
+		if (!(filter instanceof TemplateExportFilter)) {
+			// filters unknown to us are not guaranteed to be thread safe, they are
+			// exported on the calling thread
+			return new PreparedExport(type, filter, null, null, false);
+		}
+		final String sourceHash = computeSourceHash(sources, filter);
+		if ((null != sourceHash) && manifest.isUpToDate(ExportManifest.getKey(type), sourceHash)) {
+			return new PreparedExport(type, filter, null, sourceHash, true);
+		}
+		return new PreparedExport(type, filter,
+				keepPending(((TemplateExportFilter) filter).prepareExport(destination, type)), sourceHash, false);
+	}
+
+	private DelayedFiles keepPending(final DelayedFiles files) {
+		synchronized (pendingFiles) {
+			if ((null != files) && aborted) {
+				// the export stopped while the files were generated
+				files.clear();
+				return null;
+			}
+			if (null != files) {
+				pendingFiles.add(files);
+			}
+			return files;
+		}
+	}
+
+	private void discardPendingFiles() {
+		synchronized (pendingFiles) {
+			aborted = true;
+			pendingFiles.forEach(DelayedFiles::clear);
+			pendingFiles.clear();
+		}
+	}
+
+	private static String computeSourceHash(final Map<String, LibraryElement> sources, final IExportFilter filter) {
+		try {
+			return ExportManifest.computeSourceHash(sources, filter.getClass().getName());
+		} catch (final IOException e) {
+			// the type is exported in any case
+			return null;
+		}
+	}
+
+	/* writing may ask the user, which is only possible in the UI thread */
+	private void writeInUIThread(final PreparedExport prepared) {
+		if (PlatformUI.isWorkbenchRunning()) {
+			// syncExec writes directly if we already are in the UI thread
+			PlatformUI.getWorkbench().getDisplay().syncExec(() -> write(prepared));
+		} else {
+			write(prepared);
+		}
+	}
+
+	private void write(final PreparedExport prepared) {
+		if (prepared.upToDate) {
+			return;
+		}
+		if (prepared.filter instanceof TemplateExportFilter) {
+			if (null != prepared.files) {
+				final Map<Path, String> fileHashes = getContentHashes(prepared.files);
+				final boolean written;
+				try {
+					written = ((TemplateExportFilter) prepared.filter).writeFiles(prepared.files, forceOverwrite);
+				} finally {
+					synchronized (pendingFiles) {
+						pendingFiles.remove(prepared.files);
+					}
+				}
+				updateManifest(prepared, written ? fileHashes : null);
+			} else {
+				updateManifest(prepared, null);
+			}
+			return;
+		}
+		try {
+			prepared.filter.export(getTypeFile(prepared.type), destination, forceOverwrite, prepared.type);
+		} catch (final ExportException e) {
+			Activator.getDefault().logError(e.getMessage(), e);
+			prepared.filter.getErrors().add(e.getMessage());
+		}
+	}
+
+	private Map<Path, String> getContentHashes(final DelayedFiles files) {
+		if (null == manifest) {
+			return null;
+		}
+		try {
+			return files.getContentHashes();
+		} catch (final IOException e) {
+			// without hashes the type is exported again next time
+			return null;
+		}
+	}
+
+	private void updateManifest(final PreparedExport prepared, final Map<Path, String> fileHashes) {
+		final String key = ExportManifest.getKey(prepared.type);
+		if ((null == manifest) || (null == key)) {
+			return;
+		}
+		if ((null != fileHashes) && (null != prepared.sourceHash) && prepared.filter.getErrors().isEmpty()) {
+			manifest.update(key, prepared.sourceHash, fileHashes);
+		} else {
+			manifest.remove(key);
+		}
+	}
+
+	private ExportManifest loadManifest(final ExportReport report) {
+		try {
+			return ExportManifest.load(Paths.get(destination));
+		} catch (final IOException e) {
+			Activator.getDefault().logError(e.getMessage(), e);
+			report.getWarnings().add(MessageFormat.format(Messages.ParallelExporter_ManifestNotLoaded, e.getMessage()));
+			return null;
+		}
+	}
+
+	private void saveManifest(final ExportReport report) {
+		if (null != manifest) {
+			try {
+				manifest.save();
+			} catch (final IOException e) {
+				Activator.getDefault().logError(e.getMessage(), e);
+				report.getWarnings()
+				.add(MessageFormat.format(Messages.ParallelExporter_ManifestNotSaved, e.getMessage()));
+			}
+		}
+	}
+
+	private static PreparedExport getPrepared(final Future<PreparedExport> future, final LibraryElement type,
+			final IExportFilter filter) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (final ExecutionException e) {
+			// prepareExport records the problems of the templates as errors, anything else
+			// that went wrong is recorded as an error of this type and the export goes on
+			final Throwable cause = e.getCause();
+			Activator.getDefault().getLog().log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
+					Messages.TemplateExportFilter_ErrorDuringTemplateGeneration, cause));
+			filter.getErrors().add(MessageFormat.format(Messages.TemplateExportFilter_PREFIX_ERRORMESSAGE_WITH_TYPENAME,
+					type.getName(), (null != cause.getMessage()) ? cause.getMessage()
+							: Messages.TemplateExportFilter_ErrorDuringTemplateGeneration));
+			// without files nothing is written and the type is removed from the manifest
+			return new PreparedExport(type, filter, null, null, false);
+		}
+	}
+
+	private static IFile getTypeFile(final LibraryElement type) {
+		if ((type instanceof CMakeListsMarker) || (null == type.getPaletteEntry())) {
+			return null;
+		}
+		return type.getPaletteEntry().getFile();
+	}
+
+	private static String getSubTaskName(final LibraryElement type) {
+		if (type instanceof CMakeListsMarker) {
+			return Messages.ParallelExporter_ExportingCMakeLists;
+		}
+		final String label = (null != type.getPaletteEntry()) ? type.getPaletteEntry().getLabel() : type.getName();
+		return MessageFormat.format(Messages.ParallelExporter_ExportingType, label);
+	}
+}
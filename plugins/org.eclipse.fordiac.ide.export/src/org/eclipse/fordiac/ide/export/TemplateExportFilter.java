@@ -19,6 +19,8 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.export;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.MessageFormat;
@@ -89,9 +91,41 @@ public abstract class TemplateExportFilter extends ExportFilter {
 	@Override
 	public void export(final IFile typeFile, final String destination, final boolean forceOverwrite, final LibraryElement type)
 			throws ExportException {
+		final DelayedFiles files = prepareExport(destination, type);
+		if (null != files) {
+			writeFiles(files, forceOverwrite);
+		}
+	}
+
+	/**
+	 * Generate the files of the given type without writing them.
+	 *
+	 * This step does not interact with the user and may therefore be performed on a
+	 * worker thread, as long as the filter instance is not shared between threads.
+	 *
+	 * @return the generated files or null if the generation failed
+	 */
+	DelayedFiles prepareExport(final String destination, final LibraryElement type) {
 		try {
+			return generateFileContent(destination, type);
+		} catch (final Exception t) {
+			handleException(t);
+			return null;
+		}
+	}
 
-			final DelayedFiles files = generateFileContent(destination, type);
+	/**
+	 * Write the generated files, asking the user how to handle existing files if
+	 * forceOverwrite is not set. Must be called from the thread that is allowed to
+	 * open dialogs. Files whose content did not change are not written again.
+	 *
+	 * The prepared files are discarded in any case afterwards.
+	 *
+	 * @return true if all files are on disk afterwards
+	 */
+	boolean writeFiles(final DelayedFiles files, final boolean forceOverwrite) {
+		try {
+			files.removeUnchanged();
 
 			// set a default value for the result of the MessageDialog that does not
 			// conflict with the current state
@@ -123,32 +157,49 @@ public abstract class TemplateExportFilter extends ExportFilter {
 				if (!overwrite) {
 					openMergeEditor(writtenFiles);
 				}
+				return true;
 			}
 		} catch (final Exception t) {
-			Activator.getDefault().getLog().log(new Status(IStatus.ERROR, Activator.PLUGIN_ID, 1,
-					Messages.TemplateExportFilter_ErrorDuringTemplateGeneration, t));
-			this.getErrors().add(t.getMessage() != null ? t.getMessage()
-					: Messages.TemplateExportFilter_ErrorDuringTemplateGeneration);
+			handleException(t);
+		} finally {
+			// the temporary files are not needed anymore, also when the user canceled
+			files.clear();
 		}
+		return false;
+	}
+
+	private void handleException(final Exception t) {
+		Activator.getDefault().getLog().log(new Status(IStatus.ERROR, Activator.PLUGIN_ID, 1,
+				Messages.TemplateExportFilter_ErrorDuringTemplateGeneration, t));
+		this.getErrors().add(t.getMessage() != null ? t.getMessage()
+				: Messages.TemplateExportFilter_ErrorDuringTemplateGeneration);
 	}
 
-	private DelayedFiles generateFileContent(final String destination, final LibraryElement type) throws ExportException {
+	protected DelayedFiles generateFileContent(final String destination, final LibraryElement type) throws ExportException {
 		final DelayedFiles files = new DelayedFiles();
 
 		final Path destinationPath = Paths.get(destination);
 		final Set<? extends IExportTemplate> templates = this.getTemplates(type);
-		for (final IExportTemplate template : templates) {
-			final CharSequence content = template.generate();
-			getErrors().addAll(reformat(type, template.getErrors()));
-			getWarnings().addAll(reformat(type, template.getWarnings()));
-			getInfos().addAll(reformat(type, template.getInfos()));
-			if (template.getErrors().isEmpty()) {
-				final Path templatePath = destinationPath.resolve(template.getPath());
-				files.write(templatePath, content);
-			} else {
-				files.clear();
-				break;
+		try {
+			for (final IExportTemplate template : templates) {
+				// the templates write straight into the prepared files
+				try (Writer out = files.open(destinationPath.resolve(template.getPath()))) {
+					template.generate(out);
+				}
+				getErrors().addAll(reformat(type, template.getErrors()));
+				getWarnings().addAll(reformat(type, template.getWarnings()));
+				getInfos().addAll(reformat(type, template.getInfos()));
+				if (!template.getErrors().isEmpty()) {
+					files.clear();
+					break;
+				}
 			}
+		} catch (final IOException e) {
+			files.clear();
+			throw new ExportException(e.getMessage());
+		} catch (final ExportException | RuntimeException e) {
+			files.clear();
+			throw e;
 		}
 		return files;
 	}
@@ -14,13 +14,21 @@
 package org.eclipse.fordiac.ide.export.utils;
 
 import java.io.File;
+import java.io.FilterWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.eclipse.fordiac.ide.util.Utils;
@@ -32,30 +40,68 @@ import org.eclipse.fordiac.ide.util.Utils;
  * without error. In case the files already existed keep the existing version in
  * a backup file.
  *
+ * The content of the prepared files is streamed into temporary files, so that
+ * large generated files do not have to be kept in memory until they are
+ * written.
+ *
  */
 public class DelayedFiles {
 
+	private static final String TEMP_FILE_PREFIX = "4diac-export"; //$NON-NLS-1$
+	private static final String TEMP_FILE_SUFFIX = ".tmp"; //$NON-NLS-1$
+	private static final int COMPARE_BUFFER_SIZE = 8192;
+
 	/**
 	 * internal class FileObject
 	 *
-	 * encapsulates path and data of a file in memory (before writing)
+	 * encapsulates path and temporary file of a file before writing
 	 */
 	private static final class FileObject {
 		private final Path path;
-		private final Iterable<? extends CharSequence> data;
+		private final Path tempFile;
 
-		public FileObject(Path path, CharSequence data) {
+		public FileObject(final Path path, final Path tempFile) {
 			this.path = path;
-			this.data = Collections.singleton(data);
+			this.tempFile = tempFile;
 		}
 
 		public Path getPath() {
 			return path;
 		}
 
-		@SuppressWarnings("unchecked")
-		public Iterable<CharSequence> getData() {
-			return (Iterable<CharSequence>) data;
+		public Path getTempFile() {
+			return tempFile;
+		}
+
+		public boolean isUnchanged() throws IOException {
+			return path.toFile().isFile() && contentEquals(tempFile, path);
+		}
+
+		public void delete() throws IOException {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Writer for the content of one prepared file
+	 *
+	 * terminates the content with a line separator when closed, as it has always
+	 * been done for CharSequence data
+	 */
+	private static final class ContentWriter extends FilterWriter {
+		private boolean closed;
+
+		private ContentWriter(final Writer out) {
+			super(out);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!closed) {
+				closed = true;
+				write(System.lineSeparator());
+				super.close();
+			}
 		}
 	}
 
@@ -97,7 +143,7 @@ public class DelayedFiles {
 	}
 
 	/**
-	 * store file data in memory for writing to disk later
+	 * store file data for writing to disk later
 	 *
 	 * @param path  file path to be written to
 	 * @param bytes data to be written as a CharSequence
@@ -105,12 +151,32 @@ public class DelayedFiles {
 	 * @return path to be written to to be compatible with java.nio.file.Files
 	 */
 	public Path write(Path path, CharSequence data) {
-		storage.add(new FileObject(path, data));
+		try (Writer out = open(path)) {
+			out.append(data);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
 		return path;
 	}
 
 	/**
-	 * store file data in memory for writing to disk later
+	 * open a buffered writer for the content of a file to be written to disk later
+	 *
+	 * The content is kept in a temporary file. A line separator is appended when
+	 * the writer is closed.
+	 *
+	 * @param path file path to be written to
+	 *
+	 * @return the writer, the caller has to close it
+	 */
+	public Writer open(Path path) throws IOException {
+		final Path tempFile = Files.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+		storage.add(new FileObject(path, tempFile));
+		return new ContentWriter(Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * write the prepared files to disk
 	 *
 	 * if any of the files to write is already present on disk a backup file of the
 	 * existing file will be created.
@@ -124,17 +190,24 @@ public class DelayedFiles {
 	public Iterable<StoredFiles> write(boolean forceOverwrite) throws IOException {
 		final ArrayList<StoredFiles> ret = new ArrayList<>(storage.size());
 
-		for (final FileObject fo : storage) {
-			File o = null;
-			final File f = fo.getPath().toFile();
-			if (!forceOverwrite && f.exists()) {
-				o = Utils.createBakFile(f);
+		try {
+			for (final FileObject fo : storage) {
+				File o = null;
+				final File f = fo.getPath().toFile();
+				if (!forceOverwrite && f.exists()) {
+					o = Utils.createBakFile(f);
+				}
+				// copy the content instead of moving the temporary file, so that the file
+				// gets the usual permissions and the temporary directory may be on another
+				// file system
+				try (OutputStream out = Files.newOutputStream(fo.getPath())) {
+					Files.copy(fo.getTempFile(), out);
+				}
+				ret.add(new StoredFiles(o, f));
 			}
-			Files.write(fo.getPath(), fo.getData(), StandardCharsets.UTF_8);
-			ret.add(new StoredFiles(o, f));
+		} finally {
+			clear();
 		}
-
-		clear();
 		return ret;
 	}
 
@@ -153,10 +226,46 @@ public class DelayedFiles {
 	}
 
 	/**
-	 * remove all of the data currently prepared in memory
+	 * remove all files whose content is identical to the file already present on
+	 * disk, so that their timestamps are not touched
+	 *
+	 */
+	public void removeUnchanged() throws IOException {
+		final Iterator<FileObject> iter = storage.iterator();
+		while (iter.hasNext()) {
+			final FileObject fo = iter.next();
+			if (fo.isUnchanged()) {
+				fo.delete();
+				iter.remove();
+			}
+		}
+	}
+
+	/**
+	 * compute the hashes of the content of all files currently ready for writing
+	 *
+	 * @return the hashes by file path
+	 */
+	public Map<Path, String> getContentHashes() throws IOException {
+		final Map<Path, String> hashes = new LinkedHashMap<>();
+		for (final FileObject fo : storage) {
+			hashes.put(fo.getPath(), ExportManifest.hash(fo.getTempFile()));
+		}
+		return hashes;
+	}
+
+	/**
+	 * remove all of the data currently prepared
 	 *
 	 */
 	public void clear() {
+		for (final FileObject fo : storage) {
+			try {
+				fo.delete();
+			} catch (final IOException e) {
+				// the temporary file is removed by the system eventually
+			}
+		}
 		storage.clear();
 	}
 
@@ -168,4 +277,22 @@ public class DelayedFiles {
 		return storage.stream().map(item -> item.getPath().getFileName().toString()).collect(Collectors.toList());
 	}
 
+	private static boolean contentEquals(final Path first, final Path second) throws IOException {
+		if (Files.size(first) != Files.size(second)) {
+			return false;
+		}
+		try (InputStream in1 = Files.newInputStream(first); InputStream in2 = Files.newInputStream(second)) {
+			final byte[] buffer1 = new byte[COMPARE_BUFFER_SIZE];
+			final byte[] buffer2 = new byte[COMPARE_BUFFER_SIZE];
+			int read;
+			while ((read = in1.readNBytes(buffer1, 0, COMPARE_BUFFER_SIZE)) > 0) {
+				if ((in2.readNBytes(buffer2, 0, read) != read)
+						|| !Arrays.equals(buffer1, 0, read, buffer2, 0, read)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
 }
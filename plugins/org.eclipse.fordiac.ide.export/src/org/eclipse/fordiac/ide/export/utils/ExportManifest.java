@@ -0,0 +1,318 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.export.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.fordiac.ide.model.Palette.PaletteEntry;
+import org.eclipse.fordiac.ide.model.data.DataType;
+import org.eclipse.fordiac.ide.model.data.StructuredType;
+import org.eclipse.fordiac.ide.model.dataexport.AbstractTypeExporter;
+import org.eclipse.fordiac.ide.model.libraryElement.BaseFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.CompositeFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.fordiac.ide.model.libraryElement.FBType;
+import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElement;
+import org.eclipse.fordiac.ide.model.typelibrary.CMakeListsMarker;
+
+/**
+ * Records for every exported type the hash of its sources and the hashes of the
+ * generated files.
+ *
+ * The manifest is stored in the export destination. A type is up to date if
+ * the hash of its in-memory content and of the types it depends on did not
+ * change and all files generated for it are still unmodified on disk.
+ */
+public final class ExportManifest {
+
+	public static final String MANIFEST_FILE_NAME = ".4diac-export.properties"; //$NON-NLS-1$
+
+	private static final String HASH_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+	private static final String ENTRY_SEPARATOR = ";"; //$NON-NLS-1$
+	private static final String FILE_HASH_SEPARATOR = ":"; //$NON-NLS-1$
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray(); //$NON-NLS-1$
+
+	private static final class Entry {
+		private final String sourceHash;
+		private final Map<String, String> fileHashes;
+
+		private Entry(final String sourceHash, final Map<String, String> fileHashes) {
+			this.sourceHash = sourceHash;
+			this.fileHashes = fileHashes;
+		}
+	}
+
+	private final Path destination;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private ExportManifest(final Path destination) {
+		this.destination = destination.toAbsolutePath();
+	}
+
+	/**
+	 * Load the manifest of the given export destination. If the destination has no
+	 * manifest yet an empty one is returned.
+	 */
+	public static ExportManifest load(final Path destination) throws IOException {
+		final ExportManifest manifest = new ExportManifest(destination);
+		final Path manifestFile = destination.resolve(MANIFEST_FILE_NAME);
+		if (Files.exists(manifestFile)) {
+			final Properties properties = new Properties();
+			try (InputStream in = Files.newInputStream(manifestFile)) {
+				properties.load(in);
+			}
+			properties.stringPropertyNames()
+			.forEach(key -> manifest.entries.put(key, parseEntry(properties.getProperty(key))));
+		}
+		return manifest;
+	}
+
+	/** Store the manifest in the export destination. */
+	public void save() throws IOException {
+		final Properties properties = new Properties();
+		entries.forEach((key, entry) -> properties.setProperty(key, formatEntry(entry)));
+		Files.createDirectories(destination);
+		try (OutputStream out = Files.newOutputStream(destination.resolve(MANIFEST_FILE_NAME))) {
+			properties.store(out, null);
+		}
+	}
+
+	/**
+	 * Check if the files generated for a type are up to date.
+	 *
+	 * @param key        the key of the type, see {@link #getKey(LibraryElement)}
+	 * @param sourceHash the current source hash of the type
+	 * @return true if the sources did not change and the generated files are
+	 *         unmodified
+	 */
+	public boolean isUpToDate(final String key, final String sourceHash) {
+		final Entry entry = entries.get(key);
+		if ((null == entry) || !entry.sourceHash.equals(sourceHash)) {
+			return false;
+		}
+		for (final Map.Entry<String, String> fileHash : entry.fileHashes.entrySet()) {
+			final Path file = destination.resolve(fileHash.getKey());
+			try {
+				if (!Files.isRegularFile(file) || !fileHash.getValue().equals(hash(file))) {
+					return false;
+				}
+			} catch (final IOException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Record the result of a successful export of a type. */
+	public void update(final String key, final String sourceHash, final Map<Path, String> fileHashes) {
+		final Map<String, String> relativeHashes = new TreeMap<>();
+		fileHashes.forEach((path, fileHash) -> relativeHashes
+				.put(destination.relativize(path.toAbsolutePath()).toString(), fileHash));
+		entries.put(key, new Entry(sourceHash, relativeHashes));
+	}
+
+	/** Forget a type, it will be generated again on the next export. */
+	public void remove(final String key) {
+		entries.remove(key);
+	}
+
+	/** @return the manifest key of the type or null if the type has no type file */
+	public static String getKey(final LibraryElement type) {
+		final IFile typeFile = getTypeFile(type);
+		return (null != typeFile) ? typeFile.getFullPath().toString() : null;
+	}
+
+	/**
+	 * Compute the source hash of a type, see
+	 * {@link #computeSourceHash(Map, String)}.
+	 *
+	 * @param type     the type to be exported
+	 * @param exporter an identifier of the exporter, e.g., its class name
+	 * @return the hash or null if the type or one of its dependencies has no type
+	 *         file or cannot be serialized
+	 */
+	public static String computeSourceHash(final LibraryElement type, final String exporter) throws IOException {
+		return computeSourceHash(collectSources(type), exporter);
+	}
+
+	/**
+	 * Collect the type and all adapter, data and FB types it refers to.
+	 *
+	 * Palette entries load their types lazily and not thread safe, therefore the
+	 * sources have to be collected in the thread owning the type library, e.g.,
+	 * before a parallel export starts.
+	 *
+	 * @param type the type to be exported
+	 * @return the loaded types by the path of their type files, null if the type
+	 *         or one of its dependencies has no type file or could not be loaded
+	 */
+	public static Map<String, LibraryElement> collectSources(final LibraryElement type) {
+		final IFile typeFile = getTypeFile(type);
+		if (null == typeFile) {
+			return null;
+		}
+		final Map<String, LibraryElement> sources = new TreeMap<>();
+		sources.put(typeFile.getFullPath().toString(), type);
+		collectDependencies(type, sources);
+		return sources.containsValue(null) ? null : sources;
+	}
+
+	/**
+	 * Compute the source hash of a type from its collected sources.
+	 *
+	 * The hash covers the exporter and the content of the type and of all adapter,
+	 * data and FB types the type refers to. The content is taken from the types in
+	 * memory as they would be saved, so changes not saved yet in an editor are
+	 * part of the hash just like they are part of the export. No type is loaded,
+	 * so the hash can be computed in any thread.
+	 *
+	 * @param sources  the sources of the type, see
+	 *                 {@link #collectSources(LibraryElement)}
+	 * @param exporter an identifier of the exporter, e.g., its class name
+	 * @return the hash or null if there are no sources or one of them cannot be
+	 *         serialized
+	 */
+	public static String computeSourceHash(final Map<String, LibraryElement> sources, final String exporter)
+			throws IOException {
+		if (null == sources) {
+			return null;
+		}
+		final MessageDigest digest = createDigest();
+		digest.update(exporter.getBytes(StandardCharsets.UTF_8));
+		try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+			for (final Map.Entry<String, LibraryElement> source : sources.entrySet()) {
+				digest.update(source.getKey().getBytes(StandardCharsets.UTF_8));
+				if (!AbstractTypeExporter.writeType(source.getValue(), out)) {
+					return null;
+				}
+			}
+		}
+		return toHex(digest.digest());
+	}
+
+	/** @return the hex encoded hash of the given content */
+	public static String hash(final byte[] content) {
+		return toHex(createDigest().digest(content));
+	}
+
+	/** @return the hex encoded hash of the content of the given file */
+	public static String hash(final Path file) throws IOException {
+		final MessageDigest digest = createDigest();
+		try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+			in.transferTo(OutputStream.nullOutputStream());
+		}
+		return toHex(digest.digest());
+	}
+
+	private static void collectDependencies(final LibraryElement type, final Map<String, LibraryElement> sources) {
+		if (type instanceof FBType) {
+			addInterfaceTypes(((FBType) type).getInterfaceList().getAllInterfaceElements(), sources);
+		}
+		if (type instanceof BaseFBType) {
+			addInterfaceTypes(((BaseFBType) type).getInternalVars(), sources);
+		}
+		if ((type instanceof CompositeFBType) && (null != ((CompositeFBType) type).getFBNetwork())) {
+			for (final FBNetworkElement element : ((CompositeFBType) type).getFBNetwork().getNetworkElements()) {
+				addSource(element.getPaletteEntry(), sources);
+			}
+		}
+		if (type instanceof StructuredType) {
+			addInterfaceTypes(((StructuredType) type).getMemberVariables(), sources);
+		}
+	}
+
+	private static void addInterfaceTypes(final Collection<? extends IInterfaceElement> elements,
+			final Map<String, LibraryElement> sources) {
+		for (final IInterfaceElement element : elements) {
+			final DataType dataType = element.getType();
+			if ((null != dataType) && addSource(dataType.getPaletteEntry(), sources)
+					&& (dataType instanceof StructuredType)) {
+				// the layout of nested structures is part of the generated code
+				addInterfaceTypes(((StructuredType) dataType).getMemberVariables(), sources);
+			}
+		}
+	}
+
+	/* loads the type of the entry, a type that cannot be loaded is kept as null */
+	private static boolean addSource(final PaletteEntry entry, final Map<String, LibraryElement> sources) {
+		if ((null == entry) || (null == entry.getFile())) {
+			return false;
+		}
+		final String key = entry.getFile().getFullPath().toString();
+		if (sources.containsKey(key)) {
+			return false;
+		}
+		sources.put(key, entry.getType());
+		return true;
+	}
+
+	private static IFile getTypeFile(final LibraryElement type) {
+		if ((type instanceof CMakeListsMarker) || (null == type.getPaletteEntry())) {
+			return null;
+		}
+		return type.getPaletteEntry().getFile();
+	}
+
+	private static Entry parseEntry(final String value) {
+		final String[] parts = value.split(ENTRY_SEPARATOR);
+		final Map<String, String> fileHashes = new TreeMap<>();
+		for (int i = 1; i < parts.length; i++) {
+			final int separator = parts[i].indexOf(FILE_HASH_SEPARATOR);
+			if (separator > 0) {
+				fileHashes.put(parts[i].substring(separator + 1), parts[i].substring(0, separator));
+			}
+		}
+		return new Entry(parts[0], fileHashes);
+	}
+
+	private static String formatEntry(final Entry entry) {
+		final StringBuilder builder = new StringBuilder(entry.sourceHash);
+		entry.fileHashes.forEach((file, fileHash) -> builder.append(ENTRY_SEPARATOR).append(fileHash)
+				.append(FILE_HASH_SEPARATOR).append(file));
+		return builder.toString();
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance(HASH_ALGORITHM);
+		} catch (final NoSuchAlgorithmException e) {
+			// every Java platform has to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(final byte[] bytes) {
+		final char[] hex = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+			hex[(2 * i) + 1] = HEX_DIGITS[bytes[i] & 0xF];
+		}
+		return new String(hex);
+	}
+}
@@ -13,9 +13,12 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.fb.interpreter.mm.utils;
 
+import java.util.function.Consumer;
+
 import org.eclipse.emf.ecore.util.EcoreUtil.Copier;
 import org.eclipse.fordiac.ide.fb.interpreter.OpSem.EventManager;
 import org.eclipse.fordiac.ide.fb.interpreter.OpSem.FBRuntimeAbstract;
+import org.eclipse.fordiac.ide.fb.interpreter.OpSem.Transaction;
 
 public class EventManagerUtils {
 
@@ -24,9 +27,24 @@ public class EventManagerUtils {
 	}
 
 	public static final void process(EventManager eventManager) {
+		process(eventManager, transaction -> {
+			// nothing to prepare
+		});
+	}
+
+	/**
+	 * Process the transactions of the event manager in order.
+	 *
+	 * @param eventManager the event manager
+	 * @param beforeRun    called for each transaction right before it runs, when
+	 *                     the runtime of the transaction already is the copy of
+	 *                     the runtime after the previous transaction
+	 */
+	public static final void process(EventManager eventManager, Consumer<Transaction> beforeRun) {
 		final var transactions = eventManager.getTransactions();
 		for (var i = 0; i < transactions.size(); i++) {
 			final var transaction = transactions.get(i);
+			beforeRun.accept(transaction);
 			final var result = transaction.getInputEventOccurrence().getFbRuntime().run();
 			transaction.getOutputEventOccurences().addAll(result);
 			if ((i + 1) < transactions.size()) {
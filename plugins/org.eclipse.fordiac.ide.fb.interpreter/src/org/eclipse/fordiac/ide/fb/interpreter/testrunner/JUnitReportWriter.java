@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.fb.interpreter.testrunner;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/** Writes service sequence results as a JUnit XML report with one test suite per FB type. */
+public final class JUnitReportWriter {
+
+	private static final String TESTSUITES = "testsuites"; //$NON-NLS-1$
+	private static final String TESTSUITE = "testsuite"; //$NON-NLS-1$
+	private static final String TESTCASE = "testcase"; //$NON-NLS-1$
+	private static final String FAILURE = "failure"; //$NON-NLS-1$
+	private static final String NAME = "name"; //$NON-NLS-1$
+	private static final String CLASSNAME = "classname"; //$NON-NLS-1$
+	private static final String TESTS = "tests"; //$NON-NLS-1$
+	private static final String FAILURES = "failures"; //$NON-NLS-1$
+	private static final String TIME = "time"; //$NON-NLS-1$
+	private static final String MESSAGE = "message"; //$NON-NLS-1$
+
+	private JUnitReportWriter() {
+		throw new UnsupportedOperationException("JUnitReportWriter utility class should not be instantiated!"); //$NON-NLS-1$
+	}
+
+	public static void write(final List<ServiceSequenceResult> results, final OutputStream out)
+			throws XMLStreamException {
+		final Map<String, List<ServiceSequenceResult>> suites = new LinkedHashMap<>();
+		for (final ServiceSequenceResult result : results) {
+			suites.computeIfAbsent(result.getTypeName(), k -> new ArrayList<>()).add(result);
+		}
+
+		final XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out,
+				StandardCharsets.UTF_8.name());
+		try {
+			writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0"); //$NON-NLS-1$
+			writer.writeStartElement(TESTSUITES);
+			writer.writeAttribute(TESTS, Integer.toString(results.size()));
+			writer.writeAttribute(FAILURES, Long.toString(countFailures(results)));
+			writer.writeAttribute(TIME, formatTime(sumDuration(results)));
+			for (final Map.Entry<String, List<ServiceSequenceResult>> suite : suites.entrySet()) {
+				writeSuite(writer, suite.getKey(), suite.getValue());
+			}
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.flush();
+		} finally {
+			writer.close();
+		}
+	}
+
+	private static void writeSuite(final XMLStreamWriter writer, final String typeName,
+			final List<ServiceSequenceResult> results) throws XMLStreamException {
+		writer.writeStartElement(TESTSUITE);
+		writer.writeAttribute(NAME, typeName);
+		writer.writeAttribute(TESTS, Integer.toString(results.size()));
+		writer.writeAttribute(FAILURES, Long.toString(countFailures(results)));
+		writer.writeAttribute(TIME, formatTime(sumDuration(results)));
+		for (final ServiceSequenceResult result : results) {
+			writer.writeStartElement(TESTCASE);
+			writer.writeAttribute(CLASSNAME, typeName);
+			writer.writeAttribute(NAME, String.valueOf(result.getSequenceName()));
+			writer.writeAttribute(TIME, formatTime(result.getDurationNanos()));
+			if (!result.isSuccess()) {
+				writer.writeStartElement(FAILURE);
+				writer.writeAttribute(MESSAGE, result.getFailure());
+				writer.writeEndElement();
+			}
+			writer.writeEndElement();
+		}
+		writer.writeEndElement();
+	}
+
+	private static long countFailures(final List<ServiceSequenceResult> results) {
+		return results.stream().filter(r -> !r.isSuccess()).count();
+	}
+
+	private static long sumDuration(final List<ServiceSequenceResult> results) {
+		return results.stream().mapToLong(ServiceSequenceResult::getDurationNanos).sum();
+	}
+
+	private static String formatTime(final long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / 1.0e9); //$NON-NLS-1$
+	}
+}
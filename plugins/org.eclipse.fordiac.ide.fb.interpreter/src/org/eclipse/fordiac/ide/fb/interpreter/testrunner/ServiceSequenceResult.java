@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.fb.interpreter.testrunner;
+
+/** Outcome of running one service sequence of one FB type through the interpreter. */
+public final class ServiceSequenceResult {
+
+	private final String typeName;
+	private final String sequenceName;
+	private final long durationNanos;
+	private final String failure;
+
+	public ServiceSequenceResult(final String typeName, final String sequenceName, final long durationNanos,
+			final String failure) {
+		this.typeName = typeName;
+		this.sequenceName = sequenceName;
+		this.durationNanos = durationNanos;
+		this.failure = failure;
+	}
+
+	public String getTypeName() {
+		return typeName;
+	}
+
+	public String getSequenceName() {
+		return sequenceName;
+	}
+
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	/** @return the failure message or null if the sequence passed */
+	public String getFailure() {
+		return failure;
+	}
+
+	public boolean isSuccess() {
+		return null == failure;
+	}
+}
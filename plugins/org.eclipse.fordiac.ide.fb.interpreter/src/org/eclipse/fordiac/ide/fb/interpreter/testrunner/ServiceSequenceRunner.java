@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.fb.interpreter.testrunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.EcoreUtil.Copier;
+import org.eclipse.fordiac.ide.fb.interpreter.OpSem.BasicFBTypeRuntime;
+import org.eclipse.fordiac.ide.fb.interpreter.OpSem.EventManager;
+import org.eclipse.fordiac.ide.fb.interpreter.OpSem.EventOccurrence;
+import org.eclipse.fordiac.ide.fb.interpreter.OpSem.OperationalSemanticsFactory;
+import org.eclipse.fordiac.ide.fb.interpreter.OpSem.Transaction;
+import org.eclipse.fordiac.ide.fb.interpreter.mm.utils.EventManagerUtils;
+import org.eclipse.fordiac.ide.model.FordiacKeywords;
+import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.ECState;
+import org.eclipse.fordiac.ide.model.libraryElement.Event;
+import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.OutputPrimitive;
+import org.eclipse.fordiac.ide.model.libraryElement.ServiceSequence;
+import org.eclipse.fordiac.ide.model.libraryElement.ServiceTransaction;
+import org.eclipse.fordiac.ide.model.libraryElement.Value;
+import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
+
+/**
+ * Runs the service sequences of a basic FB type through the interpreter and
+ * compares the produced output events and data with the expected output
+ * primitives.
+ *
+ * Every sequence is executed on its own copy of the type starting in the ECC's
+ * start state, so the results do not depend on the order of execution and
+ * sequences of different types can safely be run concurrently. The input
+ * parameters of a transaction only take effect from that transaction on.
+ */
+public final class ServiceSequenceRunner {
+
+	private static final String INTERNAL_INTERFACE = "internal"; //$NON-NLS-1$
+	private static final String BOOL_TRUE = "TRUE"; //$NON-NLS-1$
+	private static final String BOOL_FALSE = "FALSE"; //$NON-NLS-1$
+
+	private ServiceSequenceRunner() {
+		throw new UnsupportedOperationException("ServiceSequenceRunner utility class should not be instantiated!"); //$NON-NLS-1$
+	}
+
+	/** Run all service sequences of the given type. */
+	public static List<ServiceSequenceResult> runAll(final BasicFBType type) {
+		if ((null == type.getService()) || (null == type.getECC())) {
+			return Collections.emptyList();
+		}
+		final List<ServiceSequenceResult> results = new ArrayList<>();
+		for (int i = 0; i < type.getService().getServiceSequence().size(); i++) {
+			results.add(run(type, i));
+		}
+		return results;
+	}
+
+	/** Run the service sequence with the given index on a copy of the type. */
+	public static ServiceSequenceResult run(final BasicFBType type, final int sequenceIndex) {
+		final String sequenceName = type.getService().getServiceSequence().get(sequenceIndex).getName();
+		final long start = System.nanoTime();
+		String failure = null;
+		try {
+			final BasicFBType fb = EcoreUtil.copy(type);
+			runSequence(fb, fb.getService().getServiceSequence().get(sequenceIndex), fb.getECC().getStart());
+		} catch (final Exception e) {
+			failure = (null != e.getMessage()) ? e.getMessage() : e.getClass().getName();
+		}
+		return new ServiceSequenceResult(type.getName(), sequenceName, System.nanoTime() - start, failure);
+	}
+
+	/**
+	 * Run a service sequence on the given type.
+	 *
+	 * The input parameters of each transaction are set on the runtime of that
+	 * transaction right before it runs. The type itself is not changed.
+	 *
+	 * @param fb         the type the sequence belongs to
+	 * @param seq        the service sequence
+	 * @param startState the state of the ECC the sequence starts in
+	 * @return the type as it is after the last transaction
+	 * @throws IllegalArgumentException if the results do not match the sequence
+	 */
+	public static BasicFBType runSequence(final BasicFBType fb, final ServiceSequence seq, final ECState startState) {
+		final Resource resource = new ResourceSetImpl()
+				.createResource(URI.createURI("platform:/resource/" + fb.getName() + ".xmi")); //$NON-NLS-1$ //$NON-NLS-2$
+		final EventManager eventManager = OperationalSemanticsFactory.eINSTANCE.createEventManager();
+		resource.getContents().add(eventManager);
+		final BasicFBTypeRuntime runtime = OperationalSemanticsFactory.eINSTANCE.createBasicFBTypeRuntime();
+		runtime.setBasicfbtype(fb);
+		runtime.setActiveState(startState);
+
+		final Map<Transaction, String> inputParameters = new HashMap<>();
+		final List<Transaction> transactions = createTransactions(fb, seq, runtime, inputParameters);
+		if (transactions.isEmpty()) {
+			return fb;
+		}
+		eventManager.getTransactions().addAll(transactions);
+		EventManagerUtils.process(eventManager, transaction -> {
+			final BasicFBTypeRuntime transactionRuntime = (BasicFBTypeRuntime) transaction.getInputEventOccurrence()
+					.getFbRuntime();
+			for (final List<String> parameter : getParametersFromString(inputParameters.get(transaction))) {
+				setVariable(transactionRuntime.getBasicfbtype(), parameter);
+			}
+		});
+		checkResults(seq, eventManager);
+		return getResultType(fb, transactions.get(transactions.size() - 1));
+	}
+
+	private static List<Transaction> createTransactions(final BasicFBType fb, final ServiceSequence seq,
+			final BasicFBTypeRuntime runtime, final Map<Transaction, String> inputParameters) {
+		final List<Transaction> transactions = new ArrayList<>();
+		for (final ServiceTransaction st : seq.getServiceTransaction()) {
+			if ((null == st.getInputPrimitive()) || (null == st.getInputPrimitive().getEvent())) {
+				continue;
+			}
+			final String inputEvent = st.getInputPrimitive().getEvent();
+			final IInterfaceElement eventPin = fb.getInterfaceList().getInterfaceElement(inputEvent);
+			if (!(eventPin instanceof Event)) {
+				throw new IllegalArgumentException("input primitive: event " + inputEvent + " does not exist"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			final EventOccurrence eventOccurrence = OperationalSemanticsFactory.eINSTANCE.createEventOccurrence();
+			eventOccurrence.setEvent((Event) eventPin);
+			final Transaction transaction = OperationalSemanticsFactory.eINSTANCE.createTransaction();
+			transaction.setInputEventOccurrence(eventOccurrence);
+			inputParameters.put(transaction, st.getInputPrimitive().getParameters());
+			transactions.add(transaction);
+		}
+		if (!transactions.isEmpty()) {
+			// the first transaction works on a copy of the runtime
+			final Copier copier = new Copier();
+			final BasicFBTypeRuntime copy = (BasicFBTypeRuntime) copier.copy(runtime);
+			copier.copyReferences();
+			transactions.get(0).getInputEventOccurrence().setFbRuntime(copy);
+		}
+		return transactions;
+	}
+
+	/* the type of the runtime after the last output event of the transaction */
+	private static BasicFBType getResultType(final BasicFBType fb, final Transaction last) {
+		if (last.getOutputEventOccurences().isEmpty()) {
+			return fb;
+		}
+		final EventOccurrence lastOutput = last.getOutputEventOccurences()
+				.get(last.getOutputEventOccurences().size() - 1);
+		return ((BasicFBTypeRuntime) lastOutput.getFbRuntime()).getBasicfbtype();
+	}
+
+	private static void setVariable(final BasicFBType fb, final List<String> parameter) {
+		if (parameter.size() != 2) {
+			return;
+		}
+		final IInterfaceElement el = fb.getInterfaceList().getInterfaceElement(parameter.get(0).trim());
+		if (!(el instanceof VarDeclaration)) {
+			throw new IllegalArgumentException("variable " + parameter.get(0) + " does not exist in FB"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		final VarDeclaration variable = (VarDeclaration) el;
+		if (null == variable.getValue()) {
+			variable.setValue(LibraryElementFactory.eINSTANCE.createValue());
+		}
+		variable.getValue().setValue(parameter.get(1).trim());
+	}
+
+	private static void checkResults(final ServiceSequence seq, final EventManager eventManager) {
+		final List<ServiceTransaction> expectedResults = new ArrayList<>();
+		for (final ServiceTransaction st : seq.getServiceTransaction()) {
+			if ((null != st.getInputPrimitive()) && (null != st.getInputPrimitive().getEvent())) {
+				expectedResults.add(st);
+			}
+		}
+		final EList<Transaction> results = eventManager.getTransactions();
+		if (expectedResults.size() != results.size()) {
+			throw new IllegalArgumentException("Number of executed transactions does not match the sequence"); //$NON-NLS-1$
+		}
+		for (int i = 0; i < expectedResults.size(); i++) {
+			checkTransaction(i, results.get(i), expectedResults.get(i));
+		}
+	}
+
+	private static void checkTransaction(final int index, final Transaction result,
+			final ServiceTransaction expectedResult) {
+		if (!result.getInputEventOccurrence().getEvent().getName()
+				.equals(expectedResult.getInputPrimitive().getEvent())) {
+			throw new IllegalArgumentException(
+					"Transaction " + index + ": input event was not generated correctly"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		final List<OutputPrimitive> expectedOutputs = new ArrayList<>();
+		for (final OutputPrimitive p : expectedResult.getOutputPrimitive()) {
+			if (!isInternal(p)) {
+				expectedOutputs.add(p);
+			}
+		}
+		if (expectedOutputs.size() != result.getOutputEventOccurences().size()) {
+			throw new IllegalArgumentException("Transaction " + index + ": expected " + expectedOutputs.size() //$NON-NLS-1$ //$NON-NLS-2$
+			+ " output events but got " + result.getOutputEventOccurences().size()); //$NON-NLS-1$
+		}
+
+		for (int j = 0; j < expectedOutputs.size(); j++) {
+			final OutputPrimitive p = expectedOutputs.get(j);
+			final String actual = result.getOutputEventOccurences().get(j).getEvent().getName();
+			if (!p.getEvent().equals(actual)) {
+				throw new IllegalArgumentException("Transaction " + index + ": expected output event " + p.getEvent() //$NON-NLS-1$ //$NON-NLS-2$
+				+ " but got " + actual); //$NON-NLS-1$
+			}
+			if (!processParameters(p.getParameters(), result)) {
+				throw new IllegalArgumentException("Transaction " + index + ": parameter values do not match " //$NON-NLS-1$ //$NON-NLS-2$
+						+ p.getParameters());
+			}
+		}
+	}
+
+	private static boolean isInternal(final OutputPrimitive p) {
+		return (null != p.getInterface()) && (null != p.getInterface().getName())
+				&& p.getInterface().getName().toLowerCase().contains(INTERNAL_INTERFACE);
+	}
+
+	private static boolean processParameters(final String parameters, final Transaction result) {
+		if ((parameters == null) || parameters.isBlank()) {
+			return true;
+		}
+		final int length = result.getOutputEventOccurences().size();
+		final BasicFBTypeRuntime captured = (BasicFBTypeRuntime) result.getOutputEventOccurences().get(length - 1)
+				.getFbRuntime();
+		for (final List<String> assumption : getParametersFromString(parameters)) {
+			if ((assumption.size() == 2)
+					&& !processParameter(assumption.get(0).trim(), assumption.get(1).trim(), captured.getBasicfbtype())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static List<List<String>> getParametersFromString(final String parameters) {
+		if ((null == parameters) || parameters.isBlank()) {
+			return Collections.emptyList();
+		}
+		final List<List<String>> parameterList = new ArrayList<>();
+		for (final String element : parameters.split(";")) { //$NON-NLS-1$
+			if (!element.isBlank()) {
+				parameterList.add(Arrays.asList(element.split(":="))); //$NON-NLS-1$
+			}
+		}
+		return parameterList;
+	}
+
+	private static boolean processParameter(final String varName, final String expectedValue,
+			final BasicFBType basicfbtype) {
+		if (expectedValue.isBlank()) {
+			return true;
+		}
+		final IInterfaceElement el = basicfbtype.getInterfaceList().getInterfaceElement(varName);
+		if (el instanceof VarDeclaration) {
+			final Value val = ((VarDeclaration) el).getValue();
+			if (null == val) {
+				return false;
+			}
+			if (FordiacKeywords.BOOL.equalsIgnoreCase(((VarDeclaration) el).getTypeName())) {
+				// special treatment for bools: 1 = TRUE, 0 = FALSE
+				return normalizeBool(expectedValue).equalsIgnoreCase(normalizeBool(val.getValue()));
+			}
+			return expectedValue.equalsIgnoreCase(val.getValue());
+		}
+		return false;
+	}
+
+	private static String normalizeBool(final String value) {
+		if ("1".equals(value)) { //$NON-NLS-1$
+			return BOOL_TRUE;
+		}
+		if ("0".equals(value)) { //$NON-NLS-1$
+			return BOOL_FALSE;
+		}
+		return value;
+	}
+}
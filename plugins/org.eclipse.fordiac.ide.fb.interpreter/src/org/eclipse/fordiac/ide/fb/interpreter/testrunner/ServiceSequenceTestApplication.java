@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.fb.interpreter.testrunner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+
+/**
+ * Headless application running the service sequences of a type library.
+ *
+ * Usage: {@code -application org.eclipse.fordiac.ide.fb.interpreter.servicesequencetest
+ * <typeLibFolder> [<report.xml>]}. The exit code is 0 if all sequences passed
+ * and 1 otherwise.
+ */
+public class ServiceSequenceTestApplication implements IApplication {
+
+	private static final Integer EXIT_FAILED = Integer.valueOf(1);
+
+	@Override
+	public Object start(final IApplicationContext context) throws Exception {
+		final String[] args = (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+		if ((null == args) || (args.length < 1)) {
+			System.err.println("Usage: <typeLibFolder> [<report.xml>]"); //$NON-NLS-1$
+			return EXIT_FAILED;
+		}
+
+		final List<ServiceSequenceResult> results = new TypeLibraryTestRunner().run(new File(args[0]));
+		if (args.length > 1) {
+			try (OutputStream out = new FileOutputStream(args[1])) {
+				JUnitReportWriter.write(results, out);
+			}
+		} else {
+			JUnitReportWriter.write(results, System.out);
+		}
+		return results.stream().allMatch(ServiceSequenceResult::isSuccess) ? IApplication.EXIT_OK : EXIT_FAILED;
+	}
+
+	@Override
+	public void stop() {
+		// nothing to do, the runner terminates on its own
+	}
+}
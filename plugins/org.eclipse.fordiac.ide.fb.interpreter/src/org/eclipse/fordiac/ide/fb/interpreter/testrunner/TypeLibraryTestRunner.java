@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.fb.interpreter.testrunner;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.eclipse.fordiac.ide.fb.interpreter.mm.FunctionBlockFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementPackage;
+import org.eclipse.fordiac.ide.model.typelibrary.TypeLibraryTags;
+
+/**
+ * Runs all service sequences of all basic FB types found in a type library
+ * folder through the interpreter.
+ *
+ * Each type file is loaded into its own resource set on one of the worker
+ * threads, so types never share model objects and can be checked in parallel.
+ * The runner does not need a workspace or a workbench.
+ */
+public class TypeLibraryTestRunner {
+
+	private static final String XMI_FILE_ENDING = "xmi"; //$NON-NLS-1$
+
+	private final int parallelism;
+
+	public TypeLibraryTestRunner() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public TypeLibraryTestRunner(final int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * Collect all type files below the given folder and run their service
+	 * sequences.
+	 *
+	 * @param typeLibFolder the root folder of the type library
+	 * @return the results ordered by file and sequence
+	 */
+	public List<ServiceSequenceResult> run(final File typeLibFolder) throws InterruptedException {
+		final List<File> typeFiles = new ArrayList<>();
+		collectTypeFiles(typeLibFolder, typeFiles);
+		Collections.sort(typeFiles);
+		return run(typeFiles);
+	}
+
+	/** Run the service sequences of the given type files. */
+	public List<ServiceSequenceResult> run(final Collection<File> typeFiles) throws InterruptedException {
+		final List<Callable<List<ServiceSequenceResult>>> tasks = new ArrayList<>(typeFiles.size());
+		for (final File typeFile : typeFiles) {
+			tasks.add(() -> runTypeFile(typeFile));
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, tasks.size())));
+		try {
+			final List<ServiceSequenceResult> results = new ArrayList<>();
+			for (final Future<List<ServiceSequenceResult>> future : executor.invokeAll(tasks)) {
+				results.addAll(getResult(future));
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static List<ServiceSequenceResult> getResult(final Future<List<ServiceSequenceResult>> future)
+			throws InterruptedException {
+		try {
+			return future.get();
+		} catch (final ExecutionException e) {
+			// runTypeFile reports all problems as results, this is only reached for errors
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private static List<ServiceSequenceResult> runTypeFile(final File typeFile) {
+		final long start = System.nanoTime();
+		final EObject root;
+		try {
+			root = loadType(typeFile);
+		} catch (final Exception e) {
+			// a null failure would report the load as successful
+			final String failure = (null != e.getMessage()) ? e.getMessage() : e.getClass().getName();
+			return Collections.singletonList(new ServiceSequenceResult(typeFile.getName(),
+					"load", System.nanoTime() - start, failure)); //$NON-NLS-1$
+		}
+		if (root instanceof BasicFBType) {
+			return ServiceSequenceRunner.runAll((BasicFBType) root);
+		}
+		return Collections.emptyList();
+	}
+
+	private static EObject loadType(final File typeFile) {
+		final ResourceSet resourceSet = new ResourceSetImpl();
+		resourceSet.getPackageRegistry().put(LibraryElementPackage.eINSTANCE.getNsURI(),
+				LibraryElementPackage.eINSTANCE);
+		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap()
+		.put(TypeLibraryTags.FB_TYPE_FILE_ENDING.toLowerCase(), new FunctionBlockFactory());
+		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(XMI_FILE_ENDING,
+				new XMIResourceFactoryImpl());
+		final Resource resource = resourceSet.getResource(URI.createFileURI(typeFile.getAbsolutePath()), true);
+		return resource.getContents().isEmpty() ? null : resource.getContents().get(0);
+	}
+
+	private static void collectTypeFiles(final File folder, final List<File> typeFiles) {
+		final File[] children = folder.listFiles();
+		if (null == children) {
+			return;
+		}
+		for (final File child : children) {
+			if (child.isDirectory()) {
+				collectTypeFiles(child, typeFiles);
+			} else if (isTypeFile(child.getName())) {
+				typeFiles.add(child);
+			}
+		}
+	}
+
+	private static boolean isTypeFile(final String fileName) {
+		final String lowerName = fileName.toLowerCase();
+		return lowerName.endsWith("." + TypeLibraryTags.FB_TYPE_FILE_ENDING.toLowerCase()) //$NON-NLS-1$
+				|| lowerName.endsWith("." + XMI_FILE_ENDING); //$NON-NLS-1$
+	}
+}
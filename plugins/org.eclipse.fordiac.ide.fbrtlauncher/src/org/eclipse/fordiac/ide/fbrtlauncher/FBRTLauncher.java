@@ -26,6 +26,7 @@ import org.eclipse.fordiac.ide.runtime.IRuntimeLauncher;
 import org.eclipse.fordiac.ide.runtime.LaunchParameter;
 import org.eclipse.fordiac.ide.runtime.LaunchRuntimeException;
 import org.eclipse.fordiac.ide.runtime.LaunchRuntimeUtils;
+import org.eclipse.fordiac.ide.runtime.RuntimeLaunchService;
 import org.eclipse.jface.util.IPropertyChangeListener;
 
 /**
@@ -53,11 +54,12 @@ public class FBRTLauncher implements IRuntimeLauncher {
 	}
 
 	@Override
-	public void launch() throws LaunchRuntimeException {
+	public RuntimeLaunchService.LaunchRequest createLaunchRequest() throws LaunchRuntimeException {
 		checkPlatform();
 		final String javaRte = getJavaRte();
 		final String runtimePath = getRuntimePath();
 
+		final int port = getPortNumber();
 		final String deviceType = params.get(1).getValue();
 		String fbrtPath = "fb.rt."; //$NON-NLS-1$
 		if (RMT_FRAME.equalsIgnoreCase(deviceType)) {
@@ -68,11 +70,10 @@ public class FBRTLauncher implements IRuntimeLauncher {
 				+ new File(runtimePath).getName() + File.pathSeparatorChar + " " //$NON-NLS-1$
 				+ fbrtPath + deviceType + " -n " //$NON-NLS-1$
 				+ deviceType + " -s " //$NON-NLS-1$
-				+ Integer.toString(getPortNumber()) + " -p " //$NON-NLS-1$
+				+ Integer.toString(port) + " -p " //$NON-NLS-1$
 				+ Activator.getDefault().getPreferenceStore().getString(PreferenceConstants.P_LIB);
-		LaunchRuntimeUtils.startRuntime("FBRT " + deviceType + " on port " + Integer.toString(getPortNumber()), javaRte, //$NON-NLS-1$ //$NON-NLS-2$
-				new File(runtimePath).getParentFile().getAbsolutePath(), arguments);
-
+		return LaunchRuntimeUtils.createLaunchRequest("FBRT " + deviceType + " on port " + Integer.toString(port), javaRte, //$NON-NLS-1$ //$NON-NLS-2$
+				new File(runtimePath).getParentFile().getAbsolutePath(), arguments, port);
 	}
 
 	@Override
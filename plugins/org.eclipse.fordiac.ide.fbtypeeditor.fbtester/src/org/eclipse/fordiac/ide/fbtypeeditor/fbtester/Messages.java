@@ -57,6 +57,13 @@ public final class Messages extends NLS {
 	public static String FORTERemoteTester_StartTestingFB;
 	public static String FORTERemoteTester_StopTestingFB;
 	public static String FORTERemoteTester_ThreadInterrupted;
+	public static String TestBatchRunner_EventOutputsMissing;
+	public static String TestBatchRunner_NoResponse;
+	public static String TestBatchRunner_RequestRejected;
+	public static String TestBatchRunner_ResponseTimeout;
+	public static String TestBatchRunner_UnexpectedValue;
+	public static String TestBatchRunner_WatchRejected;
+	public static String TestBatchRunner_WatchesNotSettled;
 	public static String TestdataFactoryImpl_TheClassIsNotAValidClassifier;
 
 	static {
@@ -15,27 +15,18 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.fbtypeeditor.fbtester.configuration;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.StringReader;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.xml.stream.XMLStreamException;
 
-import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.xmi.XMLResource;
-import org.eclipse.emf.ecore.xmi.impl.XMLResourceImpl;
-import org.eclipse.fordiac.ide.deployment.devResponse.Data;
-import org.eclipse.fordiac.ide.deployment.devResponse.FB;
-import org.eclipse.fordiac.ide.deployment.devResponse.Port;
-import org.eclipse.fordiac.ide.deployment.devResponse.Response;
 import org.eclipse.fordiac.ide.deployment.iec61499.DeploymentExecutor;
-import org.eclipse.fordiac.ide.deployment.iec61499.ResponseMapping;
 import org.eclipse.fordiac.ide.fbtester.model.testdata.ValuedVarDecl;
 import org.eclipse.fordiac.ide.fbtypeeditor.fbtester.Activator;
 import org.eclipse.fordiac.ide.fbtypeeditor.fbtester.IFBTestConfiguration;
@@ -43,6 +34,7 @@ import org.eclipse.fordiac.ide.fbtypeeditor.fbtester.IFBTestConfiguratonCreator;
 import org.eclipse.fordiac.ide.fbtypeeditor.fbtester.Messages;
 import org.eclipse.fordiac.ide.fbtypeeditor.fbtester.TestingManager;
 import org.eclipse.fordiac.ide.fbtypeeditor.fbtester.configuration.internal.Utils;
+import org.eclipse.fordiac.ide.fbtypeeditor.fbtester.configuration.internal.WatchResponses;
 import org.eclipse.fordiac.ide.fbtypeeditor.fbtester.model.TestElement;
 import org.eclipse.fordiac.ide.model.libraryElement.Event;
 import org.eclipse.fordiac.ide.model.libraryElement.FBType;
@@ -60,7 +52,6 @@ import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.MessageBox;
 import org.eclipse.swt.widgets.Text;
-import org.xml.sax.InputSource;
 
 public class FORTERemoteTester implements IFBTestConfiguratonCreator {
 	private static final String LAST_IP = "lastIp"; //$NON-NLS-1$
@@ -68,15 +59,11 @@ public class FORTERemoteTester implements IFBTestConfiguratonCreator {
 	private Button run;
 	private FBType type;
 	private boolean running;
-	private Socket socket;
+	private RuntimeConnection connection;
+	private TestBatchRunner runner;
 	private IDialogSettings forteRemoteTesterSettings;
 	private Text ipText;
 	private Text runTimePortText;
-	private final ResponseMapping data = new ResponseMapping();
-
-	private enum SendType {
-		REQ, ADD_WATCH, REMOVE_WATCH, TRIGGER_EVENT, START_EVENT_COUNT, FORCE_VALUE
-	}
 
 	public FORTERemoteTester() {
 		final IDialogSettings settings = Activator.getDefault().getDialogSettings();
@@ -137,15 +124,12 @@ public class FORTERemoteTester implements IFBTestConfiguratonCreator {
 						run.setSelection(false);
 						return;
 					}
-					final int thread = 0;
 					try {
-						socket = new Socket(InetAddress.getByName(ipAddress), runtimePort);
-						socket.setSoTimeout(500);
+						connection = new RuntimeConnection(new Socket(InetAddress.getByName(ipAddress), runtimePort));
+						runner = new TestBatchRunner(connection, "_" + type.getName() + "_RES", "_" + type.getName()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 						addWatches("_" + type.getName()); //$NON-NLS-1$
 						setRunning(true);
-						final Thread t = new Thread(new TriggerRequestRunnable(socket, thread));
-						t.start();
-						Thread.sleep(500);
+						readWatches();
 					} catch (final IOException e1) {
 						Activator.getDefault().logError(e1.getMessage(), e1);
 					} catch (final InterruptedException ex) {
@@ -154,19 +138,14 @@ public class FORTERemoteTester implements IFBTestConfiguratonCreator {
 					}
 				} else {
 					setRunning(false);
-					final String response = Utils.cleanNetwork(type, ipText.getText(), runtimePort, socket);
+					closeConnection();
+					final String response = Utils.cleanNetwork(type, ipText.getText(), runtimePort, null);
 					if (response != null) {
 						final MessageBox msb = new MessageBox(Display.getCurrent().getActiveShell(), SWT.ERROR);
 						msb.setMessage(MessageFormat.format(
 								Messages.FORTERemoteTester_FBCanNotBeCleanedBecauseOfTheFollowingError, response));
 						msb.open();
 					}
-					try {
-						socket.close();
-						socket = null;
-					} catch (final IOException e1) {
-						Activator.getDefault().logError(e1.getMessage(), e1);
-					}
 				}
 			}
 
@@ -202,158 +181,74 @@ public class FORTERemoteTester implements IFBTestConfiguratonCreator {
 		}
 	}
 
-	private void addWatches(final String fbName) {
+	private void closeConnection() {
+		if (null != connection) {
+			try {
+				connection.close();
+			} catch (final IOException e) {
+				Activator.getDefault().logError(e.getMessage(), e);
+			}
+			connection = null;
+			runner = null;
+		}
+	}
+
+	private void addWatches(final String fbName) throws IOException, InterruptedException {
 		testElements = TestingManager.getInstance().getTestElements(type, this, this);
 
+		final List<String> ports = new ArrayList<>();
 		for (final TestElement element : testElements.values()) {
 			if (element.getFBString().equals(fbName)) {
-				DataOutputStream outputStream = null;
-				DataInputStream inputStream = null;
-				try {
-					outputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
-					inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
-					if (element.getInterfaceElement() instanceof VarDeclaration) {
-						addWatch(element, outputStream, inputStream);
-
-					}
-					if (element.getInterfaceElement() instanceof Event && !element.getInterfaceElement().isIsInput()) {
-						addWatch(element, outputStream, inputStream);
-					}
-
-				} catch (final IOException e1) {
-					Activator.getDefault().logError(e1.getMessage(), e1);
+				if ((element.getInterfaceElement() instanceof VarDeclaration)
+						|| ((element.getInterfaceElement() instanceof Event)
+								&& !element.getInterfaceElement().isIsInput())) {
+					ports.add(element.getPortString());
 				}
 			} else {
 				Activator.getDefault().logInfo(
 						MessageFormat.format(Messages.FORTERemoteTester_ElementSkipped, element.getFBString()));
 			}
 		}
+		// all watches are requested at once instead of waiting for each of them
+		runner.addWatches(ports);
 	}
 
-	private void addWatch(final TestElement element, final DataOutputStream outputStream, final DataInputStream inputStream) {
-		if (outputStream != null && inputStream != null) {
-			final String request = MessageFormat.format(DeploymentExecutor.ADD_WATCH,
-					Integer.valueOf(0), element.getFBString() + "." + element.getPortString(), "*"); //$NON-NLS-1$ //$NON-NLS-2$
-			sendRequest(SendType.ADD_WATCH, element.getResourceString(), request, outputStream, inputStream);
-		}
+	/*
+	 * The watches are read after each interaction with the test instance. The
+	 * runtime answers before the event chain it started has finished, so the
+	 * watches are read again whenever a response shows changed values, until two
+	 * consecutive reads agree.
+	 */
+	private void readWatches() throws IOException {
+		readWatches(connection, null);
 	}
 
-	class TriggerRequestRunnable implements Runnable {
-		private final Socket socket;
-
-		public TriggerRequestRunnable(final Socket socket, final int thread) {
-			this.socket = socket;
-		}
-
-		private int i = 0;
-
-		@Override
-		public void run() {
-			DataOutputStream outputStream = null;
-			DataInputStream inputStream = null;
-			try {
-				outputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
-				inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
-			} catch (final IOException e1) {
-				setRunning(false);
-			}
-			while (running) {
-				i++;
-				try {
-					Thread.sleep(500);
-				} catch (final InterruptedException e) {
-					Thread.currentThread().interrupt();  // mark interruption
-					setRunning(false);
-				}
-				final String request = MessageFormat.format(DeploymentExecutor.READ_WATCHES, Integer.valueOf(i));
-
-				if (running) {
-					sendRequest(SendType.REQ, "", request, outputStream, inputStream); //$NON-NLS-1$
-				}
-			}
-		}
+	private void readWatches(final RuntimeConnection current, final Map<String, String> previous)
+			throws IOException {
+		current.request("", MessageFormat.format(DeploymentExecutor.READ_WATCHES, current.getNextId())) //$NON-NLS-1$
+		.thenAccept(response -> onWatches(current, previous, response));
 	}
 
-	private synchronized void sendRequest(final SendType type, final String destination, final String request,
-			final DataOutputStream outputStream, final DataInputStream inputStream) {
+	private void onWatches(final RuntimeConnection current, final Map<String, String> previous,
+			final String response) {
 		try {
-			if (socket.isConnected()) {
-
-				outputStream.writeByte(80);
-				outputStream.writeShort(destination.length());
-				outputStream.writeBytes(destination);
-
-				outputStream.writeByte(80);
-				outputStream.writeShort(request.length());
-				outputStream.writeBytes(request);
-				outputStream.flush();
-				if (type.equals(SendType.REQ)) {
-					final String response = parseResponse(inputStream);
-					if (!response.equals("")) { //$NON-NLS-1$
-						final XMLResource resource = new XMLResourceImpl();
-						final InputSource source = new InputSource(new StringReader(response));
-						resource.load(source, data.getLoadOptions());
-						for (final EObject object : resource.getContents()) {
-							if (object instanceof Response) {
-								final Response resp = (Response) object;
-								if (resp.getWatches() != null) {
-									for (final org.eclipse.fordiac.ide.deployment.devResponse.Resource res : resp.getWatches()
-											.getResources()) {
-
-										for (final FB fb : res.getFbs()) {
-											for (final Port p : fb.getPorts()) {
-												for (final Data d : p.getDataValues()) {
-
-													final TestElement element = testElements
-															.get(res.getName() + "." + fb.getName() //$NON-NLS-1$
-															+ "." + p.getName()); //$NON-NLS-1$
-													if (element != null) {
-														element.updateValue(d.getValue(), 0);
-													}
-
-												}
-											}
-										}
-									}
-								}
-							}
-						}
-					}
-
-				} else if (type.equals(SendType.ADD_WATCH)) {
-					// TODO evaluate responses
-					inputStream.available();
-					inputStream.read();
-
-				} else if (type.equals(SendType.TRIGGER_EVENT)) {
-					// normally nothing to do - as no response expected
-				} else if (type.equals(SendType.REMOVE_WATCH)) {
-					// normally nothing to do - as no response expected
-
-				} else if (type.equals(SendType.START_EVENT_COUNT)) {
-					// normally nothing to do - as no response expected
-
-				} else if (type.equals(SendType.FORCE_VALUE)) {
-					final String forceResp = parseResponse(inputStream);
-					Activator.getDefault()
-					.logInfo(MessageFormat.format(Messages.FORTERemoteTester_ForceResponse, forceResp));
-					// normally nothing to do - as no response expected
-				}
+			final Map<String, String> values = WatchResponses.parse(response);
+			updateValues(values);
+			if (!values.equals(previous) && current.isOpen()) {
+				readWatches(current, values);
 			}
-		} catch (final Exception e) {
+		} catch (final XMLStreamException | IOException e) {
 			Activator.getDefault().logError(e.getMessage(), e);
 		}
 	}
 
-	private static String parseResponse(final DataInputStream inputStream) throws IOException {
-		final StringBuilder response = new StringBuilder();
-		inputStream.readByte(); // asn.1 tag
-		final short size = inputStream.readShort();
-
-		for (int i = 0; i < size; i++) {
-			response.append((char) inputStream.readByte());
+	private void updateValues(final Map<String, String> values) {
+		for (final Entry<String, String> value : values.entrySet()) {
+			final TestElement element = testElements.get(value.getKey());
+			if (element != null) {
+				element.updateValue(value.getValue(), 0);
+			}
 		}
-		return response.toString();
 	}
 
 	private Map<String, TestElement> testElements;
@@ -366,15 +261,12 @@ public class FORTERemoteTester implements IFBTestConfiguratonCreator {
 	 */
 	public void setValue(final TestElement element) {
 		if (isRunning()) {
-			DataOutputStream outputStream = null;
-			DataInputStream inputStream = null;
 			try {
-				outputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
-				inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
-
-				final String request = MessageFormat.format(DeploymentExecutor.FORCE_VALUE, Integer.valueOf(0),
+				final String request = MessageFormat.format(DeploymentExecutor.FORCE_VALUE, connection.getNextId(),
 						element.getValue(), element.getFBString() + "." + element.getPortString(), "true"); //$NON-NLS-1$ //$NON-NLS-2$
-				sendRequest(SendType.FORCE_VALUE, element.getResourceString(), request, outputStream, inputStream);
+				connection.send(element.getResourceString(), request).thenAccept(forceResp -> Activator.getDefault()
+						.logInfo(MessageFormat.format(Messages.FORTERemoteTester_ForceResponse, forceResp)));
+				readWatches();
 			} catch (final IOException e) {
 				Activator.getDefault().logError(e.getMessage(), e);
 			}
@@ -383,17 +275,12 @@ public class FORTERemoteTester implements IFBTestConfiguratonCreator {
 
 	@Override
 	public void sendEvent(final TestElement element) {
-		if (isRunning()) {
-			DataOutputStream outputStream = null;
-			DataInputStream inputStream = null;
+		if (isRunning() && (element != null)) {
 			try {
-				outputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
-				inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
-				if (element != null) {
-					final String request = MessageFormat.format(DeploymentExecutor.WRITE_PARAMETER,
-							Integer.valueOf(0), "$e", element.getFBString() + "." + element.getPortString()); //$NON-NLS-1$ //$NON-NLS-2$
-					sendRequest(SendType.TRIGGER_EVENT, element.getResourceString(), request, outputStream, inputStream);
-				}
+				final String request = MessageFormat.format(DeploymentExecutor.WRITE_PARAMETER,
+						connection.getNextId(), "$e", element.getFBString() + "." + element.getPortString()); //$NON-NLS-1$ //$NON-NLS-2$
+				connection.send(element.getResourceString(), request);
+				readWatches();
 			} catch (final IOException e) {
 				Activator.getDefault().logError(e.getMessage(), e);
 			}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.fbtypeeditor.fbtester.configuration;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A persistent management connection to a runtime on which requests are
+ * pipelined.
+ *
+ * Requests are written without waiting for the responses of the previous
+ * requests. The runtime answers the requests of a connection in the order they
+ * were sent, so a reader thread blocks on the socket and hands each response to
+ * the oldest open request.
+ */
+public class RuntimeConnection implements Closeable {
+
+	private static final int ASN1_TAG_IECSTRING = 80;
+
+	private final Socket socket;
+	private final DataOutputStream outputStream;
+	private final DataInputStream inputStream;
+	private final Queue<CompletableFuture<String>> openRequests = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger nextId = new AtomicInteger();
+	private volatile IOException failure;
+
+	/**
+	 * @param socket a connected socket, it is closed together with the connection
+	 * @throws IOException if the streams of the socket could not be opened
+	 */
+	public RuntimeConnection(final Socket socket) throws IOException {
+		this.socket = socket;
+		outputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		final Thread reader = new Thread(this::readResponses, "FB tester connection " + socket.getRemoteSocketAddress()); //$NON-NLS-1$
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	/** @return a new id for a request on this connection */
+	public String getNextId() {
+		return Integer.toString(nextId.getAndIncrement());
+	}
+
+	/**
+	 * Write a request without flushing it to the runtime.
+	 *
+	 * @param destination the resource the request is for, empty for the device
+	 * @param request     the request
+	 * @return the response of the runtime, it fails if the connection is lost
+	 * @throws IOException if the request could not be written
+	 */
+	public synchronized CompletableFuture<String> send(final String destination, final String request)
+			throws IOException {
+		if (null != failure) {
+			throw failure;
+		}
+		final CompletableFuture<String> response = new CompletableFuture<>();
+		// the request is queued before it is written so that the reader always finds it
+		openRequests.add(response);
+		try {
+			outputStream.writeByte(ASN1_TAG_IECSTRING);
+			outputStream.writeShort(destination.length());
+			outputStream.writeBytes(destination);
+			outputStream.writeByte(ASN1_TAG_IECSTRING);
+			outputStream.writeShort(request.length());
+			outputStream.writeBytes(request);
+		} catch (final IOException e) {
+			fail(e);
+			throw e;
+		}
+		if (null != failure) {
+			// the connection failed while the request was queued
+			response.completeExceptionally(failure);
+		}
+		return response;
+	}
+
+	/** Send all written requests to the runtime */
+	public synchronized void flush() throws IOException {
+		try {
+			outputStream.flush();
+		} catch (final IOException e) {
+			fail(e);
+			throw e;
+		}
+	}
+
+	/** Write a request and send it together with all requests written before */
+	public CompletableFuture<String> request(final String destination, final String request) throws IOException {
+		final CompletableFuture<String> response = send(destination, request);
+		flush();
+		return response;
+	}
+
+	public boolean isOpen() {
+		return (null == failure) && !socket.isClosed();
+	}
+
+	private void readResponses() {
+		try {
+			while (!socket.isClosed()) {
+				final String response = readResponse();
+				final CompletableFuture<String> open = openRequests.poll();
+				if (null != open) {
+					open.complete(response);
+				}
+			}
+		} catch (final IOException e) {
+			fail(e);
+		}
+	}
+
+	private String readResponse() throws IOException {
+		inputStream.readByte(); // asn.1 tag
+		final byte[] response = new byte[inputStream.readUnsignedShort()];
+		inputStream.readFully(response);
+		return new String(response, StandardCharsets.ISO_8859_1);
+	}
+
+	private void fail(final IOException e) {
+		if (null == failure) {
+			failure = e;
+		}
+		CompletableFuture<String> open;
+		while (null != (open = openRequests.poll())) {
+			open.completeExceptionally(failure);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		fail(new IOException("Connection closed")); //$NON-NLS-1$
+		socket.close();
+	}
+}
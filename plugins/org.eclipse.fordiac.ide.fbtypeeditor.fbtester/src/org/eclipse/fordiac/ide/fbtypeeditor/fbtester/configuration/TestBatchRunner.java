@@ -0,0 +1,379 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.fbtypeeditor.fbtester.configuration;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.eclipse.fordiac.ide.deployment.iec61499.DeploymentExecutor;
+import org.eclipse.fordiac.ide.fbtester.model.testdata.TestData;
+import org.eclipse.fordiac.ide.fbtester.model.testdata.ValuedVarDecl;
+import org.eclipse.fordiac.ide.fbtypeeditor.fbtester.Messages;
+import org.eclipse.fordiac.ide.fbtypeeditor.fbtester.configuration.internal.WatchResponses;
+import org.eclipse.fordiac.ide.model.libraryElement.Event;
+
+/**
+ * Runs a collection of test data rows against the test instance of an FB type.
+ *
+ * For each row the input values are forced, the input event is triggered, and
+ * the watches are read. The requests of a row are pipelined over one connection
+ * and sent together.
+ *
+ * The runtime answers the trigger as soon as the event is queued, so the event
+ * chain of a row may still run when its watches are read. Each row is therefore
+ * synchronized to the end of its chain: whenever the response to a watch read
+ * arrives on the reader thread of the connection, the next read is sent right
+ * away until the chain ended. A row with expected output events ended once the
+ * watched count of each of these events increased, any other row once two
+ * consecutive reads returned the same values. As all rows run against the same
+ * test instance, the next row is sent once the chain of the previous row ended.
+ */
+public class TestBatchRunner {
+
+	public static final Duration DEFAULT_RESPONSE_TIMEOUT = Duration.ofSeconds(10);
+
+	private static final long NOT_ANSWERED = Long.MIN_VALUE;
+
+	/** The outcome of one test data row */
+	public static final class TestResult {
+		private final TestData testData;
+		private final boolean passed;
+		private final String message;
+		private final Map<String, String> values;
+		private final Duration duration;
+
+		private TestResult(final TestData testData, final boolean passed, final String message,
+				final Map<String, String> values, final Duration duration) {
+			this.testData = testData;
+			this.passed = passed;
+			this.message = message;
+			this.values = values;
+			this.duration = duration;
+		}
+
+		public TestData getTestData() {
+			return testData;
+		}
+
+		public boolean isPassed() {
+			return passed;
+		}
+
+		/** @return the reason the test failed, empty if it passed */
+		public String getMessage() {
+			return message;
+		}
+
+		/** @return the watched values after the test, keyed by resource, FB, and port name */
+		public Map<String, String> getValues() {
+			return values;
+		}
+
+		/**
+		 * @return the time the runtime needed for the test, measured from the later
+		 *         of sending its requests and the response to the previous test
+		 */
+		public Duration getDuration() {
+			return duration;
+		}
+	}
+
+	/* the requests of a row which have been sent but not evaluated */
+	private static final class PendingTest {
+		private final TestData testData;
+		private final long sentAt = System.nanoTime();
+		private final List<CompletableFuture<String>> steps = new ArrayList<>();
+		/* the watches before the row, only read for rows with expected output events */
+		private CompletableFuture<String> watchesBefore;
+		/* the last watch read of the row, completed once its event chain ended */
+		private final CompletableFuture<String> watches = new CompletableFuture<>();
+		private volatile long answeredAt = NOT_ANSWERED;
+
+		private PendingTest(final TestData testData) {
+			this.testData = testData;
+		}
+	}
+
+	private final RuntimeConnection connection;
+	private final String resourceName;
+	private final String fbName;
+	private final Duration responseTimeout;
+
+	/**
+	 * @param connection   the connection to the runtime
+	 * @param resourceName the resource containing the test instance
+	 * @param fbName       the name of the test instance
+	 */
+	public TestBatchRunner(final RuntimeConnection connection, final String resourceName, final String fbName) {
+		this(connection, resourceName, fbName, DEFAULT_RESPONSE_TIMEOUT);
+	}
+
+	/** @param responseTimeout the time to wait for the responses of one row */
+	public TestBatchRunner(final RuntimeConnection connection, final String resourceName, final String fbName,
+			final Duration responseTimeout) {
+		this.connection = connection;
+		this.resourceName = resourceName;
+		this.fbName = fbName;
+		this.responseTimeout = responseTimeout;
+	}
+
+	/**
+	 * Watch ports of the test instance, all watches are requested at once.
+	 *
+	 * @param ports the names of the ports
+	 * @throws IOException          if the connection failed or the runtime rejected
+	 *                              a watch
+	 * @throws InterruptedException if the waiting for the responses was interrupted
+	 */
+	public void addWatches(final Collection<String> ports) throws IOException, InterruptedException {
+		final List<CompletableFuture<String>> responses = new ArrayList<>(ports.size());
+		for (final String port : ports) {
+			responses.add(connection.send(resourceName, MessageFormat.format(DeploymentExecutor.ADD_WATCH,
+					connection.getNextId(), fbName + "." + port, "*"))); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		connection.flush();
+		int i = 0;
+		for (final String port : ports) {
+			final String reason = WatchResponses.getReason(await(responses.get(i++)));
+			if (null != reason) {
+				throw new IOException(MessageFormat.format(Messages.TestBatchRunner_WatchRejected, port, reason));
+			}
+		}
+	}
+
+	/**
+	 * Run test data rows, the outputs of the test instance need to be watched.
+	 *
+	 * @param testDataCollection the rows to run
+	 * @return the result of each row in the order of the rows
+	 * @throws IOException          if the requests could not be sent
+	 * @throws InterruptedException if the waiting for the responses was interrupted
+	 */
+	public List<TestResult> run(final List<TestData> testDataCollection) throws IOException, InterruptedException {
+		final List<PendingTest> pending = new ArrayList<>(testDataCollection.size());
+		for (final TestData testData : testDataCollection) {
+			final PendingTest test = new PendingTest(testData);
+			try {
+				send(test);
+			} catch (final IOException e) {
+				if (pending.isEmpty()) {
+					throw e;
+				}
+				// rows after a lost connection fail like the rows which were open when it was lost
+				test.watches.completeExceptionally(e);
+			}
+			pending.add(test);
+			awaitEventChain(test);
+		}
+
+		final List<TestResult> results = new ArrayList<>(pending.size());
+		long previousAnswer = NOT_ANSWERED;
+		for (final PendingTest test : pending) {
+			final TestResult result = evaluate(test, previousAnswer);
+			previousAnswer = Math.max(previousAnswer, test.answeredAt);
+			results.add(result);
+		}
+		return results;
+	}
+
+	private void send(final PendingTest test) throws IOException {
+		final TestData testData = test.testData;
+		if (!testData.getEventOutputs().isEmpty()) {
+			test.watchesBefore = connection.send("", //$NON-NLS-1$
+					MessageFormat.format(DeploymentExecutor.READ_WATCHES, connection.getNextId()));
+		}
+		for (final ValuedVarDecl value : testData.getValues()) {
+			if ((null != value.getVarDeclaration()) && (null != value.getValue()) && !value.getValue().isEmpty()) {
+				test.steps.add(connection.send(resourceName, MessageFormat.format(DeploymentExecutor.FORCE_VALUE,
+						connection.getNextId(), value.getValue(),
+						fbName + "." + value.getVarDeclaration().getName(), "true"))); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		if (null != testData.getEvent()) {
+			test.steps.add(connection.send(resourceName, MessageFormat.format(DeploymentExecutor.WRITE_PARAMETER,
+					connection.getNextId(), "$e", fbName + "." + testData.getEvent().getName()))); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		readWatches(test, null);
+		// the requests of a row are sent together so that the runtime can process them without waiting
+		connection.flush();
+	}
+
+	/* the response is handled on the reader thread of the connection */
+	private void readWatches(final PendingTest test, final Map<String, String> previous) throws IOException {
+		connection.send("", MessageFormat.format(DeploymentExecutor.READ_WATCHES, connection.getNextId())) //$NON-NLS-1$
+				.whenComplete((response, failure) -> onWatches(test, previous, response, failure));
+	}
+
+	/*
+	 * Completes the row if its event chain ended, otherwise reads the watches
+	 * again. Failures are stored in the watches of the row, so that they are
+	 * reported when the row is evaluated.
+	 */
+	private void onWatches(final PendingTest test, final Map<String, String> previous, final String response,
+			final Throwable failure) {
+		if (null != failure) {
+			test.watches.completeExceptionally(failure);
+			return;
+		}
+		try {
+			final Map<String, String> values = WatchResponses.parse(response);
+			if (hasEnded(test, previous, values)) {
+				test.answeredAt = System.nanoTime();
+				test.watches.complete(response);
+			} else if ((System.nanoTime() - test.sentAt) > responseTimeout.toNanos()) {
+				test.watches.completeExceptionally(new IOException(test.testData.getEventOutputs().isEmpty()
+						? MessageFormat.format(Messages.TestBatchRunner_WatchesNotSettled,
+								Long.toString(responseTimeout.toMillis()))
+						: MessageFormat.format(Messages.TestBatchRunner_EventOutputsMissing,
+								getNames(test.testData.getEventOutputs()),
+								Long.toString(responseTimeout.toMillis()))));
+			} else if (!test.watches.isDone()) {
+				readWatches(test, values);
+				connection.flush();
+			}
+		} catch (final IOException e) {
+			test.watches.completeExceptionally(e);
+		} catch (final XMLStreamException | CompletionException e) {
+			test.watches.completeExceptionally(new IOException(e.getMessage(), e));
+		}
+	}
+
+	private boolean hasEnded(final PendingTest test, final Map<String, String> previous,
+			final Map<String, String> values) throws XMLStreamException {
+		if (null != test.watchesBefore) {
+			// the response to the earlier read arrived before the current one
+			return haveFired(test.testData, WatchResponses.parse(test.watchesBefore.join()), values);
+		}
+		return values.equals(previous);
+	}
+
+	/*
+	 * Waits until the event chain of the row ended or failed. The row itself fails
+	 * once a response arrives after its timeout, this only catches a runtime which
+	 * stopped answering.
+	 */
+	private void awaitEventChain(final PendingTest test) throws InterruptedException {
+		try {
+			test.watches.get(2 * responseTimeout.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (final ExecutionException e) {
+			// reported when the row is evaluated
+		} catch (final TimeoutException e) {
+			test.watches.completeExceptionally(new IOException(MessageFormat.format(
+					Messages.TestBatchRunner_ResponseTimeout, Long.toString(responseTimeout.toMillis())), e));
+		}
+	}
+
+	/* an event watch reports how often the event fired, events which are not watched cannot be waited for */
+	private boolean haveFired(final TestData testData, final Map<String, String> before,
+			final Map<String, String> after) {
+		for (final Event event : testData.getEventOutputs()) {
+			final String key = resourceName + "." + fbName + "." + event.getName(); //$NON-NLS-1$ //$NON-NLS-2$
+			if (after.containsKey(key) && Objects.equals(before.get(key), after.get(key))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String getNames(final List<Event> events) {
+		final StringBuilder names = new StringBuilder();
+		for (final Event event : events) {
+			if (0 < names.length()) {
+				names.append(", "); //$NON-NLS-1$
+			}
+			names.append(event.getName());
+		}
+		return names.toString();
+	}
+
+	private TestResult evaluate(final PendingTest test, final long previousAnswer) throws InterruptedException {
+		final String name = test.testData.getTestName();
+		try {
+			for (final CompletableFuture<String> step : test.steps) {
+				final String reason = WatchResponses.getReason(await(step));
+				if (null != reason) {
+					return failed(test, previousAnswer,
+							MessageFormat.format(Messages.TestBatchRunner_RequestRejected, name, reason),
+							Collections.emptyMap());
+				}
+			}
+			final Map<String, String> values = WatchResponses.parse(await(test.watches));
+			final StringBuilder mismatches = new StringBuilder();
+			for (final ValuedVarDecl result : test.testData.getResults()) {
+				if ((null != result.getVarDeclaration()) && (null != result.getValue())
+						&& !result.getValue().isEmpty()) {
+					final String port = result.getVarDeclaration().getName();
+					final String actual = values.get(resourceName + "." + fbName + "." + port); //$NON-NLS-1$ //$NON-NLS-2$
+					if (!isSameValue(result.getValue(), actual)) {
+						if (0 < mismatches.length()) {
+							mismatches.append('\n');
+						}
+						mismatches.append(MessageFormat.format(Messages.TestBatchRunner_UnexpectedValue, port,
+								result.getValue(), actual));
+					}
+				}
+			}
+			if (0 < mismatches.length()) {
+				return failed(test, previousAnswer, mismatches.toString(), values);
+			}
+			return new TestResult(test.testData, true, "", values, getDuration(test, previousAnswer)); //$NON-NLS-1$
+		} catch (final IOException | XMLStreamException e) {
+			return failed(test, previousAnswer, MessageFormat.format(Messages.TestBatchRunner_NoResponse, name,
+					e.getMessage()), Collections.emptyMap());
+		}
+	}
+
+	private TestResult failed(final PendingTest test, final long previousAnswer, final String message,
+			final Map<String, String> values) {
+		return new TestResult(test.testData, false, message, values, getDuration(test, previousAnswer));
+	}
+
+	private static Duration getDuration(final PendingTest test, final long previousAnswer) {
+		final long answeredAt = (NOT_ANSWERED != test.answeredAt) ? test.answeredAt : System.nanoTime();
+		return Duration.ofNanos(answeredAt - Math.max(test.sentAt, previousAnswer));
+	}
+
+	/* values may be reported with or without their type prefix, e.g., INT#5 */
+	private static boolean isSameValue(final String expected, final String actual) {
+		return (null != actual) && stripType(expected).equalsIgnoreCase(stripType(actual));
+	}
+
+	private static String stripType(final String value) {
+		return value.substring(value.indexOf('#') + 1).trim();
+	}
+
+	private String await(final CompletableFuture<String> response) throws IOException, InterruptedException {
+		try {
+			return response.get(responseTimeout.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (final ExecutionException e) {
+			throw (e.getCause() instanceof IOException) ? (IOException) e.getCause() : new IOException(e.getCause());
+		} catch (final TimeoutException e) {
+			throw new IOException(MessageFormat.format(Messages.TestBatchRunner_ResponseTimeout,
+					Long.toString(responseTimeout.toMillis())), e);
+		}
+	}
+}
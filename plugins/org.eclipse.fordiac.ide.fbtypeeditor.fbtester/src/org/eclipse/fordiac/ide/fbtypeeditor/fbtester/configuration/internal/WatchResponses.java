@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.fbtypeeditor.fbtester.configuration.internal;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads the watched values from the response to a read watches request.
+ *
+ * The response is streamed instead of being loaded into an EMF resource, as it
+ * is read after every test step:
+ *
+ * <pre>
+ * &lt;Response ID="43"&gt;&lt;Watches&gt;&lt;Resource name="RES"&gt;&lt;FB name="FB"&gt;&lt;Port name="OUT"&gt;
+ * &lt;Data value="5" forced="false"/&gt;&lt;/Port&gt;&lt;/FB&gt;&lt;/Resource&gt;&lt;/Watches&gt;&lt;/Response&gt;
+ * </pre>
+ */
+public final class WatchResponses {
+
+	private static final String RESOURCE_ELEMENT = "Resource"; //$NON-NLS-1$
+	private static final String FB_ELEMENT = "FB"; //$NON-NLS-1$
+	private static final String PORT_ELEMENT = "Port"; //$NON-NLS-1$
+	private static final String DATA_ELEMENT = "Data"; //$NON-NLS-1$
+	private static final String NAME_ATTRIBUTE = "name"; //$NON-NLS-1$
+	private static final String VALUE_ATTRIBUTE = "value"; //$NON-NLS-1$
+	private static final String REASON_ATTRIBUTE = "Reason"; //$NON-NLS-1$
+
+	private static final XMLInputFactory FACTORY = createFactory();
+
+	private static XMLInputFactory createFactory() {
+		final XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		return factory;
+	}
+
+	/**
+	 * @param response the response of the runtime
+	 * @return the last value of each watched port, keyed by resource, FB, and port
+	 *         name separated by dots
+	 * @throws XMLStreamException if the response is not well-formed
+	 */
+	public static Map<String, String> parse(final String response) throws XMLStreamException {
+		final Map<String, String> values = new HashMap<>();
+		if (response.isEmpty()) {
+			return values;
+		}
+		final XMLStreamReader reader = FACTORY.createXMLStreamReader(new StringReader(response));
+		try {
+			String resource = ""; //$NON-NLS-1$
+			String fb = ""; //$NON-NLS-1$
+			String port = ""; //$NON-NLS-1$
+			while (reader.hasNext()) {
+				if (XMLStreamConstants.START_ELEMENT == reader.next()) {
+					switch (reader.getLocalName()) {
+					case RESOURCE_ELEMENT:
+						resource = getName(reader);
+						break;
+					case FB_ELEMENT:
+						fb = getName(reader);
+						break;
+					case PORT_ELEMENT:
+						port = getName(reader);
+						break;
+					case DATA_ELEMENT:
+						values.put(resource + "." + fb + "." + port, //$NON-NLS-1$ //$NON-NLS-2$
+								reader.getAttributeValue(null, VALUE_ATTRIBUTE));
+						break;
+					default:
+						break;
+					}
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return values;
+	}
+
+	/** @return the reason the runtime gave for rejecting a request, null if the request succeeded */
+	public static String getReason(final String response) {
+		final int start = response.indexOf(REASON_ATTRIBUTE + "=\""); //$NON-NLS-1$
+		if (start < 0) {
+			return null;
+		}
+		final int valueStart = start + REASON_ATTRIBUTE.length() + 2;
+		final int end = response.indexOf('"', valueStart);
+		return (end < 0) ? response.substring(valueStart) : response.substring(valueStart, end);
+	}
+
+	private static String getName(final XMLStreamReader reader) {
+		final String name = reader.getAttributeValue(null, NAME_ATTRIBUTE);
+		return (null != name) ? name : ""; //$NON-NLS-1$
+	}
+
+	private WatchResponses() {
+		throw new UnsupportedOperationException("WatchResponses should not be instantiated"); //$NON-NLS-1$
+	}
+}
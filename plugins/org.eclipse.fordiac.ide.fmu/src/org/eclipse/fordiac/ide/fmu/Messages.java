@@ -32,18 +32,13 @@ public final class Messages extends NLS {
 	public static String CreateFMUWizardPage_NoLibrariesSelectedToInclude;
 	public static String CreateFMUWizardPage_SaveSelectedLibrariesForFutureFMUExports;
 	public static String FMUDeviceManagementCommunicationHandler_BinaryDirectoryDoesNotExist;
-	public static String FMUDeviceManagementCommunicationHandler_CouldNotCreateTheComponentsInsideTheTemporaryFolder;
-	public static String FMUDeviceManagementCommunicationHandler_CouldNotCreateFolderInTheTemporaryFolder;
-	public static String FMUDeviceManagementCommunicationHandler_CouldNotCreateTheTemporaryFolder;
 	public static String FMUDeviceManagementCommunicationHandler_DoYouWantToRetry;
-	public static String FMUDeviceManagementCommunicationHandler_GeneratingFMUsForDevice;
-	public static String FMUDeviceManagementCommunicationHandler_InternalCopyingError;
+	public static String FMUDeviceManagementCommunicationHandler_GeneratingFMUs;
 	public static String FMUDeviceManagementCommunicationHandler_LibraryCouldNotBeFound;
 	public static String FMUDeviceManagementCommunicationHandler_NoSelectedLibrariesWereFound;
 	public static String FMUDeviceManagementCommunicationHandler_OutputFMUFileExistsOverwriteIt;
 	public static String FMUDeviceManagementCommunicationHandler_OutputFolderDoesNotExistAndCouldNotBeCreated;
 	public static String FMUDeviceManagementCommunicationHandler_TheDirectoryIsInvalid;
-	public static String FMUDeviceManagementCommunicationHandler_UnableToCreateFolder;
 	public static String FMUPreferencePage_BinariesLocation;
 	public static String FMUPreferencePage_FMUPreferencesPage;
 	public static String FMUPreferencePage_IncludeTheFollowingLibrariesInExportedFMU;
@@ -17,7 +17,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import org.eclipse.fordiac.ide.fmu.Activator;
 import org.eclipse.fordiac.ide.fmu.Messages;
@@ -25,13 +24,9 @@ import org.eclipse.fordiac.ide.fmu.preferences.PreferenceConstants;
 import org.eclipse.fordiac.ide.model.libraryElement.Device;
 import org.eclipse.fordiac.ide.model.libraryElement.Resource;
 import org.eclipse.jface.dialogs.IDialogSettings;
-import org.eclipse.jface.dialogs.ProgressMonitorDialog;
-import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.wizard.Wizard;
-import org.eclipse.swt.SWT;
-import org.eclipse.swt.widgets.MessageBox;
 import org.eclipse.ui.IExportWizard;
 import org.eclipse.ui.IWorkbench;
 
@@ -81,40 +76,12 @@ public class CreateFMUWizard extends Wizard implements IExportWizard {
 					page.getLinux64Field().getSelection());
 		}
 
-		final IRunnableWithProgress iop = monitor -> {
-
-			final String outputDirectory = page.getDirectory();
-			final Map<Device, List<Resource>> toDeploy = addResourcesAndDevices();
-			// Store the selected libraries to include in the FMU
-			final List<String> librariesToAdd = getLibraries();
-
-			for (final Entry<Device, List<Resource>> entry : toDeploy.entrySet()) {
-				FMUDeviceManagementCommunicationHandler.createFMU(entry.getKey(), entry.getValue(), librariesToAdd,
-						outputDirectory, getShell(), monitor);
-
-			}
-			monitor.done();
-		};
-
-		try {
-			new ProgressMonitorDialog(getShell()).run(false, false, iop);
-		} catch (final InterruptedException e) {
-			Thread.currentThread().interrupt();  // mark interruption
-			showCreationExceptionDialog(e);
-		} catch (final Exception e) {
-			showCreationExceptionDialog(e);
-		}
-
+		// the selection is read in the UI thread, the FMUs are created in a forked runnable
+		FMUDeviceManagementCommunicationHandler.createFMUs(addResourcesAndDevices(), getLibraries(),
+				page.getDirectory(), getShell());
 		return true;
 	}
 
-	protected void showCreationExceptionDialog(final Exception e) {
-		final MessageBox msg = new MessageBox(getShell(), SWT.ERROR);
-		msg.setMessage(Messages.CreateFMUWizard_FMUCreationError + e.getMessage());
-		msg.open();
-		Activator.getDefault().logError(msg.getMessage(), e);
-	}
-
 	private List<String> getLibraries() {
 
 		final List<String> libs = new ArrayList<>();
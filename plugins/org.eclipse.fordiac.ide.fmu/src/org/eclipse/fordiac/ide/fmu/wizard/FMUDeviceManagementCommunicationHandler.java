@@ -14,26 +14,21 @@
 package org.eclipse.fordiac.ide.fmu.wizard;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.PatternSyntaxException;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
-import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.fordiac.ide.deployment.AbstractFileManagementHandler;
-import org.eclipse.fordiac.ide.deployment.DeploymentCoordinator;
 import org.eclipse.fordiac.ide.deployment.IDeviceManagementCommunicationHandler;
+import org.eclipse.fordiac.ide.deployment.exceptions.DeploymentException;
 import org.eclipse.fordiac.ide.fmu.Activator;
 import org.eclipse.fordiac.ide.fmu.Messages;
 import org.eclipse.fordiac.ide.fmu.preferences.PreferenceConstants;
@@ -53,6 +48,8 @@ import org.eclipse.fordiac.ide.model.libraryElement.Resource;
 import org.eclipse.fordiac.ide.model.libraryElement.Value;
 import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
 import org.eclipse.fordiac.ide.systemmanagement.SystemManager;
+import org.eclipse.jface.dialogs.ProgressMonitorDialog;
+import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.MessageBox;
 import org.eclipse.swt.widgets.Shell;
@@ -221,82 +218,90 @@ public final class FMUDeviceManagementCommunicationHandler extends AbstractFileM
 		}
 	}
 
-	private static final String BINARIES_FOLDER_NAME = "binaries"; //$NON-NLS-1$
-
-	private static final String RESOURCES_FOLDER_NAME = "resources"; //$NON-NLS-1$
-
-	private static final int ZIP_BUFFER = 1024;
-
-	private static final int TOTAL_MONITOR = 100;
-
 	private final List<FMUInputOutput> inputsAndOutputs = new ArrayList<>();
 
 	private final Device device;
 
-	public static void createFMU(final Device device, final List<Resource> resources, final List<String> librariesToAdd, final String directory,
-			final Shell shell, final IProgressMonitor monitor) {
-		if (null != directory) {
-			if (!librariesToAdd.isEmpty()) {
-				monitor.beginTask(
-						MessageFormat.format(Messages.FMUDeviceManagementCommunicationHandler_GeneratingFMUsForDevice,
-								device.getName()),
-						TOTAL_MONITOR);
-				final String outputName = device.getAutomationSystem().getName() + "_" + device.getName(); //$NON-NLS-1$
-				final FMUDeviceManagementCommunicationHandler fmuFileHandler = new FMUDeviceManagementCommunicationHandler(
-						device);
-				DeploymentCoordinator.INSTANCE.performDeployment(resources.toArray(), fmuFileHandler, null); // will
-				// call
-				// the
-				// callbacks,
-				// sendREQ
-				// among
-				// them
-				monitor.worked(TOTAL_MONITOR / 2);
-
-				final File destZipFile = createZipFile(directory, outputName, shell);
-				if (null != destZipFile) {
-					createZip(fmuFileHandler, outputName, librariesToAdd, shell, destZipFile);
-					monitor.worked(TOTAL_MONITOR);
-				}
-
-			} else {
-				IDeviceManagementCommunicationHandler.showErrorMessage(
-						Messages.FMUDeviceManagementCommunicationHandler_NoSelectedLibrariesWereFound, shell);
-			}
-		} else {
+	/**
+	 * Create the FMUs of the devices in a forked, cancelable progress dialog.
+	 *
+	 * The user is asked before an existing FMU is replaced, and whether to retry if
+	 * an FMU could not be written. On cancel the FMUs which are not complete yet
+	 * keep their previous version.
+	 *
+	 * @param devices        the devices with the resources to be contained in
+	 *                       their FMUs
+	 * @param librariesToAdd the platforms of the libraries to be added to the FMUs
+	 * @param directory      the directory the FMUs are created in
+	 * @param shell          the shell of the dialogs
+	 */
+	public static void createFMUs(final Map<Device, List<Resource>> devices, final List<String> librariesToAdd,
+			final String directory, final Shell shell) {
+		if (null == directory) {
 			IDeviceManagementCommunicationHandler
 			.showErrorMessage(Messages.FMUDeviceManagementCommunicationHandler_TheDirectoryIsInvalid, shell);
+			return;
 		}
-	}
-
-	private static void createZip(final FMUDeviceManagementCommunicationHandler fmuFileHandler, final String outputName,
-			final List<String> librariesToAdd, final Shell shell, final File destZipFile) {
-
-		final String tempFolder = createTempFolderWithFMUStructure(outputName, librariesToAdd, shell);
-		if (null != tempFolder) {
-			if (writeAllFiles(fmuFileHandler, tempFolder, outputName, shell)) {
-				int res = SWT.RETRY;
-				do {
-					try (FileOutputStream fos = new FileOutputStream(destZipFile)) {
-
-						final ZipOutputStream zos = new ZipOutputStream(fos);
-						zipFolder(tempFolder, tempFolder, zos);
-
-						zos.flush();
-						zos.close();
-						break;
-					} catch (final IOException e) {
-						final MessageBox msgBox = new MessageBox(shell, SWT.RETRY | SWT.ICON_ERROR | SWT.CANCEL);
-						msgBox.setMessage(
-								MessageFormat.format(Messages.FMUDeviceManagementCommunicationHandler_DoYouWantToRetry,
-										e.getLocalizedMessage()));
-						res = msgBox.open();
-					}
-				} while (SWT.RETRY == res);
-			}
-
-			deleteFolder(tempFolder);
+		if (librariesToAdd.isEmpty()) {
+			IDeviceManagementCommunicationHandler.showErrorMessage(
+					Messages.FMUDeviceManagementCommunicationHandler_NoSelectedLibrariesWereFound, shell);
+			return;
 		}
+		final File binariesDirectory = new File(
+				Activator.getDefault().getPreferenceStore().getString(PreferenceConstants.P_PATH));
+		if (!binariesDirectory.isDirectory()) {
+			IDeviceManagementCommunicationHandler.showErrorMessage(MessageFormat.format(
+					Messages.FMUDeviceManagementCommunicationHandler_BinaryDirectoryDoesNotExist,
+					binariesDirectory.toPath()), shell);
+			return;
+		}
+		// the user is asked in the UI thread before the export is forked
+		final Map<Device, List<Resource>> toExport = new LinkedHashMap<>();
+		devices.forEach((device, resources) -> {
+			if (null != createZipFile(directory, FMUExporter.getOutputName(device), shell)) {
+				toExport.put(device, resources);
+			}
+		});
+		if (!toExport.isEmpty()) {
+			exportFMUs(new FMUExporter(binariesDirectory.toPath(), librariesToAdd), toExport, Paths.get(directory),
+					shell);
+		}
+	}
+
+	private static void exportFMUs(final FMUExporter exporter, final Map<Device, List<Resource>> devices,
+			final Path directory, final Shell shell) {
+		final IRunnableWithProgress export = monitor -> {
+			monitor.beginTask(Messages.FMUDeviceManagementCommunicationHandler_GeneratingFMUs, devices.size());
+			try {
+				exporter.exportAll(devices, directory, monitor);
+			} catch (final IOException | DeploymentException e) {
+				throw new InvocationTargetException(e);
+			} finally {
+				monitor.done();
+			}
+		};
+		int res = SWT.RETRY;
+		do {
+			try {
+				new ProgressMonitorDialog(shell).run(true, true, export);
+				break;
+			} catch (final InvocationTargetException e) {
+				if (!(e.getCause() instanceof IOException)) {
+					Activator.getDefault().logError(e.getCause().getMessage(), e.getCause());
+					IDeviceManagementCommunicationHandler.showErrorMessage(
+							Messages.CreateFMUWizard_FMUCreationError + e.getCause().getMessage(), shell);
+					break;
+				}
+				final MessageBox msgBox = new MessageBox(shell, SWT.RETRY | SWT.ICON_ERROR | SWT.CANCEL);
+				msgBox.setMessage(
+						MessageFormat.format(Messages.FMUDeviceManagementCommunicationHandler_DoYouWantToRetry,
+								e.getCause().getLocalizedMessage()));
+				res = msgBox.open();
+			} catch (final InterruptedException e) {
+				// canceled, the FMUs which were not complete keep their previous version
+				break;
+			}
+		} while (SWT.RETRY == res);
 	}
 
 	private static File createZipFile(final String directoryPath, final String outputName, final Shell shell) {
@@ -306,7 +311,7 @@ public final class FMUDeviceManagementCommunicationHandler extends AbstractFileM
 					Messages.FMUDeviceManagementCommunicationHandler_OutputFolderDoesNotExistAndCouldNotBeCreated,
 					directoryPath), shell);
 		} else {
-			final File destZipFile = new File(directoryPath + File.separatorChar + outputName + ".fmu"); //$NON-NLS-1$
+			final File destZipFile = new File(directoryPath + File.separatorChar + outputName + FMUExporter.FMU_FILE_ENDING);
 
 			int res = SWT.YES;
 			if (destZipFile.exists()) {
@@ -323,194 +328,11 @@ public final class FMUDeviceManagementCommunicationHandler extends AbstractFileM
 		return null;
 	}
 
-	private static String createTempFolderWithFMUStructure(final String outputName, final List<String> librariesToAdd,
-			final Shell shell) {
-		try {
-			final String tempFolder = Files.createTempDirectory("temp").toString(); //$NON-NLS-1$
-			final File binariesDirectory = new File(
-					Activator.getDefault().getPreferenceStore().getString(PreferenceConstants.P_PATH));
-			if (binariesDirectory.exists() && binariesDirectory.isDirectory()) {
-				if (createTempFoldersAndFiles(tempFolder, outputName, librariesToAdd, shell)) {
-					return tempFolder;
-				}
-				IDeviceManagementCommunicationHandler.showErrorMessage(MessageFormat.format(
-						Messages.FMUDeviceManagementCommunicationHandler_CouldNotCreateTheComponentsInsideTheTemporaryFolder,
-						tempFolder), shell);
-			} else {
-				IDeviceManagementCommunicationHandler.showErrorMessage(MessageFormat.format(
-						Messages.FMUDeviceManagementCommunicationHandler_BinaryDirectoryDoesNotExist,
-						binariesDirectory.toPath()), shell);
-			}
-		} catch (final IOException e) {
-			IDeviceManagementCommunicationHandler.showErrorMessage(
-					Messages.FMUDeviceManagementCommunicationHandler_CouldNotCreateTheTemporaryFolder, shell);
-		}
-		return null;
-	}
-
-	private static boolean writeAllFiles(final FMUDeviceManagementCommunicationHandler fmuFileHandler, final String tempFolder,
-			final String outputName, final Shell shell) {
-		return (fmuFileHandler.writeToBootFile(
-				new File(tempFolder + File.separatorChar + RESOURCES_FOLDER_NAME + File.separatorChar + "forte.fboot") //$NON-NLS-1$
-				.getAbsolutePath(),
-				true, shell)
-				&& writeToAnyFile(new File(tempFolder + File.separatorChar + "modelDescription.xml").getAbsolutePath(), //$NON-NLS-1$
-						fmuFileHandler.createModelDescription(outputName).toString(), true, shell));
-	}
-
-	private static boolean deleteFolder(final String pathToDelete) {
-		final File path = new File(pathToDelete);
-		final File[] files = path.listFiles();
-
-		if (path.exists() && null != files) {
-			for (final File file : files) {
-				if (!deleteFileOrFolder(file)) {
-					return false;
-				}
-			}
-		}
-		try {
-			Files.delete(Paths.get(path.getAbsolutePath()));
-		} catch (final IOException e) {
-			Activator.getDefault().logError(e.getMessage(), e);
-			return false;
-		}
-
-		return true;
-	}
-
-	private static boolean deleteFileOrFolder(final File file) {
-		if (file.isDirectory()) {
-			return deleteFolder(file.getAbsolutePath());
-		}
-		try {
-			Files.delete(Paths.get(file.getAbsolutePath()));
-		} catch (final IOException e) {
-			Activator.getDefault().logError(e.getMessage(), e);
-			return false;
-		}
-		return true;
-	}
-
-	private static boolean createTempFoldersAndFiles(final String root, final String outputName, final List<String> librariesToAdd,
-			final Shell shell) {
-
-		final Map<String, String> librariesToNames = new HashMap<>();
-
-		librariesToNames.put(PreferenceConstants.P_FMU_WIN32, PreferenceConstants.P_FMU_WIN32_LIBRARY);
-		librariesToNames.put(PreferenceConstants.P_FMU_WIN64, PreferenceConstants.P_FMU_WIN64_LIBRARY);
-		librariesToNames.put(PreferenceConstants.P_FMU_LIN32, PreferenceConstants.P_FMU_LIN32_LIBRARY);
-		librariesToNames.put(PreferenceConstants.P_FMU_LIN64, PreferenceConstants.P_FMU_LIN64_LIBRARY);
-
-		if (createNotBinaryFiles(root, shell)) {
-			// copy libraries
-			for (final String name : librariesToAdd) {
-				final String libraryName = librariesToNames.get(name);
-				if (!copyLibraries(root + File.separatorChar + BINARIES_FOLDER_NAME + File.separatorChar + name,
-						outputName,
-						Activator.getDefault().getPreferenceStore().getString(PreferenceConstants.P_PATH)
-						+ File.separatorChar + libraryName,
-						libraryName.substring(libraryName.indexOf('.')), shell)) {
-					return false;
-				}
-			}
-		} else {
-			return false;
-		}
-
-		return true;
-	}
-
-	private static boolean createNotBinaryFiles(final String root, final Shell shell) {
-		final File[] folders = { new File(root + File.separatorChar + BINARIES_FOLDER_NAME),
-				new File(root + File.separatorChar + RESOURCES_FOLDER_NAME) };
-
-		for (final File folder : folders) {
-			if (!folder.mkdir()) {
-				IDeviceManagementCommunicationHandler.showErrorMessage(MessageFormat.format(
-						Messages.FMUDeviceManagementCommunicationHandler_CouldNotCreateFolderInTheTemporaryFolder,
-						folder.getAbsolutePath()), shell);
-				return false;
-			}
-		}
-
-		return true;
-
-	}
-
-	private static boolean copyLibraries(final String outputFolder, final String outputName, final String sourceBinary, final String extension,
-			final Shell shell) {
-		File tempFile = new File(outputFolder);
-		if (tempFile.mkdir()) {
-			tempFile = new File(outputFolder + File.separatorChar + outputName + extension);
-			final File sourceFile = new File(sourceBinary);
-
-			if (sourceFile.exists()) {
-				try {
-					Files.copy(sourceFile.toPath(), tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-					return true;
-				} catch (final IOException e) {
-					IDeviceManagementCommunicationHandler.showErrorMessage(
-							MessageFormat.format(Messages.FMUDeviceManagementCommunicationHandler_InternalCopyingError,
-									sourceFile.getAbsolutePath(), tempFile.getAbsolutePath(), e.getMessage()),
-							shell);
-				}
-			} else {
-				IDeviceManagementCommunicationHandler.showErrorMessage(
-						MessageFormat.format(Messages.FMUDeviceManagementCommunicationHandler_LibraryCouldNotBeFound,
-								sourceFile.getAbsolutePath()),
-						shell);
-			}
-
-		} else {
-			IDeviceManagementCommunicationHandler.showErrorMessage(MessageFormat.format(
-					Messages.FMUDeviceManagementCommunicationHandler_UnableToCreateFolder, outputFolder), shell);
-		}
-
-		return false;
-	}
-
-	private static void zipFolder(final String root, final String directoryPath, final ZipOutputStream zos) {
-
-		final String[] listOfDirectories = new File(directoryPath).list();
-		if (null != listOfDirectories) {
-			for (final String dirElement : listOfDirectories) {
-				zipFoderCore(root, directoryPath, dirElement, zos);
-			}
-		}
-	}
-
-	private static void zipFoderCore(final String root, final String directoryPath, final String dirElement, final ZipOutputStream zos) {
-		final String dirElementPath = directoryPath + '/' + dirElement; // there are some problems when File.separatorChar is
-		// used here
-
-		if (new File(dirElementPath).isDirectory()) {
-			FMUDeviceManagementCommunicationHandler.zipFolder(root, dirElementPath, zos);
-		} else {
-			try (FileInputStream fis = new FileInputStream(dirElementPath)) {
-				final ZipEntry ze = new ZipEntry(dirElementPath.substring(root.length() + 1));
-				zos.putNextEntry(ze);
-
-				final byte[] bytesRead = new byte[ZIP_BUFFER];
-
-				int bytesNum;
-				while ((bytesNum = fis.read(bytesRead)) > 0) {
-					zos.write(bytesRead, 0, bytesNum);
-				}
-				zos.closeEntry();
-
-			} catch (PatternSyntaxException | IOException e) {
-				Activator.getDefault().logError(e.getMessage(), e);
-			}
-
-		}
-	}
-
 	/*
-	 * only the static function of this class should be able to create an instance
+	 * only the FMU creation should be able to create an instance
 	 */
-	private FMUDeviceManagementCommunicationHandler(final Device device) {
-		super();
+	FMUDeviceManagementCommunicationHandler(final Device device, final Writer bootFileWriter) {
+		super(bootFileWriter);
 		this.device = device;
 	}
 
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.fmu.wizard;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.fordiac.ide.deployment.DeploymentCoordinator;
+import org.eclipse.fordiac.ide.deployment.exceptions.DeploymentException;
+import org.eclipse.fordiac.ide.deployment.util.FileExportHelper;
+import org.eclipse.fordiac.ide.fmu.Messages;
+import org.eclipse.fordiac.ide.fmu.preferences.PreferenceConstants;
+import org.eclipse.fordiac.ide.model.libraryElement.Device;
+import org.eclipse.fordiac.ide.model.libraryElement.Resource;
+
+/**
+ * Creates the FMUs of devices without any user interaction.
+ *
+ * The deployment commands of the boot file are streamed directly into the
+ * archive entry while the device is deployed, followed by the model description
+ * and the platform libraries. Several devices can be exported in parallel, so
+ * that FMUs can be created from tests or build scripts as well as from the
+ * export wizard.
+ */
+public class FMUExporter {
+
+	public static final String FMU_FILE_ENDING = ".fmu"; //$NON-NLS-1$
+	public static final String BOOT_FILE_ENTRY = "resources/forte.fboot"; //$NON-NLS-1$
+	public static final String MODEL_DESCRIPTION_ENTRY = "modelDescription.xml"; //$NON-NLS-1$
+	private static final String BINARIES_FOLDER = "binaries/"; //$NON-NLS-1$
+
+	/* platform as stored in the preferences -> file name of the library in the binaries directory */
+	private static final Map<String, String> LIBRARY_NAMES = Map.of(
+			PreferenceConstants.P_FMU_WIN32, PreferenceConstants.P_FMU_WIN32_LIBRARY,
+			PreferenceConstants.P_FMU_WIN64, PreferenceConstants.P_FMU_WIN64_LIBRARY,
+			PreferenceConstants.P_FMU_LIN32, PreferenceConstants.P_FMU_LIN32_LIBRARY,
+			PreferenceConstants.P_FMU_LIN64, PreferenceConstants.P_FMU_LIN64_LIBRARY);
+
+	private final Path binariesDirectory;
+	private final List<String> platforms;
+
+	/**
+	 * @param binariesDirectory the directory containing the 4diac FORTE libraries
+	 *                          for the different platforms
+	 * @param platforms         the platforms whose library should be added to the
+	 *                          FMUs, see the P_FMU_ constants in
+	 *                          {@link PreferenceConstants}
+	 */
+	public FMUExporter(final Path binariesDirectory, final List<String> platforms) {
+		for (final String platform : platforms) {
+			if (!LIBRARY_NAMES.containsKey(platform)) {
+				throw new IllegalArgumentException("Unknown FMU platform: " + platform); //$NON-NLS-1$
+			}
+		}
+		this.binariesDirectory = binariesDirectory;
+		this.platforms = new ArrayList<>(platforms);
+	}
+
+	/** @return the name of the FMU created for the device */
+	public static String getOutputName(final Device device) {
+		return device.getAutomationSystem().getName() + "_" + device.getName(); //$NON-NLS-1$
+	}
+
+	/** @return the name of the archive entry holding the library of the platform */
+	public static String getLibraryEntryName(final String platform, final String outputName) {
+		final String libraryName = LIBRARY_NAMES.get(platform);
+		return BINARIES_FOLDER + platform + "/" + outputName + libraryName.substring(libraryName.indexOf('.')); //$NON-NLS-1$
+	}
+
+	/**
+	 * Create the FMU of a device and write it to a stream.
+	 *
+	 * @param device    the device to export
+	 * @param resources the resources of the device to be contained in the FMU
+	 * @param out       the stream the archive is written to, it is not closed and
+	 *                  holds an incomplete archive if the export fails
+	 * @throws IOException          if a library is missing or the stream fails
+	 * @throws DeploymentException  if the boot file could not be created
+	 * @throws InterruptedException if the export was interrupted
+	 */
+	public void export(final Device device, final List<Resource> resources, final OutputStream out)
+			throws IOException, DeploymentException, InterruptedException {
+		checkLibraries();
+		write(device, resources, out, new NullProgressMonitor());
+	}
+
+	/**
+	 * Create the FMU of a device in the given directory.
+	 *
+	 * The FMU is written to a new file that replaces an existing FMU of the device
+	 * only after it was completely written. If the export fails an existing FMU is
+	 * kept.
+	 *
+	 * @param device    the device to export
+	 * @param resources the resources of the device to be contained in the FMU
+	 * @param directory the directory the FMU is created in, it is created if needed
+	 * @return the path of the created FMU
+	 * @throws IOException          if a library is missing or the FMU could not be
+	 *                              written
+	 * @throws DeploymentException  if the boot file could not be created
+	 * @throws InterruptedException if the export was interrupted
+	 */
+	public Path export(final Device device, final List<Resource> resources, final Path directory)
+			throws IOException, DeploymentException, InterruptedException {
+		checkLibraries();
+		return write(device, resources, directory, new NullProgressMonitor());
+	}
+
+	/**
+	 * Create the FMUs of several devices in parallel.
+	 *
+	 * The model must not be modified while the export is running.
+	 *
+	 * @param devices   the devices to export with the resources to be contained in
+	 *                  their FMUs
+	 * @param directory the directory the FMUs are created in
+	 * @return the paths of the created FMUs in the order of the given devices
+	 * @throws IOException          if a library is missing or an FMU could not be
+	 *                              written
+	 * @throws DeploymentException  if a boot file could not be created
+	 * @throws InterruptedException if the export was interrupted
+	 */
+	public List<Path> exportAll(final Map<Device, List<Resource>> devices, final Path directory)
+			throws IOException, DeploymentException, InterruptedException {
+		return exportAll(devices, directory, new NullProgressMonitor());
+	}
+
+	/**
+	 * Create the FMUs of several devices in parallel.
+	 *
+	 * The model must not be modified while the export is running. One unit of
+	 * work is reported to the monitor for each device.
+	 *
+	 * @param devices   the devices to export with the resources to be contained in
+	 *                  their FMUs
+	 * @param directory the directory the FMUs are created in
+	 * @param monitor   the progress monitor, canceling it stops the export
+	 * @return the paths of the created FMUs in the order of the given devices
+	 * @throws IOException          if a library is missing or an FMU could not be
+	 *                              written
+	 * @throws DeploymentException  if a boot file could not be created
+	 * @throws InterruptedException if the export was canceled or interrupted
+	 */
+	public List<Path> exportAll(final Map<Device, List<Resource>> devices, final Path directory,
+			final IProgressMonitor monitor) throws IOException, DeploymentException, InterruptedException {
+		if (devices.isEmpty()) {
+			return new ArrayList<>();
+		}
+		checkLibraries();
+		final IProgressMonitor workerMonitor = FileExportHelper.getWorkerMonitor(monitor);
+		final ExecutorService executor = Executors
+				.newFixedThreadPool(Math.min(devices.size(), Runtime.getRuntime().availableProcessors()));
+		try {
+			final List<Future<Path>> results = new ArrayList<>(devices.size());
+			devices.forEach((device, resources) -> results
+					.add(executor.submit(() -> write(device, resources, directory, workerMonitor))));
+			return FileExportHelper.getResults(results, monitor);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Path write(final Device device, final List<Resource> resources, final Path directory,
+			final IProgressMonitor monitor) throws IOException, DeploymentException, InterruptedException {
+		Files.createDirectories(directory);
+		final Path fmu = directory.resolve(getOutputName(device) + FMU_FILE_ENDING);
+		FileExportHelper.replaceFile(fmu, file -> {
+			try (OutputStream out = new BufferedOutputStream(
+					Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))) {
+				write(device, resources, out, monitor);
+			}
+		});
+		return fmu;
+	}
+
+	private void checkLibraries() throws FileNotFoundException {
+		for (final String platform : platforms) {
+			final Path library = getLibrary(platform);
+			if (!Files.isRegularFile(library)) {
+				throw new FileNotFoundException(
+						MessageFormat.format(Messages.FMUDeviceManagementCommunicationHandler_LibraryCouldNotBeFound,
+								library.toAbsolutePath()));
+			}
+		}
+	}
+
+	private Path getLibrary(final String platform) {
+		return binariesDirectory.resolve(LIBRARY_NAMES.get(platform));
+	}
+
+	@SuppressWarnings("resource") // closing the zip stream would close the caller's stream
+	private void write(final Device device, final List<Resource> resources, final OutputStream out,
+			final IProgressMonitor monitor) throws IOException, DeploymentException, InterruptedException {
+		final String outputName = getOutputName(device);
+		final ZipOutputStream zip = new ZipOutputStream(out);
+		final Writer writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+
+		zip.putNextEntry(new ZipEntry(BOOT_FILE_ENTRY));
+		final FMUDeviceManagementCommunicationHandler handler = new FMUDeviceManagementCommunicationHandler(device,
+				writer);
+		// the deployment calls sendREQ of the handler which writes the boot file and collects the FMU variables
+		DeploymentCoordinator.INSTANCE.performHeadlessDeployment(resources.toArray(), handler, null, monitor);
+		writer.flush();
+		zip.closeEntry();
+
+		zip.putNextEntry(new ZipEntry(MODEL_DESCRIPTION_ENTRY));
+		writer.append(handler.createModelDescription(outputName));
+		writer.flush();
+		zip.closeEntry();
+
+		for (final String platform : platforms) {
+			zip.putNextEntry(new ZipEntry(getLibraryEntryName(platform, outputName)));
+			Files.copy(getLibrary(platform), zip);
+			zip.closeEntry();
+		}
+		zip.finish();
+	}
+}
@@ -25,6 +25,7 @@ import org.eclipse.fordiac.ide.runtime.IRuntimeLauncher;
 import org.eclipse.fordiac.ide.runtime.LaunchParameter;
 import org.eclipse.fordiac.ide.runtime.LaunchRuntimeException;
 import org.eclipse.fordiac.ide.runtime.LaunchRuntimeUtils;
+import org.eclipse.fordiac.ide.runtime.RuntimeLaunchService;
 import org.eclipse.jface.util.IPropertyChangeListener;
 
 /**
@@ -49,24 +50,31 @@ public class ForteLauncher implements IRuntimeLauncher {
 	}
 
 	@Override
-	public void launch() throws LaunchRuntimeException {
+	public RuntimeLaunchService.LaunchRequest createLaunchRequest() throws LaunchRuntimeException {
+		final int port = getPortNumber();
+		final String runtimePath = getRuntimePath();
+		final File location = new File(runtimePath).getParentFile();
+		if (null == location) {
+			throw new LaunchRuntimeException(Messages.ForteLauncher_ERROR_CouldNotLaunchFORTE);
+		}
+		return LaunchRuntimeUtils.createLaunchRequest("FORTE on port " + port, runtimePath, //$NON-NLS-1$
+				location.getAbsolutePath(),
+				"-c " //$NON-NLS-1$
+				+ "localhost:" //$NON-NLS-1$
+				+ port, port);
+	}
+
+	private int getPortNumber() throws LaunchRuntimeException {
+		final int port;
 		try {
-			final int port = Integer.parseInt(params.get(0).getValue());
-			if ((port < 1024) || (port > 65535)) {
-				throw new NumberFormatException();
-			}
-			final String runtimePath = getRuntimePath();
-			LaunchRuntimeUtils.startRuntime("FORTE on port " + params.get(0).getValue(), runtimePath, //$NON-NLS-1$
-					new File(runtimePath)
-					.getParentFile().getAbsolutePath(),
-					"-c " //$NON-NLS-1$
-					+ "localhost:" //$NON-NLS-1$
-					+ params.get(0).getValue());
+			port = Integer.parseInt(params.get(0).getValue());
 		} catch (final NumberFormatException num) {
 			throw new LaunchRuntimeException(Messages.ForteLauncher_ERROR_WrongPort);
-		} catch (final Exception ex) {
-			Activator.getDefault().logError(Messages.ForteLauncher_ERROR_CouldNotLaunchFORTE, ex);
 		}
+		if ((port < 1024) || (port > 65535)) {
+			throw new LaunchRuntimeException(Messages.ForteLauncher_ERROR_WrongPort);
+		}
+		return port;
 	}
 
 	@Override
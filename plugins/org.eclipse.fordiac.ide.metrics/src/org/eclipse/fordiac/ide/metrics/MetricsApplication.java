@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.metrics;
+
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.fordiac.ide.metrics.analyzers.TypeLibraryMetrics;
+import org.eclipse.fordiac.ide.metrics.analyzers.TypeLibraryMetrics.TypeMetrics;
+import org.eclipse.fordiac.ide.model.typelibrary.TypeLibrary;
+
+/**
+ * Headless application calculating the code metrics of all FB types of a 4diac
+ * IDE project.
+ *
+ * Usage: {@code -application org.eclipse.fordiac.ide.metrics.metrics
+ * <projectFolder> <outputFile>}. The results are written as JSON if the output
+ * file ends with .json and as CSV otherwise. The exit code is 0 on success and
+ * 1 otherwise.
+ */
+public class MetricsApplication implements IApplication {
+
+	private static final Integer EXIT_FAILED = Integer.valueOf(1);
+	private static final String PROJECT_FILE = ".project"; //$NON-NLS-1$
+	private static final String JSON_EXTENSION = ".json"; //$NON-NLS-1$
+
+	@Override
+	public Object start(final IApplicationContext context) throws Exception {
+		final String[] args = (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+		if ((null == args) || (args.length < 2)) {
+			System.err.println("Usage: <projectFolder> <outputFile>"); //$NON-NLS-1$
+			return EXIT_FAILED;
+		}
+
+		final IProject project = openProject(args[0]);
+		final List<TypeMetrics> metrics = new TypeLibraryMetrics().analyze(TypeLibrary.getTypeLibrary(project),
+				new NullProgressMonitor());
+
+		try (Writer writer = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+			if (args[1].toLowerCase().endsWith(JSON_EXTENSION)) {
+				TypeLibraryMetrics.writeJSON(metrics, writer);
+			} else {
+				TypeLibraryMetrics.writeCSV(metrics, writer);
+			}
+		}
+		System.out.println(String.format("Metrics of %d types written to %s", Integer.valueOf(metrics.size()), //$NON-NLS-1$
+				args[1]));
+		return IApplication.EXIT_OK;
+	}
+
+	@Override
+	public void stop() {
+		// nothing to do, the analysis terminates on its own
+	}
+
+	private static IProject openProject(final String projectFolder) throws CoreException {
+		final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		final IProjectDescription description = workspace
+				.loadProjectDescription(new Path(projectFolder).append(PROJECT_FILE));
+		final IProject project = workspace.getRoot().getProject(description.getName());
+		if (!project.exists()) {
+			project.create(description, new NullProgressMonitor());
+		}
+		project.open(new NullProgressMonitor());
+		return project;
+	}
+}
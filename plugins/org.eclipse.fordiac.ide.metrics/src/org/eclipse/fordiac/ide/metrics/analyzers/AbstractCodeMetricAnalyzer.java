@@ -15,8 +15,16 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.metrics.analyzers;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.fordiac.ide.model.Palette.PaletteEntry;
 import org.eclipse.fordiac.ide.model.libraryElement.Application;
 import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
 import org.eclipse.fordiac.ide.model.libraryElement.CompositeFBType;
@@ -27,12 +35,42 @@ import org.eclipse.fordiac.ide.model.libraryElement.FBType;
 import org.eclipse.fordiac.ide.model.libraryElement.INamedElement;
 import org.eclipse.fordiac.ide.model.libraryElement.SubApp;
 
+/**
+ * Base class of the code metrics.
+ *
+ * The data of every type is calculated once and reused for all instances of
+ * the type. The data is stored per type file, so reloaded types reuse the entry
+ * of their file instead of keeping the old type objects alive. It is calculated
+ * again when the file of the type or of a type used in its network is modified.
+ * Types can be analyzed from several threads, the calculated data must not be
+ * modified afterwards.
+ */
 public abstract class AbstractCodeMetricAnalyzer {
 
+	private static final class CachedData {
+		private final MetricData data;
+		// the modification stamps of the type and all types used in its network
+		private final Map<IFile, Long> stamps;
+
+		private CachedData(final MetricData data, final Map<IFile, Long> stamps) {
+			this.data = data;
+			this.stamps = stamps;
+		}
+
+		private boolean isValid() {
+			return stamps.entrySet().stream()
+					.allMatch(entry -> entry.getValue().longValue() == entry.getKey().getModificationStamp());
+		}
+	}
+
 	MetricData data;
+	private INamedElement element;
 
-	public void calculateMetrics(INamedElement element) {
+	private final Map<IFile, CachedData> typeData = new ConcurrentHashMap<>();
+	private final Map<IFile, CachedData> subAppTypeData = new ConcurrentHashMap<>();
 
+	public void calculateMetrics(INamedElement element) {
+		this.element = element;
 		if (element instanceof FB) {
 			element = ((FB) element).getPaletteEntry().getType();
 		}
@@ -45,16 +83,46 @@ public abstract class AbstractCodeMetricAnalyzer {
 		}
 	}
 
-	public abstract List<MetricResult> getResults();
+	/** @return the results of the last {@link #calculateMetrics(INamedElement)} */
+	public List<MetricResult> getResults() {
+		return (null != data) ? createResults(element, data) : Collections.emptyList();
+	}
+
+	/**
+	 * Calculate the metrics of a single type, can be called from several threads.
+	 *
+	 * @param type the type to analyze
+	 * @return the results or an empty list if the type cannot be analyzed
+	 */
+	public List<MetricResult> calculateTypeMetrics(final FBType type) {
+		final MetricData typeData = analyzeFBType(type);
+		return (null != typeData) ? createResults(type, typeData) : Collections.emptyList();
+	}
+
+	/** Forget the data of all types, they are analyzed again on the next run. */
+	public void clearCache() {
+		typeData.clear();
+		subAppTypeData.clear();
+	}
+
+	protected abstract List<MetricResult> createResults(INamedElement element, MetricData data);
 
 	protected MetricData analyzeSubApp(final SubApp subApp, final boolean calcAvg) {
 		if (subApp.isTyped()) {
-			return analyzeFBNetwork(subApp.getType().getFBNetwork(), true);
+			return getCachedData(subAppTypeData, subApp.getType(),
+					type -> analyzeFBNetwork(((CompositeFBType) type).getFBNetwork(), true));
 		}
 		return analyzeFBNetwork(subApp.getSubAppNetwork(), calcAvg);
 	}
 
 	protected MetricData analyzeFBType(final FBType type) {
+		if ((type instanceof BasicFBType) || (type instanceof CompositeFBType)) {
+			return getCachedData(typeData, type, this::analyzeUncachedFBType);
+		}
+		return null;
+	}
+
+	private MetricData analyzeUncachedFBType(final FBType type) {
 		MetricData tempData = null;
 		if (type instanceof BasicFBType) {
 			tempData = analyzeBFB((BasicFBType) type);
@@ -97,4 +165,63 @@ public abstract class AbstractCodeMetricAnalyzer {
 
 	protected abstract MetricData createDataType();
 
+	private static MetricData getCachedData(final Map<IFile, CachedData> cache, final FBType type,
+			final Function<FBType, MetricData> analysis) {
+		final IFile file = getFile(type);
+		if (null == file) {
+			// types without file, e.g., new types, are always analyzed again
+			return analysis.apply(type);
+		}
+		final CachedData cached = cache.get(file);
+		if ((null != cached) && cached.isValid()) {
+			return cached.data;
+		}
+		// no computeIfAbsent, the analysis of a composite type recursively fills the cache
+		final MetricData result = analysis.apply(type);
+		final Map<IFile, Long> stamps = new HashMap<>();
+		if ((null != result) && collectStamps(type, stamps)
+				&& !stamps.containsValue(Long.valueOf(IResource.NULL_STAMP))) {
+			cache.put(file, new CachedData(result, stamps));
+		} else {
+			cache.remove(file);
+		}
+		return result;
+	}
+
+	/** @return false if the type or a type used in its network has no file */
+	private static boolean collectStamps(final FBType type, final Map<IFile, Long> stamps) {
+		if (null == type) {
+			return true;
+		}
+		final IFile file = getFile(type);
+		if (null == file) {
+			return false;
+		}
+		if (stamps.containsKey(file)) {
+			return true;
+		}
+		stamps.put(file, Long.valueOf(file.getModificationStamp()));
+		return !(type instanceof CompositeFBType) || collectStamps(((CompositeFBType) type).getFBNetwork(), stamps);
+	}
+
+	private static boolean collectStamps(final FBNetwork fbNetwork, final Map<IFile, Long> stamps) {
+		if (null == fbNetwork) {
+			return true;
+		}
+		for (final FBNetworkElement fb : fbNetwork.getNetworkElements()) {
+			final boolean hasFiles = ((fb instanceof SubApp) && !((SubApp) fb).isTyped())
+					? collectStamps(((SubApp) fb).getSubAppNetwork(), stamps)
+					: collectStamps(fb.getType(), stamps);
+			if (!hasFiles) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static IFile getFile(final FBType type) {
+		final PaletteEntry entry = (null != type) ? type.getPaletteEntry() : null;
+		return (null != entry) ? entry.getFile() : null;
+	}
+
 }
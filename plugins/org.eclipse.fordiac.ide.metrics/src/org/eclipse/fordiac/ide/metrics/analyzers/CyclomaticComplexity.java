@@ -16,7 +16,9 @@
 package org.eclipse.fordiac.ide.metrics.analyzers;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.fordiac.ide.model.FordiacKeywords;
 import org.eclipse.fordiac.ide.model.libraryElement.Algorithm;
@@ -31,37 +33,13 @@ public class CyclomaticComplexity extends AbstractCodeMetricAnalyzer {
 	static final String[] CONDITIONS = { FordiacKeywords.IF, FordiacKeywords.FOR, FordiacKeywords.WHILE,
 			FordiacKeywords.REPEAT };
 
-	List<MetricResult> metrics = new ArrayList<>();
-	double ccapp = 0.0;
-
-	@Override
-	public void calculateMetrics(final INamedElement element) {
-		super.calculateMetrics(element);
-		final CyclomaticData cData = (CyclomaticData) this.data;
-		metrics.add(0, new MetricResult("Cyclomatic Number " + element.getName(), cData.cc));
-		metrics = removeDuplicates(metrics);
-	}
-
-	private static List<MetricResult> removeDuplicates(final List<MetricResult> list) {
-		final List<MetricResult> newList = new ArrayList<>();
-		boolean dupl = false;
-		for (final MetricResult m : list) {
-			for (final MetricResult n : newList) {
-				if (m.equals(n)) {
-					dupl = true;
-				}
-			}
-			if (!dupl) {
-				newList.add(m);
-			}
-			dupl = false;
-		}
-		return newList;
-	}
-
 	@Override
-	public List<MetricResult> getResults() {
-		return metrics;
+	protected List<MetricResult> createResults(final INamedElement element, final MetricData data) {
+		final CyclomaticData cData = (CyclomaticData) data;
+		final Set<MetricResult> metrics = new LinkedHashSet<>();
+		metrics.add(new MetricResult("Cyclomatic Number " + element.getName(), cData.cc));
+		metrics.addAll(cData.typeResults);
+		return new ArrayList<>(metrics);
 	}
 
 	@Override
@@ -80,7 +58,7 @@ public class CyclomaticComplexity extends AbstractCodeMetricAnalyzer {
 		}
 
 		data.cc += ccfb;
-		metrics.add(new MetricResult("Cyclomatic Number " + basicFBType.getName(), ccfb));
+		data.typeResults.add(new MetricResult("Cyclomatic Number " + basicFBType.getName(), ccfb));
 		return data;
 	}
 
@@ -110,8 +88,8 @@ public class CyclomaticComplexity extends AbstractCodeMetricAnalyzer {
 
 	@Override
 	protected MetricData analyzeCFB(final CompositeFBType compositeFBType) {
-		final MetricData data = analyzeFBNetwork(compositeFBType.getFBNetwork(), true);
-		metrics.add(new MetricResult("Cyclomatic Number " + compositeFBType.getName(), ((CyclomaticData) data).cc));
+		final CyclomaticData data = (CyclomaticData) analyzeFBNetwork(compositeFBType.getFBNetwork(), true);
+		data.typeResults.add(new MetricResult("Cyclomatic Number " + compositeFBType.getName(), data.cc));
 		return data;
 
 	}
@@ -13,13 +13,19 @@
 
 package org.eclipse.fordiac.ide.metrics.analyzers;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 class CyclomaticData extends MetricData{
 	double cc = 0;
+	// the cyclomatic numbers of the analyzed type and the types used in it
+	final Set<MetricResult> typeResults = new LinkedHashSet<>();
 
 	@Override
 	protected void add(MetricData data) {
 		if (data instanceof CyclomaticData) {
 			cc += ((CyclomaticData) data).cc;
+			typeResults.addAll(((CyclomaticData) data).typeResults);
 		}
 
 	}
@@ -17,11 +17,10 @@ import java.util.ArrayList;
 import java.util.List;
 
  class HalsteadData extends MetricData {
-	 static final int ST_OPERATOR_COUNT = 16;
 	 static final String[] ST_OPERATORS = { "**", ":=", "<=", ">=", "<>", "-", "NOT", "*", "/", "MOD", "+", "<", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$ //$NON-NLS-12$
 			">", //$NON-NLS-1$
 			"=", "AND", "OR", "XOR" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-	 static final int[] ST_OPERANDS_WEIGHT = { 1, 2, 2, 2, 2, 2, 1, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2 };
+	 static final int[] ST_OPERANDS_WEIGHT = { 2, 2, 2, 2, 2, 2, 1, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2 };
 
 	 double operandST = 0.0;
 	 double operatorST = 0.0;
@@ -36,7 +35,7 @@ import java.util.List;
 	 double n1 = 0;
 
 	 int actionCount = 0;
-	 int[] opCount = new int[ST_OPERATOR_COUNT];
+	 int[] opCount = new int[ST_OPERATORS.length];
 	 int uniqueTrans = 0;
 	 List<String> alg = new ArrayList<>();
 	 List<String> transCond = new ArrayList<>();
@@ -16,7 +16,10 @@
 package org.eclipse.fordiac.ide.metrics.analyzers;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.eclipse.fordiac.ide.model.libraryElement.Algorithm;
 import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
@@ -24,9 +27,14 @@ import org.eclipse.fordiac.ide.model.libraryElement.ECAction;
 import org.eclipse.fordiac.ide.model.libraryElement.ECC;
 import org.eclipse.fordiac.ide.model.libraryElement.ECState;
 import org.eclipse.fordiac.ide.model.libraryElement.ECTransition;
+import org.eclipse.fordiac.ide.model.libraryElement.INamedElement;
+import org.eclipse.fordiac.ide.model.libraryElement.STAlgorithm;
 
 public class HalsteadMetric extends AbstractCodeMetricAnalyzer {
 
+	// the scanned operators by algorithm, they are scanned again when the text changes
+	private final Map<Algorithm, STOperatorCounts> algorithmCounts = Collections.synchronizedMap(new WeakHashMap<>());
+
 	@Override
 	protected HalsteadData analyzeBFB(final BasicFBType basicFBType) {
 		final HalsteadData data = new HalsteadData();
@@ -61,7 +69,7 @@ public class HalsteadMetric extends AbstractCodeMetricAnalyzer {
 		return data;
 	}
 
-	private static void analyzeAction(final ECAction action, final HalsteadData data) {
+	private void analyzeAction(final ECAction action, final HalsteadData data) {
 		if (!data.actions.contains("Action " + data.actionCount)) {
 			data.uniqueOperator += 1;
 		}
@@ -80,39 +88,44 @@ public class HalsteadMetric extends AbstractCodeMetricAnalyzer {
 		data.actionCount++;
 	}
 
-	private static void analyzeAlgorithm(final Algorithm algorithm, final HalsteadData data) {
+	private void analyzeAlgorithm(final Algorithm algorithm, final HalsteadData data) {
 		if (!data.alg.contains(algorithm.getName())) {
 			data.uniqueOperands += 1;
 		}
 		data.alg.add(algorithm.getName());
-		String algo = algorithm.toString();
-		int count = 0;
-		for (final String op : HalsteadData.ST_OPERATORS) {
-			int lastIndex = 0;
-			while (-1 != lastIndex) {
-				lastIndex = algo.indexOf(op, lastIndex);
-				if (-1 != lastIndex) {
-					data.operatorST++;
-					data.opCount[count] += 1;
-					data.operandST += HalsteadData.ST_OPERANDS_WEIGHT[count];
-					final String sub1 = algo.substring(0, lastIndex);
-					final String sub2 = algo.substring(lastIndex + op.length(), algo.length());
-					algo = sub1.concat(sub2);
-				}
+		if (algorithm instanceof STAlgorithm) {
+			final STOperatorCounts counts = getOperatorCounts((STAlgorithm) algorithm);
+			data.operatorST += counts.getOperators();
+			data.operandST += counts.getOperands();
+			for (int i = 0; i < data.opCount.length; i++) {
+				data.opCount[i] += counts.getCount(i);
 			}
-			count++;
 		}
 	}
 
+	STOperatorCounts getOperatorCounts(final STAlgorithm algorithm) {
+		final String text = algorithm.getText();
+		final STOperatorCounts cached = algorithmCounts.get(algorithm);
+		if ((null != cached) && cached.isScannedFrom(text)) {
+			return cached;
+		}
+		final STOperatorCounts counts = STOperatorCounts.scan(text);
+		algorithmCounts.put(algorithm, counts);
+		return counts;
+	}
 
-
+	@Override
+	public void clearCache() {
+		super.clearCache();
+		algorithmCounts.clear();
+	}
 
 	@Override
-	public List<MetricResult> getResults() {
+	protected List<MetricResult> createResults(final INamedElement element, final MetricData data) {
 
 		final List<MetricResult> results = new ArrayList<>();
 
-		final HalsteadData hData= (HalsteadData) this.data;
+		final HalsteadData hData= (HalsteadData) data;
 
 		results.add(new MetricResult("Distinct operators n1 ",hData.n1));
 		results.add(new MetricResult("Distinct operands n2", hData.n2));
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.metrics.analyzers;
+
+import static org.eclipse.fordiac.ide.model.structuredtext.parser.antlr.lexer.InternalStructuredTextLexer.*;
+
+import org.antlr.runtime.ANTLRStringStream;
+import org.antlr.runtime.Token;
+import org.eclipse.fordiac.ide.model.structuredtext.parser.antlr.lexer.InternalStructuredTextLexer;
+
+/**
+ * The ST operators of one algorithm text as used by the Halstead metric.
+ *
+ * The text is scanned once with the lexer of the structured text grammar, so
+ * that comments, strings, and identifiers containing operator names (e.g.,
+ * FOR, MODE) are not counted. Unary minus, plus, and NOT have one operand, all
+ * other operators two.
+ */
+final class STOperatorCounts {
+
+	private final String text;
+	private final int[] opCount = new int[HalsteadData.ST_OPERATORS.length];
+	private int operators;
+	private int operands;
+
+	private STOperatorCounts(final String text) {
+		this.text = text;
+	}
+
+	/** @return true if the counts were scanned from the given text */
+	boolean isScannedFrom(final String algorithmText) {
+		return text.equals(algorithmText);
+	}
+
+	/** @return the number of occurrences by index in {@link HalsteadData#ST_OPERATORS} */
+	int getCount(final int operator) {
+		return opCount[operator];
+	}
+
+	int getOperators() {
+		return operators;
+	}
+
+	int getOperands() {
+		return operands;
+	}
+
+	static STOperatorCounts scan(final String text) {
+		final STOperatorCounts counts = new STOperatorCounts((null != text) ? text : ""); //$NON-NLS-1$
+		final InternalStructuredTextLexer lexer = new InternalStructuredTextLexer(new ANTLRStringStream(counts.text));
+		int previous = EOF;
+		int beforePrevious = EOF;
+		boolean hiddenBefore = false;
+		for (Token token = lexer.nextToken(); EOF != token.getType(); token = lexer.nextToken()) {
+			final int type = token.getType();
+			if (isHidden(type)) {
+				hiddenBefore = true;
+				continue;
+			}
+			final boolean exponentSign = ((HyphenMinus == type) || (PlusSign == type)) && (E == previous)
+					&& (RULE_UNSIGNED_INT == beforePrevious) && !hiddenBefore;
+			final int operator = getOperator(type);
+			if ((operator >= 0) && !exponentSign) {
+				final boolean unary = (NOT == type)
+						|| (((HyphenMinus == type) || (PlusSign == type)) && !endsOperand(previous));
+				counts.opCount[operator]++;
+				counts.operators++;
+				counts.operands += unary ? 1 : HalsteadData.ST_OPERANDS_WEIGHT[operator];
+			}
+			beforePrevious = previous;
+			previous = type;
+			hiddenBefore = false;
+		}
+		return counts;
+	}
+
+	private static boolean isHidden(final int type) {
+		return (RULE_WS == type) || (RULE_ML_COMMENT == type) || (RULE_SL_COMMENT == type);
+	}
+
+	// the order has to match HalsteadData.ST_OPERATORS
+	private static int getOperator(final int type) {
+		switch (type) {
+		case AsteriskAsterisk:
+			return 0;
+		case ColonEqualsSign:
+			return 1;
+		case LessThanSignEqualsSign:
+			return 2;
+		case GreaterThanSignEqualsSign:
+			return 3;
+		case LessThanSignGreaterThanSign:
+			return 4;
+		case HyphenMinus:
+			return 5;
+		case NOT:
+			return 6;
+		case Asterisk:
+			return 7;
+		case Solidus:
+			return 8;
+		case MOD:
+			return 9;
+		case PlusSign:
+			return 10;
+		case LessThanSign:
+			return 11;
+		case GreaterThanSign:
+			return 12;
+		case EqualsSign:
+			return 13;
+		case AND:
+		case Ampersand:
+			return 14;
+		case OR:
+			return 15;
+		case XOR:
+			return 16;
+		default:
+			return -1;
+		}
+	}
+
+	// a minus or plus after such a token is a binary operator
+	private static boolean endsOperand(final int type) {
+		switch (type) {
+		case RULE_ID:
+		case RULE_UNSIGNED_INT:
+		case RULE_BINARY_INT:
+		case RULE_OCTAL_INT:
+		case RULE_HEX_INT:
+		case RULE_S_BYTE_CHAR_STR:
+		case RULE_D_BYTE_CHAR_STR:
+		case RULE_TIME:
+		case RULE_TIMEOFDAY:
+		case RULE_DATE:
+		case RULE_DATETIME:
+		case RightParenthesis:
+		case RightSquareBracket:
+		case TRUE:
+		case FALSE:
+			return true;
+		default:
+			return false;
+		}
+	}
+}
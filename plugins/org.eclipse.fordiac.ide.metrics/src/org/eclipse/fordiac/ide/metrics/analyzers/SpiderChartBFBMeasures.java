@@ -21,16 +21,17 @@ import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
 import org.eclipse.fordiac.ide.model.libraryElement.ECAction;
 import org.eclipse.fordiac.ide.model.libraryElement.ECC;
 import org.eclipse.fordiac.ide.model.libraryElement.ECState;
+import org.eclipse.fordiac.ide.model.libraryElement.INamedElement;
 import org.eclipse.fordiac.ide.model.libraryElement.InterfaceList;
 
 public class SpiderChartBFBMeasures extends AbstractCodeMetricAnalyzer {
 	static final String[] CONDITIONS = { "IF", "FOR", "WHILE", "REPEAT" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 
 	@Override
-	public List<MetricResult> getResults() {
+	protected List<MetricResult> createResults(final INamedElement element, final MetricData data) {
 		final List<MetricResult> results = new ArrayList<>();
 
-		final SpiderChartBFBData scData = (SpiderChartBFBData) this.data;
+		final SpiderChartBFBData scData = (SpiderChartBFBData) data;
 
 		results.add(new MetricResult(Messages.NumberOfStates, scData.states));
 		results.add(new MetricResult(Messages.NumberOfTransitions, scData.transitions));
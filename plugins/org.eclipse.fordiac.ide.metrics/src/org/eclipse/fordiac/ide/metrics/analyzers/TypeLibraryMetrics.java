@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.metrics.analyzers;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.fordiac.ide.metrics.Activator;
+import org.eclipse.fordiac.ide.model.Palette.PaletteEntry;
+import org.eclipse.fordiac.ide.model.libraryElement.FBType;
+import org.eclipse.fordiac.ide.model.typelibrary.TypeLibrary;
+
+/**
+ * Calculates the code metrics of all FB types of a type library.
+ *
+ * The types are analyzed in parallel on a bounded pool. The analyzers remember
+ * the data of every type, so that running the same instance again only
+ * analyzes the modified types. The results can be written as CSV or JSON.
+ */
+public class TypeLibraryMetrics {
+
+	private static final String CSV_HEADER = "Type,Metric,Value"; //$NON-NLS-1$
+	private static final String NEW_LINE = "\n"; //$NON-NLS-1$
+
+	/** The metric results of one type */
+	public static final class TypeMetrics {
+		private final String typeName;
+		private final List<MetricResult> results;
+
+		private TypeMetrics(final String typeName, final List<MetricResult> results) {
+			this.typeName = typeName;
+			this.results = Collections.unmodifiableList(results);
+		}
+
+		public String getTypeName() {
+			return typeName;
+		}
+
+		public List<MetricResult> getResults() {
+			return results;
+		}
+	}
+
+	private final List<AbstractCodeMetricAnalyzer> analyzers;
+	private final int parallelism;
+
+	/** Calculate the cyclomatic complexity and the Halstead metrics. */
+	public TypeLibraryMetrics() {
+		this(Arrays.asList(new CyclomaticComplexity(), new HalsteadMetric()),
+				Runtime.getRuntime().availableProcessors());
+	}
+
+	public TypeLibraryMetrics(final List<AbstractCodeMetricAnalyzer> analyzers, final int parallelism) {
+		this.analyzers = new ArrayList<>(analyzers);
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/** Analyze all FB types of the given type library. */
+	public List<TypeMetrics> analyze(final TypeLibrary typeLibrary, final IProgressMonitor monitor)
+			throws InterruptedException {
+		return analyze(typeLibrary.getBlockTypeLib().getFbTypes().values(), monitor);
+	}
+
+	/**
+	 * Analyze the FB types of the given palette entries.
+	 *
+	 * @param entries the palette entries of the types to analyze
+	 * @param monitor progress monitor, can be null
+	 * @return the results sorted by type name, types without metrics are omitted
+	 * @throws InterruptedException if the analysis was interrupted
+	 */
+	public List<TypeMetrics> analyze(final Collection<? extends PaletteEntry> entries,
+			final IProgressMonitor monitor) throws InterruptedException {
+		final SubMonitor subMonitor = SubMonitor.convert(monitor, 2 * entries.size());
+		// types are loaded on the calling thread, the workers only read the model
+		final List<FBType> types = new ArrayList<>();
+		for (final PaletteEntry entry : entries) {
+			subMonitor.split(1);
+			if (entry.getType() instanceof FBType) {
+				types.add((FBType) entry.getType());
+			}
+		}
+		types.sort(Comparator.comparing(FBType::getName));
+
+		final Map<FBType, Future<List<MetricResult>>> pending = new LinkedHashMap<>();
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, types.size())));
+		try {
+			for (final FBType type : types) {
+				pending.put(type, executor.submit(() -> calculateTypeMetrics(type)));
+			}
+			final List<TypeMetrics> results = new ArrayList<>();
+			for (final Map.Entry<FBType, Future<List<MetricResult>>> entry : pending.entrySet()) {
+				subMonitor.split(1);
+				final List<MetricResult> typeResults = getResults(entry.getValue());
+				if (!typeResults.isEmpty()) {
+					results.add(new TypeMetrics(entry.getKey().getName(), typeResults));
+				}
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/** Forget the data of all types, they are analyzed again on the next run. */
+	public void clearCache() {
+		analyzers.forEach(AbstractCodeMetricAnalyzer::clearCache);
+	}
+
+	private List<MetricResult> calculateTypeMetrics(final FBType type) {
+		final List<MetricResult> results = new ArrayList<>();
+		for (final AbstractCodeMetricAnalyzer analyzer : analyzers) {
+			results.addAll(analyzer.calculateTypeMetrics(type));
+		}
+		return results;
+	}
+
+	private static List<MetricResult> getResults(final Future<List<MetricResult>> future)
+			throws InterruptedException {
+		try {
+			return future.get();
+		} catch (final ExecutionException e) {
+			// a type that cannot be analyzed must not stop the analysis of the others
+			Activator.getDefault().logError(e.getCause().getMessage(), e);
+			return Collections.emptyList();
+		}
+	}
+
+	/** Write the results as CSV with one line per type and metric. */
+	public static void writeCSV(final List<TypeMetrics> metrics, final Writer writer) throws IOException {
+		writer.write(CSV_HEADER);
+		writer.write(NEW_LINE);
+		for (final TypeMetrics typeMetrics : metrics) {
+			for (final MetricResult result : typeMetrics.getResults()) {
+				writer.write(quoteCSV(typeMetrics.getTypeName()));
+				writer.write(',');
+				writer.write(quoteCSV(result.getName().trim()));
+				writer.write(',');
+				writer.write(Double.toString(result.getValue()));
+				writer.write(NEW_LINE);
+			}
+		}
+	}
+
+	/**
+	 * Write the results as JSON object with one member per type holding the
+	 * metric values by name. Values that are not a number are written as null.
+	 */
+	public static void writeJSON(final List<TypeMetrics> metrics, final Writer writer) throws IOException {
+		writer.write('{');
+		for (int i = 0; i < metrics.size(); i++) {
+			final TypeMetrics typeMetrics = metrics.get(i);
+			writer.write((0 == i) ? NEW_LINE : "," + NEW_LINE); //$NON-NLS-1$
+			writer.write("  " + quoteJSON(typeMetrics.getTypeName()) + ": {"); //$NON-NLS-1$ //$NON-NLS-2$
+			final List<MetricResult> results = typeMetrics.getResults();
+			for (int j = 0; j < results.size(); j++) {
+				final MetricResult result = results.get(j);
+				writer.write((0 == j) ? NEW_LINE : "," + NEW_LINE); //$NON-NLS-1$
+				writer.write("    " + quoteJSON(result.getName().trim()) + ": " + formatJSON(result.getValue())); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			writer.write(NEW_LINE + "  }"); //$NON-NLS-1$
+		}
+		writer.write(NEW_LINE + '}' + NEW_LINE);
+	}
+
+	private static String quoteCSV(final String text) {
+		if ((text.indexOf(',') < 0) && (text.indexOf('"') < 0) && (text.indexOf('\n') < 0)) {
+			return text;
+		}
+		return '"' + text.replace("\"", "\"\"") + '"'; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static String quoteJSON(final String text) {
+		final StringBuilder builder = new StringBuilder(text.length() + 2);
+		builder.append('"');
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			if ((c == '"') || (c == '\\')) {
+				builder.append('\\').append(c);
+			} else if (c < ' ') {
+				builder.append(String.format("\\u%04x", Integer.valueOf(c))); //$NON-NLS-1$
+			} else {
+				builder.append(c);
+			}
+		}
+		return builder.append('"').toString();
+	}
+
+	private static String formatJSON(final double value) {
+		return (Double.isNaN(value) || Double.isInfinite(value)) ? "null" : Double.toString(value); //$NON-NLS-1$
+	}
+}
@@ -238,14 +238,18 @@ public abstract class AbstractUpdateFBNElementCommand extends Command {
 	}
 
 	protected void createValues() {
-		for (final VarDeclaration inVar : newElement.getInterface().getInputVars()) {
+		copyValues(oldElement, newElement);
+	}
+
+	protected static void copyValues(final FBNetworkElement srcElement, final FBNetworkElement dstElement) {
+		for (final VarDeclaration inVar : dstElement.getInterface().getInputVars()) {
 			inVar.setValue(LibraryElementFactory.eINSTANCE.createValue());
-			checkSourceParam(inVar);
+			checkSourceParam(srcElement, inVar);
 		}
 	}
 
-	private void checkSourceParam(final VarDeclaration variable) {
-		final VarDeclaration srcVar = oldElement.getInterface().getVariable(variable.getName());
+	private static void checkSourceParam(final FBNetworkElement srcElement, final VarDeclaration variable) {
+		final VarDeclaration srcVar = srcElement.getInterface().getVariable(variable.getName());
 		if ((null != srcVar) && (null != srcVar.getValue())) {
 			variable.getValue().setValue(srcVar.getValue().getValue());
 		}
@@ -21,14 +21,14 @@ import org.eclipse.fordiac.ide.model.Palette.SubApplicationTypePaletteEntry;
 import org.eclipse.fordiac.ide.model.commands.Messages;
 import org.eclipse.fordiac.ide.model.commands.create.AbstractConnectionCreateCommand;
 import org.eclipse.fordiac.ide.model.commands.create.AdapterConnectionCreateCommand;
-import org.eclipse.fordiac.ide.model.commands.create.CreateSubAppInstanceCommand;
 import org.eclipse.fordiac.ide.model.commands.create.DataConnectionCreateCommand;
 import org.eclipse.fordiac.ide.model.commands.create.EventConnectionCreateCommand;
-import org.eclipse.fordiac.ide.model.commands.create.FBCreateCommand;
 import org.eclipse.fordiac.ide.model.helpers.FBNetworkHelper;
 import org.eclipse.fordiac.ide.model.libraryElement.AdapterDeclaration;
 import org.eclipse.fordiac.ide.model.libraryElement.AutomationSystem;
+import org.eclipse.fordiac.ide.model.libraryElement.CompositeFBType;
 import org.eclipse.fordiac.ide.model.libraryElement.Connection;
+import org.eclipse.fordiac.ide.model.libraryElement.Demultiplexer;
 import org.eclipse.fordiac.ide.model.libraryElement.ErrorMarkerInterface;
 import org.eclipse.fordiac.ide.model.libraryElement.Event;
 import org.eclipse.fordiac.ide.model.libraryElement.FB;
@@ -37,6 +37,7 @@ import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
 import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
 import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
 import org.eclipse.fordiac.ide.model.libraryElement.Mapping;
+import org.eclipse.fordiac.ide.model.libraryElement.Multiplexer;
 import org.eclipse.fordiac.ide.model.libraryElement.Resource;
 import org.eclipse.fordiac.ide.model.libraryElement.StructManipulator;
 import org.eclipse.fordiac.ide.model.libraryElement.SubApp;
@@ -134,61 +135,77 @@ public class MapToCommand extends Command {
 	}
 
 	protected void createTargetElement() {
+		targetElement = createTargetElement(srcElement);
+		getTargetFBNetwork().getNetworkElements().add(targetElement);
+	}
+
+	/** Create the counterpart of an application element which is not yet contained
+	 * in any network
+	 *
+	 * @param srcElement the application element
+	 * @return the element to be added to the network of the resource */
+	static FBNetworkElement createTargetElement(final FBNetworkElement srcElement) {
+		FBNetworkElement targetElement = null;
 		if (srcElement instanceof StructManipulator) {
-			targetElement = createTargetStructManipulator();
+			targetElement = createTargetStructManipulator((StructManipulator) srcElement);
 		} else if (srcElement instanceof FB) {
-			targetElement = createTargetFB();
+			targetElement = createTargetFB(srcElement);
 		} else if (srcElement instanceof SubApp) {
 			if (null != srcElement.getPaletteEntry()) {
-				targetElement = createTargetTypedSubApp();
+				targetElement = createTargetTypedSubApp(srcElement);
 			} else {
-				targetElement = createTargetUntypedSubApp();
+				targetElement = createTargetUntypedSubApp(srcElement);
 			}
 		}
+		targetElement.setPosition(EcoreUtil.copy(srcElement.getPosition()));
 		targetElement.setName(srcElement.getName());
-		transferFBParams();
+		transferFBParams(srcElement, targetElement);
+		return targetElement;
 	}
 
-	private FBNetworkElement createTargetFB() {
-		final FBCreateCommand targetCreateFB = new FBCreateCommand((FBTypePaletteEntry) srcElement.getPaletteEntry(),
-				getTargetFBNetwork(), srcElement.getPosition().getX(), srcElement.getPosition().getY());
-		targetCreateFB.execute();
-		return targetCreateFB.getFB();
+	private static FBNetworkElement createTargetFB(final FBNetworkElement srcElement) {
+		final FBTypePaletteEntry entry = (FBTypePaletteEntry) srcElement.getPaletteEntry();
+		final FB fb;
+		if (srcElement instanceof Multiplexer) {
+			fb = LibraryElementFactory.eINSTANCE.createMultiplexer();
+		} else if (srcElement instanceof Demultiplexer) {
+			fb = LibraryElementFactory.eINSTANCE.createDemultiplexer();
+		} else if (entry.getType() instanceof CompositeFBType) {
+			fb = LibraryElementFactory.eINSTANCE.createCFBInstance();
+		} else {
+			fb = LibraryElementFactory.eINSTANCE.createFB();
+		}
+		fb.setPaletteEntry(entry);
+		fb.setInterface(entry.getFBType().getInterfaceList().copy());
+		return fb;
 	}
 
-	private FBNetworkElement createTargetStructManipulator() {
-		final StructManipulator manipulator = (StructManipulator) createTargetFB();
-		manipulator.setStructTypeElementsAtInterface(((StructManipulator) srcElement).getStructType());
+	private static FBNetworkElement createTargetStructManipulator(final StructManipulator srcElement) {
+		final StructManipulator manipulator = (StructManipulator) createTargetFB(srcElement);
+		manipulator.setStructTypeElementsAtInterface(srcElement.getStructType());
 		return manipulator;
 	}
 
-	private FBNetworkElement createTargetTypedSubApp() {
-		if (srcElement instanceof SubApp) {
-			FBNetworkHelper.loadSubappNetwork(srcElement);
-		}
-
-		final CreateSubAppInstanceCommand cmd = new CreateSubAppInstanceCommand(
-				(SubApplicationTypePaletteEntry) srcElement.getPaletteEntry(), getTargetFBNetwork(),
-				srcElement.getPosition().getX(), srcElement.getPosition().getY());
-		cmd.execute();
-
-		return cmd.getSubApp();
+	private static FBNetworkElement createTargetTypedSubApp(final FBNetworkElement srcElement) {
+		FBNetworkHelper.loadSubappNetwork(srcElement);
+		final SubApplicationTypePaletteEntry entry = (SubApplicationTypePaletteEntry) srcElement.getPaletteEntry();
+		final SubApp subApp = LibraryElementFactory.eINSTANCE.createSubApp();
+		subApp.setPaletteEntry(entry);
+		subApp.setInterface(entry.getSubApplicationType().getInterfaceList().copy());
+		return subApp;
 	}
 
-	private FBNetworkElement createTargetUntypedSubApp() {
+	private static FBNetworkElement createTargetUntypedSubApp(final FBNetworkElement srcElement) {
 		final SubApp element = LibraryElementFactory.eINSTANCE.createSubApp();
-		element.setPosition(EcoreUtil.copy(srcElement.getPosition()));
-		element.setInterface(LibraryElementFactory.eINSTANCE.createInterfaceList());
 		element.setInterface(EcoreUtil.copy(srcElement.getInterface()));
 		for (final IInterfaceElement ie : element.getInterface().getAllInterfaceElements()) {
 			ie.getInputConnections().clear();
 			ie.getOutputConnections().clear();
 		}
-		getTargetFBNetwork().getNetworkElements().add(element);
 		return element;
 	}
 
-	private void transferFBParams() {
+	private static void transferFBParams(final FBNetworkElement srcElement, final FBNetworkElement targetElement) {
 		final List<VarDeclaration> destInputs = targetElement.getInterface().getInputVars();
 		final List<VarDeclaration> srcInputs = srcElement.getInterface().getInputVars();
 
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.model.commands.change;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.fordiac.ide.model.commands.Messages;
+import org.eclipse.fordiac.ide.model.libraryElement.AdapterConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.AdapterDeclaration;
+import org.eclipse.fordiac.ide.model.libraryElement.AutomationSystem;
+import org.eclipse.fordiac.ide.model.libraryElement.Connection;
+import org.eclipse.fordiac.ide.model.libraryElement.DataConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.ErrorMarkerInterface;
+import org.eclipse.fordiac.ide.model.libraryElement.Event;
+import org.eclipse.fordiac.ide.model.libraryElement.EventConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.Mapping;
+import org.eclipse.fordiac.ide.model.libraryElement.Resource;
+import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
+import org.eclipse.fordiac.ide.ui.errormessages.ErrorMessenger;
+import org.eclipse.gef.commands.Command;
+
+/**
+ * Maps many application elements to their resources in one step.
+ *
+ * The result is the same as executing a {@link MapToCommand} for each element
+ * of the assignment. But the connections to be created in the resources are
+ * determined in one pass over the connections of the mapped elements, and the
+ * new elements, mappings, and connections are added to their containers all at
+ * once instead of one by one.
+ */
+public class MapToResourcesCommand extends Command {
+
+	/** The elements, mappings, and connections added to the network of one resource */
+	private static final class ResourceContent {
+		private final FBNetwork network;
+		private final List<FBNetworkElement> elements = new ArrayList<>();
+		private final List<EventConnection> eventConnections = new ArrayList<>();
+		private final List<DataConnection> dataConnections = new ArrayList<>();
+		private final List<AdapterConnection> adapterConnections = new ArrayList<>();
+
+		private ResourceContent(final Resource resource) {
+			network = resource.getFBNetwork();
+		}
+	}
+
+	private static final class CreatedConnection {
+		private final Connection connection;
+		private final IInterfaceElement source;
+		private final IInterfaceElement destination;
+
+		private CreatedConnection(final Connection connection, final IInterfaceElement source,
+				final IInterfaceElement destination) {
+			this.connection = connection;
+			this.source = source;
+			this.destination = destination;
+		}
+	}
+
+	private final Map<FBNetworkElement, Resource> assignment;
+	private final List<UnmapCommand> unmapCommands = new ArrayList<>();
+	private final Map<FBNetworkElement, FBNetworkElement> targetElements = new LinkedHashMap<>();
+	private final Map<Resource, ResourceContent> contents = new LinkedHashMap<>();
+	private final List<Mapping> mappings = new ArrayList<>();
+	private final List<CreatedConnection> connections = new ArrayList<>();
+	private AutomationSystem system;
+
+	/** @param assignment the application elements and the resources they should be
+	 *                   mapped to */
+	public MapToResourcesCommand(final Map<? extends FBNetworkElement, Resource> assignment) {
+		this.assignment = new LinkedHashMap<>(assignment);
+	}
+
+	@Override
+	public boolean canExecute() {
+		if (assignment.isEmpty()) {
+			return false;
+		}
+		if (assignment.entrySet().stream().allMatch(entry -> isMappedTo(entry.getKey(), entry.getValue()))) {
+			ErrorMessenger.popUpErrorMessage(Messages.MapToCommand_STATUSMessage_AlreadyMapped);
+			return false; // everything is already mapped as requested -> nothing to do
+		}
+		return true;
+	}
+
+	private static boolean isMappedTo(final FBNetworkElement element, final Resource resource) {
+		return element.isMapped() && element.getOpposite().getFbNetwork().equals(resource.getFBNetwork());
+	}
+
+	@Override
+	public void execute() {
+		for (final Map.Entry<FBNetworkElement, Resource> entry : assignment.entrySet()) {
+			final FBNetworkElement srcElement = entry.getKey();
+			if (!isMappedTo(srcElement, entry.getValue())) {
+				if (null == system) {
+					system = srcElement.getFbNetwork().getApplication().getAutomationSystem();
+				}
+				if (srcElement.isMapped()) {
+					final UnmapCommand unmapCmd = new UnmapCommand(srcElement.getOpposite());
+					unmapCmd.execute();
+					unmapCommands.add(unmapCmd);
+				}
+				final FBNetworkElement targetElement = MapToCommand.createTargetElement(srcElement);
+				targetElements.put(srcElement, targetElement);
+				contents.computeIfAbsent(entry.getValue(), ResourceContent::new).elements.add(targetElement);
+
+				final Mapping mapping = LibraryElementFactory.eINSTANCE.createMapping();
+				mapping.setFrom(srcElement);
+				mapping.setTo(targetElement);
+				mappings.add(mapping);
+			}
+		}
+		createConnections();
+		addToResources();
+	}
+
+	@Override
+	public void undo() {
+		for (final CreatedConnection created : connections) {
+			created.connection.setSource(null);
+			created.connection.setDestination(null);
+		}
+		for (final ResourceContent content : contents.values()) {
+			content.network.getEventConnections().removeAll(new HashSet<>(content.eventConnections));
+			content.network.getDataConnections().removeAll(new HashSet<>(content.dataConnections));
+			content.network.getAdapterConnections().removeAll(new HashSet<>(content.adapterConnections));
+		}
+
+		// the mappings are removed first so that nobody checking for the mapped state uses the resource afterwards
+		for (final Mapping mapping : mappings) {
+			mapping.getFrom().setMapping(null);
+			mapping.getTo().setMapping(null);
+		}
+		for (final ResourceContent content : contents.values()) {
+			content.network.getNetworkElements().removeAll(new HashSet<>(content.elements));
+		}
+		system.getMapping().removeAll(new HashSet<>(mappings));
+
+		for (int i = unmapCommands.size() - 1; i >= 0; i--) {
+			unmapCommands.get(i).undo();
+		}
+	}
+
+	@Override
+	public void redo() {
+		unmapCommands.forEach(UnmapCommand::redo);
+		addToResources();
+	}
+
+	private void addToResources() {
+		for (final ResourceContent content : contents.values()) {
+			content.network.getNetworkElements().addAll(content.elements);
+		}
+		for (final Mapping mapping : mappings) {
+			mapping.getFrom().setMapping(mapping);
+			mapping.getTo().setMapping(mapping);
+		}
+		system.getMapping().addAll(mappings);
+
+		for (final CreatedConnection created : connections) {
+			created.connection.setSource(created.source);
+			created.connection.setDestination(created.destination);
+		}
+		for (final ResourceContent content : contents.values()) {
+			content.network.getEventConnections().addAll(content.eventConnections);
+			content.network.getDataConnections().addAll(content.dataConnections);
+			content.network.getAdapterConnections().addAll(content.adapterConnections);
+		}
+	}
+
+	/* one pass over the connections of the newly mapped elements, connections
+	 * between elements mapped to the same resource are created in the resource */
+	private void createConnections() {
+		final Set<Connection> visited = new HashSet<>();
+		for (final FBNetworkElement srcElement : targetElements.keySet()) {
+			for (final IInterfaceElement interfaceElement : srcElement.getInterface().getAllInterfaceElements()) {
+				// error markers do not get mapped
+				if (!(interfaceElement instanceof ErrorMarkerInterface)) {
+					final List<Connection> pinConnections = interfaceElement.isIsInput()
+							? interfaceElement.getInputConnections()
+									: interfaceElement.getOutputConnections();
+					for (final Connection connection : pinConnections) {
+						if (visited.add(connection)) {
+							createConnection(connection);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private void createConnection(final Connection connection) {
+		if ((connection.getSource() instanceof ErrorMarkerInterface)
+				|| (connection.getDestination() instanceof ErrorMarkerInterface)) {
+			// connections to error markers will not get mapped
+			return;
+		}
+		final FBNetworkElement sourceElement = connection.getSourceElement();
+		final FBNetworkElement destinationElement = connection.getDestinationElement();
+		if ((null == sourceElement) || (null == destinationElement)) {
+			return;
+		}
+		final Resource resource = getResource(sourceElement);
+		if ((null == resource) || !resource.equals(getResource(destinationElement))) {
+			// the ends are not mapped or mapped to different resources, the connection stays broken
+			return;
+		}
+		final IInterfaceElement source = getTargetElement(sourceElement)
+				.getInterfaceElement(connection.getSource().getName());
+		final IInterfaceElement destination = getTargetElement(destinationElement)
+				.getInterfaceElement(connection.getDestination().getName());
+		if ((null == source) || (null == destination)) {
+			return;
+		}
+
+		final ResourceContent content = contents.get(resource);
+		final Connection created;
+		if (source instanceof Event) {
+			final EventConnection eventConnection = LibraryElementFactory.eINSTANCE.createEventConnection();
+			content.eventConnections.add(eventConnection);
+			created = eventConnection;
+		} else if (source instanceof AdapterDeclaration) {
+			final AdapterConnection adapterConnection = LibraryElementFactory.eINSTANCE.createAdapterConnection();
+			content.adapterConnections.add(adapterConnection);
+			created = adapterConnection;
+		} else if (source instanceof VarDeclaration) {
+			final DataConnection dataConnection = LibraryElementFactory.eINSTANCE.createDataConnection();
+			content.dataConnections.add(dataConnection);
+			created = dataConnection;
+		} else {
+			return;
+		}
+		created.setRoutingData(LibraryElementFactory.eINSTANCE.createConnectionRoutingData());
+		connections.add(new CreatedConnection(created, source, destination));
+	}
+
+	/* the resource an element is mapped to after this command */
+	private Resource getResource(final FBNetworkElement element) {
+		if (targetElements.containsKey(element)) {
+			return assignment.get(element);
+		}
+		return element.getResource();
+	}
+
+	private FBNetworkElement getTargetElement(final FBNetworkElement element) {
+		final FBNetworkElement target = targetElements.get(element);
+		return (null != target) ? target : element.getOpposite();
+	}
+}
@@ -0,0 +1,452 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.model.commands.change;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.impl.ENotificationImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.InternalEList;
+import org.eclipse.fordiac.ide.model.Palette.FBTypePaletteEntry;
+import org.eclipse.fordiac.ide.model.Palette.PaletteEntry;
+import org.eclipse.fordiac.ide.model.Palette.SubApplicationTypePaletteEntry;
+import org.eclipse.fordiac.ide.model.helpers.FBNetworkConnectionIndex;
+import org.eclipse.fordiac.ide.model.helpers.FBNetworkHelper;
+import org.eclipse.fordiac.ide.model.libraryElement.AdapterFB;
+import org.eclipse.fordiac.ide.model.libraryElement.CompositeFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.Connection;
+import org.eclipse.fordiac.ide.model.libraryElement.ErrorMarkerFBNElement;
+import org.eclipse.fordiac.ide.model.libraryElement.ErrorMarkerInterface;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.fordiac.ide.model.libraryElement.FBType;
+import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementPackage;
+import org.eclipse.fordiac.ide.model.libraryElement.ServiceInterfaceFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.StructManipulator;
+import org.eclipse.gef.commands.Command;
+import org.eclipse.gef.commands.CompoundCommand;
+
+/**
+ * Updates the types of many network elements of one network at once.
+ *
+ * The instances are grouped by their type so that the insertion check and the
+ * mapping of the pin names is done once per type. Plain instances whose
+ * connections all fit to the new interface are replaced together: each
+ * connection is rewired once, even if both of its ends are updated, and the
+ * network is refreshed once at the end instead of after every single change.
+ * All other instances (error markers, mapped elements, multiplexers, pins
+ * getting lost or changing their type) are updated afterwards with an
+ * {@link UpdateFBTypeCommand} each, which takes care of the error markers.
+ */
+public class UpdateFBTypesCommand extends Command {
+
+	/** The new interface of a type and where to find its pins by name */
+	private static final class TypeUpdate {
+		private final PaletteEntry entry;
+		private final FBType type;
+		private final boolean insertionSave;
+		private final List<IInterfaceElement> pins;
+		private final Map<String, Integer> inputs = new HashMap<>();
+		private final Map<String, Integer> outputs = new HashMap<>();
+
+		private TypeUpdate(final PaletteEntry entry, final FBNetwork network) {
+			this.entry = entry;
+			type = (FBType) entry.getType();
+			insertionSave = FBNetworkHelper.isTypeInsertionSave(type, network);
+			pins = type.getInterfaceList().getAllInterfaceElements();
+			for (int i = 0; i < pins.size(); i++) {
+				final IInterfaceElement pin = pins.get(i);
+				(pin.isIsInput() ? inputs : outputs).putIfAbsent(pin.getName(), Integer.valueOf(i));
+			}
+		}
+
+		/** @return the index of the pin with the same name and direction in the new
+		 *         interface or -1 if there is none */
+		private int indexOf(final IInterfaceElement oldPin) {
+			final Integer index = (oldPin.isIsInput() ? inputs : outputs).get(oldPin.getName());
+			return (null != index) ? index.intValue() : -1;
+		}
+
+		private FBNetworkElement createInstance(final FBNetworkElement oldElement) {
+			final FBNetworkElement newElement;
+			if (entry instanceof SubApplicationTypePaletteEntry) {
+				newElement = LibraryElementFactory.eINSTANCE.createSubApp();
+			} else if (type instanceof CompositeFBType) {
+				newElement = LibraryElementFactory.eINSTANCE.createCFBInstance();
+			} else {
+				newElement = LibraryElementFactory.eINSTANCE.createFB();
+			}
+			newElement.setPaletteEntry(entry);
+			newElement.setInterface(type.getInterfaceList().copy());
+			newElement.setName(oldElement.getName());
+			newElement.setPosition(EcoreUtil.copy(oldElement.getPosition()));
+			AbstractUpdateFBNElementCommand.copyValues(oldElement, newElement);
+			return newElement;
+		}
+	}
+
+	private static final class ElementUpdate {
+		private final TypeUpdate type;
+		private final FBNetworkElement newElement;
+		private final List<IInterfaceElement> newPins;
+
+		private ElementUpdate(final TypeUpdate type, final FBNetworkElement newElement) {
+			this.type = type;
+			this.newElement = newElement;
+			newPins = newElement.getInterface().getAllInterfaceElements();
+		}
+	}
+
+	private static final class ConnectionUpdate {
+		private final Connection oldConn;
+		private final Connection newConn;
+		private final IInterfaceElement oldSource;
+		private final IInterfaceElement oldDest;
+		private final IInterfaceElement newSource;
+		private final IInterfaceElement newDest;
+
+		private ConnectionUpdate(final Connection oldConn, final IInterfaceElement newSource,
+				final IInterfaceElement newDest) {
+			this.oldConn = oldConn;
+			oldSource = oldConn.getSource();
+			oldDest = oldConn.getDestination();
+			newConn = EcoreUtil.copy(oldConn);
+			this.newSource = newSource;
+			this.newDest = newDest;
+		}
+	}
+
+	/* the connections of a pin that stays in the network which were replaced */
+	private static final class ConnectionChanges {
+		private final List<Connection> removed = new ArrayList<>();
+		private final List<Connection> added = new ArrayList<>();
+
+		private void add(final Connection removedConnection, final Connection addedConnection) {
+			removed.add(removedConnection);
+			added.add(addedConnection);
+		}
+	}
+
+	private final FBNetwork network;
+	private final List<FBNetworkElement> elements;
+	private final Map<PaletteEntry, TypeUpdate> types = new HashMap<>();
+
+	private final Map<FBNetworkElement, ElementUpdate> elementUpdates = new LinkedHashMap<>();
+	private final List<ConnectionUpdate> connectionUpdates = new ArrayList<>();
+	private final CompoundCommand singleUpdates = new CompoundCommand();
+
+	/** @param network  the network containing the elements
+	 * @param elements the elements to be updated to the current version of their
+	 *                 type */
+	public UpdateFBTypesCommand(final FBNetwork network, final Collection<? extends FBNetworkElement> elements) {
+		this.network = network;
+		this.elements = new ArrayList<>(elements);
+	}
+
+	@Override
+	public boolean canExecute() {
+		return (null != network) && elements.stream().anyMatch(element -> null != element.getPaletteEntry());
+	}
+
+	@Override
+	public void execute() {
+		final Set<FBNetworkElement> replaced = new LinkedHashSet<>();
+		final List<FBNetworkElement> single = new ArrayList<>();
+		for (final FBNetworkElement element : elements) {
+			if (isReplaceable(element)) {
+				final TypeUpdate type = getTypeUpdate(element.getPaletteEntry());
+				if (type.insertionSave) {
+					replaced.add(element);
+				}
+			} else if (null != element.getPaletteEntry()) {
+				single.add(element);
+			}
+		}
+		single.addAll(removeNotReconnectable(replaced));
+
+		for (final FBNetworkElement element : replaced) {
+			final TypeUpdate type = getTypeUpdate(element.getPaletteEntry());
+			elementUpdates.put(element, new ElementUpdate(type, type.createInstance(element)));
+		}
+		final Set<Connection> connections = new HashSet<>();
+		for (final FBNetworkElement element : replaced) {
+			for (final Connection connection : AbstractUpdateFBNElementCommand.getAllConnections(element)) {
+				if (connections.add(connection)) {
+					connectionUpdates.add(new ConnectionUpdate(connection, getNewPin(connection.getSource()),
+							getNewPin(connection.getDestination())));
+				}
+			}
+		}
+		replace(true);
+
+		for (final FBNetworkElement element : single) {
+			final Command cmd = new UpdateFBTypeCommand(element, null);
+			if (cmd.canExecute()) {
+				cmd.execute();
+				singleUpdates.add(cmd);
+			}
+		}
+	}
+
+	@Override
+	public void redo() {
+		replace(true);
+		singleUpdates.redo();
+	}
+
+	@Override
+	public void undo() {
+		singleUpdates.undo();
+		replace(false);
+	}
+
+	private TypeUpdate getTypeUpdate(final PaletteEntry entry) {
+		return types.computeIfAbsent(entry, e -> new TypeUpdate(e, network));
+	}
+
+	/* plain instances which are not touched by any of the special cases of UpdateFBTypeCommand */
+	private boolean isReplaceable(final FBNetworkElement element) {
+		if ((element.getFbNetwork() != network) || element.isMapped() || (element instanceof ErrorMarkerFBNElement)
+				|| (element instanceof StructManipulator) || (element instanceof AdapterFB)
+				|| !element.getInterface().getErrorMarker().isEmpty()) {
+			return false;
+		}
+		final PaletteEntry entry = element.getPaletteEntry();
+		if (!(entry instanceof FBTypePaletteEntry) && !(entry instanceof SubApplicationTypePaletteEntry)) {
+			return false;
+		}
+		if ((null == entry.getFile()) || !entry.getFile().exists() || !(entry.getType() instanceof FBType)) {
+			return false;
+		}
+		return !((entry.getType() instanceof ServiceInterfaceFBType)
+				&& entry.getType().getName().startsWith("STRUCT")); //$NON-NLS-1$
+	}
+
+	/* removes the elements which would need an error marker for one of their
+	 * connections, the connections of their neighbours are checked again as they
+	 * then stay at the old pins */
+	private List<FBNetworkElement> removeNotReconnectable(final Set<FBNetworkElement> replaced) {
+		final List<FBNetworkElement> removed = new ArrayList<>();
+		final Deque<FBNetworkElement> toCheck = new ArrayDeque<>(replaced);
+		while (!toCheck.isEmpty()) {
+			final FBNetworkElement element = toCheck.pop();
+			if (replaced.contains(element) && !isReconnectable(element, replaced)) {
+				replaced.remove(element);
+				removed.add(element);
+				for (final Connection connection : AbstractUpdateFBNElementCommand.getAllConnections(element)) {
+					addReplacedElement(connection.getSource(), replaced, toCheck);
+					addReplacedElement(connection.getDestination(), replaced, toCheck);
+				}
+			}
+		}
+		return removed;
+	}
+
+	private static void addReplacedElement(final IInterfaceElement pin, final Set<FBNetworkElement> replaced,
+			final Deque<FBNetworkElement> toCheck) {
+		if ((null != pin) && replaced.contains(pin.getFBNetworkElement())) {
+			toCheck.push(pin.getFBNetworkElement());
+		}
+	}
+
+	private boolean isReconnectable(final FBNetworkElement element, final Set<FBNetworkElement> replaced) {
+		for (final Connection connection : AbstractUpdateFBNElementCommand.getAllConnections(element)) {
+			final IInterfaceElement source = connection.getSource();
+			final IInterfaceElement dest = connection.getDestination();
+			if ((connection.getFBNetwork() != network) || (null == source) || (null == dest)
+					|| (source instanceof ErrorMarkerInterface) || (dest instanceof ErrorMarkerInterface)) {
+				return false;
+			}
+			final IInterfaceElement newSource = getTypePin(source, replaced);
+			final IInterfaceElement newDest = getTypePin(dest, replaced);
+			if ((null == newSource) || (null == newDest)
+					|| ((newSource != source) && !newSource.getType().isCompatibleWith(newDest.getType()))
+					|| ((newDest != dest) && !newDest.getType().isCompatibleWith(newSource.getType()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/* the pin of the type interface a pin will be replaced with, null if there is none */
+	private IInterfaceElement getTypePin(final IInterfaceElement pin, final Set<FBNetworkElement> replaced) {
+		final FBNetworkElement element = pin.getFBNetworkElement();
+		if (!replaced.contains(element)) {
+			return pin;
+		}
+		final TypeUpdate type = getTypeUpdate(element.getPaletteEntry());
+		final int index = type.indexOf(pin);
+		return (index >= 0) ? type.pins.get(index) : null;
+	}
+
+	private IInterfaceElement getNewPin(final IInterfaceElement pin) {
+		final ElementUpdate update = elementUpdates.get(pin.getFBNetworkElement());
+		if (null == update) {
+			return pin;
+		}
+		return update.newPins.get(update.type.indexOf(pin));
+	}
+
+	private void replace(final boolean toNew) {
+		if (elementUpdates.isEmpty()) {
+			return;
+		}
+		final Set<IInterfaceElement> changedSources = new HashSet<>();
+		final Set<IInterfaceElement> changedDestinations = new HashSet<>();
+		for (final ConnectionUpdate update : connectionUpdates) {
+			if (update.newSource == update.oldSource) {
+				changedSources.add(update.oldSource);
+			}
+			if (update.newDest == update.oldDest) {
+				changedDestinations.add(update.oldDest);
+			}
+		}
+
+		final List<EObject> silenced = new ArrayList<>();
+		silence(network, silenced);
+		changedSources.forEach(pin -> silence(pin, silenced));
+		changedDestinations.forEach(pin -> silence(pin, silenced));
+		for (final Map.Entry<FBNetworkElement, ElementUpdate> entry : elementUpdates.entrySet()) {
+			entry.getKey().getInterface().getAllInterfaceElements().forEach(pin -> silence(pin, silenced));
+			entry.getValue().newPins.forEach(pin -> silence(pin, silenced));
+		}
+		for (final ConnectionUpdate update : connectionUpdates) {
+			silence(update.oldConn, silenced);
+			silence(update.newConn, silenced);
+		}
+
+		final List<Connection> removedConnections = new ArrayList<>(connectionUpdates.size());
+		final List<Connection> addedConnections = new ArrayList<>(connectionUpdates.size());
+		final Map<IInterfaceElement, ConnectionChanges> sourceChanges = new HashMap<>();
+		final Map<IInterfaceElement, ConnectionChanges> destinationChanges = new HashMap<>();
+		try {
+			final Map<Object, Object> replacements = new HashMap<>();
+			for (final ConnectionUpdate update : connectionUpdates) {
+				final Connection removed = toNew ? update.oldConn : update.newConn;
+				final Connection added = toNew ? update.newConn : update.oldConn;
+				removed.setSource(null);
+				removed.setDestination(null);
+				added.setSource(toNew ? update.newSource : update.oldSource);
+				added.setDestination(toNew ? update.newDest : update.oldDest);
+				replacements.put(removed, added);
+				removedConnections.add(removed);
+				addedConnections.add(added);
+				if (changedSources.contains(added.getSource())) {
+					sourceChanges.computeIfAbsent(added.getSource(), pin -> new ConnectionChanges()).add(removed,
+							added);
+				}
+				if (changedDestinations.contains(added.getDestination())) {
+					destinationChanges.computeIfAbsent(added.getDestination(), pin -> new ConnectionChanges())
+					.add(removed, added);
+				}
+			}
+			elementUpdates.forEach((oldElement, update) -> {
+				if (toNew) {
+					replacements.put(oldElement, update.newElement);
+				} else {
+					replacements.put(update.newElement, oldElement);
+				}
+			});
+			replaceAll(network.getNetworkElements(), replacements);
+			replaceAll(network.getEventConnections(), replacements);
+			replaceAll(network.getDataConnections(), replacements);
+			replaceAll(network.getAdapterConnections(), replacements);
+		} finally {
+			silenced.forEach(object -> object.eSetDeliver(true));
+			// the removed connections already lost their pins, the index can not
+			// follow the notifications below and is built again
+			FBNetworkConnectionIndex.invalidate(network);
+		}
+
+		final List<FBNetworkElement> oldElements = new ArrayList<>(elementUpdates.keySet());
+		final List<FBNetworkElement> newElements = new ArrayList<>(elementUpdates.size());
+		elementUpdates.values().forEach(update -> newElements.add(update.newElement));
+		notifyReplaced(network, LibraryElementPackage.eINSTANCE.getFBNetwork_NetworkElements(),
+				toNew ? oldElements : newElements, toNew ? newElements : oldElements);
+		for (final EReference connectionList : Arrays.asList(
+				LibraryElementPackage.eINSTANCE.getFBNetwork_EventConnections(),
+				LibraryElementPackage.eINSTANCE.getFBNetwork_DataConnections(),
+				LibraryElementPackage.eINSTANCE.getFBNetwork_AdapterConnections())) {
+			notifyReplaced(network, connectionList, ofType(removedConnections, connectionList),
+					ofType(addedConnections, connectionList));
+		}
+		sourceChanges.forEach((pin, changes) -> notifyReplaced(pin,
+				LibraryElementPackage.eINSTANCE.getIInterfaceElement_OutputConnections(), changes.removed,
+				changes.added));
+		destinationChanges.forEach((pin, changes) -> notifyReplaced(pin,
+				LibraryElementPackage.eINSTANCE.getIInterfaceElement_InputConnections(), changes.removed,
+				changes.added));
+	}
+
+	/* the connections of the list's type */
+	private static List<Connection> ofType(final List<Connection> connections, final EReference list) {
+		return connections.stream().filter(list.getEReferenceType()::isInstance).collect(Collectors.toList());
+	}
+
+	/* the objects replaced in a list while it was silenced, listeners see a removal and an addition */
+	private static void notifyReplaced(final EObject object, final EReference feature, final List<?> removed,
+			final List<?> added) {
+		if (!removed.isEmpty()) {
+			notify(object, Notification.REMOVE_MANY, feature, removed, null);
+		}
+		if (!added.isEmpty()) {
+			notify(object, Notification.ADD_MANY, feature, null, added);
+		}
+	}
+
+	private static void silence(final EObject object, final List<EObject> silenced) {
+		if (object.eDeliver()) {
+			object.eSetDeliver(false);
+			silenced.add(object);
+		}
+	}
+
+	/* replaces the objects in place within one pass over the list */
+	private static <T> void replaceAll(final EList<T> list, final Map<Object, Object> replacements) {
+		final InternalEList<T> internalList = (InternalEList<T>) list;
+		for (int i = 0; i < internalList.size(); i++) {
+			@SuppressWarnings("unchecked")
+			final T replacement = (T) replacements.get(internalList.basicGet(i));
+			if (null != replacement) {
+				// the replacements are new to the list, so the uniqueness check can be skipped
+				internalList.setUnique(i, replacement);
+			}
+		}
+	}
+
+	private static void notify(final EObject object, final int eventType, final EReference feature,
+			final Object oldValue, final Object newValue) {
+		if (object.eNotificationRequired()) {
+			object.eNotify(new ENotificationImpl((InternalEObject) object, eventType, feature, oldValue, newValue));
+		}
+	}
+}
@@ -23,6 +23,7 @@ import java.text.MessageFormat;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.fordiac.ide.model.commands.Messages;
 import org.eclipse.fordiac.ide.model.data.EventType;
+import org.eclipse.fordiac.ide.model.helpers.FBNetworkConnectionIndex;
 import org.eclipse.fordiac.ide.model.libraryElement.AdapterType;
 import org.eclipse.fordiac.ide.model.libraryElement.CompositeFBType;
 import org.eclipse.fordiac.ide.model.libraryElement.Connection;
@@ -255,13 +256,18 @@ public final class LinkConstraints {
 			target = temp;
 		}
 
-		if (duplicateConnection(source, target)) {
+		if (duplicateConnection(source, target, parent)) {
 			return false;
 		}
 		return sourceAndDestCheck(source, target);
 	}
 
-	private static boolean duplicateConnection(final IInterfaceElement source, final IInterfaceElement destination) {
+	private static boolean duplicateConnection(final IInterfaceElement source, final IInterfaceElement destination,
+			final FBNetwork parent) {
+		if (null != parent) {
+			// a connection between the two pins can only be contained in the network they are connected in
+			return FBNetworkConnectionIndex.get(parent).isConnected(source, destination);
+		}
 		for (final Connection con : source.getOutputConnections()) {
 			if (con.getDestination() == destination) {
 				return true;
@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.model.commands.delete;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.fordiac.ide.model.commands.Messages;
+import org.eclipse.fordiac.ide.model.commands.change.UnmapCommand;
+import org.eclipse.fordiac.ide.model.dataimport.ErrorMarkerBuilder;
+import org.eclipse.fordiac.ide.model.helpers.FordiacMarkerHelper;
+import org.eclipse.fordiac.ide.model.libraryElement.Connection;
+import org.eclipse.fordiac.ide.model.libraryElement.DataConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.ErrorMarkerInterface;
+import org.eclipse.fordiac.ide.model.libraryElement.ErrorMarkerRef;
+import org.eclipse.fordiac.ide.model.libraryElement.EventConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.FB;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
+import org.eclipse.fordiac.ide.model.libraryElement.SubApp;
+import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
+import org.eclipse.fordiac.ide.ui.editors.EditorUtils;
+import org.eclipse.fordiac.ide.ui.editors.I4diacModelEditor;
+import org.eclipse.gef.commands.Command;
+import org.eclipse.gef.commands.CompoundCommand;
+
+/**
+ * Deletes many FB network elements together with their connections.
+ *
+ * Does the same as one {@link DeleteFBNetworkElementCommand} per element, but
+ * the connections of all elements are collected once, and the connections and
+ * elements are removed from the connection lists of their pins and the
+ * connection and element lists of their networks with one list operation each.
+ * Connections to error marker pins are still deleted one by one with
+ * {@link DeleteConnectionCommand} so that the error markers are cleaned up as
+ * before.
+ */
+public class DeleteFBNetworkElementsCommand extends Command {
+
+	private final Set<FBNetworkElement> elements;
+	private final CompoundCommand unmapCommands = new CompoundCommand();
+	private final CompoundCommand errorMarkerConnectionCommands = new CompoundCommand();
+	/* the connection lists of the networks the removed connections were contained in */
+	private final Map<EList<? extends Connection>, List<Connection>> connectionsByList = new IdentityHashMap<>();
+	/* the connection lists of the pins the removed connections were attached to */
+	private final Map<EList<Connection>, List<Connection>> connectionsByPinList = new IdentityHashMap<>();
+	private final Map<FBNetwork, List<FBNetworkElement>> elementsByNetwork = new LinkedHashMap<>();
+	private final List<ErrorMarkerBuilder> errorMarkers = new ArrayList<>();
+	private final List<ErrorMarkerBuilder> valueErrorMarkers = new ArrayList<>();
+
+	public DeleteFBNetworkElementsCommand(final Collection<? extends FBNetworkElement> elements) {
+		super(Messages.DeleteFBNetworkElementCommand_DeleteFBOrSubapplication);
+		this.elements = new LinkedHashSet<>(elements);
+	}
+
+	public Set<FBNetworkElement> getFBNetworkElements() {
+		return elements;
+	}
+
+	@Override
+	public boolean canExecute() {
+		if (elements.isEmpty()) {
+			return false;
+		}
+		for (final FBNetworkElement element : elements) {
+			if ((null == element) || (null == element.getFbNetwork())
+					|| ((element instanceof FB) && ((FB) element).isResourceTypeFB())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void execute() {
+		deleteErrorMarkers();
+		for (final FBNetworkElement element : elements) {
+			if (element.isMapped()) {
+				unmapCommands.add(new UnmapCommand(element));
+			}
+		}
+		if (unmapCommands.canExecute()) {
+			unmapCommands.execute();
+		}
+		collectConnections();
+		handleValueErrorMarkers();
+		if (errorMarkerConnectionCommands.canExecute()) {
+			errorMarkerConnectionCommands.execute();
+		}
+		// unmapping or error marker cleanup may already have removed some of the elements
+		for (final FBNetworkElement element : elements) {
+			if (null != element.getFbNetwork()) {
+				elementsByNetwork.computeIfAbsent(element.getFbNetwork(), network -> new ArrayList<>()).add(element);
+			}
+		}
+		removeConnectionsAndElements();
+		elements.stream().filter(SubApp.class::isInstance).forEach(
+				subApp -> closeSubApplicationEditor((SubApp) subApp));
+	}
+
+	@Override
+	public void undo() {
+		elementsByNetwork.forEach((network, removed) -> network.getNetworkElements().addAll(removed));
+		connectionsByPinList.forEach((list, removed) -> list.addAll(removed));
+		connectionsByList.forEach((list, removed) -> getMutableList(list).addAll(removed));
+		if (errorMarkerConnectionCommands.canUndo()) {
+			errorMarkerConnectionCommands.undo();
+		}
+		if (unmapCommands.canUndo()) {
+			unmapCommands.undo();
+		}
+		errorMarkers.forEach(FordiacMarkerHelper::createMarkerInFile);
+		errorMarkers.clear();
+		valueErrorMarkers.forEach(FordiacMarkerHelper::createMarkerInFile);
+		valueErrorMarkers.clear();
+	}
+
+	@Override
+	public void redo() {
+		if (unmapCommands.canRedo()) {
+			unmapCommands.redo();
+		}
+		handleValueErrorMarkers();
+		if (errorMarkerConnectionCommands.canRedo()) {
+			errorMarkerConnectionCommands.redo();
+		}
+		deleteErrorMarkers();
+		removeConnectionsAndElements();
+	}
+
+	/* collects every connection of the elements once */
+	private void collectConnections() {
+		final Map<Connection, FBNetworkElement> connections = new LinkedHashMap<>();
+		for (final FBNetworkElement element : elements) {
+			for (final IInterfaceElement pin : element.getInterface().getAllInterfaceElements()) {
+				final EList<Connection> pinConnections = pin.isIsInput() ? pin.getInputConnections()
+						: pin.getOutputConnections();
+				pinConnections.forEach(connection -> connections.putIfAbsent(connection, element));
+			}
+		}
+
+		connections.forEach((connection, element) -> {
+			if ((connection.getSource() instanceof ErrorMarkerInterface)
+					|| (connection.getDestination() instanceof ErrorMarkerInterface)) {
+				errorMarkerConnectionCommands.add(new DeleteConnectionCommand(connection, element));
+			} else {
+				addToPinList(connection.getSource(), false, connection);
+				addToPinList(connection.getDestination(), true, connection);
+				final EList<? extends Connection> list = getConnectionList(connection);
+				if (null != list) {
+					connectionsByList.computeIfAbsent(list, key -> new ArrayList<>()).add(connection);
+				}
+			}
+		});
+	}
+
+	private void addToPinList(final IInterfaceElement pin, final boolean isDestination, final Connection connection) {
+		if (null != pin) {
+			final EList<Connection> list = isDestination ? pin.getInputConnections() : pin.getOutputConnections();
+			connectionsByPinList.computeIfAbsent(list, key -> new ArrayList<>()).add(connection);
+		}
+	}
+
+	private static EList<? extends Connection> getConnectionList(final Connection connection) {
+		if (!(connection.eContainer() instanceof FBNetwork)) {
+			return null;
+		}
+		final FBNetwork network = (FBNetwork) connection.eContainer();
+		if (connection instanceof EventConnection) {
+			return network.getEventConnections();
+		}
+		if (connection instanceof DataConnection) {
+			return network.getDataConnections();
+		}
+		return network.getAdapterConnections();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static EList<Connection> getMutableList(final EList<? extends Connection> list) {
+		// the lists only ever get back the connections which were removed from them
+		return (EList<Connection>) list;
+	}
+
+	private void removeConnectionsAndElements() {
+		// removing from the pin lists also clears the source and destination of the connections
+		connectionsByPinList.forEach((list, removed) -> list.removeAll(toIdentitySet(removed)));
+		connectionsByList.forEach((list, removed) -> list.removeAll(toIdentitySet(removed)));
+		elementsByNetwork.forEach(
+				(network, removed) -> network.getNetworkElements().removeAll(toIdentitySet(removed)));
+	}
+
+	/* EList.removeAll calls contains on the argument for every entry of the list */
+	private static <T> Set<T> toIdentitySet(final Collection<T> collection) {
+		final Set<T> set = Collections.newSetFromMap(new IdentityHashMap<>(collection.size()));
+		set.addAll(collection);
+		return set;
+	}
+
+	private void deleteErrorMarkers() {
+		for (final FBNetworkElement element : elements) {
+			if (element instanceof ErrorMarkerRef) {
+				final ErrorMarkerBuilder errorMarker = FordiacMarkerHelper.deleteErrorMarker((ErrorMarkerRef) element);
+				if (null != errorMarker) {
+					errorMarkers.add(errorMarker);
+				}
+			}
+		}
+	}
+
+	private void handleValueErrorMarkers() {
+		for (final FBNetworkElement element : elements) {
+			for (final VarDeclaration varIn : element.getInterface().getInputVars()) {
+				if ((varIn.getValue() != null) && (varIn.getValue().hasError())) {
+					valueErrorMarkers.add(FordiacMarkerHelper.deleteErrorMarker(varIn.getValue()));
+				}
+			}
+		}
+	}
+
+	private static void closeSubApplicationEditor(final SubApp subapp) {
+		EditorUtils.closeEditorsFiltered(editor -> ((editor instanceof I4diacModelEditor)
+				&& (subapp.getSubAppNetwork() == ((I4diacModelEditor) editor).getModel())));
+	}
+}
@@ -19,6 +19,7 @@
  ********************************************************************************/
 package org.eclipse.fordiac.ide.model.dataexport;
 
+import java.io.OutputStream;
 import java.util.List;
 
 import javax.xml.stream.XMLStreamException;
@@ -42,6 +43,10 @@ public abstract class AbstractBlockTypeExporter extends AbstractTypeExporter {
 		super(type);
 	}
 
+	protected AbstractBlockTypeExporter(final FBType type, final OutputStream out) {
+		super(type, out);
+	}
+
 	protected AbstractBlockTypeExporter(final CommonElementExporter parent) {
 		super(parent);
 	}
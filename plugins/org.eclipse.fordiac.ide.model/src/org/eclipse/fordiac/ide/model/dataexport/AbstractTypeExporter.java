@@ -20,6 +20,9 @@
 
 package org.eclipse.fordiac.ide.model.dataexport;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 import javax.xml.stream.XMLStreamException;
 
 import org.eclipse.core.resources.WorkspaceJob;
@@ -35,8 +38,11 @@ import org.eclipse.fordiac.ide.model.Palette.FBTypePaletteEntry;
 import org.eclipse.fordiac.ide.model.Palette.PaletteEntry;
 import org.eclipse.fordiac.ide.model.Palette.SubApplicationTypePaletteEntry;
 import org.eclipse.fordiac.ide.model.data.AnyDerivedType;
+import org.eclipse.fordiac.ide.model.libraryElement.AdapterType;
 import org.eclipse.fordiac.ide.model.libraryElement.CompilerInfo;
+import org.eclipse.fordiac.ide.model.libraryElement.FBType;
 import org.eclipse.fordiac.ide.model.libraryElement.LibraryElement;
+import org.eclipse.fordiac.ide.model.libraryElement.SubAppType;
 import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
 
 public abstract class AbstractTypeExporter extends CommonElementExporter {
@@ -47,6 +53,11 @@ public abstract class AbstractTypeExporter extends CommonElementExporter {
 		this.type = type;
 	}
 
+	protected AbstractTypeExporter(final LibraryElement type, final OutputStream out) {
+		super(out);
+		this.type = type;
+	}
+
 	protected AbstractTypeExporter(final CommonElementExporter parent) {
 		super(parent);
 		type = null;
@@ -89,15 +100,50 @@ public abstract class AbstractTypeExporter extends CommonElementExporter {
 		}
 	}
 
+	/**
+	 * Write the given type as it is in memory, i.e., including changes that are not
+	 * saved yet, in the format of its type file.
+	 *
+	 * The type is not loaded again from its palette entry, so already loaded types
+	 * can be written from any thread as long as they are not modified.
+	 *
+	 * @param type the type to write
+	 * @param out  the stream to write to, it is not closed
+	 * @return false if types of this kind cannot be written
+	 * @throws IOException if the type could not be written
+	 */
+	public static boolean writeType(final LibraryElement type, final OutputStream out) throws IOException {
+		final AbstractTypeExporter exporter = getTypeExporter(type.getPaletteEntry(), type, out);
+		if (null == exporter) {
+			return false;
+		}
+		try {
+			exporter.createXMLEntries();
+			exporter.writeToStream();
+		} catch (final XMLStreamException e) {
+			throw new IOException(e);
+		}
+		return true;
+	}
+
 	private static AbstractTypeExporter getTypeExporter(final PaletteEntry entry) {
-		if (entry instanceof FBTypePaletteEntry) {
-			return new FbtExporter((FBTypePaletteEntry) entry);
-		} else if (entry instanceof AdapterTypePaletteEntry) {
-			return new AdapterExporter((AdapterTypePaletteEntry) entry);
-		} else if (entry instanceof SubApplicationTypePaletteEntry) {
-			return new SubApplicationTypeExporter((SubApplicationTypePaletteEntry) entry);
-		} else if (entry instanceof DataTypePaletteEntry) {
-			return new DataTypeExporter((AnyDerivedType) entry.getType());
+		return getTypeExporter(entry, entry.getType(), null);
+	}
+
+	/*
+	 * the kind of the entry selects the exporter, the type is written as it is, a
+	 * null stream buffers the XML for saving the type file
+	 */
+	private static AbstractTypeExporter getTypeExporter(final PaletteEntry entry, final LibraryElement type,
+			final OutputStream out) {
+		if ((entry instanceof FBTypePaletteEntry) && (type instanceof FBType)) {
+			return new FbtExporter((FBType) type, out);
+		} else if ((entry instanceof AdapterTypePaletteEntry) && (type instanceof AdapterType)) {
+			return new AdapterExporter((AdapterType) type, out);
+		} else if ((entry instanceof SubApplicationTypePaletteEntry) && (type instanceof SubAppType)) {
+			return new SubApplicationTypeExporter((SubAppType) type, out);
+		} else if ((entry instanceof DataTypePaletteEntry) && (type instanceof AnyDerivedType)) {
+			return new DataTypeExporter((AnyDerivedType) type, out);
 		}
 		return null;
 	}
@@ -16,13 +16,15 @@
  ********************************************************************************/
 package org.eclipse.fordiac.ide.model.dataexport;
 
+import java.io.OutputStream;
+
 import org.eclipse.fordiac.ide.model.LibraryElementTags;
-import org.eclipse.fordiac.ide.model.Palette.AdapterTypePaletteEntry;
+import org.eclipse.fordiac.ide.model.libraryElement.AdapterType;
 
 class AdapterExporter extends AbstractBlockTypeExporter {
 
-	public AdapterExporter(AdapterTypePaletteEntry entry) {
-		super(entry.getType().getAdapterFBType());
+	AdapterExporter(final AdapterType type, final OutputStream out) {
+		super(type.getAdapterFBType(), out);
 	}
 
 	@Override
@@ -165,7 +165,21 @@ abstract class CommonElementExporter {
 	private int tabCount = 0;
 
 	protected CommonElementExporter() {
-		writer = createEventWriter();
+		this((OutputStream) null);
+	}
+
+	/**
+	 * Constructor for writing the XML directly into the given stream, which is
+	 * finished with {@link #writeToStream()}
+	 *
+	 * @param out the stream to write to, null for buffering the XML until
+	 *            {@link #writeToFile(IFile)}
+	 */
+	protected CommonElementExporter(final OutputStream out) {
+		if (null == out) {
+			outputStream = new ByteBufferOutputStream();
+		}
+		writer = createEventWriter((null != out) ? out : outputStream);
 	}
 
 	/**
@@ -212,12 +226,11 @@ abstract class CommonElementExporter {
 		writer.writeEndElement();
 	}
 
-	private XMLStreamWriter createEventWriter() {
+	private static XMLStreamWriter createEventWriter(final OutputStream out) {
 		final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
 
-		outputStream = new ByteBufferOutputStream();
 		try {
-			final XMLStreamWriter newWriter = outputFactory.createXMLStreamWriter(outputStream,
+			final XMLStreamWriter newWriter = outputFactory.createXMLStreamWriter(out,
 					StandardCharsets.UTF_8.name());
 			newWriter.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0"); //$NON-NLS-1$
 			return newWriter;
@@ -276,6 +289,19 @@ abstract class CommonElementExporter {
 
 	}
 
+	/**
+	 * Finish the document and flush it into the stream given to the constructor,
+	 * the stream itself is not closed
+	 *
+	 * @throws XMLStreamException
+	 */
+	protected void writeToStream() throws XMLStreamException {
+		writer.writeCharacters(LINE_END);
+		writer.writeEndDocument();
+		writer.flush();
+		writer.close();
+	}
+
 	/**
 	 * Check if the folders in the file's path exist and if not create them
 	 * accordingly
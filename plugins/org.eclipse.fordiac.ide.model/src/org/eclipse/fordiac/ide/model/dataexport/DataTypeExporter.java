@@ -13,6 +13,7 @@
 
 package org.eclipse.fordiac.ide.model.dataexport;
 
+import java.io.OutputStream;
 import java.text.MessageFormat;
 
 import javax.xml.stream.XMLStreamException;
@@ -29,6 +30,10 @@ public class DataTypeExporter extends AbstractTypeExporter {
 		super(type);
 	}
 
+	DataTypeExporter(final AnyDerivedType type, final OutputStream out) {
+		super(type, out);
+	}
+
 	@Override
 	protected AnyDerivedType getType() {
 		return (AnyDerivedType) super.getType();
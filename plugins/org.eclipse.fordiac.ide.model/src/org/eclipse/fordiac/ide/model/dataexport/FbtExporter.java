@@ -19,6 +19,7 @@
  ********************************************************************************/
 package org.eclipse.fordiac.ide.model.dataexport;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -26,7 +27,6 @@ import java.util.regex.Pattern;
 import javax.xml.stream.XMLStreamException;
 
 import org.eclipse.fordiac.ide.model.LibraryElementTags;
-import org.eclipse.fordiac.ide.model.Palette.FBTypePaletteEntry;
 import org.eclipse.fordiac.ide.model.libraryElement.Algorithm;
 import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
 import org.eclipse.fordiac.ide.model.libraryElement.CompositeFBType;
@@ -34,6 +34,7 @@ import org.eclipse.fordiac.ide.model.libraryElement.ECAction;
 import org.eclipse.fordiac.ide.model.libraryElement.ECC;
 import org.eclipse.fordiac.ide.model.libraryElement.ECState;
 import org.eclipse.fordiac.ide.model.libraryElement.ECTransition;
+import org.eclipse.fordiac.ide.model.libraryElement.FBType;
 import org.eclipse.fordiac.ide.model.libraryElement.OtherAlgorithm;
 import org.eclipse.fordiac.ide.model.libraryElement.STAlgorithm;
 import org.eclipse.fordiac.ide.model.libraryElement.SimpleFBType;
@@ -49,10 +50,11 @@ class FbtExporter extends AbstractBlockTypeExporter {
 	/**
 	 * Instantiates a new fbt exporter.
 	 *
-	 * @param entry
+	 * @param type the type to export
+	 * @param out  the stream to write to, null for saving the type file
 	 */
-	FbtExporter(FBTypePaletteEntry entry) {
-		super(entry.getFBType());
+	FbtExporter(final FBType type, final OutputStream out) {
+		super(type, out);
 	}
 
 	@Override
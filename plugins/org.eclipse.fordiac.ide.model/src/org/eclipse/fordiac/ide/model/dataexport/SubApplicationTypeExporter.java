@@ -15,16 +15,17 @@
  ********************************************************************************/
 package org.eclipse.fordiac.ide.model.dataexport;
 
+import java.io.OutputStream;
+
 import javax.xml.stream.XMLStreamException;
 
 import org.eclipse.fordiac.ide.model.LibraryElementTags;
-import org.eclipse.fordiac.ide.model.Palette.SubApplicationTypePaletteEntry;
 import org.eclipse.fordiac.ide.model.libraryElement.SubAppType;
 
 class SubApplicationTypeExporter extends AbstractBlockTypeExporter {
 
-	SubApplicationTypeExporter(SubApplicationTypePaletteEntry entry) {
-		super(entry.getSubApplicationType());
+	SubApplicationTypeExporter(final SubAppType type, final OutputStream out) {
+		super(type, out);
 	}
 
 	/*
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.model.dataimport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.fordiac.ide.model.Activator;
+import org.eclipse.fordiac.ide.model.LibraryElementTags;
+
+/**
+ * Reads the kind, name, and comment of a type without loading the type.
+ *
+ * Only the root element of the type file is parsed. For FB types the children
+ * of the root element are skipped until the element defining the kind of the FB
+ * type is found. The headers of workspace files are cached until the file is
+ * modified, and dropped when the file is deleted, moved, or renamed, or its
+ * project is closed.
+ */
+public final class TypeHeaderReader {
+
+	public enum Kind {
+		BASIC, COMPOSITE, SIMPLE, SERVICE_INTERFACE, ADAPTER, SUBAPP, OTHER
+	}
+
+	/** The metadata of a type file */
+	public static final class TypeHeader {
+		private final Kind kind;
+		private final String name;
+		private final String comment;
+
+		TypeHeader(final Kind kind, final String name, final String comment) {
+			this.kind = kind;
+			this.name = name;
+			this.comment = comment;
+		}
+
+		public Kind getKind() {
+			return kind;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/** @return the comment of the type, empty if the type has none */
+		public String getComment() {
+			return comment;
+		}
+	}
+
+	private static final class CachedHeader {
+		private final long modificationStamp;
+		private final TypeHeader header;
+
+		private CachedHeader(final long modificationStamp, final TypeHeader header) {
+			this.modificationStamp = modificationStamp;
+			this.header = header;
+		}
+	}
+
+	private static final XMLInputFactory FACTORY = createFactory();
+
+	private static final Map<IFile, CachedHeader> CACHE = new ConcurrentHashMap<>();
+
+	private static final AtomicBoolean LISTENING = new AtomicBoolean();
+
+	private static XMLInputFactory createFactory() {
+		final XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		return factory;
+	}
+
+	/**
+	 * Get the header of a type file.
+	 *
+	 * The header is read again only if the file has been modified since the last
+	 * call.
+	 *
+	 * @param file the type file
+	 * @return the header, or null if the file does not exist or could not be read
+	 */
+	public static TypeHeader getHeader(final IFile file) {
+		listenForRemovedFiles();
+		final long modificationStamp = file.getModificationStamp();
+		if (IResource.NULL_STAMP == modificationStamp) {
+			CACHE.remove(file);
+			return null;
+		}
+		CachedHeader cached = CACHE.get(file);
+		if ((null == cached) || (cached.modificationStamp != modificationStamp)) {
+			cached = new CachedHeader(modificationStamp, readHeader(file));
+			CACHE.put(file, cached);
+		}
+		return cached.header;
+	}
+
+	/** @return true if the header of the file is cached */
+	static boolean isCached(final IFile file) {
+		return CACHE.containsKey(file);
+	}
+
+	/* the cache is only filled through the workspace, so the listener is registered on first use */
+	private static void listenForRemovedFiles() {
+		if (LISTENING.compareAndSet(false, true)) {
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(TypeHeaderReader::removeHeaders,
+					IResourceChangeEvent.POST_CHANGE);
+		}
+	}
+
+	private static void removeHeaders(final IResourceChangeEvent event) {
+		if ((null == event.getDelta()) || CACHE.isEmpty()) {
+			return;
+		}
+		try {
+			event.getDelta().accept(delta -> {
+				final IResource resource = delta.getResource();
+				if ((IResourceDelta.REMOVED == delta.getKind()) || ((resource instanceof IProject)
+						&& (0 != (delta.getFlags() & IResourceDelta.OPEN)) && !((IProject) resource).isOpen())) {
+					// a moved or renamed file is removed from its old location
+					removeHeadersBelow(resource.getFullPath());
+					return false;
+				}
+				return true;
+			});
+		} catch (final CoreException e) {
+			Activator.getDefault().logError(e.getMessage(), e);
+		}
+	}
+
+	private static void removeHeadersBelow(final IPath removed) {
+		CACHE.keySet().removeIf(file -> removed.isPrefixOf(file.getFullPath()));
+	}
+
+	private static TypeHeader readHeader(final IFile file) {
+		try (InputStream in = file.getContents()) {
+			return read(in);
+		} catch (final CoreException | IOException | XMLStreamException e) {
+			Activator.getDefault().logWarning("Could not read the type header of " + file.getFullPath(), e); //$NON-NLS-1$
+		}
+		return null;
+	}
+
+	/**
+	 * Read the header of a type from a stream.
+	 *
+	 * @param in the content of the type file, it is not closed
+	 * @return the header of the type
+	 * @throws XMLStreamException if the content is not well-formed up to the
+	 *                            elements needed for the header
+	 */
+	public static TypeHeader read(final InputStream in) throws XMLStreamException {
+		final XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+		try {
+			reader.nextTag(); // the root element
+			final String name = reader.getAttributeValue(null, LibraryElementTags.NAME_ATTRIBUTE);
+			final String comment = reader.getAttributeValue(null, LibraryElementTags.COMMENT_ATTRIBUTE);
+			return new TypeHeader(getKind(reader), (null != name) ? name : "", //$NON-NLS-1$
+					(null != comment) ? comment : ""); //$NON-NLS-1$
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static Kind getKind(final XMLStreamReader reader) throws XMLStreamException {
+		switch (reader.getLocalName()) {
+		case LibraryElementTags.FBTYPE_ELEMENT:
+			return getFBTypeKind(reader);
+		case LibraryElementTags.ADAPTER_TYPE:
+			return Kind.ADAPTER;
+		case LibraryElementTags.SUBAPPTYPE_ELEMENT:
+			return Kind.SUBAPP;
+		default:
+			return Kind.OTHER;
+		}
+	}
+
+	/* an FB type without a basic, simple, or composite body is a service interface FB type */
+	private static Kind getFBTypeKind(final XMLStreamReader reader) throws XMLStreamException {
+		int depth = 0;
+		while (reader.hasNext()) {
+			final int event = reader.next();
+			if (XMLStreamConstants.START_ELEMENT == event) {
+				if (0 == depth) {
+					switch (reader.getLocalName()) {
+					case LibraryElementTags.BASIC_F_B_ELEMENT:
+						return Kind.BASIC;
+					case LibraryElementTags.SIMPLE_F_B_ELEMENT:
+						return Kind.SIMPLE;
+					case LibraryElementTags.FBNETWORK_ELEMENT:
+						return Kind.COMPOSITE;
+					default:
+						break;
+					}
+				}
+				depth++;
+			} else if (XMLStreamConstants.END_ELEMENT == event) {
+				if (0 == depth) {
+					break; // end of the root element
+				}
+				depth--;
+			}
+		}
+		return Kind.SERVICE_INTERFACE;
+	}
+
+	private TypeHeaderReader() {
+		throw new UnsupportedOperationException("TypeHeaderReader should not be instantiated"); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.model.helpers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.fordiac.ide.model.libraryElement.Connection;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementPackage;
+
+/**
+ * Index of the connections of an FB network by their source and destination
+ * pins.
+ *
+ * The index is attached to the network when it is first requested. It follows
+ * the notifications of the connection lists of the network and of the source
+ * and destination of each connection in them. Looking up whether two pins are
+ * connected therefore does not depend on the number of connections of the pins.
+ */
+public final class FBNetworkConnectionIndex extends AdapterImpl {
+
+	private final FBNetwork network;
+	private final Set<Connection> connections = new HashSet<>();
+	/* number of connections from a source to a destination */
+	private final Map<IInterfaceElement, Map<IInterfaceElement, Integer>> destinationsBySource = new HashMap<>();
+
+	/**
+	 * @param network the network
+	 * @return the index of the network, it is created if the network has none
+	 */
+	public static FBNetworkConnectionIndex get(final FBNetwork network) {
+		final Adapter existing = EcoreUtil.getExistingAdapter(network, FBNetworkConnectionIndex.class);
+		if (null != existing) {
+			return (FBNetworkConnectionIndex) existing;
+		}
+		final FBNetworkConnectionIndex index = new FBNetworkConnectionIndex(network);
+		network.eAdapters().add(index);
+		return index;
+	}
+
+	/**
+	 * Remove the index of a network, it is built again on the next request. This is
+	 * needed when the connections of the network were changed while the network
+	 * or the connections did not deliver notifications.
+	 *
+	 * @param network the network
+	 */
+	public static void invalidate(final FBNetwork network) {
+		final Adapter existing = EcoreUtil.getExistingAdapter(network, FBNetworkConnectionIndex.class);
+		if (null != existing) {
+			((FBNetworkConnectionIndex) existing).dispose();
+		}
+	}
+
+	private FBNetworkConnectionIndex(final FBNetwork network) {
+		this.network = network;
+		network.getEventConnections().forEach(this::add);
+		network.getDataConnections().forEach(this::add);
+		network.getAdapterConnections().forEach(this::add);
+	}
+
+	/**
+	 * @param source      the source pin
+	 * @param destination the destination pin
+	 * @return true if the network contains a connection from the source to the
+	 *         destination
+	 */
+	public boolean isConnected(final IInterfaceElement source, final IInterfaceElement destination) {
+		final Map<IInterfaceElement, Integer> destinations = destinationsBySource.get(source);
+		return (null != destinations) && destinations.containsKey(destination);
+	}
+
+	@Override
+	public boolean isAdapterForType(final Object type) {
+		return FBNetworkConnectionIndex.class == type;
+	}
+
+	@Override
+	public Notifier getTarget() {
+		return network;
+	}
+
+	@Override
+	public void setTarget(final Notifier newTarget) {
+		// the index is also attached to the connections, its target always is the network
+	}
+
+	@Override
+	public void unsetTarget(final Notifier oldTarget) {
+		// the index is also attached to the connections, its target always is the network
+	}
+
+	@Override
+	public void notifyChanged(final Notification notification) {
+		final Object notifier = notification.getNotifier();
+		if (notifier instanceof FBNetwork) {
+			if ((Notification.REMOVING_ADAPTER == notification.getEventType()) && (this == notification.getOldValue())) {
+				detachFromConnections();
+			} else if (isConnectionList(notification.getFeature())) {
+				connectionsChanged(notification);
+			}
+		} else if ((notifier instanceof Connection) && ((Notification.SET == notification.getEventType())
+				|| (Notification.UNSET == notification.getEventType()))) {
+			final Connection connection = (Connection) notifier;
+			if (LibraryElementPackage.Literals.CONNECTION__SOURCE == notification.getFeature()) {
+				unlink((IInterfaceElement) notification.getOldValue(), connection.getDestination());
+				link((IInterfaceElement) notification.getNewValue(), connection.getDestination());
+			} else if (LibraryElementPackage.Literals.CONNECTION__DESTINATION == notification.getFeature()) {
+				unlink(connection.getSource(), (IInterfaceElement) notification.getOldValue());
+				link(connection.getSource(), (IInterfaceElement) notification.getNewValue());
+			}
+		}
+	}
+
+	private static boolean isConnectionList(final Object feature) {
+		return (LibraryElementPackage.Literals.FB_NETWORK__EVENT_CONNECTIONS == feature)
+				|| (LibraryElementPackage.Literals.FB_NETWORK__DATA_CONNECTIONS == feature)
+				|| (LibraryElementPackage.Literals.FB_NETWORK__ADAPTER_CONNECTIONS == feature);
+	}
+
+	private void connectionsChanged(final Notification notification) {
+		switch (notification.getEventType()) {
+		case Notification.ADD:
+			add((Connection) notification.getNewValue());
+			break;
+		case Notification.ADD_MANY:
+			((Collection<?>) notification.getNewValue()).forEach(connection -> add((Connection) connection));
+			break;
+		case Notification.REMOVE:
+			remove((Connection) notification.getOldValue());
+			break;
+		case Notification.REMOVE_MANY:
+			((Collection<?>) notification.getOldValue()).forEach(connection -> remove((Connection) connection));
+			break;
+		case Notification.SET:
+			remove((Connection) notification.getOldValue());
+			add((Connection) notification.getNewValue());
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void add(final Connection connection) {
+		if ((null != connection) && connections.add(connection)) {
+			connection.eAdapters().add(this);
+			link(connection.getSource(), connection.getDestination());
+		}
+	}
+
+	private void remove(final Connection connection) {
+		if ((null != connection) && connections.remove(connection)) {
+			connection.eAdapters().remove(this);
+			unlink(connection.getSource(), connection.getDestination());
+		}
+	}
+
+	private void link(final IInterfaceElement source, final IInterfaceElement destination) {
+		if ((null != source) && (null != destination)) {
+			destinationsBySource.computeIfAbsent(source, key -> new HashMap<>()).merge(destination,
+					Integer.valueOf(1), (count, one) -> Integer.valueOf(count.intValue() + 1));
+		}
+	}
+
+	private void unlink(final IInterfaceElement source, final IInterfaceElement destination) {
+		final Map<IInterfaceElement, Integer> destinations = destinationsBySource.get(source);
+		if ((null != destinations) && (null != destination)) {
+			destinations.computeIfPresent(destination,
+					(key, count) -> (1 < count.intValue()) ? Integer.valueOf(count.intValue() - 1) : null);
+			if (destinations.isEmpty()) {
+				destinationsBySource.remove(source);
+			}
+		}
+	}
+
+	private void dispose() {
+		detachFromConnections();
+		network.eAdapters().remove(this);
+	}
+
+	private void detachFromConnections() {
+		final List<Connection> indexed = new ArrayList<>(connections);
+		connections.clear();
+		destinationsBySource.clear();
+		indexed.forEach(connection -> connection.eAdapters().remove(this));
+	}
+}
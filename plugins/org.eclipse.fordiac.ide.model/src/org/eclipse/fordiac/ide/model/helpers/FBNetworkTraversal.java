@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.model.helpers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.fordiac.ide.model.libraryElement.AdapterConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.Connection;
+import org.eclipse.fordiac.ide.model.libraryElement.DataConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.EventConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
+import org.eclipse.fordiac.ide.model.libraryElement.SubApp;
+
+/**
+ * Finds the elements connected upstream or downstream of network elements.
+ *
+ * The connections are followed iteratively, so that also very long signal
+ * chains can be traced. At the pins of subapps the connections inside of the
+ * subapp are followed, an element is passed through all of its pins otherwise.
+ * The depth counts the network elements passed, crossing the border of a subapp
+ * does not count.
+ */
+public final class FBNetworkTraversal {
+
+	public static final int UNLIMITED_DEPTH = -1;
+
+	public enum Direction {
+		/** follow the connections of the inputs back to their sources */
+		PREDECESSORS,
+		/** follow the connections of the outputs to their destinations */
+		SUCCESSORS
+	}
+
+	public enum ConnectionKind {
+		EVENT, DATA, ADAPTER;
+
+		boolean matches(final Connection connection) {
+			switch (this) {
+			case EVENT:
+				return connection instanceof EventConnection;
+			case DATA:
+				return connection instanceof DataConnection;
+			case ADAPTER:
+				return connection instanceof AdapterConnection;
+			default:
+				return false;
+			}
+		}
+	}
+
+	/** The network elements and connections found, in the order they were reached */
+	public static final class Result {
+		private final Set<FBNetworkElement> elements = new LinkedHashSet<>();
+		private final Set<Connection> connections = new LinkedHashSet<>();
+
+		public Set<FBNetworkElement> getElements() {
+			return Collections.unmodifiableSet(elements);
+		}
+
+		public Set<Connection> getConnections() {
+			return Collections.unmodifiableSet(connections);
+		}
+
+		/** @return the elements and connections */
+		public Set<Object> getAll() {
+			final Set<Object> all = new HashSet<>(elements);
+			all.addAll(connections);
+			return all;
+		}
+	}
+
+	private final Direction direction;
+	private final Set<ConnectionKind> kinds;
+	private final int maxDepth;
+
+	/** Trace all kinds of connections without a depth limit. */
+	public FBNetworkTraversal(final Direction direction) {
+		this(direction, EnumSet.allOf(ConnectionKind.class), UNLIMITED_DEPTH);
+	}
+
+	/** @param direction the direction in which the connections are followed
+	 * @param kinds     the kinds of connections followed
+	 * @param maxDepth  the maximum number of elements passed from a start element or {@link #UNLIMITED_DEPTH} */
+	public FBNetworkTraversal(final Direction direction, final Set<ConnectionKind> kinds, final int maxDepth) {
+		this.direction = direction;
+		this.kinds = kinds.isEmpty() ? EnumSet.noneOf(ConnectionKind.class) : EnumSet.copyOf(kinds);
+		this.maxDepth = maxDepth;
+	}
+
+	public Result trace(final FBNetworkElement start) {
+		return trace(Collections.singletonList(start));
+	}
+
+	/** @param start the elements the trace starts from, they are part of the result
+	 * @return the elements and connections reached from the start elements */
+	public Result trace(final Collection<? extends FBNetworkElement> start) {
+		final Result result = new Result();
+		final Set<IInterfaceElement> visitedPins = new HashSet<>();
+		// the elements which are passed through all of their pins
+		final Set<FBNetworkElement> passed = new HashSet<>();
+		List<FBNetworkElement> level = new ArrayList<>();
+		for (final FBNetworkElement element : start) {
+			if ((null != element) && passed.add(element)) {
+				result.elements.add(element);
+				level.add(element);
+			}
+		}
+
+		int depth = 0;
+		while (!level.isEmpty() && ((UNLIMITED_DEPTH == maxDepth) || (depth < maxDepth))) {
+			final List<FBNetworkElement> nextLevel = new ArrayList<>();
+			final Deque<IInterfaceElement> pins = new ArrayDeque<>();
+			for (final FBNetworkElement element : level) {
+				element.getInterface().getAllInterfaceElements().stream().filter(this::isTracedSide)
+				.forEach(pins::push);
+				// pins at the borders of subapps are passed within the same level
+				while (!pins.isEmpty()) {
+					followConnections(pins.pop(), result, visitedPins, passed, pins, nextLevel);
+				}
+			}
+			level = nextLevel;
+			depth++;
+		}
+		return result;
+	}
+
+	/* the pins of an element at which the trace leaves it */
+	private boolean isTracedSide(final IInterfaceElement pin) {
+		return pin.isIsInput() == (Direction.PREDECESSORS == direction);
+	}
+
+	private List<Connection> getConnections(final IInterfaceElement pin) {
+		return (Direction.PREDECESSORS == direction) ? pin.getInputConnections() : pin.getOutputConnections();
+	}
+
+	private IInterfaceElement getOpposite(final Connection connection) {
+		return (Direction.PREDECESSORS == direction) ? connection.getSource() : connection.getDestination();
+	}
+
+	private void followConnections(final IInterfaceElement pin, final Result result,
+			final Set<IInterfaceElement> visitedPins, final Set<FBNetworkElement> passed,
+			final Deque<IInterfaceElement> pins, final List<FBNetworkElement> nextLevel) {
+		for (final Connection connection : getConnections(pin)) {
+			if (isTraced(connection) && result.connections.add(connection)) {
+				final IInterfaceElement opposite = getOpposite(connection);
+				if ((null != opposite) && visitedPins.add(opposite)) {
+					reachPin(opposite, result, passed, pins, nextLevel);
+				}
+			}
+		}
+	}
+
+	private boolean isTraced(final Connection connection) {
+		return kinds.stream().anyMatch(kind -> kind.matches(connection));
+	}
+
+	private void reachPin(final IInterfaceElement pin, final Result result, final Set<FBNetworkElement> passed,
+			final Deque<IInterfaceElement> pins, final List<FBNetworkElement> nextLevel) {
+		final FBNetworkElement element = pin.getFBNetworkElement();
+		if (null == element) {
+			// the interface of the type containing the network
+			return;
+		}
+		if (isTracedSide(pin)) {
+			// the pin of the subapp containing the connection, continue outside
+			result.elements.add(element);
+			pins.push(pin);
+		} else if ((element instanceof SubApp) && !getConnections(pin).isEmpty()) {
+			// continue inside the subapp
+			result.elements.add(element);
+			pins.push(pin);
+		} else {
+			result.elements.add(element);
+			if (passed.add(element)) {
+				nextLevel.add(element);
+			}
+		}
+	}
+}
@@ -26,11 +26,37 @@ import org.eclipse.jface.util.IPropertyChangeListener;
 public interface IRuntimeLauncher {
 	// launch the specific runtime
 	/**
-	 * Launch.
+	 * Launch and wait until the runtime is ready.
 	 *
-	 * @throws LaunchRuntimeException the launch runtime exception
+	 * This blocks for up to {@link RuntimeLaunchService#DEFAULT_READY_TIMEOUT}, so
+	 * it should be called from a job and not from the UI thread. A runtime that
+	 * does not get ready within this time is terminated.
+	 *
+	 * @throws LaunchRuntimeException if the runtime could not be started, its port
+	 *                                is already in use, or it did not get ready
+	 */
+	default void launch() throws LaunchRuntimeException {
+		try {
+			final RuntimeLaunchService.RuntimeStatus status = new RuntimeLaunchService().launch(createLaunchRequest());
+			if (RuntimeLaunchService.State.READY != status.getState()) {
+				throw new LaunchRuntimeException(status.getMessage());
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();  // mark interruption
+			throw new LaunchRuntimeException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Create the request for launching the runtime with the current parameters.
+	 *
+	 * Several requests can be launched concurrently with the
+	 * {@link RuntimeLaunchService}.
+	 *
+	 * @return the launch request
+	 * @throws LaunchRuntimeException if the parameters are invalid
 	 */
-	void launch() throws LaunchRuntimeException;
+	RuntimeLaunchService.LaunchRequest createLaunchRequest() throws LaunchRuntimeException;
 
 	// get the name of the runtime being launched
 	/**
@@ -31,4 +31,14 @@ public class LaunchRuntimeException extends Exception {
 	public LaunchRuntimeException(String msg) {
 		super(msg);
 	}
+
+	/**
+	 * Instantiates a new launch runtime exception.
+	 *
+	 * @param msg   the msg
+	 * @param cause the cause
+	 */
+	public LaunchRuntimeException(final String msg, final Throwable cause) {
+		super(msg, cause);
+	}
 }
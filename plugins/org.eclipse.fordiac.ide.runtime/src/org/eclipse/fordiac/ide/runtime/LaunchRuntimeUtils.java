@@ -29,53 +29,44 @@ public final class LaunchRuntimeUtils {
 	public static final String ATTR_TOOL_ARGUMENTS = "org.eclipse.ui.externaltools.ATTR_TOOL_ARGUMENTS"; //$NON-NLS-1$
 
 	/**
-	 * Starts a new launch runtime configuration.
+	 * Creates the request for launching a runtime managed on a local port.
 	 *
 	 * @param configname the configuration name
 	 * @param runtime    the path to the runtime
 	 * @param location   the location of the runtime
 	 * @param arguments  the runtime arguments
+	 * @param port       the management port the runtime opens when it is ready
 	 */
-	public static ILaunch startRuntime(final String configname, final String runtime, final String location, final String arguments) {
-		/** Launch configuration. */
-		ILaunchConfiguration config;
-		/** The launch configuration's working copy. */
-		ILaunchConfigurationWorkingCopy wc;
-		ILaunch launcht = null;
+	public static RuntimeLaunchService.LaunchRequest createLaunchRequest(final String configname, final String runtime,
+			final String location, final String arguments, final int port) {
+		return new RuntimeLaunchService.LaunchRequest(configname, port, () -> {
+			try {
+				return launchRuntime(configname, runtime, location, arguments);
+			} catch (final CoreException e) {
+				throw new LaunchRuntimeException(e.getMessage(), e);
+			}
+		});
+	}
 
+	private static ILaunch launchRuntime(final String configname, final String runtime, final String location,
+			final String arguments) throws CoreException {
 		// Get the default launch manager
 		final DebugPlugin debug = DebugPlugin.getDefault();
 		final ILaunchManager lm = debug.getLaunchManager();
 		// Set launch configuration type to 'Program'
 		final ILaunchConfigurationType configType = lm
 				.getLaunchConfigurationType("org.eclipse.ui.externaltools.ProgramLaunchConfigurationType"); //$NON-NLS-1$
-		try {
-			wc = configType.newInstance(null, configname);
-			// Set necessary attributes for the launch configuration
-			wc.setAttribute("org.eclipse.debug.core.appendEnvironmentVariables", true); //$NON-NLS-1$
-			wc.setAttribute("org.eclipse.ui.externaltools.ATTR_LOCATION", //$NON-NLS-1$
-					runtime);
-			wc.setAttribute(ATTR_TOOL_ARGUMENTS, arguments);
-			wc.setAttribute("org.eclipse.ui.externaltools.ATTR_WORKING_DIRECTORY", //$NON-NLS-1$
-					location);
-
-			config = wc.doSave();
-			launcht = config.launch(ILaunchManager.RUN_MODE, null);
-
-			waitForOneSecond();
-		} catch (final CoreException e) {
-			Activator.getDefault().logError(e.getMessage(), e);
-		}
-		return launcht;
-	}
+		final ILaunchConfigurationWorkingCopy wc = configType.newInstance(null, configname);
+		// Set necessary attributes for the launch configuration
+		wc.setAttribute("org.eclipse.debug.core.appendEnvironmentVariables", true); //$NON-NLS-1$
+		wc.setAttribute("org.eclipse.ui.externaltools.ATTR_LOCATION", //$NON-NLS-1$
+				runtime);
+		wc.setAttribute(ATTR_TOOL_ARGUMENTS, arguments);
+		wc.setAttribute("org.eclipse.ui.externaltools.ATTR_WORKING_DIRECTORY", //$NON-NLS-1$
+				location);
 
-	private static void waitForOneSecond() {
-		try {
-			Thread.sleep(1000);
-		} catch (final InterruptedException e) {
-			Thread.currentThread().interrupt();  // mark interruption
-			Activator.getDefault().logError(e.getMessage(), e);
-		}
+		final ILaunchConfiguration config = wc.doSave();
+		return config.launch(ILaunchManager.RUN_MODE, null);
 	}
 
 	private LaunchRuntimeUtils() {
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.runtime;
+
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * The Class Messages.
+ */
+@SuppressWarnings("squid:S3008")  // tell sonar the java naming convention does not make sense for this class
+public final class Messages extends NLS {
+	private static final String BUNDLE_NAME = "org.eclipse.fordiac.ide.runtime.messages"; //$NON-NLS-1$
+
+	public static String RuntimeLaunchService_PortInUse;
+	public static String RuntimeLaunchService_CouldNotStart;
+	public static String RuntimeLaunchService_TerminatedBeforeReady;
+	public static String RuntimeLaunchService_ReadyTimeout;
+	public static String RuntimeLauncherView_LaunchJobName;
+
+	static {
+		// initialize resource bundle
+		NLS.initializeMessages(BUNDLE_NAME, Messages.class);
+	}
+
+	private Messages() {
+		// empty private constructor
+	}
+}
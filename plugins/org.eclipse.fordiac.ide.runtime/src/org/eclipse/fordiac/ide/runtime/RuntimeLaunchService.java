@@ -0,0 +1,309 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.runtime;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.ILaunch;
+
+/**
+ * Starts local runtimes and waits until they are ready.
+ *
+ * A runtime is ready as soon as its management port accepts connections while
+ * its process is still alive. All runtimes of a batch are started first and
+ * their ports are then probed together, so that the runtimes boot concurrently
+ * and nobody waits longer than the slowest runtime needs. Probing stops early
+ * for a runtime whose process terminated. A runtime is not started if its port
+ * is already in use, as the port would then belong to another process, and a
+ * runtime that does not open its port within the timeout is terminated.
+ *
+ * Launching blocks until all runtimes are ready, it should therefore be run in
+ * a job and not in the UI thread.
+ */
+public class RuntimeLaunchService {
+
+	public static final Duration DEFAULT_READY_TIMEOUT = Duration.ofSeconds(10);
+
+	private static final String LOCALHOST = "localhost"; //$NON-NLS-1$
+	private static final long PROBE_INTERVAL = 50; // ms
+	private static final int CONNECT_TIMEOUT = 200; // ms
+
+	/** Starts the process of a runtime */
+	@FunctionalInterface
+	public interface RuntimeStarter {
+		ILaunch start() throws LaunchRuntimeException;
+	}
+
+	/** Checks whether a local port accepts connections */
+	@FunctionalInterface
+	public interface PortProbe {
+		boolean isOpen(int port);
+	}
+
+	public enum State {
+		/** the management port of the runtime accepts connections */
+		READY,
+		/** the management port did not open within the timeout, the runtime has been terminated */
+		TIMED_OUT,
+		/**
+		 * the runtime could not be started, its port was already in use, or it
+		 * terminated before it was ready
+		 */
+		FAILED,
+		/** the runtime has been shut down */
+		TERMINATED
+	}
+
+	/** A runtime to be launched together with the port it is managed on */
+	public static final class LaunchRequest {
+		private final String name;
+		private final int port;
+		private final RuntimeStarter starter;
+
+		public LaunchRequest(final String name, final int port, final RuntimeStarter starter) {
+			this.name = name;
+			this.port = port;
+			this.starter = starter;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getPort() {
+			return port;
+		}
+	}
+
+	/** The outcome of launching one runtime */
+	public static final class RuntimeStatus {
+		private final LaunchRequest request;
+		private final ILaunch launch;
+		private final long startTime;
+		private State state;
+		private String message;
+		private long startupTime;
+
+		private RuntimeStatus(final LaunchRequest request, final ILaunch launch, final long startTime) {
+			this.request = request;
+			this.launch = launch;
+			this.startTime = startTime;
+		}
+
+		public LaunchRequest getRequest() {
+			return request;
+		}
+
+		/** @return the launch of the runtime, null if it could not be started */
+		public ILaunch getLaunch() {
+			return launch;
+		}
+
+		public synchronized State getState() {
+			return state;
+		}
+
+		/** @return a description of the state, empty if the runtime is ready */
+		public synchronized String getMessage() {
+			return message;
+		}
+
+		/** @return the milliseconds from starting the runtime until its final state */
+		public synchronized long getStartupTime() {
+			return startupTime;
+		}
+
+		private synchronized void setState(final State state, final String message) {
+			this.state = state;
+			this.message = message;
+		}
+
+		private synchronized void finishStartup(final State state, final String message, final long now) {
+			setState(state, message);
+			startupTime = now - startTime;
+		}
+
+		private boolean isPending() {
+			return null == getState();
+		}
+	}
+
+	private final Duration readyTimeout;
+	private final PortProbe portProbe;
+	private final LongSupplier clock;
+
+	public RuntimeLaunchService() {
+		this(DEFAULT_READY_TIMEOUT);
+	}
+
+	/** @param readyTimeout the time a runtime may take until its port opens */
+	public RuntimeLaunchService(final Duration readyTimeout) {
+		this(readyTimeout, RuntimeLaunchService::isPortOpen, System::currentTimeMillis);
+	}
+
+	/**
+	 * @param readyTimeout the time a runtime may take until its port opens
+	 * @param portProbe    the check whether a port accepts connections
+	 * @param clock        the current time in milliseconds
+	 */
+	RuntimeLaunchService(final Duration readyTimeout, final PortProbe portProbe, final LongSupplier clock) {
+		this.readyTimeout = readyTimeout;
+		this.portProbe = portProbe;
+		this.clock = clock;
+	}
+
+	/**
+	 * Launch a single runtime and wait until it is ready.
+	 *
+	 * @param request the runtime to launch
+	 * @return the status of the runtime
+	 * @throws InterruptedException if the waiting was interrupted, the runtime is
+	 *                              left running
+	 */
+	public RuntimeStatus launch(final LaunchRequest request) throws InterruptedException {
+		return launchAll(Collections.singletonList(request)).get(0);
+	}
+
+	/**
+	 * Launch several runtimes and wait until each of them is ready, failed, or timed
+	 * out.
+	 *
+	 * @param requests the runtimes to launch
+	 * @return the status of each runtime in the order of the requests
+	 * @throws InterruptedException if the waiting was interrupted, the started
+	 *                              runtimes are left running
+	 */
+	public List<RuntimeStatus> launchAll(final List<LaunchRequest> requests) throws InterruptedException {
+		final List<RuntimeStatus> runtimes = new ArrayList<>(requests.size());
+		for (final LaunchRequest request : requests) {
+			runtimes.add(start(request));
+		}
+		waitUntilReady(runtimes);
+		return runtimes;
+	}
+
+	private RuntimeStatus start(final LaunchRequest request) {
+		final long startTime = clock.getAsLong();
+		ILaunch launch = null;
+		String error;
+		if (portProbe.isOpen(request.getPort())) {
+			error = MessageFormat.format(Messages.RuntimeLaunchService_PortInUse, request.getName(),
+					Integer.toString(request.getPort()));
+		} else {
+			error = MessageFormat.format(Messages.RuntimeLaunchService_CouldNotStart, request.getName());
+			try {
+				launch = request.starter.start();
+			} catch (final LaunchRuntimeException e) {
+				error = e.getMessage();
+			}
+		}
+		final RuntimeStatus status = new RuntimeStatus(request, launch, startTime);
+		if (null == launch) {
+			status.finishStartup(State.FAILED, error, clock.getAsLong());
+		}
+		return status;
+	}
+
+	private void waitUntilReady(final List<RuntimeStatus> runtimes) throws InterruptedException {
+		final List<RuntimeStatus> pending = new ArrayList<>(runtimes);
+		pending.removeIf(status -> !status.isPending());
+		while (!pending.isEmpty()) {
+			final long now = clock.getAsLong();
+			for (final RuntimeStatus status : pending) {
+				probe(status, now);
+			}
+			pending.removeIf(status -> !status.isPending());
+			if (!pending.isEmpty()) {
+				Thread.sleep(PROBE_INTERVAL);
+			}
+		}
+	}
+
+	private void probe(final RuntimeStatus status, final long now) {
+		final LaunchRequest request = status.getRequest();
+		// an open port only counts while our process is alive, it could belong to another one
+		if (status.getLaunch().isTerminated()) {
+			status.finishStartup(State.FAILED, MessageFormat.format(Messages.RuntimeLaunchService_TerminatedBeforeReady,
+					request.getName(), Integer.toString(request.getPort())), now);
+		} else if (portProbe.isOpen(request.getPort())) {
+			status.finishStartup(State.READY, "", clock.getAsLong()); //$NON-NLS-1$
+		} else if ((now - status.startTime) > readyTimeout.toMillis()) {
+			terminate(status);
+			status.finishStartup(State.TIMED_OUT, MessageFormat.format(Messages.RuntimeLaunchService_ReadyTimeout,
+					request.getName(), Integer.toString(request.getPort()), Long.toString(readyTimeout.toMillis())),
+					now);
+		}
+	}
+
+	/** @return true if a local server accepts connections on the given port */
+	public static boolean isPortOpen(final int port) {
+		try (Socket socket = new Socket()) {
+			socket.connect(new InetSocketAddress(LOCALHOST, port), CONNECT_TIMEOUT);
+			return true;
+		} catch (final IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Shut down several runtimes concurrently.
+	 *
+	 * Each runtime is asked to terminate and only killed by the launch framework if
+	 * it does not stop on its own. Runtimes that could not be started are skipped.
+	 *
+	 * @param runtimes the runtimes to shut down
+	 * @param timeout  the time to wait for all runtimes to terminate
+	 * @return true if all runtimes terminated within the timeout
+	 * @throws InterruptedException if the waiting was interrupted
+	 */
+	public static boolean terminateAll(final List<RuntimeStatus> runtimes, final Duration timeout)
+			throws InterruptedException {
+		final List<RuntimeStatus> running = new ArrayList<>(runtimes);
+		running.removeIf(status -> (null == status.getLaunch()) || status.getLaunch().isTerminated());
+		boolean inTime = true;
+		if (!running.isEmpty()) {
+			final ExecutorService executor = Executors.newFixedThreadPool(running.size());
+			for (final RuntimeStatus status : running) {
+				executor.execute(() -> terminate(status));
+			}
+			executor.shutdown();
+			inTime = executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+		}
+		for (final RuntimeStatus status : runtimes) {
+			if ((null != status.getLaunch()) && status.getLaunch().isTerminated()) {
+				status.setState(State.TERMINATED, ""); //$NON-NLS-1$
+			}
+		}
+		return inTime && running.stream().allMatch(status -> status.getLaunch().isTerminated());
+	}
+
+	private static void terminate(final RuntimeStatus status) {
+		try {
+			status.getLaunch().terminate();
+		} catch (final DebugException e) {
+			Activator.getDefault().logError(e.getMessage(), e);
+		}
+	}
+}
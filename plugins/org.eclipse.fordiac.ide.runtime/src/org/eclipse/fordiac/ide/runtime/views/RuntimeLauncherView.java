@@ -29,13 +29,18 @@ import javax.inject.Inject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.e4.ui.di.Persist;
 import org.eclipse.e4.ui.model.application.ui.basic.MPart;
 import org.eclipse.fordiac.ide.runtime.Activator;
 import org.eclipse.fordiac.ide.runtime.IRuntimeLauncher;
 import org.eclipse.fordiac.ide.runtime.LaunchParameter;
 import org.eclipse.fordiac.ide.runtime.LaunchRuntimeException;
+import org.eclipse.fordiac.ide.runtime.Messages;
 import org.eclipse.jface.preference.PreferenceDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ModifyEvent;
@@ -225,23 +230,56 @@ public class RuntimeLauncherView {
 		launchButtonData.horizontalAlignment = GridData.FILL;
 		launchButton.setLayoutData(launchButtonData);
 		launchButton.addListener(SWT.Selection, event -> {
+			// the launch waits until the runtime is ready, which must not block the UI
+			final Map<Combo, String> usedValues = new HashMap<>();
+			for (final LaunchParameter param : launcher.getParams()) {
+				final Combo combo = comboTable.get(getLaunchParamID(launcher, param));
+				usedValues.put(combo, combo.getText());
+			}
+			launchButton.setEnabled(false);
+			new LaunchJob(launcher, launchButton, usedValues).schedule();
+		});
+	}
+
+	/** Launches a runtime and afterwards remembers the used parameter values */
+	private static class LaunchJob extends Job {
+		private final IRuntimeLauncher launcher;
+		private final Button launchButton;
+		private final Map<Combo, String> usedValues;
+
+		public LaunchJob(final IRuntimeLauncher launcher, final Button launchButton,
+				final Map<Combo, String> usedValues) {
+			super(MessageFormat.format(Messages.RuntimeLauncherView_LaunchJobName, launcher.getName()));
+			this.launcher = launcher;
+			this.launchButton = launchButton;
+			this.usedValues = usedValues;
+		}
+
+		@Override
+		protected IStatus run(final IProgressMonitor monitor) {
 			try {
 				launcher.launch();
-
-				for (final LaunchParameter param : launcher.getParams()) {
-					if (!Arrays.asList(comboTable.get(getLaunchParamID(launcher, param)) // $NON-NLS-1$
-							.getItems()).contains(comboTable.get(getLaunchParamID(launcher, param)) // $NON-NLS-1$
-									.getText())) {
-						comboTable.get(getLaunchParamID(launcher, param)) // $NON-NLS-1$
-						.add(comboTable.get(getLaunchParamID(launcher, param)) // $NON-NLS-1$
-								.getText(), 0);
+				Display.getDefault().asyncExec(this::rememberUsedValues);
+				return Status.OK_STATUS;
+			} catch (final LaunchRuntimeException e) {
+				// the job framework logs and reports the failure
+				return new Status(IStatus.ERROR, Activator.PLUGIN_ID, e.getMessage(), e);
+			} finally {
+				Display.getDefault().asyncExec(() -> {
+					if (!launchButton.isDisposed()) {
+						launchButton.setEnabled(true);
 					}
-				}
-			} catch (final LaunchRuntimeException e1) {
-				Activator.getDefault().logError(e1.getMessage(), e1);
-				// TODO added error message pop-up
+				});
 			}
-		});
+		}
+
+		private void rememberUsedValues() {
+			usedValues.forEach((combo, value) -> {
+				if (!combo.isDisposed() && !Arrays.asList(combo.getItems()).contains(value)) {
+					combo.add(value, 0);
+				}
+			});
+		}
 	}
 
 	private static String getLaunchParamID(final IRuntimeLauncher launcher, final LaunchParameter param) {
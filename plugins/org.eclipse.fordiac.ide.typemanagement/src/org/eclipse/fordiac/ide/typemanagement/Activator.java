@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.typemanagement;
 
+import org.eclipse.fordiac.ide.typemanagement.navigator.ProblemSeverityCache;
 import org.eclipse.fordiac.ide.ui.Abstract4DIACUIPlugin;
 import org.osgi.framework.BundleContext;
 
@@ -27,6 +28,7 @@ public class Activator extends Abstract4DIACUIPlugin {
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		ProblemSeverityCache.disposeInstance();
 		setPlugin(null);
 		super.stop(context);
 	}
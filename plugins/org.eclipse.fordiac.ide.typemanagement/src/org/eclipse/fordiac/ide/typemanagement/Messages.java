@@ -44,6 +44,7 @@ public final class Messages extends NLS {
 	public static String OpenTypeHandler_NO_FILES_SELECTED;
 	public static String OpenTypeHandler_OPEN_TYPE_ERROR_TITLE;
 	public static String OpenTypeHandler_OPEN_TYPE_TITLE;
+	public static String ProblemSeverityCache_LookUpProblemMarkers;
 
 	public static String typeManagementPreferencePageTitle;
 	public static String typeManagementPreferencePageIdentificationTitle;
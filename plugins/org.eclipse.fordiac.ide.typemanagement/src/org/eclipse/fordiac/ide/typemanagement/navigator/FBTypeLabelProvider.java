@@ -16,24 +16,12 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.typemanagement.navigator;
 
-import java.util.Scanner;
-
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IMarker;
-import org.eclipse.core.resources.IResource;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.emf.edit.ui.provider.AdapterFactoryLabelProvider;
-import org.eclipse.fordiac.ide.model.Palette.AdapterTypePaletteEntry;
-import org.eclipse.fordiac.ide.model.Palette.FBTypePaletteEntry;
-import org.eclipse.fordiac.ide.model.Palette.PaletteEntry;
-import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
-import org.eclipse.fordiac.ide.model.libraryElement.CompositeFBType;
-import org.eclipse.fordiac.ide.model.libraryElement.FBType;
-import org.eclipse.fordiac.ide.model.libraryElement.ServiceInterfaceFBType;
-import org.eclipse.fordiac.ide.model.libraryElement.SimpleFBType;
+import org.eclipse.fordiac.ide.model.dataimport.TypeHeaderReader;
+import org.eclipse.fordiac.ide.model.dataimport.TypeHeaderReader.TypeHeader;
 import org.eclipse.fordiac.ide.model.typelibrary.TypeLibrary;
 import org.eclipse.fordiac.ide.model.typelibrary.TypeLibraryTags;
-import org.eclipse.fordiac.ide.typemanagement.Activator;
 import org.eclipse.fordiac.ide.ui.imageprovider.FordiacImage;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.ui.navigator.IDescriptionProvider;
@@ -47,12 +35,21 @@ public class FBTypeLabelProvider extends AdapterFactoryLabelProvider implements
 	@Override
 	public Image getImage(final Object element) {
 		if (element instanceof IFile) {
-			return getImageForFile((IFile) element);
+			// problems are shown by the TypeProblemDecorator so that rendering never waits for markers
+			return getTypeImageForFile((IFile) element);
 		}
 		return super.getImage(element);
 	}
 
 	public static Image getImageForFile(final IFile element) {
+		final Image image = getTypeImageForFile(element);
+		if (null != image && ProblemSeverityCache.getInstance().hasProblems(element)) {
+			return FordiacImage.getErrorOverlayImage(image);
+		}
+		return image;
+	}
+
+	private static Image getTypeImageForFile(final IFile element) {
 		Image image = null;
 
 		if (TypeLibraryTags.ADAPTER_TYPE_FILE_ENDING.equalsIgnoreCase(element.getFileExtension())) {
@@ -62,66 +59,25 @@ public class FBTypeLabelProvider extends AdapterFactoryLabelProvider implements
 		} else if (TypeLibraryTags.FB_TYPE_FILE_ENDING.equalsIgnoreCase(element.getFileExtension())) {
 			image = getImageForFBTypeFile(element);
 		}
-
-		if (null != image && fileHasProblems(element)) {
-			return FordiacImage.getErrorOverlayImage(image);
-		}
-
 		return image;
 	}
 
 	private static Image getImageForFBTypeFile(final IFile element) {
-		final FBType type = getFBTypeFromFile(element);
-
-		if (type instanceof BasicFBType) {
+		// only the header of the file is read to determine the kind of the type
+		final TypeHeader header = TypeHeaderReader.getHeader(element);
+		if (null == header) {
+			return null;
+		}
+		switch (header.getKind()) {
+		case BASIC:
 			return FordiacImage.ICON_BASIC_FB.getImage();
-		} else if (type instanceof CompositeFBType) {
+		case COMPOSITE:
 			return FordiacImage.ICON_COMPOSITE_FB.getImage();
-		} else if (type instanceof SimpleFBType) {
+		case SIMPLE:
 			return FordiacImage.ICON_SIMPLE_FB.getImage();
-		} else if (type instanceof ServiceInterfaceFBType) {
+		default:
 			return FordiacImage.ICON_SIFB.getImage();
 		}
-
-		// partly load file to determine type
-		return checkUnloadedFBType(element);
-	}
-
-	private static boolean fileHasProblems(final IFile element) {
-		IMarker[] problems = null;
-		if (element.exists()) {
-			try {
-				problems = element.findMarkers(IMarker.PROBLEM, true, IResource.DEPTH_INFINITE);
-			} catch (final CoreException e) {
-				Activator.getDefault().logError(e.getMessage(), e);
-			}
-		}
-		return ((null != problems) && (0 < problems.length));
-	}
-
-	private static Image checkUnloadedFBType(final IFile element) {
-		Image image = null;
-		try (Scanner scanner = new Scanner(element.getContents())) {
-			if (null != scanner.findWithinHorizon("BasicFB", 0)) { //$NON-NLS-1$
-				image = FordiacImage.ICON_BASIC_FB.getImage();
-			} else {
-				scanner.reset();
-				if (null != scanner.findWithinHorizon("FBNetwork", 0)) { //$NON-NLS-1$
-					image = FordiacImage.ICON_COMPOSITE_FB.getImage();
-				} else {
-					scanner.reset();
-					if (null != scanner.findWithinHorizon("SimpleFB", 0)) { //$NON-NLS-1$
-						image = FordiacImage.ICON_SIMPLE_FB.getImage();
-					} else {
-						image = FordiacImage.ICON_SIFB.getImage();
-					}
-				}
-			}
-		} catch (final Exception e) {
-			Activator.getDefault().logError(e.getMessage(), e);
-		}
-
-		return image;
 	}
 
 	@Override
@@ -151,39 +107,12 @@ public class FBTypeLabelProvider extends AdapterFactoryLabelProvider implements
 	}
 
 	private static String getDescriptionForFBFile(final IFile fbtFile) {
-		FBType type = null;
-		if (TypeLibraryTags.FB_TYPE_FILE_ENDING.equalsIgnoreCase(fbtFile.getFileExtension())) {
-			type = getFBTypeFromFile(fbtFile);
-		} else if (TypeLibraryTags.ADAPTER_TYPE_FILE_ENDING.equalsIgnoreCase(fbtFile.getFileExtension())) {
-			type = getAdapterTypeForFile(fbtFile);
-		}
-
-		if (null != type) {
-			return generateTypeDescriptionString(type);
-		}
-		return null;
-	}
-
-	private static String generateTypeDescriptionString(final FBType type) {
-		String description = type.getName() + ": "; //$NON-NLS-1$
-		if (null != type.getComment()) {
-			description += type.getComment();
-		}
-		return description;
-	}
-
-	private static FBType getAdapterTypeForFile(final IFile file) {
-		final PaletteEntry entry = TypeLibrary.getPaletteEntryForFile(file);
-		if (entry instanceof AdapterTypePaletteEntry) {
-			return ((AdapterTypePaletteEntry) entry).getType().getAdapterFBType();
-		}
-		return null;
-	}
-
-	private static FBType getFBTypeFromFile(final IFile file) {
-		final PaletteEntry entry = TypeLibrary.getPaletteEntryForFile(file);
-		if (entry instanceof FBTypePaletteEntry) {
-			return ((FBTypePaletteEntry) entry).getFBType();
+		if (TypeLibraryTags.FB_TYPE_FILE_ENDING.equalsIgnoreCase(fbtFile.getFileExtension())
+				|| TypeLibraryTags.ADAPTER_TYPE_FILE_ENDING.equalsIgnoreCase(fbtFile.getFileExtension())) {
+			final TypeHeader header = TypeHeaderReader.getHeader(fbtFile);
+			if (null != header) {
+				return header.getName() + ": " + header.getComment(); //$NON-NLS-1$
+			}
 		}
 		return null;
 	}
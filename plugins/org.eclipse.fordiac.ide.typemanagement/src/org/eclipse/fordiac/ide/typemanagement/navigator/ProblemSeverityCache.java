@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.typemanagement.navigator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IMarkerDelta;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.fordiac.ide.typemanagement.Activator;
+import org.eclipse.fordiac.ide.typemanagement.Messages;
+
+/**
+ * Keeps the highest severity of the problem markers of files in memory.
+ *
+ * The severity of a file is looked up in the marker manager only the first time
+ * it is requested, and then in a background job so that a label provider on
+ * the UI thread never waits for it. Until the lookup is done the file counts as
+ * having no problems. Afterwards the severity is updated from the marker deltas
+ * of the workspace. All files whose severity changed in one resource change or
+ * one lookup run are reported to the listeners together.
+ */
+public class ProblemSeverityCache implements IResourceChangeListener {
+
+	/** severity of files without any problem markers */
+	public static final int NO_PROBLEMS = -1;
+
+	private static ProblemSeverityCache instance;
+
+	private final Map<IFile, Integer> severities = new ConcurrentHashMap<>();
+	private final List<Consumer<Collection<IFile>>> listeners = new CopyOnWriteArrayList<>();
+	private final ToIntFunction<IFile> lookup;
+	/* files which were requested but are not yet looked up */
+	private final Set<IFile> pendingLookups = ConcurrentHashMap.newKeySet();
+	/* files the lookup job is working on, their markers may change meanwhile */
+	private final Set<IFile> runningLookups = ConcurrentHashMap.newKeySet();
+	private final Job lookupJob = new LookupJob();
+
+	public ProblemSeverityCache() {
+		this(ProblemSeverityCache::findSeverity);
+	}
+
+	/* for tests which count or replace the marker queries */
+	ProblemSeverityCache(final ToIntFunction<IFile> lookup) {
+		this.lookup = lookup;
+	}
+
+	/** @return the shared cache, it is registered with the workspace on first use */
+	public static synchronized ProblemSeverityCache getInstance() {
+		if (null == instance) {
+			instance = new ProblemSeverityCache();
+			instance.install();
+		}
+		return instance;
+	}
+
+	/** unregister the shared cache from the workspace if it has been created */
+	public static synchronized void disposeInstance() {
+		if (null != instance) {
+			instance.uninstall();
+			instance = null;
+		}
+	}
+
+	public void install() {
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+	}
+
+	public void uninstall() {
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		lookupJob.cancel();
+		pendingLookups.clear();
+		severities.clear();
+	}
+
+	/**
+	 * @param listener gets the files whose severity changed, it is called in the
+	 *                 thread that changed the markers or in the lookup job
+	 */
+	public void addListener(final Consumer<Collection<IFile>> listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(final Consumer<Collection<IFile>> listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * @param file the file
+	 * @return the highest severity of the problem markers of the file, or
+	 *         {@link #NO_PROBLEMS} if it has none or has not been looked up yet
+	 */
+	public int getSeverity(final IFile file) {
+		final Integer severity = severities.get(file);
+		if (null != severity) {
+			return severity.intValue();
+		}
+		requestLookup(file);
+		return NO_PROBLEMS;
+	}
+
+	public boolean hasProblems(final IFile file) {
+		return NO_PROBLEMS != getSeverity(file);
+	}
+
+	private void requestLookup(final IFile file) {
+		if (pendingLookups.add(file)) {
+			// scheduling a waiting job does nothing, a running job is run once more
+			lookupJob.schedule();
+		}
+	}
+
+	/* the only place where the markers of a file are queried */
+	static int findSeverity(final IFile file) {
+		int severity = NO_PROBLEMS;
+		if (file.exists()) {
+			try {
+				for (final IMarker marker : file.findMarkers(IMarker.PROBLEM, true, IResource.DEPTH_ZERO)) {
+					severity = Math.max(severity, marker.getAttribute(IMarker.SEVERITY, IMarker.SEVERITY_INFO));
+				}
+			} catch (final CoreException e) {
+				Activator.getDefault().logError(e.getMessage(), e);
+			}
+		}
+		return severity;
+	}
+
+	@Override
+	public void resourceChanged(final IResourceChangeEvent event) {
+		final Set<IFile> changed = new LinkedHashSet<>();
+		for (final IMarkerDelta markerDelta : event.findMarkerDeltas(IMarker.PROBLEM, true)) {
+			final IResource resource = markerDelta.getResource();
+			if (resource instanceof IFile) {
+				changed.add((IFile) resource);
+			}
+		}
+		if (null != event.getDelta()) {
+			collectRemovedFiles(event.getDelta(), changed);
+		}
+
+		final List<IFile> updated = new ArrayList<>(changed.size());
+		for (final IFile file : changed) {
+			// a running lookup may have missed the change; the job stores the severity
+			// before it drops the file from the running lookups, so checking them in the
+			// opposite order never misses a change
+			if (runningLookups.contains(file)) {
+				requestLookup(file);
+				continue;
+			}
+			// only files somebody asked for are kept up to date
+			final Integer oldSeverity = severities.get(file);
+			if (null != oldSeverity) {
+				if (file.exists()) {
+					final Integer newSeverity = Integer.valueOf(lookup.applyAsInt(file));
+					severities.put(file, newSeverity);
+					if (!newSeverity.equals(oldSeverity)) {
+						updated.add(file);
+					}
+				} else {
+					severities.remove(file);
+				}
+			}
+		}
+		if (!updated.isEmpty()) {
+			listeners.forEach(listener -> listener.accept(updated));
+		}
+	}
+
+	private void collectRemovedFiles(final IResourceDelta delta, final Set<IFile> changed) {
+		if (severities.isEmpty() && runningLookups.isEmpty()) {
+			return;
+		}
+		try {
+			delta.accept(child -> {
+				if ((IResourceDelta.REMOVED == child.getKind()) && (child.getResource() instanceof IFile)) {
+					changed.add((IFile) child.getResource());
+				}
+				return true;
+			});
+		} catch (final CoreException e) {
+			Activator.getDefault().logError(e.getMessage(), e);
+		}
+	}
+
+	private class LookupJob extends Job {
+
+		public LookupJob() {
+			super(Messages.ProblemSeverityCache_LookUpProblemMarkers);
+			setSystem(true);
+		}
+
+		@Override
+		public boolean belongsTo(final Object family) {
+			return ProblemSeverityCache.this == family;
+		}
+
+		@Override
+		protected IStatus run(final IProgressMonitor monitor) {
+			final Set<IFile> files = new LinkedHashSet<>(pendingLookups);
+			runningLookups.addAll(files);
+			pendingLookups.removeAll(files);
+			final List<IFile> updated = new ArrayList<>();
+			try {
+				for (final IFile file : files) {
+					if (monitor.isCanceled()) {
+						return Status.CANCEL_STATUS;
+					}
+					final Integer severity = Integer.valueOf(lookup.applyAsInt(file));
+					final Integer oldSeverity = severities.put(file, severity);
+					runningLookups.remove(file);
+					// until now the file has been shown without problems
+					if (severity.intValue() != ((null != oldSeverity) ? oldSeverity.intValue() : NO_PROBLEMS)) {
+						updated.add(file);
+					}
+				}
+			} finally {
+				runningLookups.removeAll(files);
+				if (!updated.isEmpty()) {
+					listeners.forEach(listener -> listener.accept(updated));
+				}
+			}
+			return Status.OK_STATUS;
+		}
+	}
+}
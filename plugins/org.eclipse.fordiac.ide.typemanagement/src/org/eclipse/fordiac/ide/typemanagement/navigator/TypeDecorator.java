@@ -14,6 +14,8 @@ package org.eclipse.fordiac.ide.typemanagement.navigator;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.fordiac.ide.model.Palette.PaletteEntry;
+import org.eclipse.fordiac.ide.model.dataimport.TypeHeaderReader;
+import org.eclipse.fordiac.ide.model.dataimport.TypeHeaderReader.TypeHeader;
 import org.eclipse.fordiac.ide.model.typelibrary.TypeLibrary;
 import org.eclipse.jface.viewers.IDecoration;
 import org.eclipse.jface.viewers.ILabelProviderListener;
@@ -45,9 +47,13 @@ public class TypeDecorator implements ILightweightLabelDecorator {
 	@Override
 	public void decorate(Object element, IDecoration decoration) {
 		if (element instanceof IFile) {
-			PaletteEntry entry = TypeLibrary.getPaletteEntryForFile((IFile) element);
+			final PaletteEntry entry = TypeLibrary.getPaletteEntryForFile((IFile) element);
 			if (null != entry) {
-				decoration.addSuffix(" [" + entry.getType().getComment() + "]"); //$NON-NLS-1$ //$NON-NLS-2$
+				// the comment is taken from the file header so that the type does not need to be loaded
+				final TypeHeader header = TypeHeaderReader.getHeader((IFile) element);
+				if (null != header) {
+					decoration.addSuffix(" [" + header.getComment() + "]"); //$NON-NLS-1$ //$NON-NLS-2$
+				}
 			}
 		}
 	}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.typemanagement.navigator;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.jface.viewers.IDecoration;
+import org.eclipse.jface.viewers.ILabelProviderListener;
+import org.eclipse.jface.viewers.ILightweightLabelDecorator;
+import org.eclipse.jface.viewers.LabelProviderChangedEvent;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.ISharedImages;
+import org.eclipse.ui.PlatformUI;
+
+/**
+ * Adds an error or warning overlay to files with problem markers.
+ *
+ * The decorator is lightweight, so it is computed outside of the UI thread and
+ * only asks the {@link ProblemSeverityCache}. Files whose severity changed are
+ * collected and refreshed with a single label change event per UI cycle.
+ */
+public class TypeProblemDecorator implements ILightweightLabelDecorator {
+
+	private final ListenerList<ILabelProviderListener> listeners = new ListenerList<>();
+	private final Set<IFile> pendingFiles = new LinkedHashSet<>();
+	private final Consumer<Collection<IFile>> severityListener = this::severityChanged;
+	private final ProblemSeverityCache cache;
+
+	public TypeProblemDecorator() {
+		this(ProblemSeverityCache.getInstance());
+	}
+
+	/* for tests which need a cache of their own */
+	TypeProblemDecorator(final ProblemSeverityCache cache) {
+		this.cache = cache;
+		cache.addListener(severityListener);
+	}
+
+	@Override
+	public void addListener(final ILabelProviderListener listener) {
+		listeners.add(listener);
+	}
+
+	@Override
+	public void dispose() {
+		cache.removeListener(severityListener);
+		synchronized (pendingFiles) {
+			pendingFiles.clear();
+		}
+	}
+
+	@Override
+	public boolean isLabelProperty(final Object element, final String property) {
+		return false;
+	}
+
+	@Override
+	public void removeListener(final ILabelProviderListener listener) {
+		listeners.remove(listener);
+	}
+
+	@Override
+	public void decorate(final Object element, final IDecoration decoration) {
+		if (element instanceof IFile) {
+			switch (cache.getSeverity((IFile) element)) {
+			case IMarker.SEVERITY_ERROR:
+				decoration.addOverlay(PlatformUI.getWorkbench().getSharedImages()
+						.getImageDescriptor(ISharedImages.IMG_DEC_FIELD_ERROR), IDecoration.BOTTOM_LEFT);
+				break;
+			case IMarker.SEVERITY_WARNING:
+				decoration.addOverlay(PlatformUI.getWorkbench().getSharedImages()
+						.getImageDescriptor(ISharedImages.IMG_DEC_FIELD_WARNING), IDecoration.BOTTOM_LEFT);
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	private void severityChanged(final Collection<IFile> files) {
+		if (listeners.isEmpty()) {
+			return;
+		}
+		final boolean scheduled;
+		synchronized (pendingFiles) {
+			scheduled = !pendingFiles.isEmpty();
+			pendingFiles.addAll(files);
+		}
+		// a refresh which is already scheduled also takes the new files
+		if (!scheduled) {
+			Display.getDefault().asyncExec(this::fireLabelsChanged);
+		}
+	}
+
+	private void fireLabelsChanged() {
+		final Object[] files;
+		synchronized (pendingFiles) {
+			files = pendingFiles.toArray();
+			pendingFiles.clear();
+		}
+		if (0 < files.length) {
+			final LabelProviderChangedEvent event = new LabelProviderChangedEvent(this, files);
+			listeners.forEach(listener -> listener.labelProviderChanged(event));
+		}
+	}
+}
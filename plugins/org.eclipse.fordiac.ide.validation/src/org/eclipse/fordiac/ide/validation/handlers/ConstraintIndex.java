@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.validation.handlers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.ocl.ecore.Constraint;
+
+/**
+ * Groups OCL constraints by the class of their context, so that every model
+ * object only visits the constraints that apply to it.
+ *
+ * A constraint applies to the objects whose class has the same name as the
+ * context of the constraint. The classes are compared by name as the constraint
+ * files refer to their own copy of the model. Constraints of super classes are
+ * not inherited, the constraint files define separate invariants for sub
+ * classes (e.g., for CFBInstance and FB).
+ */
+public final class ConstraintIndex {
+
+	private final Map<String, List<Constraint>> constraintsByContext = new HashMap<>();
+	private final Map<EClass, List<Constraint>> constraintsByClass = new ConcurrentHashMap<>();
+	private final int size;
+
+	public ConstraintIndex(final List<Constraint> constraints) {
+		for (final Constraint constraint : constraints) {
+			constraintsByContext
+			.computeIfAbsent(constraint.getSpecification().getContextVariable().getType().getName(),
+					name -> new ArrayList<>())
+			.add(constraint);
+		}
+		size = constraints.size();
+	}
+
+	/** @return the constraints that have to be checked for objects of the class */
+	public List<Constraint> getConstraints(final EClass eClass) {
+		return constraintsByClass.computeIfAbsent(eClass, this::findConstraints);
+	}
+
+	/** @return the number of indexed constraints */
+	public int size() {
+		return size;
+	}
+
+	private List<Constraint> findConstraints(final EClass eClass) {
+		final List<Constraint> constraints = constraintsByContext.get(eClass.getName());
+		return (null != constraints) ? Collections.unmodifiableList(constraints) : Collections.emptyList();
+	}
+}
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.validation.handlers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.fordiac.ide.model.Palette.PaletteEntry;
+import org.eclipse.fordiac.ide.model.libraryElement.FBType;
+import org.eclipse.fordiac.ide.model.typelibrary.TypeLibrary;
+import org.eclipse.fordiac.ide.validation.Activator;
+import org.eclipse.ocl.ecore.EcoreEnvironmentFactory;
+import org.eclipse.ocl.ecore.OCL;
+
+/**
+ * Validates the FB types of a type library without user interface.
+ *
+ * Independent types are checked in parallel on a bounded pool, every worker
+ * uses its own OCL instance. The result of every type is remembered together
+ * with the hash of its type file, types that did not change since the last run
+ * of the same validator are skipped. The markers of all checked types are
+ * replaced in one workspace operation.
+ */
+public class LibraryValidator {
+
+	private static final String HASH_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
+	/** The outcome of validating a set of types */
+	public static final class Result {
+		private final Map<IFile, List<ValidationProblem>> problems = new LinkedHashMap<>();
+		private int checkedTypes;
+		private int skippedTypes;
+
+		/** @return the problems of all types by type file, including skipped ones */
+		public Map<IFile, List<ValidationProblem>> getProblems() {
+			return problems;
+		}
+
+		/** @return the number of types that were checked */
+		public int getCheckedTypes() {
+			return checkedTypes;
+		}
+
+		/** @return the number of unchanged types that were skipped */
+		public int getSkippedTypes() {
+			return skippedTypes;
+		}
+	}
+
+	private static final class CachedResult {
+		private final byte[] contentHash;
+		private final long constraintStamp;
+		private final List<ValidationProblem> problems;
+
+		private CachedResult(final byte[] contentHash, final long constraintStamp,
+				final List<ValidationProblem> problems) {
+			this.contentHash = contentHash;
+			this.constraintStamp = constraintStamp;
+			this.problems = Collections.unmodifiableList(problems);
+		}
+
+		private boolean isValid(final byte[] currentHash, final long currentStamp) {
+			return (null != currentHash) && (constraintStamp == currentStamp)
+					&& Arrays.equals(contentHash, currentHash);
+		}
+	}
+
+	private final int parallelism;
+	private final BlockingQueue<OCL> oclInstances;
+	private final Map<IFile, CachedResult> results = new ConcurrentHashMap<>();
+
+	public LibraryValidator() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public LibraryValidator(final int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+		oclInstances = new ArrayBlockingQueue<>(this.parallelism);
+		for (int i = 0; i < this.parallelism; i++) {
+			// OCL instances must not be shared between threads
+			oclInstances.add(OCL.newInstance(EcoreEnvironmentFactory.INSTANCE));
+		}
+	}
+
+	/** Validate all FB types of the given type library. */
+	public Result validate(final TypeLibrary typeLibrary, final IProgressMonitor monitor)
+			throws CoreException, InterruptedException {
+		return validate(typeLibrary.getBlockTypeLib().getFbTypes().values(), monitor);
+	}
+
+	/**
+	 * Validate the FB types of the given palette entries, other entries are
+	 * ignored.
+	 *
+	 * @param entries the palette entries of the types to validate
+	 * @param monitor progress monitor, can be null
+	 * @return the problems of all types
+	 * @throws CoreException        if the markers could not be updated
+	 * @throws InterruptedException if the validation was interrupted
+	 */
+	public Result validate(final Collection<? extends PaletteEntry> entries, final IProgressMonitor monitor)
+			throws CoreException, InterruptedException {
+		final SubMonitor subMonitor = SubMonitor.convert(monitor, (2 * entries.size()) + 1);
+		final Result result = new Result();
+		final Map<IFile, Future<CachedResult>> pending = new LinkedHashMap<>();
+		final ExecutorService executor = Executors
+				.newFixedThreadPool(Math.min(parallelism, Math.max(1, entries.size())));
+		try {
+			for (final PaletteEntry entry : entries) {
+				subMonitor.split(1);
+				final IFile file = entry.getFile();
+				// types are loaded on the calling thread, the workers only read the model
+				if ((null == file) || !(entry.getType() instanceof FBType)) {
+					continue;
+				}
+				final FBType type = (FBType) entry.getType();
+				final byte[] contentHash = hash(file);
+				final long constraintStamp = OCLParser.getConstraintStamp(type);
+				final CachedResult cached = results.get(file);
+				if ((null != cached) && cached.isValid(contentHash, constraintStamp)) {
+					result.getProblems().put(file, cached.problems);
+					result.skippedTypes++;
+				} else {
+					pending.put(file, executor.submit(() -> check(type, contentHash, constraintStamp)));
+				}
+			}
+
+			final Map<IFile, List<ValidationProblem>> changedProblems = new LinkedHashMap<>();
+			for (final Map.Entry<IFile, Future<CachedResult>> entry : pending.entrySet()) {
+				subMonitor.split(1);
+				final CachedResult checked = getChecked(entry.getValue());
+				if (null == checked) {
+					results.remove(entry.getKey());
+					continue;
+				}
+				results.put(entry.getKey(), checked);
+				changedProblems.put(entry.getKey(), checked.problems);
+				result.getProblems().put(entry.getKey(), checked.problems);
+				result.checkedTypes++;
+			}
+			ValidationHelper.replaceMarkers(changedProblems, subMonitor.split(1));
+		} finally {
+			executor.shutdownNow();
+		}
+		return result;
+	}
+
+	/** Forget all remembered results, all types are checked on the next run. */
+	public void clear() {
+		results.clear();
+	}
+
+	private CachedResult check(final FBType type, final byte[] contentHash, final long constraintStamp)
+			throws InterruptedException {
+		final OCL ocl = oclInstances.take();
+		try {
+			return new CachedResult(contentHash, constraintStamp,
+					ValidationHelper.check(type, ocl, OCLParser.loadConstraintIndex(type, ocl), null));
+		} finally {
+			oclInstances.add(ocl);
+		}
+	}
+
+	private static CachedResult getChecked(final Future<CachedResult> future) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (final ExecutionException e) {
+			// a type that cannot be checked must not stop the validation of the others
+			Activator.getDefault().logError(e.getCause().getMessage(), e.getCause());
+			return null;
+		}
+	}
+
+	private static byte[] hash(final IFile file) throws CoreException {
+		final MessageDigest digest = createDigest();
+		try (InputStream in = new DigestInputStream(file.getContents(true), digest)) {
+			in.transferTo(OutputStream.nullOutputStream());
+		} catch (final IOException e) {
+			// without hash the type is checked again on the next run
+			return null;
+		}
+		return digest.digest();
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance(HASH_ALGORITHM);
+		} catch (final NoSuchAlgorithmException e) {
+			// every Java platform has to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
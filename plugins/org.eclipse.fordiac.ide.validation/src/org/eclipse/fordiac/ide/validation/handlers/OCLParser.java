@@ -12,11 +12,15 @@
  *******************************************************************************/
 package org.eclipse.fordiac.ide.validation.handlers;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IPath;
@@ -29,29 +33,166 @@ import org.eclipse.fordiac.ide.validation.Activator;
 import org.eclipse.ocl.OCLInput;
 import org.eclipse.ocl.ParserException;
 import org.eclipse.ocl.ecore.Constraint;
+import org.eclipse.ocl.ecore.OCL;
 import org.osgi.framework.Bundle;
 
-public class OCLParser {
+/**
+ * Loads the OCL constraints used for validating an element.
+ *
+ * The constraint files are parsed only once per OCL instance and the parsed
+ * constraints are shared by all validation runs. They are parsed again only if
+ * the constraint file or the bundle containing it changed. A file which could
+ * not be parsed is remembered as having no constraints until it changes.
+ */
+public final class OCLParser {
 	private static final String CONSTRAINT_DIRECTORY = "constraints"; //$NON-NLS-1$
 	private static final String CONSTRAINT_FILE_FBTYPE = "ECC.ocl"; //$NON-NLS-1$
 	private static final String CONSTRAINT_FILE_APP = "FB.ocl"; //$NON-NLS-1$
+	private static final String FILE_PROTOCOL = "file"; //$NON-NLS-1$
+	private static final long NO_CONSTRAINTS_STAMP = -1;
+
+	/** The parsed constraints of one constraint file */
+	private static final class ConstraintSet {
+		private final long stamp;
+		private final List<Constraint> constraints;
+		private final ConstraintIndex index;
+
+		private ConstraintSet(final long stamp, final List<Constraint> constraints) {
+			this.stamp = stamp;
+			this.constraints = Collections.unmodifiableList(constraints);
+			this.index = new ConstraintIndex(this.constraints);
+		}
+	}
+
+	/** The location of a constraint file and the stamp of its current content */
+	private static final class ConstraintFile {
+		private final String name;
+		private final URL url;
+		private final long stamp;
+
+		private ConstraintFile(final String name, final URL url, final long stamp) {
+			this.name = name;
+			this.url = url;
+			this.stamp = stamp;
+		}
+	}
+
+	private static final ConstraintSet EMPTY_SET = new ConstraintSet(NO_CONSTRAINTS_STAMP, Collections.emptyList());
+
+	// constraints can only be checked with the OCL instance that parsed them
+	private static final Map<OCL, Map<String, ConstraintSet>> constraintSets = new WeakHashMap<>();
 
 	private OCLParser() {
+		throw new UnsupportedOperationException();
 	}
 
+	/**
+	 * @return the unmodifiable list of constraints for the given element, the list
+	 *         is empty if there are no constraints for this kind of element
+	 */
 	public static List<Constraint> loadOCLConstraints(final INamedElement element) {
-		String constraintFile;
-		final List<Constraint> constraints = new ArrayList<>();
+		return loadConstraintSet(element, Activator.getDefault().getOclInstance()).constraints;
+	}
+
+	/**
+	 * @return the constraints for the given element grouped by the class of their
+	 *         context
+	 */
+	public static ConstraintIndex loadConstraintIndex(final INamedElement element) {
+		return loadConstraintIndex(element, Activator.getDefault().getOclInstance());
+	}
+
+	/**
+	 * Load the constraints for checking the given element with another OCL
+	 * instance than the one of the plug-in. As OCL instances must not be shared
+	 * between threads every thread checking elements needs its own instance.
+	 *
+	 * @return the constraints for the given element grouped by the class of their
+	 *         context
+	 */
+	public static ConstraintIndex loadConstraintIndex(final INamedElement element, final OCL ocl) {
+		return loadConstraintSet(element, ocl).index;
+	}
+
+	/**
+	 * @return a stamp that changes whenever the constraints for the given element
+	 *         change
+	 */
+	static long getConstraintStamp(final INamedElement element) {
+		final ConstraintFile constraintFile = findConstraintFile(element);
+		return (null != constraintFile) ? constraintFile.stamp : NO_CONSTRAINTS_STAMP;
+	}
+
+	/** Forget all parsed constraints, they are parsed again on the next use */
+	static synchronized void clearCache() {
+		constraintSets.clear();
+	}
+
+	private static ConstraintSet loadConstraintSet(final INamedElement element, final OCL ocl) {
+		final ConstraintFile constraintFile = findConstraintFile(element);
+		if (null == constraintFile) {
+			return EMPTY_SET;
+		}
+		final ConstraintSet constraintSet = getCached(ocl, constraintFile);
+		if (null != constraintSet) {
+			return constraintSet;
+		}
+		return parse(ocl, constraintFile);
+	}
+
+	private static synchronized ConstraintSet getCached(final OCL ocl, final ConstraintFile constraintFile) {
+		final ConstraintSet constraintSet = constraintSets.computeIfAbsent(ocl, o -> new HashMap<>())
+				.get(constraintFile.name);
+		return ((null != constraintSet) && (constraintSet.stamp == constraintFile.stamp)) ? constraintSet : null;
+	}
+
+	private static synchronized ConstraintSet parse(final OCL ocl, final ConstraintFile constraintFile) {
+		// another validation run may have parsed the file in the meantime
+		final ConstraintSet constraintSet = getCached(ocl, constraintFile);
+		if (null != constraintSet) {
+			return constraintSet;
+		}
+		ConstraintSet parsed;
+		try (InputStream in = constraintFile.url.openStream()) {
+			final OCLInput document = new OCLInput(in);
+			parsed = new ConstraintSet(constraintFile.stamp, ocl.parse(document));
+		} catch (final ParserException | IOException e) {
+			Activator.getDefault().logError(e.getMessage(), e);
+			// remember the failure so that a broken file is not parsed and reported on every validation run
+			parsed = new ConstraintSet(constraintFile.stamp, Collections.emptyList());
+		}
+		constraintSets.get(ocl).put(constraintFile.name, parsed);
+		return parsed;
+	}
+
+	private static ConstraintFile findConstraintFile(final INamedElement element) {
+		final String constraintFile = getOCLFile(element);
+		if (null == constraintFile) {
+			return null;
+		}
 		final Bundle bundle = Activator.getDefault().getBundle();
-		constraintFile = getOCLFile(element);
 		final URL url = FileLocator.find(bundle, new Path(CONSTRAINT_DIRECTORY + IPath.SEPARATOR + constraintFile));
-		try (InputStream in = FileLocator.toFileURL(url).openStream()) {
-			final OCLInput document = new OCLInput(in);
-			constraints.addAll(Activator.getDefault().getOclInstance().parse(document));
-		} catch (ParserException | IOException e) {
+		if (null == url) {
+			return null;
+		}
+		try {
+			final URL fileUrl = FileLocator.toFileURL(url);
+			return new ConstraintFile(constraintFile, fileUrl, getStamp(bundle, fileUrl));
+		} catch (final IOException e) {
 			Activator.getDefault().logError(e.getMessage(), e);
 		}
-		return constraints;
+		return null;
+	}
+
+	private static long getStamp(final Bundle bundle, final URL fileUrl) {
+		if (FILE_PROTOCOL.equals(fileUrl.getProtocol())) {
+			// constraint files may be edited in place when running from the workspace
+			final long lastModified = new File(fileUrl.getPath()).lastModified();
+			if (0 != lastModified) {
+				return lastModified;
+			}
+		}
+		return bundle.getLastModified();
 	}
 
 	private static String getOCLFile(final INamedElement element) {
@@ -15,6 +15,7 @@ package org.eclipse.fordiac.ide.validation.handlers;
 import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.fordiac.ide.model.Palette.FBTypePaletteEntry;
 import org.eclipse.fordiac.ide.model.Palette.PaletteEntry;
 import org.eclipse.fordiac.ide.model.libraryElement.INamedElement;
@@ -25,8 +26,12 @@ import org.eclipse.ui.handlers.HandlerUtil;
 public class ValidationHandler extends AbstractHandler {
 	@Override
 	public Object execute(ExecutionEvent event) throws org.eclipse.core.commands.ExecutionException {
-		INamedElement selectedElement = getSelectedElement(
-				(StructuredSelection) HandlerUtil.getCurrentSelection(event));
+		final StructuredSelection selection = (StructuredSelection) HandlerUtil.getCurrentSelection(event);
+		if (selection.getFirstElement() instanceof IProject) {
+			ValidationHelper.validateLibrary((IProject) selection.getFirstElement());
+			return null;
+		}
+		INamedElement selectedElement = getSelectedElement(selection);
 		ValidationHelper.validate(selectedElement);
 		return null;
 	}
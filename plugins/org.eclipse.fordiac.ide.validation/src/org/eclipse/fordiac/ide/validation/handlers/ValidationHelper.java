@@ -15,20 +15,24 @@
 package org.eclipse.fordiac.ide.validation.handlers;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
-import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.emf.common.util.TreeIterator;
-import org.eclipse.emf.ecore.EClassifier;
 import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.EParameter;
 import org.eclipse.fordiac.ide.model.libraryElement.Application;
 import org.eclipse.fordiac.ide.model.libraryElement.Connection;
 import org.eclipse.fordiac.ide.model.libraryElement.ECC;
@@ -41,12 +45,15 @@ import org.eclipse.fordiac.ide.model.libraryElement.FBType;
 import org.eclipse.fordiac.ide.model.libraryElement.INamedElement;
 import org.eclipse.fordiac.ide.model.libraryElement.SubApp;
 import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
+import org.eclipse.fordiac.ide.model.typelibrary.TypeLibrary;
 import org.eclipse.fordiac.ide.validation.Activator;
 import org.eclipse.ocl.ecore.Constraint;
-import org.eclipse.ocl.expressions.Variable;
+import org.eclipse.ocl.ecore.OCL;
 
 public final class ValidationHelper {
 
+	private static final int OBJECT_PROGRESS_TICKS = 1000;
+
 	private static class OCLJob extends Job {
 		private final INamedElement namedElement;
 
@@ -57,191 +64,197 @@ public final class ValidationHelper {
 
 		@Override
 		protected IStatus run(final IProgressMonitor monitor) {
-			final SubMonitor subMonitor = SubMonitor.convert(monitor);
-
-			final int count = countObjects(subMonitor);
+			final SubMonitor subMonitor = SubMonitor.convert(monitor, 2);
 
-			final List<Constraint> constraints = OCLParser.loadOCLConstraints(namedElement);
-			subMonitor.setWorkRemaining(count * constraints.size());
+			final ConstraintIndex constraints = OCLParser.loadConstraintIndex(namedElement);
 
 			if (subMonitor.isCanceled()) {
 				return Status.CANCEL_STATUS;
 			}
 
-			final IResource iresource = getFile(namedElement);
-			clearErrorMarkers(iresource);
-
-
-			for (final TreeIterator<?> iterator = namedElement.eAllContents(); iterator.hasNext();) {
-				final EObject object = (EObject) iterator.next();
-				for (final Constraint constraint : constraints) {
-					subMonitor.split(1);
-					if (subMonitor.isCanceled()) {
-						return Status.CANCEL_STATUS;
-					}
-					final String objectName = object.eClass().getName();
-
-					final Variable<EClassifier, EParameter> context = constraint.getSpecification()
-							.getContextVariable();
-					final String contextName = (context.getType().getName());
-					if ((contextName.equals(objectName))
-							&& (!Activator.getDefault().getOclInstance().check(object, constraint))) {
-						try {
-							final String[] properties = ConstraintHelper
-									.getConstraintProperties(constraint.getName());
-							addValidationMarker(iresource, properties[0], properties[1],
-									createHierarchicalName(object), object.hashCode());
-						} catch (final CoreException e) {
-							Activator.getDefault().logError(e.getMessage(), e);
-						}
-						subMonitor.setTaskName(MessageFormat.format("{0}: {1}", createHierarchicalName(object),
-								constraint.getName()));
-					}
-				}
-			}
-			return Status.OK_STATUS;
-		}
-
-		private static void clearErrorMarkers(final IResource iresource) {
 			try {
+				final List<ValidationProblem> problems = check(namedElement,
+						Activator.getDefault().getOclInstance(), constraints, subMonitor.split(1));
+				final IResource iresource = getFile(namedElement);
 				if (iresource != null) {
-					iresource.deleteMarkers(IValidationMarker.TYPE, true, IResource.DEPTH_INFINITE);
+					replaceMarkers(Collections.singletonMap(iresource, problems), subMonitor.split(1));
 				}
+			} catch (final OperationCanceledException e) {
+				return Status.CANCEL_STATUS;
 			} catch (final CoreException e) {
-				Activator.getDefault().logError(e.getMessage(), e); // $NON-NLS-1$
+				Activator.getDefault().logError(e.getMessage(), e);
 			}
+			return Status.OK_STATUS;
 		}
+	}
 
-		private int countObjects(final SubMonitor subMonitor) {
-			int count = 0;
-			for (final TreeIterator<?> iterator = namedElement.eAllContents(); iterator.hasNext();) {
-				iterator.next();
-				if (subMonitor.isCanceled()) {
-					return -1;
-				}
-				count++;
-			}
-			return count;
+	private static class LibraryJob extends Job {
+		private final IProject project;
+
+		public LibraryJob(final String jobName, final IProject project) {
+			super(jobName);
+			this.project = project;
 		}
 
-		private static void addValidationMarker(final IResource iresource, final String message, final String severity,
-				final String location, final int lineNumber) throws CoreException {
-			if (iresource == null) {
-				return;
+		@Override
+		protected IStatus run(final IProgressMonitor monitor) {
+			try {
+				getLibraryValidator().validate(TypeLibrary.getTypeLibrary(project), monitor);
+			} catch (final OperationCanceledException e) {
+				return Status.CANCEL_STATUS;
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return Status.CANCEL_STATUS;
+			} catch (final CoreException e) {
+				Activator.getDefault().logError(e.getMessage(), e);
 			}
+			return Status.OK_STATUS;
+		}
+	}
+
+	private static LibraryValidator libraryValidator;
 
-			final IMarker imarker = iresource.createMarker(IValidationMarker.TYPE);
-			imarker.setAttribute(IMarker.MESSAGE, message);
-			switch (severity) {
-			case "ERROR": //$NON-NLS-1$
-				imarker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
-				break;
-			case "WARNING": //$NON-NLS-1$
-				imarker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
-				break;
-			case "INFO": //$NON-NLS-1$
-				imarker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_INFO);
-				break;
-			default:
-				imarker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_INFO);
-				break;
+	/**
+	 * Check all objects contained in the given element.
+	 *
+	 * @param element     the element to check
+	 * @param ocl         the OCL instance that parsed the constraints
+	 * @param constraints the constraints for the element
+	 * @param monitor     progress monitor, can be null
+	 * @return the violated constraints
+	 */
+	static List<ValidationProblem> check(final INamedElement element, final OCL ocl,
+			final ConstraintIndex constraints, final IProgressMonitor monitor) {
+		final SubMonitor subMonitor = SubMonitor.convert(monitor);
+		final List<ValidationProblem> problems = new ArrayList<>();
+		for (final TreeIterator<?> iterator = element.eAllContents(); iterator.hasNext();) {
+			// the number of objects is not known in advance, report infinite progress
+			subMonitor.setWorkRemaining(OBJECT_PROGRESS_TICKS).split(1);
+			final EObject object = (EObject) iterator.next();
+			for (final Constraint constraint : constraints.getConstraints(object.eClass())) {
+				if (!ocl.check(object, constraint)) {
+					final String[] properties = ConstraintHelper.getConstraintProperties(constraint.getName());
+					problems.add(new ValidationProblem(properties[0], properties[1], createHierarchicalName(object),
+							object.hashCode()));
+					subMonitor.setTaskName(
+							MessageFormat.format("{0}: {1}", createHierarchicalName(object), constraint.getName()));
+				}
 			}
-			imarker.setAttribute(IMarker.LOCATION, location);
-			imarker.setAttribute(IMarker.LINE_NUMBER, Integer.valueOf(lineNumber));
 		}
+		return problems;
+	}
 
-		private static IResource getFile(final INamedElement element) {
-			if (element instanceof FBType) {
-				return ((FBType) element).getPaletteEntry().getFile();
+	/**
+	 * Replace the validation markers of the given resources in one workspace
+	 * operation, so that only one resource change event is sent for all of them.
+	 */
+	static void replaceMarkers(final Map<? extends IResource, List<ValidationProblem>> problems,
+			final IProgressMonitor monitor) throws CoreException {
+		ResourcesPlugin.getWorkspace().run(runMonitor -> {
+			final SubMonitor subMonitor = SubMonitor.convert(runMonitor, problems.size());
+			for (final Map.Entry<? extends IResource, List<ValidationProblem>> entry : problems.entrySet()) {
+				final IResource iresource = entry.getKey();
+				if (iresource.exists()) {
+					iresource.deleteMarkers(IValidationMarker.TYPE, true, IResource.DEPTH_INFINITE);
+					for (final ValidationProblem problem : entry.getValue()) {
+						problem.createMarker(iresource);
+					}
+				}
+				subMonitor.worked(1);
 			}
+		}, null, IWorkspace.AVOID_UPDATE, monitor);
+	}
 
-			if (element instanceof Application || element instanceof SubApp) {
-				return ((Application) element).getAutomationSystem().getSystemFile();
-			}
-			return null;
+	private static IResource getFile(final INamedElement element) {
+		if (element instanceof FBType) {
+			return ((FBType) element).getPaletteEntry().getFile();
 		}
 
-		private static String createHierarchicalName(final EObject object) {
-			// We have to cover all possible context of the constraints
-			if (object instanceof VarDeclaration) {
-				final VarDeclaration varDeclaration = (VarDeclaration) object;
-				final FBNetworkElement element = varDeclaration.getFBNetworkElement();
-				final EObject runner = element.getFbNetwork().eContainer();
-				final StringBuilder builder = new StringBuilder(getApplicationHierarchy(runner));
-				builder.append('.');
-				builder.append(element.getName());
-				builder.append('.');
-				builder.append(varDeclaration.getName());
-				return builder.toString();
-			} else if (object instanceof Connection) {
-				final StringBuilder builder = new StringBuilder(
-						createHierarchicalName(((Connection) object).getSource()));
-				builder.append(" -> "); //$NON-NLS-1$
-				builder.append(createHierarchicalName(((Connection) object).getDestination()));
-				return builder.toString();
-			} else if (object instanceof FBNetwork) {
-				final FBNetwork element = (FBNetwork) object;
-				final EObject runner = element.eContainer();
-				final StringBuilder builder = new StringBuilder(getApplicationHierarchy(runner));
-				return builder.toString();
-			} else if (object instanceof FBNetworkElement) {
-				final FBNetworkElement element = (FBNetworkElement) object;
-				final EObject runner = element.getFbNetwork().eContainer();
-				final StringBuilder builder = new StringBuilder(getApplicationHierarchy(runner));
-				builder.append('.');
-				builder.append(element.getName());
-				return builder.toString();
-			} else if (object instanceof Event) {
-				final Event event = (Event) object;
-				final FBNetworkElement element = event.getFBNetworkElement();
-				final EObject runner = element.getFbNetwork().eContainer();
-				final StringBuilder builder = new StringBuilder(getApplicationHierarchy(runner));
-				builder.append('.');
-				builder.append(element.getName());
-				builder.append('.');
-				builder.append(event.getName());
-				return builder.toString();
-			} else if (object instanceof ECState) {
-				final ECState state = (ECState) object;
-				final StringBuilder builder = new StringBuilder("ECC"); //$NON-NLS-1$
-				builder.append('.');
-				builder.append(state.getName());
-				return builder.toString();
-			} else if (object instanceof ECC) {
-				final StringBuilder builder = new StringBuilder("ECC"); //$NON-NLS-1$
-				return builder.toString();
-			} else if (object instanceof ECTransition) {
-				final ECTransition transition = (ECTransition) object;
-				final StringBuilder builder = new StringBuilder("ECC"); //$NON-NLS-1$
-				builder.append('.');
-				builder.append(
-						"Transition X:" + transition.getPosition().getX() + " Y:" + transition.getPosition().getY()); //$NON-NLS-1$ //$NON-NLS-2$
-				return builder.toString();
-			} else {
-				return object.toString();
-			}
+		if (element instanceof Application || element instanceof SubApp) {
+			return ((Application) element).getAutomationSystem().getSystemFile();
 		}
+		return null;
+	}
 
-		private static String getApplicationHierarchy(EObject runner) {
-			final StringBuilder builder = new StringBuilder();
-			while (runner instanceof SubApp) {
-				final SubApp parent = (SubApp) runner;
-				builder.insert(0, '.');
-				builder.insert(0, parent.getName());
-				runner = parent.getFbNetwork().eContainer();
-			}
-			if (runner instanceof Application) {
-				builder.insert(0, '.');
-				builder.insert(0, ((Application) runner).getName());
-			}
-			int lastIndex = builder.length();
-			lastIndex = lastIndex == 0 ? 0 : lastIndex - 1;
-			if (builder.charAt(lastIndex) == '.') {
-				builder.deleteCharAt(lastIndex);
-			}
+	private static String createHierarchicalName(final EObject object) {
+		// We have to cover all possible context of the constraints
+		if (object instanceof VarDeclaration) {
+			final VarDeclaration varDeclaration = (VarDeclaration) object;
+			final FBNetworkElement element = varDeclaration.getFBNetworkElement();
+			final EObject runner = element.getFbNetwork().eContainer();
+			final StringBuilder builder = new StringBuilder(getApplicationHierarchy(runner));
+			builder.append('.');
+			builder.append(element.getName());
+			builder.append('.');
+			builder.append(varDeclaration.getName());
+			return builder.toString();
+		} else if (object instanceof Connection) {
+			final StringBuilder builder = new StringBuilder(
+					createHierarchicalName(((Connection) object).getSource()));
+			builder.append(" -> "); //$NON-NLS-1$
+			builder.append(createHierarchicalName(((Connection) object).getDestination()));
+			return builder.toString();
+		} else if (object instanceof FBNetwork) {
+			final FBNetwork element = (FBNetwork) object;
+			final EObject runner = element.eContainer();
+			final StringBuilder builder = new StringBuilder(getApplicationHierarchy(runner));
+			return builder.toString();
+		} else if (object instanceof FBNetworkElement) {
+			final FBNetworkElement element = (FBNetworkElement) object;
+			final EObject runner = element.getFbNetwork().eContainer();
+			final StringBuilder builder = new StringBuilder(getApplicationHierarchy(runner));
+			builder.append('.');
+			builder.append(element.getName());
 			return builder.toString();
+		} else if (object instanceof Event) {
+			final Event event = (Event) object;
+			final FBNetworkElement element = event.getFBNetworkElement();
+			final EObject runner = element.getFbNetwork().eContainer();
+			final StringBuilder builder = new StringBuilder(getApplicationHierarchy(runner));
+			builder.append('.');
+			builder.append(element.getName());
+			builder.append('.');
+			builder.append(event.getName());
+			return builder.toString();
+		} else if (object instanceof ECState) {
+			final ECState state = (ECState) object;
+			final StringBuilder builder = new StringBuilder("ECC"); //$NON-NLS-1$
+			builder.append('.');
+			builder.append(state.getName());
+			return builder.toString();
+		} else if (object instanceof ECC) {
+			final StringBuilder builder = new StringBuilder("ECC"); //$NON-NLS-1$
+			return builder.toString();
+		} else if (object instanceof ECTransition) {
+			final ECTransition transition = (ECTransition) object;
+			final StringBuilder builder = new StringBuilder("ECC"); //$NON-NLS-1$
+			builder.append('.');
+			builder.append(
+					"Transition X:" + transition.getPosition().getX() + " Y:" + transition.getPosition().getY()); //$NON-NLS-1$ //$NON-NLS-2$
+			return builder.toString();
+		} else {
+			return object.toString();
 		}
+	}
 
+	private static String getApplicationHierarchy(EObject runner) {
+		final StringBuilder builder = new StringBuilder();
+		while (runner instanceof SubApp) {
+			final SubApp parent = (SubApp) runner;
+			builder.insert(0, '.');
+			builder.insert(0, parent.getName());
+			runner = parent.getFbNetwork().eContainer();
+		}
+		if (runner instanceof Application) {
+			builder.insert(0, '.');
+			builder.insert(0, ((Application) runner).getName());
+		}
+		int lastIndex = builder.length();
+		lastIndex = lastIndex == 0 ? 0 : lastIndex - 1;
+		if (builder.charAt(lastIndex) == '.') {
+			builder.deleteCharAt(lastIndex);
+		}
+		return builder.toString();
 	}
 
 	public static void validate(final INamedElement namedElement) {
@@ -249,6 +262,22 @@ public final class ValidationHelper {
 		job.schedule();
 	}
 
+	/**
+	 * Validate all FB types of the project, types that did not change since the
+	 * last validation of the project are skipped.
+	 */
+	public static void validateLibrary(final IProject project) {
+		final Job job = new LibraryJob("OCL library validation", project);
+		job.schedule();
+	}
+
+	private static synchronized LibraryValidator getLibraryValidator() {
+		if (null == libraryValidator) {
+			libraryValidator = new LibraryValidator();
+		}
+		return libraryValidator;
+	}
+
 	private ValidationHelper() {
 		throw new UnsupportedOperationException();
 	}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.validation.handlers;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+
+/** A violated OCL constraint, it is shown to the user as validation marker. */
+public final class ValidationProblem {
+	private final String message;
+	private final int severity;
+	private final String location;
+	private final int lineNumber;
+
+	ValidationProblem(final String message, final String severity, final String location, final int lineNumber) {
+		this.message = message;
+		this.severity = parseSeverity(severity);
+		this.location = location;
+		this.lineNumber = lineNumber;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	/** @return the marker severity, e.g., {@link IMarker#SEVERITY_ERROR} */
+	public int getSeverity() {
+		return severity;
+	}
+
+	public String getLocation() {
+		return location;
+	}
+
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	void createMarker(final IResource iresource) throws CoreException {
+		final IMarker imarker = iresource.createMarker(IValidationMarker.TYPE);
+		imarker.setAttribute(IMarker.MESSAGE, message);
+		imarker.setAttribute(IMarker.SEVERITY, severity);
+		imarker.setAttribute(IMarker.LOCATION, location);
+		imarker.setAttribute(IMarker.LINE_NUMBER, Integer.valueOf(lineNumber));
+	}
+
+	private static int parseSeverity(final String severity) {
+		switch (severity) {
+		case "ERROR": //$NON-NLS-1$
+			return IMarker.SEVERITY_ERROR;
+		case "WARNING": //$NON-NLS-1$
+			return IMarker.SEVERITY_WARNING;
+		case "INFO": //$NON-NLS-1$
+			return IMarker.SEVERITY_INFO;
+		default:
+			return IMarker.SEVERITY_INFO;
+		}
+	}
+}
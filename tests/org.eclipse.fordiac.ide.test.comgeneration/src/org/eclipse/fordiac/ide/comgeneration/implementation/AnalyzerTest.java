@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.comgeneration.implementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.fordiac.ide.model.libraryElement.Device;
+import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
+import org.eclipse.fordiac.ide.model.libraryElement.Link;
+import org.junit.jupiter.api.Test;
+
+public class AnalyzerTest {
+
+	private static final int DEVICES = 8;
+	private static final int SEGMENTS = 3;
+	private static final int CONNECTIONS = 40;
+
+	private static final int DEVICE_PAIRS = DEVICES * (DEVICES - 1);
+	private static final int LARGE_SYSTEM = 10 * DEVICE_PAIRS;
+
+	@Test
+	public void channelsAndMediaMatchTheSystem() {
+		final SyntheticSystem system = new SyntheticSystem(DEVICES, SEGMENTS, CONNECTIONS);
+		final CommunicationModel model = new Analyzer().analyze(system.getApplication());
+
+		assertEquals(CONNECTIONS, model.getChannels().size());
+		for (final CommunicationChannel channel : model.getChannels().values()) {
+			assertFalse(channel.isLocal());
+			assertEquals(1, channel.getDestinations().size());
+			final CommunicationChannelDestination destination = channel.getDestinations().iterator().next();
+			assertEquals(2, destination.getConnection().size());
+
+			final List<IInterfaceElement> eventPorts = destination.getDestinationPorts().get(Integer.valueOf(-1));
+			assertEquals(1, eventPorts.size());
+			assertSame(destination.getDestinationResource(), eventPorts.get(0).getFBNetworkElement().getResource());
+			assertEquals("IN", destination.getDestinationPorts().get(Integer.valueOf(0)).get(0).getName()); //$NON-NLS-1$
+
+			assertMedia(destination);
+		}
+	}
+
+	// compare with all pairs of links of both devices on the same segment
+	private static void assertMedia(final CommunicationChannelDestination destination) {
+		final Device sourceDevice = destination.getCommunicationChannel().getSourceResource().getDevice();
+		final Device destinationDevice = destination.getDestinationResource().getDevice();
+		int index = 0;
+		for (final Link sourceLink : sourceDevice.getInConnections()) {
+			for (final Link destinationLink : destinationDevice.getInConnections()) {
+				if (sourceLink.getSegment() == destinationLink.getSegment()) {
+					final CommunicationMediaInfo media = destination.getAvailableMedia().get(index++);
+					assertSame(sourceLink, media.getSourceLink());
+					assertSame(destinationLink, media.getDestinationLink());
+					assertSame(sourceLink.getSegment(), media.getSegment());
+				}
+			}
+		}
+		assertEquals(index, destination.getAvailableMedia().size());
+	}
+
+	@Test
+	public void repeatedAnalysisSeesSystemChanges() {
+		final SyntheticSystem system = new SyntheticSystem(DEVICES, SEGMENTS, CONNECTIONS);
+		final Analyzer analyzer = new Analyzer();
+		analyzer.analyze(system.getApplication());
+
+		// unlink all devices, no media can be found any more
+		system.getDevices().forEach(device -> device.getInConnections().clear());
+		final CommunicationModel model = analyzer.analyze(system.getApplication());
+		assertTrue(model.getChannels().values().stream().flatMap(channel -> channel.getDestinations().stream())
+				.allMatch(destination -> destination.getAvailableMedia().isEmpty()));
+	}
+
+	@Test
+	public void mediaAreSharedPerDevicePairWithinARun() {
+		final SyntheticSystem system = new SyntheticSystem(DEVICES, SEGMENTS, LARGE_SYSTEM);
+		final Analyzer analyzer = new Analyzer();
+		final Map<List<Device>, List<CommunicationMediaInfo>> firstRun = getMediaByDevicePair(
+				analyzer.analyze(system.getApplication()));
+		// every pair of devices is connected many times
+		assertEquals(DEVICE_PAIRS, firstRun.size());
+
+		final Map<List<Device>, List<CommunicationMediaInfo>> secondRun = getMediaByDevicePair(
+				analyzer.analyze(system.getApplication()));
+		firstRun.forEach((devices, media) -> {
+			assertEquals(media.size(), secondRun.get(devices).size());
+			for (int i = 0; i < media.size(); i++) {
+				// the media are searched again in every run
+				assertNotSame(media.get(i), secondRun.get(devices).get(i));
+			}
+		});
+	}
+
+	/* all destinations between the same devices get the same media objects */
+	private static Map<List<Device>, List<CommunicationMediaInfo>> getMediaByDevicePair(
+			final CommunicationModel model) {
+		final Map<List<Device>, List<CommunicationMediaInfo>> mediaByDevicePair = new HashMap<>();
+		for (final CommunicationChannel channel : model.getChannels().values()) {
+			for (final CommunicationChannelDestination destination : channel.getDestinations()) {
+				final List<Device> devices = Arrays.asList(channel.getSourceResource().getDevice(),
+						destination.getDestinationResource().getDevice());
+				final List<CommunicationMediaInfo> media = mediaByDevicePair.putIfAbsent(devices,
+						destination.getAvailableMedia());
+				if (null != media) {
+					assertEquals(media.size(), destination.getAvailableMedia().size());
+					for (int i = 0; i < media.size(); i++) {
+						assertSame(media.get(i), destination.getAvailableMedia().get(i));
+					}
+				}
+			}
+		}
+		return mediaByDevicePair;
+	}
+
+	@Test
+	public void repeatedAnalysisSeesInterfaceChanges() {
+		final SyntheticSystem system = new SyntheticSystem(DEVICES, SEGMENTS, CONNECTIONS);
+		final Analyzer analyzer = new Analyzer();
+		analyzer.analyze(system.getApplication());
+
+		// rename the data inputs of the mapped receivers, they can not be found by name any more
+		system.getDevices().forEach(device -> device.getResource().get(0).getFBNetwork().getNetworkElements()
+				.forEach(element -> element.getInterface().getInputVars().get(0).setName("RENAMED"))); //$NON-NLS-1$
+		final CommunicationModel model = analyzer.analyze(system.getApplication());
+		for (final CommunicationChannel channel : model.getChannels().values()) {
+			for (final CommunicationChannelDestination destination : channel.getDestinations()) {
+				assertNull(destination.getDestinationPorts().get(Integer.valueOf(0)).get(0));
+			}
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.comgeneration.implementation;
+
+import static org.eclipse.fordiac.ide.test.infra.FBNetworkTestHelper.connect;
+import static org.eclipse.fordiac.ide.test.infra.FBNetworkTestHelper.getDataOutput;
+import static org.eclipse.fordiac.ide.test.infra.FBNetworkTestHelper.getEventOutput;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.fordiac.ide.model.libraryElement.Application;
+import org.eclipse.fordiac.ide.model.libraryElement.Device;
+import org.eclipse.fordiac.ide.model.libraryElement.FB;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.Link;
+import org.eclipse.fordiac.ide.model.libraryElement.Mapping;
+import org.eclipse.fordiac.ide.model.libraryElement.Resource;
+import org.eclipse.fordiac.ide.model.libraryElement.Segment;
+import org.eclipse.fordiac.ide.model.libraryElement.With;
+import org.eclipse.fordiac.ide.test.infra.FBNetworkTestHelper;
+
+/**
+ * Generates a distributed system for testing the communication generation.
+ *
+ * Every device has one resource and is linked to two neighbouring segments.
+ * Every connection consists of an event and a data connection from a sender FB
+ * to a receiver FB, both are mapped to resources of different devices.
+ */
+final class SyntheticSystem {
+
+	private static final LibraryElementFactory FACTORY = LibraryElementFactory.eINSTANCE;
+
+	private final List<Device> devices = new ArrayList<>();
+	private final List<Segment> segments = new ArrayList<>();
+	private final Application application = FACTORY.createApplication();
+
+	/**
+	 * @param deviceCount     the number of devices, at least two
+	 * @param segmentCount    the number of segments, at least one
+	 * @param connectionCount the number of connections between resources
+	 */
+	SyntheticSystem(final int deviceCount, final int segmentCount, final int connectionCount) {
+		for (int i = 0; i < segmentCount; i++) {
+			final Segment segment = FACTORY.createSegment();
+			segment.setName("Segment" + i); //$NON-NLS-1$
+			segments.add(segment);
+		}
+		for (int i = 0; i < deviceCount; i++) {
+			devices.add(createDevice(i));
+		}
+		application.setName("App"); //$NON-NLS-1$
+		application.setFBNetwork(FACTORY.createFBNetwork());
+		for (int i = 0; i < connectionCount; i++) {
+			final Device source = devices.get(i % deviceCount);
+			// never the source device
+			final Device destination = devices.get((i + 1 + ((i / deviceCount) % (deviceCount - 1))) % deviceCount);
+			createConnection(i, source.getResource().get(0), destination.getResource().get(0));
+		}
+	}
+
+	Application getApplication() {
+		return application;
+	}
+
+	List<Device> getDevices() {
+		return devices;
+	}
+
+	private Device createDevice(final int index) {
+		final Device device = FACTORY.createDevice();
+		device.setName("Device" + index); //$NON-NLS-1$
+		final Resource resource = FACTORY.createResource();
+		resource.setName("Resource"); //$NON-NLS-1$
+		resource.setFBNetwork(FACTORY.createFBNetwork());
+		device.getResource().add(resource);
+		link(device, segments.get(index % segments.size()));
+		if (segments.size() > 1) {
+			link(device, segments.get((index + 1) % segments.size()));
+		}
+		return device;
+	}
+
+	private static void link(final Device device, final Segment segment) {
+		final Link link = FACTORY.createLink();
+		link.setSegment(segment);
+		link.setDevice(device);
+	}
+
+	private void createConnection(final int index, final Resource sourceResource,
+			final Resource destinationResource) {
+		final FB sender = createMappedFB("Sender" + index, sourceResource); //$NON-NLS-1$
+		final FB receiver = createMappedFB("Receiver" + index, destinationResource); //$NON-NLS-1$
+		connect(application.getFBNetwork(), sender, receiver);
+	}
+
+	private FB createMappedFB(final String name, final Resource resource) {
+		final FB fb = createFB(name, application.getFBNetwork());
+		final FB mappedFB = createFB(name, resource.getFBNetwork());
+		final Mapping mapping = FACTORY.createMapping();
+		mapping.setFrom(fb);
+		mapping.setTo(mappedFB);
+		fb.setMapping(mapping);
+		mappedFB.setMapping(mapping);
+		return fb;
+	}
+
+	/* the data output is sent with the event output */
+	private static FB createFB(final String name, final FBNetwork network) {
+		final FB fb = FBNetworkTestHelper.createFB(network, name);
+		final With with = FACTORY.createWith();
+		with.setVariables(getDataOutput(fb));
+		getEventOutput(fb).getWith().add(with);
+		return fb;
+	}
+}
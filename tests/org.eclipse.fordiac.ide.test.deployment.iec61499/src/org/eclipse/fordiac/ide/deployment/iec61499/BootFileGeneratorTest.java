@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.deployment.iec61499;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.fordiac.ide.deployment.BootFileGenerator;
+import org.eclipse.fordiac.ide.deployment.exceptions.DeploymentException;
+import org.eclipse.fordiac.ide.model.libraryElement.Device;
+import org.eclipse.fordiac.ide.model.libraryElement.Resource;
+import org.eclipse.fordiac.ide.test.infra.DeploymentTestSystem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BootFileGeneratorTest {
+
+	private static final String PROFILE = "HOLOBLOC"; //$NON-NLS-1$
+	private static final String GOLDEN_FILE = "Plant_Dev0.fboot"; //$NON-NLS-1$
+	private static final int DEVICE_COUNT = 8;
+	private static final int FB_COUNT = 2000;
+
+	private static DeploymentTestSystem createSystem(final int deviceCount, final int fbCount, final String profile) {
+		return new DeploymentTestSystem(deviceCount, fbCount, profile, false);
+	}
+
+	private static byte[] readGoldenFile() throws IOException {
+		try (InputStream in = BootFileGeneratorTest.class.getResourceAsStream(GOLDEN_FILE)) {
+			assertNotNull(in, GOLDEN_FILE);
+			return in.readAllBytes();
+		}
+	}
+
+	@Test
+	public void bootFileMatchesGoldenFile(@TempDir final Path output) throws Exception {
+		final DeploymentTestSystem plant = createSystem(1, 2, PROFILE);
+		final Device device = plant.getDevice(0);
+		final Path file = output.resolve(BootFileGenerator.getFileName(device));
+
+		BootFileGenerator.write(plant.getResources(device), file);
+
+		assertEquals(GOLDEN_FILE, file.getFileName().toString());
+		assertArrayEquals(readGoldenFile(), Files.readAllBytes(file));
+	}
+
+	@Test
+	public void repeatedRunsProduceIdenticalFiles(@TempDir final Path first, @TempDir final Path second)
+			throws Exception {
+		final DeploymentTestSystem plant = createSystem(1, FB_COUNT, PROFILE);
+		final Device device = plant.getDevice(0);
+		final Path firstFile = first.resolve(BootFileGenerator.getFileName(device));
+		final Path secondFile = second.resolve(BootFileGenerator.getFileName(device));
+
+		BootFileGenerator.write(plant.getResources(device), firstFile);
+		BootFileGenerator.write(plant.getResources(device), secondFile);
+
+		assertArrayEquals(Files.readAllBytes(firstFile), Files.readAllBytes(secondFile));
+	}
+
+	@Test
+	public void devicesAreWrittenInParallel(@TempDir final Path parallel, @TempDir final Path sequential)
+			throws Exception {
+		final DeploymentTestSystem plant = createSystem(DEVICE_COUNT, FB_COUNT, PROFILE);
+
+		for (final Map.Entry<Device, List<Resource>> entry : plant.getDevices().entrySet()) {
+			BootFileGenerator.write(entry.getValue(), sequential.resolve(BootFileGenerator.getFileName(entry.getKey())));
+		}
+
+		final List<Path> files = BootFileGenerator.writeAll(plant.getDevices(), parallel);
+
+		assertEquals(DEVICE_COUNT, files.size());
+		for (int i = 0; i < DEVICE_COUNT; i++) {
+			final String fileName = BootFileGenerator.getFileName(plant.getDevice(i));
+			assertEquals(parallel.resolve(fileName), files.get(i));
+			assertArrayEquals(Files.readAllBytes(sequential.resolve(fileName)), Files.readAllBytes(files.get(i)),
+					fileName);
+		}
+	}
+
+	@Test
+	public void failedDeploymentKeepsTheExistingFile(@TempDir final Path output) throws Exception {
+		final DeploymentTestSystem plant = createSystem(1, 2, "UNKNOWN"); //$NON-NLS-1$
+		final Device device = plant.getDevice(0);
+		final Path file = output.resolve(BootFileGenerator.getFileName(device));
+		final byte[] existing = { 1, 2, 3 };
+		Files.write(file, existing);
+
+		assertThrows(DeploymentException.class, () -> BootFileGenerator.write(plant.getResources(device), file));
+		assertArrayEquals(existing, Files.readAllBytes(file));
+		try (Stream<Path> files = Files.list(output)) {
+			assertEquals(Arrays.asList(file), files.collect(Collectors.toList()));
+		}
+	}
+
+	@Test
+	public void failedDeploymentCreatesNoFile(@TempDir final Path output) throws Exception {
+		final DeploymentTestSystem plant = createSystem(1, 2, "UNKNOWN"); //$NON-NLS-1$
+		final Device device = plant.getDevice(0);
+		final Path file = output.resolve(BootFileGenerator.getFileName(device));
+
+		assertThrows(DeploymentException.class, () -> BootFileGenerator.write(plant.getResources(device), file));
+		try (Stream<Path> files = Files.list(output)) {
+			assertEquals(0, files.count());
+		}
+	}
+}
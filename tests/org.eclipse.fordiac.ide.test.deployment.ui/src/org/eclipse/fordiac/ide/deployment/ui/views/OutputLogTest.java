@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.deployment.ui.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Iterator;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.source.AnnotationModel;
+import org.junit.jupiter.api.Test;
+
+public class OutputLogTest {
+
+	private static final int MESSAGE_COUNT = 100000;
+	private static final int MESSAGES_PER_UPDATE = 500;
+	private static final int MAX_LINES = 5000;
+
+	private static final String COMMAND = "<Request ID=\"%d\" Action=\"CREATE\"><FB Name=\"FB%d\" Type=\"E_SR\" /></Request>"; //$NON-NLS-1$
+	private static final String RESPONSE = "<Response ID=\"%d\" />"; //$NON-NLS-1$
+	private static final String ERROR_RESPONSE = "<Response ID=\"1\" Reason=\"NO_SUCH_OBJECT\" />"; //$NON-NLS-1$
+
+	@Test
+	public void messagesAreFormattedWithoutDOM() {
+		final OutputLog log = new OutputLog();
+		log.addCommand("create", String.format(COMMAND, Integer.valueOf(1), Integer.valueOf(1))); //$NON-NLS-1$
+		final String text = log.takeUpdate().getAppendedText();
+		assertTrue(text.contains("<!-- create -->\n<Request ID=\"1\" Action=\"CREATE\">\n\t<FB Name=\"FB1\"")); //$NON-NLS-1$
+		assertTrue(text.endsWith("\n</Request>")); //$NON-NLS-1$
+		assertNull(log.takeUpdate());
+	}
+
+	@Test
+	public void onlyNewTextIsAppended() throws BadLocationException {
+		final OutputLog log = new OutputLog();
+		final Document document = new Document();
+		log.addResponse(String.format(RESPONSE, Integer.valueOf(1)));
+		log.takeUpdate().apply(document);
+		final String first = document.get();
+
+		log.addResponse(String.format(RESPONSE, Integer.valueOf(2)));
+		final OutputLog.Update update = log.takeUpdate();
+		assertEquals(0, update.getRemovedLength());
+		update.apply(document);
+		assertEquals(first + update.getAppendedText(), document.get());
+	}
+
+	@Test
+	public void largeLogIsBoundedAndStreamed() throws BadLocationException {
+		final OutputLog log = new OutputLog(MAX_LINES);
+		final Document document = new Document();
+		int updates = 0;
+		for (int i = 0; i < MESSAGE_COUNT; i++) {
+			log.addCommand("create", String.format(COMMAND, Integer.valueOf(i), Integer.valueOf(i))); //$NON-NLS-1$
+			log.addResponse(String.format(RESPONSE, Integer.valueOf(i)));
+			if (0 == (i % MESSAGES_PER_UPDATE)) {
+				log.takeUpdate().apply(document);
+				updates++;
+			}
+		}
+		log.takeUpdate().apply(document);
+		updates++;
+		// all messages since the last update are handed over at once
+		assertNull(log.takeUpdate());
+		assertEquals((MESSAGE_COUNT / MESSAGES_PER_UPDATE) + 1, updates);
+
+		assertTrue(document.getNumberOfLines() <= MAX_LINES);
+		assertEquals(log.getLineCount(), document.getNumberOfLines());
+		final int lastId = MESSAGE_COUNT - 1;
+		assertTrue(document.get().endsWith(String.format(RESPONSE, Integer.valueOf(lastId))));
+		assertTrue(document.get().contains(String.format("<FB Name=\"FB%d\"", Integer.valueOf(lastId)))); //$NON-NLS-1$
+	}
+
+	@Test
+	public void burstLargerThanTheLimitKeepsTheNewestLines() throws BadLocationException {
+		final OutputLog log = new OutputLog(MAX_LINES);
+		final Document document = new Document();
+		log.addResponse(String.format(RESPONSE, Integer.valueOf(0)));
+		log.takeUpdate().apply(document);
+		final int firstLength = document.getLength();
+		for (int i = 1; i <= (2 * MAX_LINES); i++) {
+			log.addResponse(String.format(RESPONSE, Integer.valueOf(i)));
+		}
+		// the whole burst is one update, which removes the old text only once
+		final OutputLog.Update update = log.takeUpdate();
+		assertEquals(firstLength, update.getRemovedLength());
+		update.apply(document);
+		assertNull(log.takeUpdate());
+		assertTrue(document.getNumberOfLines() <= MAX_LINES);
+		assertEquals(log.getLineCount(), document.getNumberOfLines());
+		assertTrue(document.get().endsWith(String.format(RESPONSE, Integer.valueOf(2 * MAX_LINES))));
+	}
+
+	@Test
+	public void errorsAreStillAnnotated() throws BadLocationException {
+		final OutputLog log = new OutputLog(MAX_LINES);
+		final Document document = new Document();
+		final AnnotationModel annotationModel = new AnnotationModel();
+		annotationModel.connect(document);
+		document.addDocumentListener(new LogListener(annotationModel));
+
+		log.addResponse(ERROR_RESPONSE);
+		log.takeUpdate().apply(document);
+		assertEquals(1, countAnnotations(annotationModel));
+
+		// trimming old lines must not create annotations
+		for (int i = 0; i < (2 * MAX_LINES); i++) {
+			log.addResponse(String.format(RESPONSE, Integer.valueOf(i)));
+		}
+		log.takeUpdate().apply(document);
+		log.addResponse(ERROR_RESPONSE);
+		log.takeUpdate().apply(document);
+		// the first error has been trimmed together with its annotation
+		assertEquals(1, countAnnotations(annotationModel));
+	}
+
+	private static int countAnnotations(final AnnotationModel annotationModel) {
+		int count = 0;
+		for (final Iterator<?> iterator = annotationModel.getAnnotationIterator(); iterator.hasNext();) {
+			iterator.next();
+			count++;
+		}
+		return count;
+	}
+}
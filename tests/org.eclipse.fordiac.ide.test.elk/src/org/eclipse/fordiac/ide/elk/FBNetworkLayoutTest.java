@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.elk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.fordiac.ide.elk.commands.LayoutCommand;
+import org.eclipse.fordiac.ide.model.FordiacKeywords;
+import org.eclipse.fordiac.ide.model.LibraryElementTags;
+import org.eclipse.fordiac.ide.model.libraryElement.CompositeFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.Connection;
+import org.eclipse.fordiac.ide.model.libraryElement.DataConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.Event;
+import org.eclipse.fordiac.ide.model.libraryElement.EventConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.FB;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
+import org.eclipse.fordiac.ide.model.libraryElement.InterfaceList;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.SubApp;
+import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
+import org.junit.jupiter.api.Test;
+
+public class FBNetworkLayoutTest {
+
+	private static final int CHAINS = 50;
+	private static final int CHAIN_LENGTH = 40;
+
+	private static Event createEvent(final String name, final boolean input) {
+		final Event event = LibraryElementFactory.eINSTANCE.createEvent();
+		event.setName(name);
+		event.setIsInput(input);
+		return event;
+	}
+
+	private static VarDeclaration createVar(final String name, final boolean input) {
+		final VarDeclaration var = LibraryElementFactory.eINSTANCE.createVarDeclaration();
+		var.setName(name);
+		var.setIsInput(input);
+		return var;
+	}
+
+	private static InterfaceList createInterface() {
+		final InterfaceList interfaceList = LibraryElementFactory.eINSTANCE.createInterfaceList();
+		interfaceList.getEventInputs().add(createEvent("REQ", true)); //$NON-NLS-1$
+		interfaceList.getEventOutputs().add(createEvent("CNF", false)); //$NON-NLS-1$
+		interfaceList.getInputVars().add(createVar("IN1", true)); //$NON-NLS-1$
+		interfaceList.getInputVars().add(createVar("IN2", true)); //$NON-NLS-1$
+		interfaceList.getOutputVars().add(createVar("OUT", false)); //$NON-NLS-1$
+		return interfaceList;
+	}
+
+	private static FB createFB(final FBNetwork network, final String name) {
+		final FB fb = LibraryElementFactory.eINSTANCE.createFB();
+		fb.setName(name);
+		fb.setInterface(createInterface());
+		fb.setPosition(LibraryElementFactory.eINSTANCE.createPosition());
+		network.getNetworkElements().add(fb);
+		return fb;
+	}
+
+	private static void connectEvents(final FBNetwork network, final IInterfaceElement source,
+			final IInterfaceElement destination) {
+		final EventConnection connection = LibraryElementFactory.eINSTANCE.createEventConnection();
+		connection.setSource(source);
+		connection.setDestination(destination);
+		network.getEventConnections().add(connection);
+	}
+
+	private static void connectData(final FBNetwork network, final IInterfaceElement source,
+			final IInterfaceElement destination) {
+		final DataConnection connection = LibraryElementFactory.eINSTANCE.createDataConnection();
+		connection.setSource(source);
+		connection.setDestination(destination);
+		network.getDataConnections().add(connection);
+	}
+
+	private static void connect(final FBNetwork network, final FB source, final FB destination, final String input) {
+		connectEvents(network, source.getInterface().getEventOutputs().get(0),
+				destination.getInterface().getEventInputs().get(0));
+		connectData(network, source.getInterface().getOutputVars().get(0), destination.getInterface().getVariable(input));
+	}
+
+	/* chains of FBs where every FB is also connected to the next FB of the neighbouring chain */
+	private static FBNetwork createNetwork() {
+		final FBNetwork network = LibraryElementFactory.eINSTANCE.createFBNetwork();
+		final FB[][] fbs = new FB[CHAINS][CHAIN_LENGTH];
+		for (int chain = 0; chain < CHAINS; chain++) {
+			for (int i = 0; i < CHAIN_LENGTH; i++) {
+				fbs[chain][i] = createFB(network, "FB_" + chain + "_" + i); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		for (int chain = 0; chain < CHAINS; chain++) {
+			for (int i = 1; i < CHAIN_LENGTH; i++) {
+				connect(network, fbs[chain][i - 1], fbs[chain][i], "IN1"); //$NON-NLS-1$
+				if (chain > 0) {
+					connectData(network, fbs[chain - 1][i - 1].getInterface().getOutputVars().get(0),
+							fbs[chain][i].getInterface().getVariable("IN2")); //$NON-NLS-1$
+				}
+			}
+		}
+		return network;
+	}
+
+	private static List<Connection> getConnections(final FBNetwork network) {
+		final List<Connection> connections = new ArrayList<>();
+		connections.addAll(network.getEventConnections());
+		connections.addAll(network.getDataConnections());
+		return connections;
+	}
+
+	private static Rectangle getBounds(final FBNetworkElement element) {
+		final Dimension size = FBNetworkLayout.estimateSize(element);
+		return new Rectangle(element.getPosition().getX(), element.getPosition().getY(), size.width, size.height);
+	}
+
+	@Test
+	public void blockSizeIsEstimatedFromTheInterface() {
+		final FB fb = createFB(LibraryElementFactory.eINSTANCE.createFBNetwork(), "FB"); //$NON-NLS-1$
+		final Dimension size = FBNetworkLayout.estimateSize(fb);
+		// instance name, one event line, type name, two data lines
+		assertEquals(6 * FBNetworkLayout.LINE_HEIGHT, size.height);
+		assertEquals(FBNetworkLayout.MIN_WIDTH, size.width);
+
+		fb.getInterface().getInputVars().add(createVar("A_VERY_LONG_INPUT_NAME", true)); //$NON-NLS-1$
+		final Dimension larger = FBNetworkLayout.estimateSize(fb);
+		assertEquals(7 * FBNetworkLayout.LINE_HEIGHT, larger.height);
+		assertTrue(larger.width > size.width);
+	}
+
+	@Test
+	public void largeNetworkIsLaidOutWithoutOverlaps() {
+		final FBNetwork network = createNetwork();
+		final List<Connection> connections = getConnections(network);
+
+		final LayoutCommand command = FBNetworkLayout.createLayoutCommand(network);
+		command.execute();
+
+		final List<Rectangle> bounds = new ArrayList<>();
+		network.getNetworkElements().forEach(element -> bounds.add(getBounds(element)));
+		for (int i = 0; i < bounds.size(); i++) {
+			for (int j = i + 1; j < bounds.size(); j++) {
+				assertFalse(bounds.get(i).intersects(bounds.get(j)),
+						network.getNetworkElements().get(i).getName() + " overlaps " //$NON-NLS-1$
+								+ network.getNetworkElements().get(j).getName());
+			}
+		}
+		// the network is acyclic, so all connections go from left to right
+		for (final Connection connection : connections) {
+			assertNotNull(connection.getRoutingData());
+			assertTrue(connection.getSourceElement().getPosition().getX() < connection.getDestinationElement()
+					.getPosition().getX());
+		}
+	}
+
+	@Test
+	public void layoutCanBeUndone() {
+		final FBNetwork network = createNetwork();
+		final LayoutCommand command = FBNetworkLayout.createLayoutCommand(network);
+		// the network is only changed by the command
+		network.getNetworkElements().forEach(element -> assertEquals(0, element.getPosition().getX()));
+
+		command.execute();
+		final FBNetworkElement last = network.getNetworkElements().get(network.getNetworkElements().size() - 1);
+		final int x = last.getPosition().getX();
+		assertTrue(x > 0);
+
+		command.undo();
+		network.getNetworkElements().forEach(element -> {
+			assertEquals(0, element.getPosition().getX());
+			assertEquals(0, element.getPosition().getY());
+		});
+		getConnections(network).forEach(connection -> assertNull(connection.getRoutingData()));
+
+		command.redo();
+		assertEquals(x, last.getPosition().getX());
+	}
+
+	@Test
+	public void compositeInterfaceAndUnfoldedSubAppsAreLaidOut() {
+		final CompositeFBType type = LibraryElementFactory.eINSTANCE.createCompositeFBType();
+		type.setName("Composite"); //$NON-NLS-1$
+		type.setInterfaceList(createInterface());
+		final FBNetwork network = LibraryElementFactory.eINSTANCE.createFBNetwork();
+		type.setFBNetwork(network);
+
+		final SubApp subApp = LibraryElementFactory.eINSTANCE.createSubApp();
+		subApp.setName("SubApp"); //$NON-NLS-1$
+		subApp.setInterface(createInterface());
+		subApp.setPosition(LibraryElementFactory.eINSTANCE.createPosition());
+		subApp.setAttribute(LibraryElementTags.SUBAPP_REPRESENTATION_ATTRIBUTE, "STRING", "true", ""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		subApp.setSubAppNetwork(LibraryElementFactory.eINSTANCE.createFBNetwork());
+		final FB inner = createFB(subApp.getSubAppNetwork(), "Inner"); //$NON-NLS-1$
+		network.getNetworkElements().add(subApp);
+		final FB outer = createFB(network, "Outer"); //$NON-NLS-1$
+
+		connectEvents(network, type.getInterfaceList().getEventInputs().get(0),
+				subApp.getInterface().getEventInputs().get(0));
+		connectEvents(subApp.getSubAppNetwork(), subApp.getInterface().getEventInputs().get(0),
+				inner.getInterface().getEventInputs().get(0));
+		connectEvents(subApp.getSubAppNetwork(), inner.getInterface().getEventOutputs().get(0),
+				subApp.getInterface().getEventOutputs().get(0));
+		connectEvents(network, subApp.getInterface().getEventOutputs().get(0),
+				outer.getInterface().getEventInputs().get(0));
+		connectEvents(network, outer.getInterface().getEventOutputs().get(0),
+				type.getInterfaceList().getEventOutputs().get(0));
+
+		FBNetworkLayout.createLayoutCommand(network).execute();
+
+		// the content of the unfolded subapp is placed inside of it
+		assertTrue(inner.getPosition().getX() > subApp.getPosition().getX());
+		assertTrue(inner.getPosition().getY() > subApp.getPosition().getY());
+		assertTrue(subApp.getPosition().getX() < outer.getPosition().getX());
+		assertTrue(inner.getPosition().getX() < outer.getPosition().getX());
+		getConnections(subApp.getSubAppNetwork()).forEach(connection -> assertNotNull(connection.getRoutingData()));
+		getConnections(network).forEach(connection -> assertNotNull(connection.getRoutingData()));
+		// the pins of the type's interface get their position in the sidebar
+		type.getInterfaceList().getAllInterfaceElements()
+				.forEach(ie -> assertNotNull(ie.getAttribute(FordiacKeywords.INTERFACE_Y_POSITION)));
+	}
+}
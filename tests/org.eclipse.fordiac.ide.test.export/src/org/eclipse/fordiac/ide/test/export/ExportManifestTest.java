@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.test.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.fordiac.ide.export.utils.DelayedFiles;
+import org.eclipse.fordiac.ide.export.utils.ExportManifest;
+import org.eclipse.fordiac.ide.model.Palette.FBTypePaletteEntry;
+import org.eclipse.fordiac.ide.model.Palette.PaletteFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ExportManifestTest {
+
+	private static final String TYPE_KEY = "/project/Type.fbt"; //$NON-NLS-1$
+	private static final String SOURCE_HASH = "0123"; //$NON-NLS-1$
+	private static final String CONTENT = "int main() {}"; //$NON-NLS-1$
+	private static final String EXPORTER = "TestExporter"; //$NON-NLS-1$
+
+	@TempDir
+	Path destination;
+
+	@Test
+	public void unchangedFilesAreNotWritten() throws IOException {
+		final Path file = destination.resolve("Type.cpp"); //$NON-NLS-1$
+		final DelayedFiles files = new DelayedFiles();
+		files.write(file, CONTENT);
+		files.write(true);
+		final FileTime written = FileTime.fromMillis(0);
+		Files.setLastModifiedTime(file, written);
+
+		files.write(file, CONTENT);
+		files.removeUnchanged();
+		files.write(true);
+		assertEquals(written, Files.getLastModifiedTime(file));
+
+		files.write(file, CONTENT + " "); //$NON-NLS-1$
+		files.removeUnchanged();
+		files.write(true);
+		assertTrue(Files.readString(file, StandardCharsets.UTF_8).startsWith(CONTENT + " ")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void streamedContentIsWrittenLikeCharSequenceContent() throws IOException {
+		final Path buffered = destination.resolve("Buffered.cpp"); //$NON-NLS-1$
+		final Path streamed = destination.resolve("Streamed.cpp"); //$NON-NLS-1$
+		final DelayedFiles files = new DelayedFiles();
+		files.write(buffered, CONTENT);
+		try (Writer out = files.open(streamed)) {
+			out.append("int main() "); //$NON-NLS-1$
+			out.append("{}"); //$NON-NLS-1$
+		}
+		files.write(true);
+		assertEquals(CONTENT + System.lineSeparator(), Files.readString(streamed, StandardCharsets.UTF_8));
+		assertEquals(Files.readString(buffered, StandardCharsets.UTF_8),
+				Files.readString(streamed, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void writtenFilesGetDefaultPermissions() throws IOException {
+		assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix")); //$NON-NLS-1$
+		final Path reference = destination.resolve("Reference.cpp"); //$NON-NLS-1$
+		Files.newOutputStream(reference).close();
+		final Path streamed = destination.resolve("Streamed.cpp"); //$NON-NLS-1$
+		final DelayedFiles files = new DelayedFiles();
+		try (Writer out = files.open(streamed)) {
+			out.append(CONTENT);
+		}
+		files.write(true);
+		assertEquals(Files.getPosixFilePermissions(reference), Files.getPosixFilePermissions(streamed));
+	}
+
+	@Test
+	public void failedWriteDiscardsPreparedFiles() throws IOException {
+		final DelayedFiles files = new DelayedFiles();
+		files.write(destination.resolve("missing").resolve("Type.cpp"), CONTENT); //$NON-NLS-1$ //$NON-NLS-2$
+		files.write(destination.resolve("Type.h"), CONTENT); //$NON-NLS-1$
+		assertThrows(IOException.class, () -> files.write(true));
+		assertTrue(files.getFilenames().isEmpty());
+		assertFalse(Files.exists(destination.resolve("Type.h"))); //$NON-NLS-1$
+	}
+
+	@Test
+	public void manifestDetectsChangedSourcesAndFiles() throws IOException {
+		final Path file = destination.resolve("Type.h"); //$NON-NLS-1$
+		final DelayedFiles files = new DelayedFiles();
+		files.write(file, CONTENT);
+		final Map<Path, String> hashes = files.getContentHashes();
+		files.write(true);
+
+		final ExportManifest manifest = ExportManifest.load(destination);
+		assertFalse(manifest.isUpToDate(TYPE_KEY, SOURCE_HASH));
+		manifest.update(TYPE_KEY, SOURCE_HASH, hashes);
+		manifest.save();
+
+		final ExportManifest reloaded = ExportManifest.load(destination);
+		assertTrue(reloaded.isUpToDate(TYPE_KEY, SOURCE_HASH));
+		assertFalse(reloaded.isUpToDate(TYPE_KEY, "4567")); //$NON-NLS-1$
+
+		// a generated file modified by hand has to be generated again
+		Files.writeString(file, "modified", StandardCharsets.UTF_8); //$NON-NLS-1$
+		assertFalse(reloaded.isUpToDate(TYPE_KEY, SOURCE_HASH));
+	}
+
+	@Test
+	public void unsavedChangesChangeTheSourceHash() throws CoreException, IOException {
+		final IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject("ExportManifestTest"); //$NON-NLS-1$
+		project.create(null);
+		project.open(null);
+		try {
+			final BasicFBType type = LibraryElementFactory.eINSTANCE.createBasicFBType();
+			type.setName("Type"); //$NON-NLS-1$
+			type.setInterfaceList(LibraryElementFactory.eINSTANCE.createInterfaceList());
+			final IFile file = project.getFile("Type.fbt"); //$NON-NLS-1$
+			file.create(new ByteArrayInputStream(
+					"<FBType Name=\"Type\"><BasicFB/></FBType>".getBytes(StandardCharsets.UTF_8)), true, null); //$NON-NLS-1$
+			final FBTypePaletteEntry entry = PaletteFactory.eINSTANCE.createFBTypePaletteEntry();
+			entry.setFile(file);
+			entry.setType(type);
+
+			final String sourceHash = ExportManifest.computeSourceHash(type, EXPORTER);
+			assertEquals(sourceHash, ExportManifest.computeSourceHash(type, EXPORTER));
+
+			// an edit in an editor changes the type in memory, the type file stays the same
+			type.setComment("edited"); //$NON-NLS-1$
+			assertNotEquals(sourceHash, ExportManifest.computeSourceHash(type, EXPORTER));
+		} finally {
+			project.delete(true, null);
+		}
+	}
+}
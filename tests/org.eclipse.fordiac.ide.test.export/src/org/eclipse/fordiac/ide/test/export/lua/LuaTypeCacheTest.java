@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.test.export.lua;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.fordiac.ide.export.forte_lua.LuaTypeCache;
+import org.eclipse.fordiac.ide.model.Palette.AdapterTypePaletteEntry;
+import org.eclipse.fordiac.ide.model.Palette.FBTypePaletteEntry;
+import org.eclipse.fordiac.ide.model.Palette.PaletteEntry;
+import org.eclipse.fordiac.ide.model.Palette.PaletteFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.AdapterDeclaration;
+import org.eclipse.fordiac.ide.model.libraryElement.AdapterType;
+import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.CompositeFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.FB;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElement;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LuaTypeCacheTest {
+
+	private static final int TYPE_COUNT = 50;
+	private static final int DEVICE_COUNT = 40;
+
+	private IProject project;
+
+	/* counts how often the source of each type is generated */
+	private static final class CountingGenerator {
+		private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+		private final AtomicInteger total = new AtomicInteger();
+
+		private String generate(final LibraryElement type) {
+			total.incrementAndGet();
+			final int call = calls.computeIfAbsent(type.getName(), name -> new AtomicInteger()).incrementAndGet();
+			return "-- " + type.getName() + " generation " + call; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	@BeforeEach
+	public void createProject() throws CoreException {
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject("LuaTypeCacheTest"); //$NON-NLS-1$
+		project.create(null);
+		project.open(null);
+	}
+
+	@AfterEach
+	public void deleteProject() throws CoreException {
+		project.delete(true, null);
+	}
+
+	private IFile createFile(final String name, final String content) throws CoreException {
+		return createFile(project, name, content);
+	}
+
+	private static IFile createFile(final IProject container, final String name, final String content)
+			throws CoreException {
+		final IFile file = container.getFile(name);
+		file.create(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), true, null);
+		return file;
+	}
+
+	private static void register(final PaletteEntry entry, final LibraryElement type, final IFile file) {
+		entry.setFile(file);
+		entry.setType(type);
+		// the type in memory is the current one, it is not loaded from the file again
+		entry.setLastModificationTimestamp(file.getModificationStamp());
+	}
+
+	private AdapterType createAdapterType(final String name) throws CoreException {
+		final AdapterType type = LibraryElementFactory.eINSTANCE.createAdapterType();
+		type.setName(name);
+		type.setAdapterFBType(LibraryElementFactory.eINSTANCE.createAdapterFBType());
+		type.getAdapterFBType().setName(name);
+		type.getAdapterFBType().setInterfaceList(LibraryElementFactory.eINSTANCE.createInterfaceList());
+		register(PaletteFactory.eINSTANCE.createAdapterTypePaletteEntry(), type,
+				createFile(name + ".adp", "<AdapterType Name=\"" + name + "\"/>")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		return type;
+	}
+
+	private BasicFBType createBasicFBType(final String name, final AdapterType socketType) throws CoreException {
+		return createBasicFBType(project, name, socketType);
+	}
+
+	private static BasicFBType createBasicFBType(final IProject container, final String name,
+			final AdapterType socketType) throws CoreException {
+		final BasicFBType type = LibraryElementFactory.eINSTANCE.createBasicFBType();
+		type.setName(name);
+		type.setInterfaceList(LibraryElementFactory.eINSTANCE.createInterfaceList());
+		if (null != socketType) {
+			final AdapterDeclaration socket = LibraryElementFactory.eINSTANCE.createAdapterDeclaration();
+			socket.setName("SOCKET"); //$NON-NLS-1$
+			socket.setPaletteEntry((AdapterTypePaletteEntry) socketType.getPaletteEntry());
+			type.getInterfaceList().getSockets().add(socket);
+		}
+		register(PaletteFactory.eINSTANCE.createFBTypePaletteEntry(), type,
+				createFile(container, name + ".fbt", "<FBType Name=\"" + name + "\"><BasicFB/></FBType>")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		return type;
+	}
+
+	private CompositeFBType createCompositeFBType(final String name, final BasicFBType contained)
+			throws CoreException {
+		final CompositeFBType type = LibraryElementFactory.eINSTANCE.createCompositeFBType();
+		type.setName(name);
+		type.setInterfaceList(LibraryElementFactory.eINSTANCE.createInterfaceList());
+		type.setFBNetwork(LibraryElementFactory.eINSTANCE.createFBNetwork());
+		final FB fb = LibraryElementFactory.eINSTANCE.createFB();
+		fb.setName("FB1"); //$NON-NLS-1$
+		fb.setPaletteEntry((FBTypePaletteEntry) contained.getPaletteEntry());
+		fb.setInterface(contained.getInterfaceList().copy());
+		fb.setPosition(LibraryElementFactory.eINSTANCE.createPosition());
+		type.getFBNetwork().getNetworkElements().add(fb);
+		register(PaletteFactory.eINSTANCE.createFBTypePaletteEntry(), type,
+				createFile(name + ".fbt", "<FBType Name=\"" + name + "\"><FBNetwork/></FBType>")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		return type;
+	}
+
+	@Test
+	public void repeatedExportsReturnTheCachedSource() throws CoreException {
+		final List<LibraryElement> types = new ArrayList<>(TYPE_COUNT);
+		for (int i = 0; i < TYPE_COUNT; i++) {
+			types.add(createBasicFBType("Type" + i, null)); //$NON-NLS-1$
+		}
+		final CountingGenerator generator = new CountingGenerator();
+		final LuaTypeCache cache = new LuaTypeCache(generator::generate, null);
+
+		final List<String> firstDevice = new ArrayList<>(TYPE_COUNT);
+		for (final LibraryElement type : types) {
+			firstDevice.add(cache.getLua(type));
+		}
+		for (int device = 1; device < DEVICE_COUNT; device++) {
+			for (int i = 0; i < TYPE_COUNT; i++) {
+				assertSame(firstDevice.get(i), cache.getLua(types.get(i)));
+			}
+		}
+		assertEquals(TYPE_COUNT, generator.total.get());
+	}
+
+	@Test
+	public void changedTypeIsGeneratedAgain() throws CoreException {
+		final BasicFBType type = createBasicFBType("Type", null); //$NON-NLS-1$
+		final CountingGenerator generator = new CountingGenerator();
+		final LuaTypeCache cache = new LuaTypeCache(generator::generate, null);
+
+		final String first = cache.getLua(type);
+		// setting the same content again does not change the source
+		type.setComment(null);
+		assertSame(first, cache.getLua(type));
+		assertEquals(1, generator.total.get());
+
+		// the change is not saved, the export would generate the changed type
+		type.setComment("changed"); //$NON-NLS-1$
+		final String second = cache.getLua(type);
+		assertNotEquals(first, second);
+		assertEquals(2, generator.total.get());
+		assertSame(second, cache.getLua(type));
+	}
+
+	@Test
+	public void changedDependencyIsGeneratedAgain() throws CoreException {
+		final AdapterType adapter = createAdapterType("Adapter"); //$NON-NLS-1$
+		final BasicFBType basic = createBasicFBType("Basic", adapter); //$NON-NLS-1$
+		final CompositeFBType composite = createCompositeFBType("Composite", basic); //$NON-NLS-1$
+		final CountingGenerator generator = new CountingGenerator();
+		final LuaTypeCache cache = new LuaTypeCache(generator::generate, null);
+
+		final String adapterLua = cache.getLua(adapter);
+		final String basicLua = cache.getLua(basic);
+		final String compositeLua = cache.getLua(composite);
+		assertEquals(3, generator.total.get());
+
+		// the adapter is part of the interface of the basic FB and thus also of the
+		// network of the composite FB
+		adapter.getAdapterFBType().setComment("changed"); //$NON-NLS-1$
+		assertNotEquals(adapterLua, cache.getLua(adapter));
+		assertNotEquals(basicLua, cache.getLua(basic));
+		final String changedCompositeLua = cache.getLua(composite);
+		assertNotEquals(compositeLua, changedCompositeLua);
+		assertEquals(6, generator.total.get());
+
+		basic.setComment("changed"); //$NON-NLS-1$
+		assertNotEquals(changedCompositeLua, cache.getLua(composite));
+		assertEquals(7, generator.total.get());
+	}
+
+	@Test
+	public void sameTypeNameInAnotherProjectIsCachedSeparately(@TempDir final Path directory) throws CoreException {
+		final IProject otherProject = ResourcesPlugin.getWorkspace().getRoot().getProject("LuaTypeCacheTestOther"); //$NON-NLS-1$
+		otherProject.create(null);
+		otherProject.open(null);
+		try {
+			final BasicFBType type = createBasicFBType("Type", null); //$NON-NLS-1$
+			final BasicFBType otherType = createBasicFBType(otherProject, "Type", null); //$NON-NLS-1$
+			final CountingGenerator generator = new CountingGenerator();
+			final LuaTypeCache cache = new LuaTypeCache(generator::generate, directory);
+
+			final String lua = cache.getLua(type);
+			final String otherLua = cache.getLua(otherType);
+			for (int device = 1; device < DEVICE_COUNT; device++) {
+				assertSame(lua, cache.getLua(type));
+				assertSame(otherLua, cache.getLua(otherType));
+			}
+			assertEquals(2, generator.total.get());
+			assertEquals(2, directory.toFile().list().length);
+		} finally {
+			otherProject.delete(true, null);
+		}
+	}
+
+	@Test
+	public void typesWithoutFileAreNotCached() {
+		final BasicFBType type = LibraryElementFactory.eINSTANCE.createBasicFBType();
+		type.setName("Unsaved"); //$NON-NLS-1$
+		final CountingGenerator generator = new CountingGenerator();
+		final LuaTypeCache cache = new LuaTypeCache(generator::generate, null);
+
+		assertNotEquals(cache.getLua(type), cache.getLua(type));
+		assertEquals(2, generator.total.get());
+	}
+
+	@Test
+	public void persistedSourcesSurviveTheSession(@TempDir final Path directory) throws CoreException {
+		final BasicFBType type = createBasicFBType("Type", null); //$NON-NLS-1$
+		final CountingGenerator firstSession = new CountingGenerator();
+		final String lua = new LuaTypeCache(firstSession::generate, directory).getLua(type);
+
+		final CountingGenerator secondSession = new CountingGenerator();
+		final LuaTypeCache cache = new LuaTypeCache(secondSession::generate, directory);
+		assertEquals(lua, cache.getLua(type));
+		assertEquals(0, secondSession.total.get());
+
+		// the outdated source is replaced in the directory
+		type.setComment("changed"); //$NON-NLS-1$
+		cache.getLua(type);
+		assertEquals(1, secondSession.total.get());
+		assertEquals(1, directory.toFile().list().length);
+	}
+
+	@Test
+	public void sourcesOfDeletedTypesAreEvicted(@TempDir final Path directory) throws CoreException {
+		final BasicFBType deleted = createBasicFBType("Deleted", null); //$NON-NLS-1$
+		final BasicFBType kept = createBasicFBType("Kept", null); //$NON-NLS-1$
+		final CountingGenerator generator = new CountingGenerator();
+		final LuaTypeCache cache = new LuaTypeCache(generator::generate, directory);
+		cache.getLua(deleted);
+		final String keptLua = cache.getLua(kept);
+		assertEquals(2, directory.toFile().list().length);
+
+		deleted.getPaletteEntry().getFile().delete(true, null);
+		// the next generated source drops the source of the deleted type
+		kept.setComment("changed"); //$NON-NLS-1$
+		assertNotEquals(keptLua, cache.getLua(kept));
+		assertEquals(1, directory.toFile().list().length);
+		assertEquals(3, generator.total.get());
+	}
+
+	@Test
+	public void sourcesOfAnotherGeneratorVersionAreNotReused(@TempDir final Path directory) throws CoreException {
+		final BasicFBType type = createBasicFBType("Type", null); //$NON-NLS-1$
+		final CountingGenerator oldGenerator = new CountingGenerator();
+		final String oldLua = new LuaTypeCache(oldGenerator::generate, "1.0.0", directory).getLua(type); //$NON-NLS-1$
+
+		final CountingGenerator newGenerator = new CountingGenerator();
+		final LuaTypeCache cache = new LuaTypeCache(newGenerator::generate, "1.1.0", directory); //$NON-NLS-1$
+		cache.getLua(type);
+		assertEquals(1, newGenerator.total.get());
+		// the same version still finds its source
+		assertEquals(oldLua, new LuaTypeCache(oldGenerator::generate, "1.0.0", directory).getLua(type)); //$NON-NLS-1$
+		assertEquals(1, oldGenerator.total.get());
+	}
+}
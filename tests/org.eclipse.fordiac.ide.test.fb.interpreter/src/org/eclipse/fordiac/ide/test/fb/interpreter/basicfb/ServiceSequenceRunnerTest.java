@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.test.fb.interpreter.basicfb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.eclipse.fordiac.ide.fb.interpreter.testrunner.JUnitReportWriter;
+import org.eclipse.fordiac.ide.fb.interpreter.testrunner.ServiceSequenceResult;
+import org.eclipse.fordiac.ide.fb.interpreter.testrunner.ServiceSequenceRunner;
+import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.ServiceSequence;
+import org.eclipse.fordiac.ide.model.libraryElement.ServiceTransaction;
+import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
+import org.eclipse.fordiac.ide.test.fb.interpreter.infra.AbstractInterpreterTest;
+import org.eclipse.fordiac.ide.test.fb.interpreter.infra.FBTransaction;
+import org.junit.Test;
+
+public class ServiceSequenceRunnerTest extends AbstractInterpreterTest {
+
+	@Test
+	public void runAllSequencesOfType() throws Exception {
+		final BasicFBType fb = loadFBType("E_CTU"); //$NON-NLS-1$
+		final ServiceSequence passing = fb.getService().getServiceSequence().get(0);
+		final ServiceTransaction first = addTransaction(passing, new FBTransaction("R", "RO", "Q:=FALSE;CV:=0")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		first.getInputPrimitive().setParameters("PV:=2"); //$NON-NLS-1$
+		addTransaction(passing, new FBTransaction("CU", "CUO", "Q:=FALSE;CV:=1")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		addTransaction(passing, new FBTransaction("CU", "CUO", "Q:=TRUE;CV:=2")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		final ServiceSequence failing = addServiceSequence(fb.getService());
+		final ServiceTransaction wrong = addTransaction(failing, new FBTransaction("CU", "CUO", "Q:=FALSE;CV:=1")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		wrong.getInputPrimitive().setParameters("PV:=1"); //$NON-NLS-1$
+
+		final List<ServiceSequenceResult> results = ServiceSequenceRunner.runAll(fb);
+
+		assertEquals(2, results.size());
+		assertTrue(results.get(0).getFailure(), results.get(0).isSuccess());
+		assertFalse(results.get(1).isSuccess());
+		// the runner works on copies, the loaded type must stay untouched
+		assertEquals(2, fb.getService().getServiceSequence().size());
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JUnitReportWriter.write(results, out);
+		final String report = out.toString(StandardCharsets.UTF_8);
+		assertTrue(report.contains("<testsuite name=\"E_CTU\" tests=\"2\" failures=\"1\"")); //$NON-NLS-1$
+		assertTrue(report.contains("<failure")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void inputParametersApplyFromTheirTransactionOn() throws Exception {
+		final BasicFBType fb = loadFBType("E_CTU"); //$NON-NLS-1$
+		final ServiceSequence seq = fb.getService().getServiceSequence().get(0);
+		// with PV:=5 already set for the first count the counter would not be reached
+		final ServiceTransaction first = addTransaction(seq, new FBTransaction("CU", "CUO", "Q:=TRUE;CV:=1")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		first.getInputPrimitive().setParameters("PV:=1"); //$NON-NLS-1$
+		final ServiceTransaction second = addTransaction(seq, new FBTransaction("CU", "CUO", "Q:=FALSE;CV:=2")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		second.getInputPrimitive().setParameters("PV:=5"); //$NON-NLS-1$
+		addTransaction(seq, new FBTransaction("CU", "CUO", "Q:=FALSE;CV:=3")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		final ServiceSequenceResult result = ServiceSequenceRunner.run(fb, 0);
+
+		assertTrue(result.getFailure(), result.isSuccess());
+		final VarDeclaration pv = (VarDeclaration) fb.getInterfaceList().getInterfaceElement("PV"); //$NON-NLS-1$
+		// the inputs are only set on the copies of the type
+		assertNull(pv.getValue());
+	}
+
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.test.fb.interpreter.basicfb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.eclipse.fordiac.ide.fb.interpreter.testrunner.ServiceSequenceResult;
+import org.eclipse.fordiac.ide.fb.interpreter.testrunner.TypeLibraryTestRunner;
+import org.eclipse.fordiac.ide.test.fb.interpreter.ModelDeserializer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TypeLibraryTestRunnerTest {
+
+	/* number of service sequences in each of the station control models */
+	private static final int STATION_SEQUENCES = 3;
+
+	@Rule
+	public TemporaryFolder typeLib = new TemporaryFolder();
+
+	@Before
+	public void createTypeLibrary() throws Exception {
+		final Path root = typeLib.getRoot().toPath();
+		final Path sub = Files.createDirectories(root.resolve("sub")); //$NON-NLS-1$
+		copyModel("StationCtrl.xmi", root); //$NON-NLS-1$
+		copyModel("StationCtrl2.xmi", sub); //$NON-NLS-1$
+		// a basic FB type without service sequences
+		copyModel("E_CTU.xmi", sub); //$NON-NLS-1$
+		Files.writeString(sub.resolve("Broken.fbt"), "no type", StandardCharsets.UTF_8); //$NON-NLS-1$ //$NON-NLS-2$
+		Files.writeString(root.resolve("readme.txt"), "not a type", StandardCharsets.UTF_8); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static void copyModel(final String name, final Path folder) throws Exception {
+		final URL model = new URL(new ModelDeserializer().getModelFile("inputmodels/" + name)); //$NON-NLS-1$
+		Files.copy(Paths.get(model.toURI()), folder.resolve(name));
+	}
+
+	@Test
+	public void typeFilesBelowTheFolderAreRunInOrder() throws Exception {
+		final List<ServiceSequenceResult> results = new TypeLibraryTestRunner(1).run(typeLib.getRoot());
+
+		// StationCtrl.xmi, sub/Broken.fbt, sub/E_CTU.xmi, sub/StationCtrl2.xmi
+		assertEquals((2 * STATION_SEQUENCES) + 1, results.size());
+		assertEquals("StationCtrl", results.get(0).getTypeName()); //$NON-NLS-1$
+		final ServiceSequenceResult broken = results.get(STATION_SEQUENCES);
+		assertEquals("Broken.fbt", broken.getTypeName()); //$NON-NLS-1$
+		assertEquals("load", broken.getSequenceName()); //$NON-NLS-1$
+		assertFalse(broken.isSuccess());
+	}
+
+	@Test
+	public void parallelRunMatchesSequentialRun() throws Exception {
+		final List<ServiceSequenceResult> sequential = new TypeLibraryTestRunner(1).run(typeLib.getRoot());
+		final List<ServiceSequenceResult> parallel = new TypeLibraryTestRunner(4).run(typeLib.getRoot());
+
+		assertEquals(sequential.size(), parallel.size());
+		for (int i = 0; i < sequential.size(); i++) {
+			assertEquals(sequential.get(i).getTypeName(), parallel.get(i).getTypeName());
+			assertEquals(sequential.get(i).getSequenceName(), parallel.get(i).getSequenceName());
+			assertEquals(sequential.get(i).getFailure(), parallel.get(i).getFailure());
+		}
+	}
+
+	@Test
+	public void emptyFolderHasNoResults() throws Exception {
+		final File empty = typeLib.newFolder("empty"); //$NON-NLS-1$
+		assertEquals(0, new TypeLibraryTestRunner().run(empty).size());
+	}
+}
@@ -0,0 +1,395 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.fbtypeeditor.fbtester.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.fordiac.ide.deployment.iec61499.DeploymentExecutor;
+import org.eclipse.fordiac.ide.fbtester.model.testdata.TestData;
+import org.eclipse.fordiac.ide.fbtester.model.testdata.TestdataFactory;
+import org.eclipse.fordiac.ide.fbtester.model.testdata.ValuedVarDecl;
+import org.eclipse.fordiac.ide.fbtypeeditor.fbtester.configuration.TestBatchRunner.TestResult;
+import org.eclipse.fordiac.ide.model.libraryElement.Event;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestBatchRunnerTest {
+
+	private static final String RESOURCE = "_DOUBLE_RES"; //$NON-NLS-1$
+	private static final String FB = "_DOUBLE"; //$NON-NLS-1$
+	private static final String IN = "IN"; //$NON-NLS-1$
+	private static final String OUT = "OUT"; //$NON-NLS-1$
+	private static final String CNF = "CNF"; //$NON-NLS-1$
+	private static final String FAIL = "FAIL"; //$NON-NLS-1$
+
+	private static final int ROW_COUNT = 200;
+	private static final long LATENCY = 5; // ms until a response arrives
+	private static final long CLOSE_DELAY = 100; // ms
+	private static final int NEVER = Integer.MAX_VALUE;
+
+	/**
+	 * An in-process runtime hosting an FB which doubles IN into OUT and fires CNF
+	 * on every event.
+	 *
+	 * Requests are processed in the order they arrive, and each response is sent
+	 * after a fixed latency, independently of the requests that followed. The
+	 * event chain started by an event can be configured to finish only after a
+	 * number of watch reads, like a chain that is still running when the runtime
+	 * answers.
+	 */
+	private static final class MockRuntime implements Closeable {
+		private static final Pattern ID = Pattern.compile("ID=\"(\\d+)\""); //$NON-NLS-1$
+		private static final Pattern SOURCE = Pattern.compile("Source=\"([^\"]*)\""); //$NON-NLS-1$
+		private static final Pattern DESTINATION = Pattern.compile("Destination=\"([^\"]*)\""); //$NON-NLS-1$
+
+		private final ServerSocket server;
+		private final ScheduledExecutorService network = Executors.newSingleThreadScheduledExecutor();
+		private final Map<String, String> values = new HashMap<>();
+		private final int dropAfter;
+		private final int chainReads;
+		/* the requests which were received but not answered yet */
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final AtomicInteger maxInFlight = new AtomicInteger();
+		private final AtomicInteger watchReads = new AtomicInteger();
+		private boolean chainRunning;
+		private int readsUntilChainEnds;
+		private Socket client;
+
+		/**
+		 * @param dropAfter  the number of requests after which the connection is closed
+		 * @param chainReads the number of watch reads during which an event chain is
+		 *                   still running, {@link TestBatchRunnerTest#NEVER} for an FB
+		 *                   which does not answer its events
+		 */
+		private MockRuntime(final int dropAfter, final int chainReads) throws IOException {
+			this.dropAfter = dropAfter;
+			this.chainReads = chainReads;
+			server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+			values.put(IN, "0"); //$NON-NLS-1$
+			values.put(OUT, "0"); //$NON-NLS-1$
+			values.put(CNF, "0"); //$NON-NLS-1$
+			final Thread thread = new Thread(this::serve, "Mock runtime"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		private Socket connect() throws IOException {
+			return new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+		}
+
+		private void serve() {
+			try {
+				client = server.accept();
+				final DataInputStream in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+				final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(client.getOutputStream()));
+				for (int received = 0; received < dropAfter; received++) {
+					final String destination = readString(in);
+					final byte[] response = respond(destination, readString(in)).getBytes(StandardCharsets.ISO_8859_1);
+					maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+					network.schedule(() -> {
+						// answered before the client can see the response and send its next request
+						inFlight.decrementAndGet();
+						out.writeByte(80);
+						out.writeShort(response.length);
+						out.write(response);
+						out.flush();
+						return null;
+					}, LATENCY, TimeUnit.MILLISECONDS);
+				}
+				// the connection is lost once the test has written all of its requests
+				network.schedule(() -> {
+					client.close();
+					return null;
+				}, CLOSE_DELAY, TimeUnit.MILLISECONDS);
+			} catch (final IOException e) {
+				// the connection was closed by the test
+			}
+		}
+
+		private static String readString(final DataInputStream in) throws IOException {
+			in.readByte();
+			final byte[] text = new byte[in.readUnsignedShort()];
+			in.readFully(text);
+			return new String(text, StandardCharsets.ISO_8859_1);
+		}
+
+		private static String get(final Pattern pattern, final String request) {
+			final Matcher matcher = pattern.matcher(request);
+			return matcher.find() ? matcher.group(1) : ""; //$NON-NLS-1$
+		}
+
+		private String respond(final String destination, final String request) {
+			final String id = get(ID, request);
+			final String port = get(DESTINATION, request).replace(FB + ".", ""); //$NON-NLS-1$ //$NON-NLS-2$
+			if (request.contains("Action=\"READ\"")) { //$NON-NLS-1$
+				watchReads.incrementAndGet();
+				if (chainRunning && (0 == readsUntilChainEnds--)) {
+					finishEventChain();
+				}
+				return "<Response ID=\"" + id + "\"><Watches><Resource name=\"" + RESOURCE + "\"><FB name=\"" + FB //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+						+ "\">" + port(IN) + port(OUT) + port(CNF) + "</FB></Resource></Watches></Response>"; //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			if (!RESOURCE.equals(destination) || FAIL.equals(port)) {
+				return "<Response ID=\"" + id + "\" Reason=\"INVALID_DST\"/>"; //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			if (request.contains("force=\"true\"")) { //$NON-NLS-1$
+				values.put(port, get(SOURCE, request));
+			} else if (request.contains("Source=\"$e\"")) { //$NON-NLS-1$
+				chainRunning = true;
+				readsUntilChainEnds = chainReads;
+				if (0 == chainReads) {
+					finishEventChain();
+				}
+			}
+			return "<Response ID=\"" + id + "\"/>"; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		private void finishEventChain() {
+			chainRunning = false;
+			values.put(OUT, Integer.toString(2 * Integer.parseInt(values.get(IN))));
+			values.put(CNF, Integer.toString(Integer.parseInt(values.get(CNF)) + 1));
+		}
+
+		private String port(final String name) {
+			return "<Port name=\"" + name + "\"><Data value=\"" + values.get(name) + "\" forced=\"false\"/></Port>"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+
+		@Override
+		public void close() throws IOException {
+			network.shutdownNow();
+			server.close();
+			if (null != client) {
+				client.close();
+			}
+		}
+	}
+
+	private MockRuntime runtime;
+	private RuntimeConnection connection;
+
+	@BeforeEach
+	public void connect() throws IOException {
+		connect(Integer.MAX_VALUE, 0);
+	}
+
+	private void connect(final int dropAfter, final int chainReads) throws IOException {
+		runtime = new MockRuntime(dropAfter, chainReads);
+		connection = new RuntimeConnection(runtime.connect());
+	}
+
+	@AfterEach
+	public void disconnect() throws IOException {
+		connection.close();
+		runtime.close();
+	}
+
+	private static VarDeclaration createVariable(final String name) {
+		final VarDeclaration variable = LibraryElementFactory.eINSTANCE.createVarDeclaration();
+		variable.setName(name);
+		return variable;
+	}
+
+	private static ValuedVarDecl createValue(final VarDeclaration variable, final String value) {
+		final ValuedVarDecl valued = TestdataFactory.eINSTANCE.createValuedVarDecl();
+		valued.setVarDeclaration(variable);
+		valued.setValue(value);
+		return valued;
+	}
+
+	private static List<TestData> createTestData(final int count, final String inputPort) {
+		final Event req = LibraryElementFactory.eINSTANCE.createEvent();
+		req.setName("REQ"); //$NON-NLS-1$
+		final VarDeclaration in = createVariable(inputPort);
+		final VarDeclaration out = createVariable(OUT);
+		final List<TestData> rows = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			final TestData row = TestdataFactory.eINSTANCE.createTestData();
+			row.setTestName("Test" + i); //$NON-NLS-1$
+			row.setEvent(req);
+			row.getValues().add(createValue(in, Integer.toString(i)));
+			// every tenth row expects a wrong result
+			row.getResults().add(createValue(out, Integer.toString((0 == (i % 10)) ? (2 * i) + 1 : 2 * i)));
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	private static List<TestData> expectConfirmation(final List<TestData> rows) {
+		final Event cnf = LibraryElementFactory.eINSTANCE.createEvent();
+		cnf.setName(CNF);
+		rows.forEach(row -> row.getEventOutputs().add(cnf));
+		return rows;
+	}
+
+	private TestBatchRunner createRunner() {
+		return new TestBatchRunner(connection, RESOURCE, FB, Duration.ofSeconds(10));
+	}
+
+	private static String getValue(final TestResult result, final String port) {
+		return result.getValues().get(RESOURCE + "." + FB + "." + port); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void responsesAreMatchedToTheirRows() throws Exception {
+		final TestBatchRunner runner = createRunner();
+		runner.addWatches(Arrays.asList(IN, OUT));
+		final List<TestData> rows = createTestData(ROW_COUNT, IN);
+		final List<TestResult> results = runner.run(rows);
+
+		assertEquals(ROW_COUNT, results.size());
+		for (int i = 0; i < ROW_COUNT; i++) {
+			final TestResult result = results.get(i);
+			assertEquals(rows.get(i), result.getTestData());
+			assertEquals(Integer.toString(i), result.getValues().get(RESOURCE + "." + FB + "." + IN)); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals(Integer.toString(2 * i), result.getValues().get(RESOURCE + "." + FB + "." + OUT)); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals(0 != (i % 10), result.isPassed(), result.getMessage());
+			assertEquals(result.isPassed(), result.getMessage().isEmpty());
+			assertFalse(result.getDuration().isNegative());
+		}
+		assertTrue(results.get(0).getMessage().startsWith(OUT));
+	}
+
+	@Test
+	public void requestsArePipelined() throws Exception {
+		final TestBatchRunner runner = createRunner();
+		runner.addWatches(Arrays.asList(IN, OUT));
+		final List<TestData> rows = createTestData(ROW_COUNT, IN);
+
+		// the same requests, each one waiting for the response of the one before
+		runtime.maxInFlight.set(0);
+		for (int i = 0; i < ROW_COUNT; i++) {
+			connection.request(RESOURCE, MessageFormat.format(DeploymentExecutor.FORCE_VALUE,
+					connection.getNextId(), Integer.toString(i), FB + "." + IN, "true")).get(); //$NON-NLS-1$ //$NON-NLS-2$
+			connection.request(RESOURCE, MessageFormat.format(DeploymentExecutor.WRITE_PARAMETER,
+					connection.getNextId(), "$e", FB + ".REQ")).get(); //$NON-NLS-1$ //$NON-NLS-2$
+			connection.request("", MessageFormat.format(DeploymentExecutor.READ_WATCHES, //$NON-NLS-1$
+					connection.getNextId())).get();
+		}
+		assertEquals(1, runtime.maxInFlight.get());
+
+		runtime.maxInFlight.set(0);
+		final List<TestResult> results = runner.run(rows);
+		assertEquals(ROW_COUNT, results.size());
+		// the runtime received further requests before it answered the first ones
+		assertTrue(runtime.maxInFlight.get() > 1, Integer.toString(runtime.maxInFlight.get()));
+	}
+
+	@Test
+	public void rowsWithOutputEventsWaitForTheirEventChain() throws Exception {
+		disconnect();
+		connect(Integer.MAX_VALUE, 2);
+		final TestBatchRunner runner = createRunner();
+		runner.addWatches(Arrays.asList(IN, OUT, CNF));
+		final List<TestData> rows = expectConfirmation(createTestData(5, IN));
+
+		final List<TestResult> results = runner.run(rows);
+		for (int i = 0; i < rows.size(); i++) {
+			assertEquals(Integer.toString(2 * i), getValue(results.get(i), OUT));
+			assertEquals(Integer.toString(i + 1), getValue(results.get(i), CNF));
+			assertEquals(0 != (i % 10), results.get(i).isPassed(), results.get(i).getMessage());
+		}
+	}
+
+	@Test
+	public void rowsWithoutOutputEventsWaitForTheirEventChain() throws Exception {
+		disconnect();
+		connect(Integer.MAX_VALUE, 1);
+		final TestBatchRunner runner = createRunner();
+		runner.addWatches(Arrays.asList(IN, OUT, CNF));
+
+		final TestResult result = runner.run(createTestData(2, IN)).get(1);
+		assertEquals(Integer.toString(1), getValue(result, IN));
+		assertEquals(Integer.toString(2), getValue(result, OUT));
+		assertTrue(result.isPassed(), result.getMessage());
+	}
+
+	@Test
+	public void missingOutputEventsFailTheirRow() throws Exception {
+		disconnect();
+		connect(Integer.MAX_VALUE, NEVER);
+		final TestBatchRunner runner = new TestBatchRunner(connection, RESOURCE, FB, Duration.ofMillis(200));
+		runner.addWatches(Arrays.asList(IN, OUT, CNF));
+
+		runtime.watchReads.set(0);
+		final TestResult result = runner.run(expectConfirmation(createTestData(1, IN))).get(0);
+		assertFalse(result.isPassed());
+		assertTrue(result.getMessage().contains(CNF), result.getMessage());
+		// each read waits for the response to the previous one
+		assertTrue(runtime.watchReads.get() <= ((200 / LATENCY) + 2), Integer.toString(runtime.watchReads.get()));
+	}
+
+	@Test
+	public void rejectedRequestsOnlyFailTheirRow() throws Exception {
+		final TestBatchRunner runner = createRunner();
+		runner.addWatches(Arrays.asList(IN, OUT));
+		final List<TestData> rows = new ArrayList<>(createTestData(2, IN));
+		rows.addAll(1, createTestData(1, FAIL));
+
+		final List<TestResult> results = runner.run(rows);
+		assertFalse(results.get(0).isPassed()); // the first row expects a wrong result
+		assertFalse(results.get(1).isPassed());
+		assertTrue(results.get(1).getMessage().contains("INVALID_DST"), results.get(1).getMessage()); //$NON-NLS-1$
+		assertTrue(results.get(2).isPassed(), results.get(2).getMessage());
+
+		assertThrows(IOException.class, () -> runner.addWatches(Arrays.asList(FAIL)));
+	}
+
+	@Test
+	public void lostConnectionsFailTheOpenRows() throws Exception {
+		disconnect();
+		connect(10, 0);
+		final TestBatchRunner runner = createRunner();
+		runner.addWatches(Arrays.asList(IN, OUT));
+		// each row needs four requests, so the connection is lost in the third row
+		final List<TestResult> results = runner.run(createTestData(5, IN));
+
+		assertEquals(5, results.size());
+		assertEquals(Integer.toString(1), results.get(1).getValues().get(RESOURCE + "." + FB + "." + IN)); //$NON-NLS-1$ //$NON-NLS-2$
+		for (int i = 2; i < results.size(); i++) {
+			assertFalse(results.get(i).isPassed());
+			assertTrue(results.get(i).getValues().isEmpty());
+		}
+		assertFalse(connection.isOpen());
+		assertThrows(IOException.class, () -> runner.run(createTestData(1, IN)));
+	}
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.fmu.wizard;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.eclipse.fordiac.ide.deployment.exceptions.DeploymentException;
+import org.eclipse.fordiac.ide.fmu.preferences.PreferenceConstants;
+import org.eclipse.fordiac.ide.model.libraryElement.Device;
+import org.eclipse.fordiac.ide.test.infra.DeploymentTestSystem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FMUExporterTest {
+
+	private static final String PROFILE = "HOLOBLOC"; //$NON-NLS-1$
+	private static final int DEVICE_COUNT = 8;
+	private static final int FB_COUNT = 500;
+	private static final byte[] LIBRARY_CONTENT = { 0x7f, 'E', 'L', 'F', 0, 1, 2, 3 };
+
+	private static DeploymentTestSystem createSystem(final int deviceCount, final int fbCount) {
+		return new DeploymentTestSystem(deviceCount, fbCount, PROFILE, true);
+	}
+
+	private static Path createBinaries(final Path directory) throws IOException {
+		Files.write(directory.resolve(PreferenceConstants.P_FMU_WIN64_LIBRARY), LIBRARY_CONTENT);
+		Files.write(directory.resolve(PreferenceConstants.P_FMU_LIN64_LIBRARY), LIBRARY_CONTENT);
+		return directory;
+	}
+
+	private static Map<String, byte[]> readEntries(final InputStream in) throws IOException {
+		final Map<String, byte[]> entries = new LinkedHashMap<>();
+		try (ZipInputStream zip = new ZipInputStream(in)) {
+			ZipEntry entry;
+			while (null != (entry = zip.getNextEntry())) {
+				entries.put(entry.getName(), zip.readAllBytes());
+			}
+		}
+		return entries;
+	}
+
+	private static String asString(final byte[] content) {
+		return new String(content, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void archiveContainsBootFileModelDescriptionAndLibraries(@TempDir final Path binaries) throws Exception {
+		final DeploymentTestSystem plant = createSystem(1, 3);
+		final Device device = plant.getDevice(0);
+		final FMUExporter exporter = new FMUExporter(createBinaries(binaries),
+				Arrays.asList(PreferenceConstants.P_FMU_WIN64, PreferenceConstants.P_FMU_LIN64));
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exporter.export(device, plant.getResources(device), out);
+		final Map<String, byte[]> entries = readEntries(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals(Arrays.asList(FMUExporter.BOOT_FILE_ENTRY, FMUExporter.MODEL_DESCRIPTION_ENTRY,
+				"binaries/win64/Plant_Dev0.dll", "binaries/linux64/Plant_Dev0.so"), //$NON-NLS-1$ //$NON-NLS-2$
+				Arrays.asList(entries.keySet().toArray()));
+		assertArrayEquals(LIBRARY_CONTENT, entries.get("binaries/win64/Plant_Dev0.dll")); //$NON-NLS-1$
+
+		final String bootFile = asString(entries.get(FMUExporter.BOOT_FILE_ENTRY));
+		assertTrue(bootFile.startsWith(";<Request ID=\"2\" Action=\"CREATE\"><FB Name=\"Res\"")); //$NON-NLS-1$
+		assertTrue(bootFile.contains("Action=\"CREATE\"><FB Name=\"A\" Type=\"COUNTER\" /></Request>\n")); //$NON-NLS-1$
+		assertTrue(bootFile.contains("Action=\"WRITE\"><Connection Source=\"2\" Destination=\"B.IN\" />")); //$NON-NLS-1$
+		assertTrue(bootFile.contains("<Connection Source=\"A.CNF\" Destination=\"B.REQ\" />")); //$NON-NLS-1$
+		// the FMU is started by the co-simulation and not by the boot file
+		assertFalse(bootFile.contains("Action=\"START\"")); //$NON-NLS-1$
+
+		final String modelDescription = asString(entries.get(FMUExporter.MODEL_DESCRIPTION_ENTRY));
+		assertTrue(modelDescription.contains("modelName=\"Plant_Dev0\"")); //$NON-NLS-1$
+		assertTrue(modelDescription.contains("<ScalarVariable name=\"Res.Switch\" valueReference=\"0\" description=\"\" causality=\"input\"")); //$NON-NLS-1$
+		assertTrue(modelDescription.contains("name=\"Res.B.IN\"")); //$NON-NLS-1$
+		assertTrue(modelDescription.contains("name=\"Res.B.$ECC\"")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void devicesAreExportedInParallel(@TempDir final Path binaries, @TempDir final Path output)
+			throws Exception {
+		final DeploymentTestSystem plant = createSystem(DEVICE_COUNT, FB_COUNT);
+		final FMUExporter exporter = new FMUExporter(createBinaries(binaries),
+				Arrays.asList(PreferenceConstants.P_FMU_LIN64));
+
+		final List<Path> fmus = exporter.exportAll(plant.getDevices(), output);
+
+		assertEquals(DEVICE_COUNT, fmus.size());
+		for (int i = 0; i < DEVICE_COUNT; i++) {
+			final Device device = plant.getDevice(i);
+			assertEquals(output.resolve(FMUExporter.getOutputName(device) + FMUExporter.FMU_FILE_ENDING), fmus.get(i));
+
+			// parallel export produces the same content as a single export
+			final ByteArrayOutputStream single = new ByteArrayOutputStream();
+			exporter.export(device, plant.getResources(device), single);
+			final Map<String, byte[]> expected = readEntries(new ByteArrayInputStream(single.toByteArray()));
+			final Map<String, byte[]> actual;
+			try (InputStream in = Files.newInputStream(fmus.get(i))) {
+				actual = readEntries(in);
+			}
+			assertEquals(expected.keySet(), actual.keySet());
+			for (final Map.Entry<String, byte[]> entry : expected.entrySet()) {
+				assertArrayEquals(entry.getValue(), actual.get(entry.getKey()), entry.getKey());
+			}
+		}
+	}
+
+	@Test
+	public void missingLibraryFailsBeforeAnythingIsWritten(@TempDir final Path binaries, @TempDir final Path output) {
+		final DeploymentTestSystem plant = createSystem(1, 1);
+		final Device device = plant.getDevice(0);
+		final FMUExporter exporter = new FMUExporter(binaries, Arrays.asList(PreferenceConstants.P_FMU_WIN32));
+
+		assertThrows(FileNotFoundException.class, () -> exporter.export(device, plant.getResources(device), output));
+		assertFalse(Files.exists(output.resolve(FMUExporter.getOutputName(device) + FMUExporter.FMU_FILE_ENDING)));
+	}
+
+	@Test
+	public void failedExportKeepsTheExistingFMU(@TempDir final Path binaries, @TempDir final Path output)
+			throws Exception {
+		final DeploymentTestSystem plant = createSystem(1, 1);
+		final Device device = plant.getDevice(0);
+		device.setProfile("UNKNOWN"); //$NON-NLS-1$
+		final FMUExporter exporter = new FMUExporter(createBinaries(binaries),
+				Arrays.asList(PreferenceConstants.P_FMU_LIN64));
+		final Path fmu = output.resolve(FMUExporter.getOutputName(device) + FMUExporter.FMU_FILE_ENDING);
+		Files.write(fmu, LIBRARY_CONTENT);
+
+		assertThrows(DeploymentException.class, () -> exporter.export(device, plant.getResources(device), output));
+		assertArrayEquals(LIBRARY_CONTENT, Files.readAllBytes(fmu));
+		try (Stream<Path> files = Files.list(output)) {
+			assertEquals(Arrays.asList(fmu), files.collect(Collectors.toList()));
+		}
+	}
+
+	@Test
+	public void unknownPlatformsAreRejected() {
+		final List<String> platforms = Arrays.asList("amiga"); //$NON-NLS-1$
+		assertThrows(IllegalArgumentException.class, () -> new FMUExporter(Path.of("."), platforms)); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.test.infra;
+
+import static org.eclipse.fordiac.ide.test.infra.FBNetworkTestHelper.connect;
+import static org.eclipse.fordiac.ide.test.infra.FBNetworkTestHelper.createEntry;
+import static org.eclipse.fordiac.ide.test.infra.FBNetworkTestHelper.createEvent;
+import static org.eclipse.fordiac.ide.test.infra.FBNetworkTestHelper.createFB;
+import static org.eclipse.fordiac.ide.test.infra.FBNetworkTestHelper.createVar;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.fordiac.ide.model.Palette.FBTypePaletteEntry;
+import org.eclipse.fordiac.ide.model.Palette.PaletteFactory;
+import org.eclipse.fordiac.ide.model.Palette.ResourceTypeEntry;
+import org.eclipse.fordiac.ide.model.libraryElement.AutomationSystem;
+import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.Device;
+import org.eclipse.fordiac.ide.model.libraryElement.FB;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.FBType;
+import org.eclipse.fordiac.ide.model.libraryElement.InterfaceList;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.Resource;
+
+/**
+ * A system for deployment level tests, e.g., boot files or FMUs.
+ *
+ * Every device holds one resource with a chain of COUNTER FBs. The data input
+ * of the n-th FB of the chain has the value n + 1. Optionally the resource
+ * also holds an FB with an input, named {@link #INPUT_NAME}.
+ */
+public final class DeploymentTestSystem {
+
+	public static final String SYSTEM_NAME = "Plant"; //$NON-NLS-1$
+	public static final String RESOURCE_NAME = "Res"; //$NON-NLS-1$
+	public static final String INPUT_NAME = "Switch"; //$NON-NLS-1$
+
+	private static final LibraryElementFactory FACTORY = LibraryElementFactory.eINSTANCE;
+
+	private final AutomationSystem system = FACTORY.createAutomationSystem();
+	private final Map<Device, List<Resource>> devices = new LinkedHashMap<>();
+
+	/**
+	 * @param deviceCount the number of devices
+	 * @param fbCount     the number of FBs in the chain of every resource
+	 * @param profile     the profile of the devices
+	 * @param withInput   whether every resource also holds an FB with an input
+	 */
+	public DeploymentTestSystem(final int deviceCount, final int fbCount, final String profile,
+			final boolean withInput) {
+		system.setName(SYSTEM_NAME);
+		system.setSystemConfiguration(FACTORY.createSystemConfiguration());
+		final FBTypePaletteEntry counter = createEntry(createCounterType());
+		final FBTypePaletteEntry input = withInput ? createEntry(createInputType()) : null;
+		final ResourceTypeEntry resourceType = PaletteFactory.eINSTANCE.createResourceTypeEntry();
+		resourceType.setLabel("EMB_RES"); //$NON-NLS-1$
+		for (int i = 0; i < deviceCount; i++) {
+			final Device device = FACTORY.createDevice();
+			device.setName("Dev" + i); //$NON-NLS-1$
+			device.setProfile(profile);
+			system.getSystemConfiguration().getDevices().add(device);
+			final Resource resource = FACTORY.createResource();
+			resource.setName(RESOURCE_NAME);
+			resource.setPaletteEntry(resourceType);
+			resource.setFBNetwork(createNetwork(counter, input, fbCount));
+			device.getResource().add(resource);
+			devices.put(device, Arrays.asList(resource));
+		}
+	}
+
+	public AutomationSystem getSystem() {
+		return system;
+	}
+
+	/** @return the resources of every device in the order of the devices */
+	public Map<Device, List<Resource>> getDevices() {
+		return Collections.unmodifiableMap(devices);
+	}
+
+	public Device getDevice(final int index) {
+		return devices.keySet().stream().skip(index).findFirst().orElseThrow();
+	}
+
+	public List<Resource> getResources(final Device device) {
+		return devices.get(device);
+	}
+
+	/**
+	 * FBs are named A, B, ... for small chains so that golden files stay readable,
+	 * FB0, FB1, ... otherwise.
+	 *
+	 * @return the name of the FB at the index of a chain with fbCount FBs
+	 */
+	public static String getFBName(final int index, final int fbCount) {
+		return (fbCount <= 26) ? String.valueOf((char) ('A' + index)) : "FB" + index; //$NON-NLS-1$
+	}
+
+	private static FBType createCounterType() {
+		final BasicFBType type = FACTORY.createBasicFBType();
+		type.setName("COUNTER"); //$NON-NLS-1$
+		type.setECC(FACTORY.createECC());
+		final InterfaceList interfaceList = FACTORY.createInterfaceList();
+		interfaceList.getEventInputs().add(createEvent(FBNetworkTestHelper.EVENT_INPUT, true));
+		interfaceList.getEventOutputs().add(createEvent(FBNetworkTestHelper.EVENT_OUTPUT, false));
+		interfaceList.getInputVars().add(createVar(FBNetworkTestHelper.DATA_INPUT, "INT", true)); //$NON-NLS-1$
+		interfaceList.getOutputVars().add(createVar(FBNetworkTestHelper.DATA_OUTPUT, "INT", false)); //$NON-NLS-1$
+		type.setInterfaceList(interfaceList);
+		return type;
+	}
+
+	private static FBType createInputType() {
+		final FBType type = FACTORY.createServiceInterfaceFBType();
+		type.setName("IX"); //$NON-NLS-1$
+		final InterfaceList interfaceList = FACTORY.createInterfaceList();
+		interfaceList.getOutputVars().add(createVar(FBNetworkTestHelper.DATA_INPUT, "BOOL", false)); //$NON-NLS-1$
+		type.setInterfaceList(interfaceList);
+		return type;
+	}
+
+	private static FBNetwork createNetwork(final FBTypePaletteEntry counter, final FBTypePaletteEntry input,
+			final int fbCount) {
+		final FBNetwork network = FACTORY.createFBNetwork();
+		if (null != input) {
+			createFB(network, INPUT_NAME, input);
+		}
+		FB previous = null;
+		for (int i = 0; i < fbCount; i++) {
+			final FB fb = createFB(network, getFBName(i, fbCount), counter);
+			fb.getInterface().getInputVars().get(0).setValue(FACTORY.createValue());
+			fb.getInterface().getInputVars().get(0).getValue().setValue(Integer.toString(i + 1));
+			if (null != previous) {
+				connect(network, previous, fb);
+			}
+			previous = fb;
+		}
+		return network;
+	}
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.test.infra;
+
+import org.eclipse.fordiac.ide.model.Palette.FBTypePaletteEntry;
+import org.eclipse.fordiac.ide.model.Palette.PaletteFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.DataConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.Event;
+import org.eclipse.fordiac.ide.model.libraryElement.EventConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.FB;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.fordiac.ide.model.libraryElement.FBType;
+import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
+import org.eclipse.fordiac.ide.model.libraryElement.InterfaceList;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.SubApp;
+import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
+import org.eclipse.fordiac.ide.model.typelibrary.EventTypeLibrary;
+
+/**
+ * Creates the FB networks of model level tests without a workspace or type
+ * library.
+ *
+ * Every element gets the interface of {@link #createInterface()}, i.e., one
+ * event and one data pin per direction, so that chains can be built with
+ * {@link #connect(FBNetwork, FBNetworkElement, FBNetworkElement)}.
+ */
+public final class FBNetworkTestHelper {
+
+	public static final String EVENT_INPUT = "REQ"; //$NON-NLS-1$
+	public static final String EVENT_OUTPUT = "CNF"; //$NON-NLS-1$
+	public static final String DATA_INPUT = "IN"; //$NON-NLS-1$
+	public static final String DATA_OUTPUT = "OUT"; //$NON-NLS-1$
+
+	private static final LibraryElementFactory FACTORY = LibraryElementFactory.eINSTANCE;
+
+	/** @return an event of the default event type */
+	public static Event createEvent(final String name, final boolean isInput) {
+		final Event event = FACTORY.createEvent();
+		event.setName(name);
+		event.setIsInput(isInput);
+		event.setType(EventTypeLibrary.getInstance().getType(null));
+		return event;
+	}
+
+	/** @return a variable without a type */
+	public static VarDeclaration createVar(final String name, final boolean isInput) {
+		final VarDeclaration variable = FACTORY.createVarDeclaration();
+		variable.setName(name);
+		variable.setIsInput(isInput);
+		return variable;
+	}
+
+	/** @return a variable which only knows the name of its type, e.g., for exports */
+	public static VarDeclaration createVar(final String name, final String typeName, final boolean isInput) {
+		final VarDeclaration variable = createVar(name, isInput);
+		variable.setTypeName(typeName);
+		return variable;
+	}
+
+	/** @return an interface with the pins REQ, CNF, IN and OUT */
+	public static InterfaceList createInterface() {
+		final InterfaceList interfaceList = FACTORY.createInterfaceList();
+		interfaceList.getEventInputs().add(createEvent(EVENT_INPUT, true));
+		interfaceList.getEventOutputs().add(createEvent(EVENT_OUTPUT, false));
+		interfaceList.getInputVars().add(createVar(DATA_INPUT, true));
+		interfaceList.getOutputVars().add(createVar(DATA_OUTPUT, false));
+		return interfaceList;
+	}
+
+	/** @return an untyped FB with the interface of {@link #createInterface()} added to the network */
+	public static FB createFB(final FBNetwork network, final String name) {
+		final FB fb = FACTORY.createFB();
+		fb.setName(name);
+		fb.setInterface(createInterface());
+		fb.setPosition(FACTORY.createPosition());
+		network.getNetworkElements().add(fb);
+		return fb;
+	}
+
+	/** @return an instance of the entry's type with a copy of its interface added to the network */
+	public static FB createFB(final FBNetwork network, final String name, final FBTypePaletteEntry entry) {
+		final FB fb = FACTORY.createFB();
+		fb.setName(name);
+		fb.setPaletteEntry(entry);
+		fb.setInterface(entry.getFBType().getInterfaceList().copy());
+		fb.setPosition(FACTORY.createPosition());
+		network.getNetworkElements().add(fb);
+		return fb;
+	}
+
+	/** @return a folded subapp with an empty network added to the network */
+	public static SubApp createSubApp(final FBNetwork network, final String name) {
+		final SubApp subApp = FACTORY.createSubApp();
+		subApp.setName(name);
+		subApp.setInterface(createInterface());
+		subApp.setPosition(FACTORY.createPosition());
+		subApp.setSubAppNetwork(FACTORY.createFBNetwork());
+		network.getNetworkElements().add(subApp);
+		return subApp;
+	}
+
+	/** @return a palette entry for a type which is not stored in any type library */
+	public static FBTypePaletteEntry createEntry(final FBType type) {
+		final FBTypePaletteEntry entry = PaletteFactory.eINSTANCE.createFBTypePaletteEntry();
+		entry.setLabel(type.getName());
+		entry.setType(type);
+		return entry;
+	}
+
+	public static Event getEventInput(final FBNetworkElement element) {
+		return element.getInterface().getEventInputs().get(0);
+	}
+
+	public static Event getEventOutput(final FBNetworkElement element) {
+		return element.getInterface().getEventOutputs().get(0);
+	}
+
+	public static VarDeclaration getDataInput(final FBNetworkElement element) {
+		return element.getInterface().getInputVars().get(0);
+	}
+
+	public static VarDeclaration getDataOutput(final FBNetworkElement element) {
+		return element.getInterface().getOutputVars().get(0);
+	}
+
+	public static EventConnection connectEvents(final FBNetwork network, final IInterfaceElement source,
+			final IInterfaceElement destination) {
+		final EventConnection connection = FACTORY.createEventConnection();
+		connection.setSource(source);
+		connection.setDestination(destination);
+		network.getEventConnections().add(connection);
+		return connection;
+	}
+
+	public static DataConnection connectData(final FBNetwork network, final IInterfaceElement source,
+			final IInterfaceElement destination) {
+		final DataConnection connection = FACTORY.createDataConnection();
+		connection.setSource(source);
+		connection.setDestination(destination);
+		network.getDataConnections().add(connection);
+		return connection;
+	}
+
+	/** Connect the first event and the first data output of the source to the first inputs of the destination */
+	public static void connect(final FBNetwork network, final FBNetworkElement source,
+			final FBNetworkElement destination) {
+		connectEvents(network, getEventOutput(source), getEventInput(destination));
+		connectData(network, getDataOutput(source), getDataInput(destination));
+	}
+
+	private FBNetworkTestHelper() {
+		throw new UnsupportedOperationException("FBNetworkTestHelper utility class should not be instantiated!"); //$NON-NLS-1$
+	}
+}
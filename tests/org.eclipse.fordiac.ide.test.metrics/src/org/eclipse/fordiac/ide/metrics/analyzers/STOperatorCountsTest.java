@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.metrics.analyzers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.STAlgorithm;
+import org.junit.jupiter.api.Test;
+
+public class STOperatorCountsTest {
+
+	private static final int SMALL_ALGORITHM = 5000;
+	private static final int LARGE_ALGORITHM = 8 * SMALL_ALGORITHM;
+
+	// one statement: 2 x :=, 1 x +, 1 x *, 1 x <, 1 x AND, 1 x NOT
+	private static final String STATEMENT = "IF (X%1$d < 10) AND NOT Q THEN\n  X%1$d := X%1$d + 1;\n  Y := Y * 2;\nEND_IF;\n"; //$NON-NLS-1$
+
+	private static int index(final String operator) {
+		return Arrays.asList(HalsteadData.ST_OPERATORS).indexOf(operator);
+	}
+
+	private static String generate(final int statements) {
+		final StringBuilder text = new StringBuilder();
+		for (int i = 0; i < statements; i++) {
+			text.append(String.format(STATEMENT, Integer.valueOf(i)));
+		}
+		return text.toString();
+	}
+
+	@Test
+	public void operatorsAreCountedAsTokens() {
+		final STOperatorCounts counts = STOperatorCounts.scan("A := B <= C;\nFOR I := 1 TO MODE DO\n  OR_X := I ** 2;\nEND_FOR;"); //$NON-NLS-1$
+		assertEquals(3, counts.getCount(index(":="))); //$NON-NLS-1$
+		assertEquals(1, counts.getCount(index("<="))); //$NON-NLS-1$
+		assertEquals(1, counts.getCount(index("**"))); //$NON-NLS-1$
+		// neither the < of <= nor the = of := are counted separately
+		assertEquals(0, counts.getCount(index("<"))); //$NON-NLS-1$
+		assertEquals(0, counts.getCount(index("="))); //$NON-NLS-1$
+		// FOR, MODE, and OR_X do not contain the operators OR and MOD
+		assertEquals(0, counts.getCount(index("OR"))); //$NON-NLS-1$
+		assertEquals(0, counts.getCount(index("MOD"))); //$NON-NLS-1$
+		assertEquals(0, counts.getCount(index("*"))); //$NON-NLS-1$
+		assertEquals(5, counts.getOperators());
+		assertEquals(10, counts.getOperands());
+	}
+
+	@Test
+	public void commentsAndStringsAreIgnored() {
+		final STOperatorCounts counts = STOperatorCounts
+				.scan("(* A := B - C *)\n// X AND Y\nS := 'a + b';\nT := \"c / d\";"); //$NON-NLS-1$
+		assertEquals(2, counts.getOperators());
+		assertEquals(2, counts.getCount(index(":="))); //$NON-NLS-1$
+	}
+
+	@Test
+	public void unaryOperatorsHaveOneOperand() {
+		final STOperatorCounts counts = STOperatorCounts.scan("A := -B - (-C) + 1.5E-3;\nD := not H xor F & G;"); //$NON-NLS-1$
+		// the sign of the exponent is part of the literal
+		assertEquals(3, counts.getCount(index("-"))); //$NON-NLS-1$
+		assertEquals(1, counts.getCount(index("+"))); //$NON-NLS-1$
+		assertEquals(1, counts.getCount(index("NOT"))); //$NON-NLS-1$
+		assertEquals(1, counts.getCount(index("XOR"))); //$NON-NLS-1$
+		assertEquals(1, counts.getCount(index("AND"))); //$NON-NLS-1$
+		assertEquals(9, counts.getOperators());
+		// 2 x := + binary -, +, XOR, AND with two operands, 2 x unary - and NOT with one
+		assertEquals(15, counts.getOperands());
+	}
+
+	@Test
+	public void largeAlgorithmsAreCountedCorrectly() {
+		final STOperatorCounts counts = STOperatorCounts.scan(generate(LARGE_ALGORITHM));
+		assertEquals(2 * LARGE_ALGORITHM, counts.getCount(index(":="))); //$NON-NLS-1$
+		assertEquals(LARGE_ALGORITHM, counts.getCount(index("+"))); //$NON-NLS-1$
+		assertEquals(LARGE_ALGORITHM, counts.getCount(index("*"))); //$NON-NLS-1$
+		assertEquals(LARGE_ALGORITHM, counts.getCount(index("<"))); //$NON-NLS-1$
+		assertEquals(LARGE_ALGORITHM, counts.getCount(index("AND"))); //$NON-NLS-1$
+		assertEquals(LARGE_ALGORITHM, counts.getCount(index("NOT"))); //$NON-NLS-1$
+		assertEquals(7 * LARGE_ALGORITHM, counts.getOperators());
+		assertEquals(13 * LARGE_ALGORITHM, counts.getOperands());
+	}
+
+	@Test
+	public void countsOfConcatenatedAlgorithmsAddUp() {
+		final STOperatorCounts small = STOperatorCounts.scan(generate(SMALL_ALGORITHM));
+		final STOperatorCounts large = STOperatorCounts.scan(generate(LARGE_ALGORITHM));
+		// the large algorithm repeats the statements of the small one, every token is scanned once
+		final int factor = LARGE_ALGORITHM / SMALL_ALGORITHM;
+		for (int i = 0; i < HalsteadData.ST_OPERATORS.length; i++) {
+			assertEquals(factor * small.getCount(i), large.getCount(i), HalsteadData.ST_OPERATORS[i]);
+		}
+		assertEquals(factor * small.getOperators(), large.getOperators());
+		assertEquals(factor * small.getOperands(), large.getOperands());
+	}
+
+	@Test
+	public void unchangedAlgorithmsAreNotScannedAgain() {
+		final STAlgorithm algorithm = LibraryElementFactory.eINSTANCE.createSTAlgorithm();
+		algorithm.setName("REQ"); //$NON-NLS-1$
+		algorithm.setText(generate(SMALL_ALGORITHM));
+		final HalsteadMetric metric = new HalsteadMetric();
+
+		final STOperatorCounts counts = metric.getOperatorCounts(algorithm);
+		assertSame(counts, metric.getOperatorCounts(algorithm));
+
+		algorithm.setText(generate(SMALL_ALGORITHM + 1));
+		final STOperatorCounts changed = metric.getOperatorCounts(algorithm);
+		assertNotSame(counts, changed);
+		assertEquals(7 * (SMALL_ALGORITHM + 1), changed.getOperators());
+	}
+}
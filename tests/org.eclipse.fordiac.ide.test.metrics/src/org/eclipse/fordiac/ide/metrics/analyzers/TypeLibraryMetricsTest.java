@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.metrics.analyzers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.fordiac.ide.metrics.analyzers.TypeLibraryMetrics.TypeMetrics;
+import org.eclipse.fordiac.ide.model.Palette.FBTypePaletteEntry;
+import org.eclipse.fordiac.ide.model.Palette.PaletteFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.Application;
+import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.CompositeFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.ECAction;
+import org.eclipse.fordiac.ide.model.libraryElement.ECC;
+import org.eclipse.fordiac.ide.model.libraryElement.ECState;
+import org.eclipse.fordiac.ide.model.libraryElement.FB;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.FBType;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.STAlgorithm;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TypeLibraryMetricsTest {
+
+	private static final int INSTANCE_COUNT = 500;
+	private static final int CFB_NETWORK_SIZE = 10;
+	private static final int TYPE_COUNT = 20;
+
+	private static final class CountingHalsteadMetric extends HalsteadMetric {
+		private final AtomicInteger analyzedTypes = new AtomicInteger();
+
+		@Override
+		protected HalsteadData analyzeBFB(final BasicFBType basicFBType) {
+			analyzedTypes.incrementAndGet();
+			return super.analyzeBFB(basicFBType);
+		}
+	}
+
+	private IProject project;
+	private final List<FBTypePaletteEntry> entries = new ArrayList<>();
+	private FBTypePaletteEntry compositeEntry;
+
+	@BeforeEach
+	public void createLibrary() throws CoreException {
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject("TypeLibraryMetricsTest"); //$NON-NLS-1$
+		project.create(null);
+		project.open(null);
+		for (int i = 0; i < TYPE_COUNT; i++) {
+			entries.add(createEntry("Type" + i, createBasicFBType("Type" + i, i + 1))); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		final CompositeFBType composite = LibraryElementFactory.eINSTANCE.createCompositeFBType();
+		composite.setName("Composite"); //$NON-NLS-1$
+		composite.setFBNetwork(createNetwork(entries.get(0), CFB_NETWORK_SIZE));
+		compositeEntry = createEntry("Composite", composite); //$NON-NLS-1$
+	}
+
+	@AfterEach
+	public void deleteLibrary() throws CoreException {
+		project.delete(true, null);
+	}
+
+	private FBTypePaletteEntry createEntry(final String name, final FBType type) throws CoreException {
+		final IFile file = project.getFile(name + ".fbt"); //$NON-NLS-1$
+		file.create(content(name), true, null);
+		final FBTypePaletteEntry entry = PaletteFactory.eINSTANCE.createFBTypePaletteEntry();
+		entry.setLabel(name);
+		entry.setFile(file);
+		entry.setType(type);
+		entry.setLastModificationTimestamp(file.getModificationStamp());
+		return entry;
+	}
+
+	private static ByteArrayInputStream content(final String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static BasicFBType createBasicFBType(final String name, final int assignments) {
+		final BasicFBType fbType = LibraryElementFactory.eINSTANCE.createBasicFBType();
+		fbType.setName(name);
+		fbType.setInterfaceList(LibraryElementFactory.eINSTANCE.createInterfaceList());
+		final STAlgorithm algorithm = LibraryElementFactory.eINSTANCE.createSTAlgorithm();
+		algorithm.setName("REQ"); //$NON-NLS-1$
+		final StringBuilder text = new StringBuilder();
+		for (int i = 0; i < assignments; i++) {
+			text.append("IF X > ").append(i).append(" THEN\n  Y := Y + 1;\nEND_IF;\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		algorithm.setText(text.toString());
+		fbType.getAlgorithm().add(algorithm);
+
+		final ECC ecc = LibraryElementFactory.eINSTANCE.createECC();
+		final ECState state = LibraryElementFactory.eINSTANCE.createECState();
+		state.setName("REQ"); //$NON-NLS-1$
+		final ECAction action = LibraryElementFactory.eINSTANCE.createECAction();
+		action.setAlgorithm(algorithm);
+		state.getECAction().add(action);
+		ecc.getECState().add(state);
+		fbType.setECC(ecc);
+		return fbType;
+	}
+
+	private static FBNetwork createNetwork(final FBTypePaletteEntry entry, final int size) {
+		final FBNetwork network = LibraryElementFactory.eINSTANCE.createFBNetwork();
+		for (int i = 0; i < size; i++) {
+			final FB fb = LibraryElementFactory.eINSTANCE.createFB();
+			fb.setName("FB" + i); //$NON-NLS-1$
+			fb.setPaletteEntry(entry);
+			network.getNetworkElements().add(fb);
+		}
+		return network;
+	}
+
+	private static Application createApplication(final FBTypePaletteEntry entry) {
+		final Application application = LibraryElementFactory.eINSTANCE.createApplication();
+		application.setName("App"); //$NON-NLS-1$
+		application.setFBNetwork(createNetwork(entry, INSTANCE_COUNT));
+		return application;
+	}
+
+	@Test
+	public void instancesOfTheSameTypeAreAnalyzedOnce() {
+		final CountingHalsteadMetric analyzer = new CountingHalsteadMetric();
+		analyzer.calculateMetrics(createApplication(entries.get(0)));
+		assertEquals(1, analyzer.analyzedTypes.get());
+
+		final List<MetricResult> typeResults = new HalsteadMetric().calculateTypeMetrics(entries.get(0).getFBType());
+		assertEquals(typeResults.get(0).getValue(), analyzer.getResults().get(0).getValue(), 1e-9);
+	}
+
+	@Test
+	public void compositeNetworksAreAnalyzedOnce() {
+		final CountingHalsteadMetric analyzer = new CountingHalsteadMetric();
+		final Application application = createApplication(compositeEntry);
+		analyzer.calculateMetrics(application);
+		final List<MetricResult> results = analyzer.getResults();
+		assertEquals(1, analyzer.analyzedTypes.get());
+
+		analyzer.calculateMetrics(application);
+		assertEquals(1, analyzer.analyzedTypes.get());
+		assertEquals(results, analyzer.getResults());
+	}
+
+	@Test
+	public void modifiedTypesAreAnalyzedAgain() throws CoreException {
+		final CountingHalsteadMetric analyzer = new CountingHalsteadMetric();
+		final Application application = createApplication(compositeEntry);
+		analyzer.calculateMetrics(application);
+
+		// the composite type has to be analyzed again when a type in its network changes
+		final IFile changed = entries.get(0).getFile();
+		changed.setContents(content("changed"), true, false, null); //$NON-NLS-1$
+		entries.get(0).setLastModificationTimestamp(changed.getModificationStamp());
+		analyzer.calculateMetrics(application);
+		assertEquals(2, analyzer.analyzedTypes.get());
+
+		analyzer.clearCache();
+		analyzer.calculateMetrics(application);
+		assertEquals(3, analyzer.analyzedTypes.get());
+	}
+
+	@Test
+	public void reloadedTypesReuseTheDataOfTheirFile() {
+		final CountingHalsteadMetric analyzer = new CountingHalsteadMetric();
+		final Application application = createApplication(entries.get(0));
+		analyzer.calculateMetrics(application);
+		final List<MetricResult> results = analyzer.getResults();
+
+		// the unchanged file is loaded again into a new type object
+		entries.get(0).setType(createBasicFBType("Type0", 1)); //$NON-NLS-1$
+		analyzer.calculateMetrics(application);
+		assertEquals(1, analyzer.analyzedTypes.get());
+		assertEquals(results, analyzer.getResults());
+	}
+
+	@Test
+	public void cyclomaticNumbersOfAllUsedTypesAreReported() {
+		final CyclomaticComplexity analyzer = new CyclomaticComplexity();
+		analyzer.calculateMetrics(createApplication(compositeEntry));
+		final List<MetricResult> results = analyzer.getResults();
+
+		assertEquals("Cyclomatic Number App", results.get(0).getName()); //$NON-NLS-1$
+		assertEquals(3, results.size());
+		assertEquals("Cyclomatic Number Type0", results.get(1).getName()); //$NON-NLS-1$
+		assertEquals("Cyclomatic Number Composite", results.get(2).getName()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void parallelReportMatchesSequentialReport() throws InterruptedException {
+		final List<FBTypePaletteEntry> library = new ArrayList<>(entries);
+		library.add(compositeEntry);
+		final CountingHalsteadMetric analyzer = new CountingHalsteadMetric();
+		final TypeLibraryMetrics metrics = new TypeLibraryMetrics(
+				Arrays.asList(new CyclomaticComplexity(), analyzer), 4);
+
+		final List<TypeMetrics> parallel = metrics.analyze(library, null);
+		final List<TypeMetrics> sequential = new TypeLibraryMetrics(
+				Arrays.asList(new CyclomaticComplexity(), new HalsteadMetric()), 1).analyze(library, null);
+
+		assertEquals(TYPE_COUNT + 1, parallel.size());
+		assertEquals("Composite", parallel.get(0).getTypeName()); //$NON-NLS-1$
+		for (int i = 0; i < parallel.size(); i++) {
+			assertEquals(sequential.get(i).getTypeName(), parallel.get(i).getTypeName());
+			assertEquals(sequential.get(i).getResults(), parallel.get(i).getResults());
+		}
+		// every basic type at most twice, if the composite type raced with its network type
+		assertTrue(analyzer.analyzedTypes.get() <= (TYPE_COUNT + 1));
+
+		final int analyzed = analyzer.analyzedTypes.get();
+		metrics.analyze(library, null);
+		assertEquals(analyzed, analyzer.analyzedTypes.get());
+	}
+
+	@Test
+	public void reportIsWrittenAsCSVAndJSON() throws InterruptedException, IOException {
+		final List<TypeMetrics> metrics = new TypeLibraryMetrics().analyze(entries.subList(0, 2), null);
+
+		final StringWriter csv = new StringWriter();
+		TypeLibraryMetrics.writeCSV(metrics, csv);
+		final String[] lines = csv.toString().split("\n"); //$NON-NLS-1$
+		assertEquals("Type,Metric,Value", lines[0]); //$NON-NLS-1$
+		assertTrue(lines[1].startsWith("Type0,Cyclomatic Number Type0,")); //$NON-NLS-1$
+		assertEquals(1 + metrics.get(0).getResults().size() + metrics.get(1).getResults().size(), lines.length);
+
+		final StringWriter json = new StringWriter();
+		TypeLibraryMetrics.writeJSON(metrics, json);
+		assertTrue(json.toString().startsWith("{\n  \"Type0\": {\n    \"Cyclomatic Number Type0\": ")); //$NON-NLS-1$
+		assertTrue(json.toString().contains("\"Type1\": {")); //$NON-NLS-1$
+		assertTrue(json.toString().endsWith("  }\n}\n")); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.model.commands.change;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.fordiac.ide.model.Palette.FBTypePaletteEntry;
+import org.eclipse.fordiac.ide.model.commands.testinfra.FBNetworkTestBase;
+import org.eclipse.fordiac.ide.model.commands.testinfra.FBNetworkTestBase.State;
+import org.eclipse.fordiac.ide.model.libraryElement.Application;
+import org.eclipse.fordiac.ide.model.libraryElement.AutomationSystem;
+import org.eclipse.fordiac.ide.model.libraryElement.DataConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.Event;
+import org.eclipse.fordiac.ide.model.libraryElement.EventConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.FB;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.fordiac.ide.model.libraryElement.InterfaceList;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.Resource;
+import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
+import org.eclipse.fordiac.ide.model.typelibrary.EventTypeLibrary;
+import org.eclipse.gef.commands.CompoundCommand;
+import org.junit.jupiter.api.Test;
+
+public class MapToResourcesCommandTest {
+
+	private static final int FB_COUNT = 3000;
+	private static final int RESOURCE_COUNT = 4;
+	/* consecutive FBs of the chain mapped to the same resource */
+	private static final int BLOCK_SIZE = 10;
+
+	/** An application with a chain of FBs and some resources to map them to */
+	private static final class SyntheticSystem {
+		private final AutomationSystem system = LibraryElementFactory.eINSTANCE.createAutomationSystem();
+		private final Application application = LibraryElementFactory.eINSTANCE.createApplication();
+		private final List<Resource> resources = new ArrayList<>();
+		private final List<FBNetworkElement> fbs = new ArrayList<>();
+
+		private SyntheticSystem() {
+			final FBTypePaletteEntry entry = new State().getFunctionblock();
+			entry.getFBType().setInterfaceList(createInterface());
+
+			application.setFBNetwork(LibraryElementFactory.eINSTANCE.createFBNetwork());
+			system.getApplication().add(application);
+			for (int i = 0; i < RESOURCE_COUNT; i++) {
+				final Resource resource = LibraryElementFactory.eINSTANCE.createResource();
+				resource.setName("Resource" + i); //$NON-NLS-1$
+				resource.setFBNetwork(LibraryElementFactory.eINSTANCE.createFBNetwork());
+				resources.add(resource);
+			}
+			final FBNetwork network = application.getFBNetwork();
+			for (int i = 0; i < FB_COUNT; i++) {
+				final FB fb = LibraryElementFactory.eINSTANCE.createFB();
+				fb.setName("FB" + i); //$NON-NLS-1$
+				fb.setPaletteEntry(entry);
+				fb.setInterface(entry.getFBType().getInterfaceList().copy());
+				fb.setPosition(LibraryElementFactory.eINSTANCE.createPosition());
+				network.getNetworkElements().add(fb);
+				if (i > 0) {
+					connect(network, fbs.get(i - 1), fb);
+				}
+				fbs.add(fb);
+			}
+		}
+
+		private Map<FBNetworkElement, Resource> getAssignment() {
+			final Map<FBNetworkElement, Resource> assignment = new LinkedHashMap<>();
+			for (int i = 0; i < FB_COUNT; i++) {
+				assignment.put(fbs.get(i), resources.get((i / BLOCK_SIZE) % RESOURCE_COUNT));
+			}
+			return assignment;
+		}
+
+		private int getMappedElementCount() {
+			return resources.stream().mapToInt(res -> res.getFBNetwork().getNetworkElements().size()).sum();
+		}
+
+		private int getResourceConnectionCount() {
+			return resources.stream().mapToInt(res -> res.getFBNetwork().getEventConnections().size()
+					+ res.getFBNetwork().getDataConnections().size()).sum();
+		}
+	}
+
+	private static InterfaceList createInterface() {
+		final InterfaceList interfaceList = LibraryElementFactory.eINSTANCE.createInterfaceList();
+		final Event req = LibraryElementFactory.eINSTANCE.createEvent();
+		req.setName("REQ"); //$NON-NLS-1$
+		req.setIsInput(true);
+		req.setType(EventTypeLibrary.getInstance().getType(null));
+		interfaceList.getEventInputs().add(req);
+		final Event cnf = LibraryElementFactory.eINSTANCE.createEvent();
+		cnf.setName("CNF"); //$NON-NLS-1$
+		cnf.setType(EventTypeLibrary.getInstance().getType(null));
+		interfaceList.getEventOutputs().add(cnf);
+		final VarDeclaration in = LibraryElementFactory.eINSTANCE.createVarDeclaration();
+		in.setName("IN"); //$NON-NLS-1$
+		in.setIsInput(true);
+		in.setType(FBNetworkTestBase.getDatatypelib().getType("INT")); //$NON-NLS-1$
+		interfaceList.getInputVars().add(in);
+		final VarDeclaration out = LibraryElementFactory.eINSTANCE.createVarDeclaration();
+		out.setName("OUT"); //$NON-NLS-1$
+		out.setType(FBNetworkTestBase.getDatatypelib().getType("INT")); //$NON-NLS-1$
+		interfaceList.getOutputVars().add(out);
+		return interfaceList;
+	}
+
+	private static void connect(final FBNetwork network, final FBNetworkElement source,
+			final FBNetworkElement destination) {
+		final EventConnection eventConnection = LibraryElementFactory.eINSTANCE.createEventConnection();
+		eventConnection.setSource(source.getInterface().getEventOutputs().get(0));
+		eventConnection.setDestination(destination.getInterface().getEventInputs().get(0));
+		network.getEventConnections().add(eventConnection);
+		final DataConnection dataConnection = LibraryElementFactory.eINSTANCE.createDataConnection();
+		dataConnection.setSource(source.getInterface().getOutputVars().get(0));
+		dataConnection.setDestination(destination.getInterface().getInputVars().get(0));
+		network.getDataConnections().add(dataConnection);
+	}
+
+	/* only the connections within a block stay within one resource */
+	private static int getExpectedResourceConnectionCount() {
+		final int blocks = FB_COUNT / BLOCK_SIZE;
+		return 2 * blocks * (BLOCK_SIZE - 1);
+	}
+
+	@Test
+	public void bulkMappingIsEquivalentToSingleMapping() {
+		final SyntheticSystem single = new SyntheticSystem();
+		final CompoundCommand singleCmd = new CompoundCommand();
+		single.getAssignment().forEach((element, resource) -> singleCmd.add(new MapToCommand(element, resource)));
+		singleCmd.execute();
+
+		final SyntheticSystem bulk = new SyntheticSystem();
+		final MapToResourcesCommand bulkCmd = new MapToResourcesCommand(bulk.getAssignment());
+		assertTrue(bulkCmd.canExecute());
+		bulkCmd.execute();
+
+		assertEquals(FB_COUNT, single.getMappedElementCount());
+		assertEquals(FB_COUNT, bulk.getMappedElementCount());
+		assertEquals(getExpectedResourceConnectionCount(), single.getResourceConnectionCount());
+		assertEquals(getExpectedResourceConnectionCount(), bulk.getResourceConnectionCount());
+		assertEquals(FB_COUNT, bulk.system.getMapping().size());
+		for (int i = 0; i < RESOURCE_COUNT; i++) {
+			assertEquals(single.resources.get(i).getFBNetwork().getNetworkElements().size(),
+					bulk.resources.get(i).getFBNetwork().getNetworkElements().size());
+		}
+		// no connections are added to the application
+		assertEquals(FB_COUNT - 1, bulk.application.getFBNetwork().getDataConnections().size());
+	}
+
+	@Test
+	public void undoAndRedoRestoreTheMapping() {
+		final SyntheticSystem bulk = new SyntheticSystem();
+		final MapToResourcesCommand cmd = new MapToResourcesCommand(bulk.getAssignment());
+		cmd.execute();
+		final FBNetworkElement first = bulk.fbs.get(0);
+		assertSame(bulk.resources.get(0), first.getResource());
+
+		cmd.undo();
+		assertEquals(0, bulk.getMappedElementCount());
+		assertEquals(0, bulk.getResourceConnectionCount());
+		assertTrue(bulk.system.getMapping().isEmpty());
+		assertFalse(first.isMapped());
+		assertEquals(1, first.getInterface().getEventOutputs().get(0).getOutputConnections().size());
+
+		cmd.redo();
+		assertEquals(FB_COUNT, bulk.getMappedElementCount());
+		assertEquals(getExpectedResourceConnectionCount(), bulk.getResourceConnectionCount());
+		assertSame(bulk.resources.get(0), first.getResource());
+		assertEquals(1, first.getOpposite().getInterface().getEventOutputs().get(0).getOutputConnections().size());
+	}
+
+	@Test
+	public void remappingMovesElementsAndConnections() {
+		final SyntheticSystem bulk = new SyntheticSystem();
+		new MapToResourcesCommand(bulk.getAssignment()).execute();
+
+		final Map<FBNetworkElement, Resource> remap = new LinkedHashMap<>();
+		remap.put(bulk.fbs.get(0), bulk.resources.get(1));
+		remap.put(bulk.fbs.get(1), bulk.resources.get(1));
+		final MapToResourcesCommand cmd = new MapToResourcesCommand(remap);
+		cmd.execute();
+
+		assertSame(bulk.resources.get(1), bulk.fbs.get(0).getResource());
+		assertEquals(FB_COUNT, bulk.getMappedElementCount());
+		// the connection between the first two FBs moved with them, the one to the third FB is broken now
+		assertEquals(getExpectedResourceConnectionCount() - 2, bulk.getResourceConnectionCount());
+
+		cmd.undo();
+		assertSame(bulk.resources.get(0), bulk.fbs.get(0).getResource());
+		assertEquals(getExpectedResourceConnectionCount(), bulk.getResourceConnectionCount());
+	}
+}
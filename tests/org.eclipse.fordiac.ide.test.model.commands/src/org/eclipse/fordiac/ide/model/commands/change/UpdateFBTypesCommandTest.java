@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.model.commands.change;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.fordiac.ide.model.Palette.FBTypePaletteEntry;
+import org.eclipse.fordiac.ide.model.commands.testinfra.FBNetworkTestBase;
+import org.eclipse.fordiac.ide.model.commands.testinfra.FBNetworkTestBase.State;
+import org.eclipse.fordiac.ide.model.data.DataType;
+import org.eclipse.fordiac.ide.model.libraryElement.Connection;
+import org.eclipse.fordiac.ide.model.libraryElement.DataConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.Event;
+import org.eclipse.fordiac.ide.model.libraryElement.EventConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.FB;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.fordiac.ide.model.libraryElement.InterfaceList;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementPackage;
+import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
+import org.eclipse.fordiac.ide.model.typelibrary.EventTypeLibrary;
+import org.junit.jupiter.api.Test;
+
+public class UpdateFBTypesCommandTest {
+
+	private static final int INSTANCES = 5000;
+	private static final String ADDED_INPUT = "ADDED"; //$NON-NLS-1$
+	private static final String VALUE = "5"; //$NON-NLS-1$
+
+	private static final DataType INT = FBNetworkTestBase.getDatatypelib().getType("INT"); //$NON-NLS-1$
+
+	private static InterfaceList createInterface(final boolean withAddedInput) {
+		final InterfaceList interfaceList = LibraryElementFactory.eINSTANCE.createInterfaceList();
+		interfaceList.getEventInputs().add(createEvent("REQ", true)); //$NON-NLS-1$
+		interfaceList.getEventOutputs().add(createEvent("CNF", false)); //$NON-NLS-1$
+		interfaceList.getInputVars().add(createVar("IN", true)); //$NON-NLS-1$
+		if (withAddedInput) {
+			interfaceList.getInputVars().add(createVar(ADDED_INPUT, true));
+		}
+		interfaceList.getOutputVars().add(createVar("OUT", false)); //$NON-NLS-1$
+		return interfaceList;
+	}
+
+	private static Event createEvent(final String name, final boolean isInput) {
+		final Event event = LibraryElementFactory.eINSTANCE.createEvent();
+		event.setName(name);
+		event.setIsInput(isInput);
+		event.setType(EventTypeLibrary.getInstance().getType(null));
+		return event;
+	}
+
+	private static VarDeclaration createVar(final String name, final boolean isInput) {
+		final VarDeclaration variable = LibraryElementFactory.eINSTANCE.createVarDeclaration();
+		variable.setName(name);
+		variable.setIsInput(isInput);
+		variable.setType(INT);
+		variable.setValue(LibraryElementFactory.eINSTANCE.createValue());
+		return variable;
+	}
+
+	/* instances of the old version of the type, the new version has an additional input */
+	private static List<FBNetworkElement> createChain(final FBNetwork network, final FBTypePaletteEntry entry) {
+		final List<FBNetworkElement> chain = new ArrayList<>(INSTANCES);
+		for (int i = 0; i < INSTANCES; i++) {
+			final FB fb = LibraryElementFactory.eINSTANCE.createFB();
+			fb.setName("FB" + i); //$NON-NLS-1$
+			fb.setPaletteEntry(entry);
+			fb.setInterface(createInterface(false));
+			fb.getInterface().getInputVars().get(0).getValue().setValue(VALUE);
+			fb.setPosition(LibraryElementFactory.eINSTANCE.createPosition());
+			network.getNetworkElements().add(fb);
+			if (i > 0) {
+				connect(network, chain.get(i - 1), fb);
+			}
+			chain.add(fb);
+		}
+		return chain;
+	}
+
+	private static void connect(final FBNetwork network, final FBNetworkElement source,
+			final FBNetworkElement destination) {
+		final EventConnection eventConnection = LibraryElementFactory.eINSTANCE.createEventConnection();
+		eventConnection.setSource(source.getInterface().getEventOutputs().get(0));
+		eventConnection.setDestination(destination.getInterface().getEventInputs().get(0));
+		network.getEventConnections().add(eventConnection);
+		final DataConnection dataConnection = LibraryElementFactory.eINSTANCE.createDataConnection();
+		dataConnection.setSource(source.getInterface().getOutputVars().get(0));
+		dataConnection.setDestination(destination.getInterface().getInputVars().get(0));
+		network.getDataConnections().add(dataConnection);
+	}
+
+	private static FBTypePaletteEntry createEntry() {
+		final FBTypePaletteEntry entry = new State().getFunctionblock();
+		entry.getFBType().setInterfaceList(createInterface(true));
+		return entry;
+	}
+
+	private static void verifyConnected(final FBNetwork network) {
+		for (final Connection connection : network.getEventConnections()) {
+			assertSame(network, connection.getSourceElement().getFbNetwork());
+			assertSame(network, connection.getDestinationElement().getFbNetwork());
+		}
+		for (final Connection connection : network.getDataConnections()) {
+			assertSame(network, connection.getSourceElement().getFbNetwork());
+			assertSame(network, connection.getDestinationElement().getFbNetwork());
+		}
+	}
+
+	/* one notification removes and one adds the given number of objects of the feature */
+	private static void assertReplaced(final List<Notification> notifications, final EStructuralFeature feature,
+			final int count) {
+		final List<Notification> ofFeature = notifications.stream()
+				.filter(notification -> feature == notification.getFeature()).collect(Collectors.toList());
+		assertEquals(2, ofFeature.size());
+		assertEquals(Notification.REMOVE_MANY, ofFeature.get(0).getEventType());
+		assertEquals(count, ((Collection<?>) ofFeature.get(0).getOldValue()).size());
+		assertEquals(Notification.ADD_MANY, ofFeature.get(1).getEventType());
+		assertEquals(count, ((Collection<?>) ofFeature.get(1).getNewValue()).size());
+	}
+
+	@Test
+	public void allInstancesAreUpdatedInOneGo() {
+		final FBNetwork network = LibraryElementFactory.eINSTANCE.createFBNetwork();
+		final FBTypePaletteEntry entry = createEntry();
+		final List<FBNetworkElement> chain = createChain(network, entry);
+		final List<Connection> connections = new ArrayList<>(network.getDataConnections());
+
+		final List<Notification> notifications = new ArrayList<>();
+		network.eAdapters().add(new AdapterImpl() {
+			@Override
+			public void notifyChanged(final Notification notification) {
+				notifications.add(notification);
+			}
+		});
+
+		final UpdateFBTypesCommand cmd = new UpdateFBTypesCommand(network, chain);
+		assertTrue(cmd.canExecute());
+		cmd.execute();
+
+		assertEquals(INSTANCES, network.getNetworkElements().size());
+		for (int i = 0; i < INSTANCES; i++) {
+			final FBNetworkElement updated = network.getNetworkElements().get(i);
+			assertNotSame(chain.get(i), updated);
+			assertEquals(chain.get(i).getName(), updated.getName());
+			assertNotNull(updated.getInterface().getVariable(ADDED_INPUT));
+			assertEquals(VALUE, updated.getInterface().getVariable("IN").getValue().getValue()); //$NON-NLS-1$
+		}
+		assertEquals(INSTANCES - 1, network.getEventConnections().size());
+		assertEquals(INSTANCES - 1, network.getDataConnections().size());
+		verifyConnected(network);
+		// every list of the network was refreshed once for the removed and once for the
+		// added elements
+		assertEquals(6, notifications.size());
+		assertReplaced(notifications, LibraryElementPackage.Literals.FB_NETWORK__NETWORK_ELEMENTS, INSTANCES);
+		assertReplaced(notifications, LibraryElementPackage.Literals.FB_NETWORK__EVENT_CONNECTIONS, INSTANCES - 1);
+		assertReplaced(notifications, LibraryElementPackage.Literals.FB_NETWORK__DATA_CONNECTIONS, INSTANCES - 1);
+
+		cmd.undo();
+		assertEquals(chain, network.getNetworkElements());
+		assertEquals(connections, network.getDataConnections());
+		verifyConnected(network);
+		assertEquals(1, chain.get(1).getInterface().getInputVars().get(0).getInputConnections().size());
+
+		cmd.redo();
+		assertNotSame(chain.get(0), network.getNetworkElements().get(0));
+		assertEquals(INSTANCES - 1, network.getDataConnections().size());
+		verifyConnected(network);
+	}
+
+	@Test
+	public void connectionsToOtherElementsAreKept() {
+		final FBNetwork network = LibraryElementFactory.eINSTANCE.createFBNetwork();
+		final FBTypePaletteEntry entry = createEntry();
+		final List<FBNetworkElement> chain = createChain(network, entry);
+		final FB untyped = LibraryElementFactory.eINSTANCE.createFB();
+		untyped.setName("Untyped"); //$NON-NLS-1$
+		untyped.setInterface(createInterface(false));
+		network.getNetworkElements().add(untyped);
+		connect(network, untyped, chain.get(0));
+
+		final Event cnf = untyped.getInterface().getEventOutputs().get(0);
+		final List<Notification> notifications = new ArrayList<>();
+		cnf.eAdapters().add(new AdapterImpl() {
+			@Override
+			public void notifyChanged(final Notification notification) {
+				notifications.add(notification);
+			}
+		});
+
+		final UpdateFBTypesCommand cmd = new UpdateFBTypesCommand(network, chain);
+		cmd.execute();
+
+		// the pin which stays in the network is told that its connection was replaced
+		assertEquals(2, notifications.size());
+		assertReplaced(notifications, LibraryElementPackage.Literals.IINTERFACE_ELEMENT__OUTPUT_CONNECTIONS, 1);
+		assertEquals(1, cnf.getOutputConnections().size());
+		assertSame(network.getNetworkElements().get(0), cnf.getOutputConnections().get(0).getDestinationElement());
+
+		cmd.undo();
+		assertEquals(1, cnf.getOutputConnections().size());
+		assertSame(chain.get(0), cnf.getOutputConnections().get(0).getDestinationElement());
+	}
+}
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.model.commands.create;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.ecore.util.InternalEList;
+import org.eclipse.fordiac.ide.model.helpers.FBNetworkConnectionIndex;
+import org.eclipse.fordiac.ide.model.libraryElement.Connection;
+import org.eclipse.fordiac.ide.model.libraryElement.Event;
+import org.eclipse.fordiac.ide.model.libraryElement.EventConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.FB;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
+import org.eclipse.fordiac.ide.model.libraryElement.InterfaceList;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.typelibrary.EventTypeLibrary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LinkConstraintsTest {
+
+	private static final int FAN_OUT = 10000;
+
+	private FBNetwork network;
+	private FB clock;
+	private final List<FB> receivers = new ArrayList<>(FAN_OUT);
+
+	@BeforeEach
+	public void createNetwork() {
+		network = LibraryElementFactory.eINSTANCE.createFBNetwork();
+		clock = createFB("CLOCK"); //$NON-NLS-1$
+		for (int i = 0; i < FAN_OUT; i++) {
+			final FB receiver = createFB("FB" + i); //$NON-NLS-1$
+			receivers.add(receiver);
+			connect(getOutput(clock), getInput(receiver));
+		}
+	}
+
+	private FB createFB(final String name) {
+		final FB fb = LibraryElementFactory.eINSTANCE.createFB();
+		fb.setName(name);
+		final InterfaceList interfaceList = LibraryElementFactory.eINSTANCE.createInterfaceList();
+		interfaceList.getEventInputs().add(createEvent("REQ", true)); //$NON-NLS-1$
+		interfaceList.getEventOutputs().add(createEvent("CNF", false)); //$NON-NLS-1$
+		fb.setInterface(interfaceList);
+		network.getNetworkElements().add(fb);
+		return fb;
+	}
+
+	private static Event createEvent(final String name, final boolean isInput) {
+		final Event event = LibraryElementFactory.eINSTANCE.createEvent();
+		event.setName(name);
+		event.setIsInput(isInput);
+		event.setType(EventTypeLibrary.getInstance().getType(null));
+		return event;
+	}
+
+	private static Event getInput(final FB fb) {
+		return fb.getInterface().getEventInputs().get(0);
+	}
+
+	private static Event getOutput(final FB fb) {
+		return fb.getInterface().getEventOutputs().get(0);
+	}
+
+	private EventConnection connect(final IInterfaceElement source, final IInterfaceElement destination) {
+		final EventConnection connection = LibraryElementFactory.eINSTANCE.createEventConnection();
+		connection.setSource(source);
+		connection.setDestination(destination);
+		network.getEventConnections().add(connection);
+		return connection;
+	}
+
+	private boolean canConnect(final IInterfaceElement source, final IInterfaceElement destination) {
+		return LinkConstraints.canExistEventConnection(source, destination, network);
+	}
+
+	/* empty the output connection list of a pin without notifying anybody, only the index still knows the connections */
+	private static void hideOutputConnections(final IInterfaceElement pin) {
+		final InternalEList<Connection> outputConnections = (InternalEList<Connection>) pin.getOutputConnections();
+		for (final Connection connection : new ArrayList<>(outputConnections)) {
+			outputConnections.basicRemove(connection, null);
+		}
+	}
+
+	/* how duplicates were found before the index */
+	private static boolean scanOutputConnections(final IInterfaceElement source,
+			final IInterfaceElement destination) {
+		for (final Connection connection : source.getOutputConnections()) {
+			if (connection.getDestination() == destination) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Test
+	public void duplicateCheckOnHighFanOutPinIsIndexed() {
+		final Event clockOutput = getOutput(clock);
+		// the index is built with the first check
+		assertFalse(canConnect(clockOutput, getInput(receivers.get(0))));
+
+		// a scan of the pin's connections would no longer find the duplicates
+		hideOutputConnections(clockOutput);
+		for (final FB receiver : receivers) {
+			assertFalse(scanOutputConnections(clockOutput, getInput(receiver)));
+			assertFalse(canConnect(clockOutput, getInput(receiver)));
+		}
+
+		// pins which are not connected yet can still be connected
+		assertTrue(canConnect(getOutput(receivers.get(0)), getInput(receivers.get(1))));
+		assertTrue(canConnect(clockOutput, getInput(clock)));
+	}
+
+	@Test
+	public void indexFollowsConnectionChanges() {
+		final Event clockOutput = getOutput(clock);
+		final Event firstInput = getInput(receivers.get(0));
+		final Event secondOutput = getOutput(receivers.get(1));
+		assertFalse(canConnect(clockOutput, firstInput));
+
+		final EventConnection connection = (EventConnection) clockOutput.getOutputConnections().get(0);
+		assertSame(firstInput, connection.getDestination());
+		network.getEventConnections().remove(connection);
+		assertTrue(canConnect(clockOutput, firstInput));
+
+		network.getEventConnections().add(connection);
+		assertFalse(canConnect(clockOutput, firstInput));
+
+		// reconnecting the source or destination moves the connection in the index
+		connection.setSource(secondOutput);
+		assertTrue(canConnect(clockOutput, firstInput));
+		assertFalse(canConnect(secondOutput, firstInput));
+		connection.setDestination(getInput(clock));
+		assertTrue(canConnect(secondOutput, firstInput));
+		assertFalse(canConnect(secondOutput, getInput(clock)));
+
+		// bulk changes of the connection list
+		final List<Connection> all = new ArrayList<>(network.getEventConnections());
+		network.getEventConnections().clear();
+		assertTrue(canConnect(secondOutput, getInput(clock)));
+		assertTrue(canConnect(clockOutput, getInput(receivers.get(2))));
+		network.getEventConnections().addAll(all);
+		assertFalse(canConnect(secondOutput, getInput(clock)));
+		assertFalse(canConnect(clockOutput, getInput(receivers.get(2))));
+	}
+
+	@Test
+	public void parallelConnectionsAreCounted() {
+		final Event clockOutput = getOutput(clock);
+		final Event firstInput = getInput(receivers.get(0));
+		final EventConnection parallel = connect(clockOutput, firstInput);
+		final FBNetworkConnectionIndex index = FBNetworkConnectionIndex.get(network);
+
+		network.getEventConnections().remove(parallel);
+		assertTrue(index.isConnected(clockOutput, firstInput));
+		network.getEventConnections().remove(clockOutput.getOutputConnections().get(0));
+		assertFalse(index.isConnected(clockOutput, firstInput));
+	}
+
+	@Test
+	public void invalidatedIndexIsBuiltAgain() {
+		final FBNetworkConnectionIndex index = FBNetworkConnectionIndex.get(network);
+		assertSame(index, FBNetworkConnectionIndex.get(network));
+		final Connection connection = network.getEventConnections().get(0);
+		assertTrue(connection.eAdapters().contains(index));
+
+		FBNetworkConnectionIndex.invalidate(network);
+		assertFalse(network.eAdapters().contains(index));
+		assertFalse(connection.eAdapters().contains(index));
+		assertFalse(index.isConnected(connection.getSource(), connection.getDestination()));
+
+		final FBNetworkConnectionIndex rebuilt = FBNetworkConnectionIndex.get(network);
+		assertNotSame(index, rebuilt);
+		assertTrue(rebuilt.isConnected(connection.getSource(), connection.getDestination()));
+		assertEquals(1, network.eAdapters().size());
+	}
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.model.commands.delete;
+
+import static org.eclipse.fordiac.ide.test.infra.FBNetworkTestHelper.connectEvents;
+import static org.eclipse.fordiac.ide.test.infra.FBNetworkTestHelper.createFB;
+import static org.eclipse.fordiac.ide.test.infra.FBNetworkTestHelper.getEventInput;
+import static org.eclipse.fordiac.ide.test.infra.FBNetworkTestHelper.getEventOutput;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.fordiac.ide.model.libraryElement.Connection;
+import org.eclipse.fordiac.ide.model.libraryElement.FB;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.gef.commands.Command;
+import org.eclipse.gef.commands.CompoundCommand;
+import org.junit.jupiter.api.Test;
+
+public class DeleteFBNetworkElementsCommandTest {
+
+	private static final int FB_COUNT = 4000;
+	private static final int DELETE_COUNT = 2000;
+
+	/* a chain of FBs which are all triggered by one clock FB */
+	private static final class ChainNetwork {
+		private final FBNetwork network = LibraryElementFactory.eINSTANCE.createFBNetwork();
+		private final FB clock;
+		private final List<FB> chain = new ArrayList<>(FB_COUNT);
+
+		private ChainNetwork() {
+			clock = createFB(network, "CLOCK"); //$NON-NLS-1$
+			for (int i = 0; i < FB_COUNT; i++) {
+				final FB fb = createFB(network, "FB" + i); //$NON-NLS-1$
+				connectEvents(network, getEventOutput(clock), getEventInput(fb));
+				if (!chain.isEmpty()) {
+					connectEvents(network, getEventOutput(chain.get(chain.size() - 1)), getEventInput(fb));
+				}
+				chain.add(fb);
+			}
+		}
+
+		/* the first FBs of the chain, the connections between them belong to two deleted FBs */
+		private List<FB> getDeleted() {
+			return chain.subList(0, DELETE_COUNT);
+		}
+	}
+
+	/* counts the list notifications of a network or a pin */
+	private static final class ListNotificationCounter extends AdapterImpl {
+		private int count;
+
+		@Override
+		public void notifyChanged(final Notification notification) {
+			if (!notification.isTouch() && (Notification.REMOVING_ADAPTER != notification.getEventType())) {
+				count++;
+			}
+		}
+	}
+
+	private static void verifyDeleted(final ChainNetwork chainNetwork) {
+		final FBNetwork network = chainNetwork.network;
+		assertEquals(FB_COUNT - DELETE_COUNT + 1, network.getNetworkElements().size());
+		// the clock keeps the connections to the remaining FBs, the chain loses the link into the deleted part
+		assertEquals((FB_COUNT - DELETE_COUNT) + (FB_COUNT - DELETE_COUNT - 1), network.getEventConnections().size());
+		assertEquals(FB_COUNT - DELETE_COUNT, getEventOutput(chainNetwork.clock).getOutputConnections().size());
+		for (final FB fb : chainNetwork.getDeleted()) {
+			assertNull(fb.getFbNetwork());
+			assertTrue(getEventInput(fb).getInputConnections().isEmpty());
+			assertTrue(getEventOutput(fb).getOutputConnections().isEmpty());
+		}
+		final FB firstRemaining = chainNetwork.chain.get(DELETE_COUNT);
+		assertEquals(1, getEventInput(firstRemaining).getInputConnections().size());
+		assertSame(getEventOutput(chainNetwork.clock),
+				getEventInput(firstRemaining).getInputConnections().get(0).getSource());
+	}
+
+	private static void verifyRestored(final ChainNetwork chainNetwork) {
+		final FBNetwork network = chainNetwork.network;
+		assertEquals(FB_COUNT + 1, network.getNetworkElements().size());
+		assertEquals(FB_COUNT + (FB_COUNT - 1), network.getEventConnections().size());
+		assertEquals(FB_COUNT, getEventOutput(chainNetwork.clock).getOutputConnections().size());
+		for (final FB fb : chainNetwork.chain) {
+			assertSame(network, fb.getFbNetwork());
+		}
+		for (final Connection connection : network.getEventConnections()) {
+			assertSame(network, connection.getSource().getFBNetworkElement().getFbNetwork());
+			assertSame(network, connection.getDestination().getFBNetworkElement().getFbNetwork());
+		}
+	}
+
+	@Test
+	public void deleteUndoRedo() {
+		final ChainNetwork chainNetwork = new ChainNetwork();
+		final DeleteFBNetworkElementsCommand command = new DeleteFBNetworkElementsCommand(chainNetwork.getDeleted());
+		assertTrue(command.canExecute());
+
+		command.execute();
+		verifyDeleted(chainNetwork);
+		assertTrue(command.canUndo());
+		command.undo();
+		verifyRestored(chainNetwork);
+		command.redo();
+		verifyDeleted(chainNetwork);
+		command.undo();
+		verifyRestored(chainNetwork);
+	}
+
+	@Test
+	public void elementsAndConnectionsAreRemovedInOneBurst() {
+		final ChainNetwork chainNetwork = new ChainNetwork();
+		final ListNotificationCounter counter = new ListNotificationCounter();
+		chainNetwork.network.eAdapters().add(counter);
+		// the clock loses one connection to every deleted FB
+		final ListNotificationCounter clockCounter = new ListNotificationCounter();
+		getEventOutput(chainNetwork.clock).eAdapters().add(clockCounter);
+
+		final DeleteFBNetworkElementsCommand command = new DeleteFBNetworkElementsCommand(chainNetwork.getDeleted());
+		command.execute();
+		// one notification for the connection list and one for the element list
+		assertEquals(2, counter.count);
+		assertEquals(1, clockCounter.count);
+
+		counter.count = 0;
+		clockCounter.count = 0;
+		command.undo();
+		assertEquals(2, counter.count);
+		assertEquals(1, clockCounter.count);
+	}
+
+	@Test
+	public void resourceTypeFBsCannotBeDeleted() {
+		final ChainNetwork chainNetwork = new ChainNetwork();
+		final FB resourceTypeFB = LibraryElementFactory.eINSTANCE.createResourceTypeFB();
+		chainNetwork.network.getNetworkElements().add(resourceTypeFB);
+		final List<FB> deleted = new ArrayList<>(chainNetwork.getDeleted());
+		deleted.add(resourceTypeFB);
+
+		assertFalse(new DeleteFBNetworkElementsCommand(deleted).canExecute());
+		assertFalse(new DeleteFBNetworkElementsCommand(new ArrayList<>()).canExecute());
+	}
+
+	@Test
+	public void batchedDeleteNotifiesLessThanSingleDeletes() {
+		final ChainNetwork batchedNetwork = new ChainNetwork();
+		final ListNotificationCounter batchedCounter = new ListNotificationCounter();
+		batchedNetwork.network.eAdapters().add(batchedCounter);
+		final Command batched = new DeleteFBNetworkElementsCommand(batchedNetwork.getDeleted());
+		final ChainNetwork singleNetwork = new ChainNetwork();
+		final ListNotificationCounter singleCounter = new ListNotificationCounter();
+		singleNetwork.network.eAdapters().add(singleCounter);
+		final CompoundCommand singles = new CompoundCommand();
+		singleNetwork.getDeleted().forEach(fb -> singles.add(new DeleteFBNetworkElementCommand(fb)));
+
+		batched.execute();
+		singles.execute();
+		verifyDeleted(batchedNetwork);
+		verifyDeleted(singleNetwork);
+		// every single delete removes its element and its connections on its own
+		assertEquals(2, batchedCounter.count);
+		assertTrue(singleCounter.count >= 2 * DELETE_COUNT);
+
+		batchedCounter.count = 0;
+		singleCounter.count = 0;
+		batched.undo();
+		singles.undo();
+		verifyRestored(batchedNetwork);
+		verifyRestored(singleNetwork);
+		assertEquals(2, batchedCounter.count);
+		assertTrue(singleCounter.count >= 2 * DELETE_COUNT);
+	}
+}
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.model.dataimport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.fordiac.ide.model.dataimport.TypeHeaderReader.Kind;
+import org.eclipse.fordiac.ide.model.dataimport.TypeHeaderReader.TypeHeader;
+import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.CompositeFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.FBType;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElement;
+import org.eclipse.fordiac.ide.model.libraryElement.SimpleFBType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TypeHeaderReaderTest {
+
+	private static final int TYPE_COUNT = 2000;
+	/* algorithms and states of each generated basic FB type */
+	private static final int BODY_SIZE = 40;
+
+	private static final Kind[] FB_KINDS = { Kind.BASIC, Kind.COMPOSITE, Kind.SIMPLE, Kind.SERVICE_INTERFACE };
+
+	private IProject project;
+
+	@BeforeEach
+	public void createProject() throws CoreException {
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject("TypeHeaderReaderTest"); //$NON-NLS-1$
+		project.create(null);
+		project.open(null);
+	}
+
+	@AfterEach
+	public void deleteProject() throws CoreException {
+		project.delete(true, null);
+	}
+
+	private static String createFBType(final String name, final Kind kind) {
+		final StringBuilder text = new StringBuilder();
+		text.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"); //$NON-NLS-1$
+		text.append("<FBType Name=\"").append(name).append("\" Comment=\"Comment of ").append(name).append("\">\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		text.append("  <Identification Standard=\"61499-2\"/>\n"); //$NON-NLS-1$
+		text.append("  <VersionInfo Organization=\"4diac\" Version=\"1.0\" Author=\"Test\" Date=\"2021-01-01\"/>\n"); //$NON-NLS-1$
+		text.append("  <InterfaceList>\n"); //$NON-NLS-1$
+		text.append("    <EventInputs><Event Name=\"REQ\" Type=\"Event\"><With Var=\"IN\"/></Event></EventInputs>\n"); //$NON-NLS-1$
+		text.append("    <EventOutputs><Event Name=\"CNF\" Type=\"Event\"><With Var=\"OUT\"/></Event></EventOutputs>\n"); //$NON-NLS-1$
+		text.append("    <InputVars><VarDeclaration Name=\"IN\" Type=\"INT\"/></InputVars>\n"); //$NON-NLS-1$
+		text.append("    <OutputVars><VarDeclaration Name=\"OUT\" Type=\"INT\"/></OutputVars>\n"); //$NON-NLS-1$
+		text.append("  </InterfaceList>\n"); //$NON-NLS-1$
+		switch (kind) {
+		case BASIC:
+			text.append("  <BasicFB>\n    <ECC>\n      <ECState Name=\"START\" x=\"0\" y=\"0\"/>\n"); //$NON-NLS-1$
+			for (int i = 0; i < BODY_SIZE; i++) {
+				text.append("      <ECState Name=\"S").append(i).append("\" x=\"0\" y=\"0\">") //$NON-NLS-1$ //$NON-NLS-2$
+				.append("<ECAction Algorithm=\"ALG").append(i).append("\" Output=\"CNF\"/></ECState>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			text.append("    </ECC>\n"); //$NON-NLS-1$
+			for (int i = 0; i < BODY_SIZE; i++) {
+				text.append("    <Algorithm Name=\"ALG").append(i).append("\"><ST Text=\"OUT := IN + ").append(i) //$NON-NLS-1$ //$NON-NLS-2$
+				.append(";\"/></Algorithm>\n"); //$NON-NLS-1$
+			}
+			text.append("  </BasicFB>\n"); //$NON-NLS-1$
+			break;
+		case COMPOSITE:
+			text.append("  <FBNetwork/>\n"); //$NON-NLS-1$
+			break;
+		case SIMPLE:
+			text.append("  <SimpleFB><Algorithm Name=\"REQ\"><ST Text=\"OUT := IN;\"/></Algorithm></SimpleFB>\n"); //$NON-NLS-1$
+			break;
+		default:
+			break;
+		}
+		text.append("  <Service RightInterface=\"RESOURCE\" LeftInterface=\"APPLICATION\"/>\n"); //$NON-NLS-1$
+		text.append("</FBType>\n"); //$NON-NLS-1$
+		return text.toString();
+	}
+
+	private static TypeHeader read(final String content) throws XMLStreamException {
+		return TypeHeaderReader.read(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private IFile createFile(final String name, final String content) throws CoreException {
+		final IFile file = project.getFile(name);
+		file.create(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), true, null);
+		return file;
+	}
+
+	private static Kind getKind(final LibraryElement type) {
+		if (type instanceof BasicFBType) {
+			return Kind.BASIC;
+		}
+		if (type instanceof CompositeFBType) {
+			return Kind.COMPOSITE;
+		}
+		if (type instanceof SimpleFBType) {
+			return Kind.SIMPLE;
+		}
+		return (type instanceof FBType) ? Kind.SERVICE_INTERFACE : Kind.OTHER;
+	}
+
+	@Test
+	public void headerContainsKindNameAndComment() throws XMLStreamException {
+		for (final Kind kind : FB_KINDS) {
+			final TypeHeader header = read(createFBType("Type", kind)); //$NON-NLS-1$
+			assertEquals(kind, header.getKind());
+			assertEquals("Type", header.getName()); //$NON-NLS-1$
+			assertEquals("Comment of Type", header.getComment()); //$NON-NLS-1$
+		}
+		assertEquals(Kind.ADAPTER, read("<AdapterType Name=\"ADP\" Comment=\"Adapter\"><InterfaceList/></AdapterType>") //$NON-NLS-1$
+				.getKind());
+		assertEquals(Kind.SUBAPP, read("<SubAppType Name=\"SUB\"><SubAppNetwork/></SubAppType>").getKind()); //$NON-NLS-1$
+		assertEquals(Kind.OTHER, read("<DataType Name=\"DT\"><StructuredType/></DataType>").getKind()); //$NON-NLS-1$
+		// missing attributes are reported as empty
+		assertEquals("", read("<SubAppType Name=\"SUB\"/>").getComment()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void readingStopsAtTheElementDefiningTheKind() throws XMLStreamException {
+		// the content after the basic FB element is not well-formed but never read
+		final String truncated = createFBType("Type", Kind.BASIC).replace("</FBType>", "<Broken"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals(Kind.BASIC, read(truncated).getKind());
+		assertThrows(XMLStreamException.class, () -> read("<FBType Name=\"X\"><InterfaceList>")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void headersAreCachedUntilTheFileChanges() throws CoreException {
+		final IFile file = createFile("Type.fbt", createFBType("Type", Kind.SIMPLE)); //$NON-NLS-1$ //$NON-NLS-2$
+		final TypeHeader header = TypeHeaderReader.getHeader(file);
+		assertEquals(Kind.SIMPLE, header.getKind());
+		assertSame(header, TypeHeaderReader.getHeader(file));
+
+		file.setContents(new ByteArrayInputStream(createFBType("Type", Kind.BASIC).getBytes(StandardCharsets.UTF_8)), //$NON-NLS-1$
+				true, false, null);
+		assertEquals(Kind.BASIC, TypeHeaderReader.getHeader(file).getKind());
+
+		file.delete(true, null);
+		assertNull(TypeHeaderReader.getHeader(file));
+	}
+
+	@Test
+	public void headersOfRemovedFilesAreDropped() throws CoreException {
+		final IFile deleted = createFile("Deleted.fbt", createFBType("Deleted", Kind.SIMPLE)); //$NON-NLS-1$ //$NON-NLS-2$
+		final IFile renamed = createFile("Renamed.fbt", createFBType("Renamed", Kind.BASIC)); //$NON-NLS-1$ //$NON-NLS-2$
+		final IFile kept = createFile("Kept.fbt", createFBType("Kept", Kind.COMPOSITE)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNotNull(TypeHeaderReader.getHeader(deleted));
+		assertNotNull(TypeHeaderReader.getHeader(renamed));
+		assertNotNull(TypeHeaderReader.getHeader(kept));
+
+		deleted.delete(true, null);
+		renamed.move(project.getFile("NewName.fbt").getFullPath(), true, null); //$NON-NLS-1$
+		assertFalse(TypeHeaderReader.isCached(deleted));
+		assertFalse(TypeHeaderReader.isCached(renamed));
+		assertTrue(TypeHeaderReader.isCached(kept));
+
+		project.close(null);
+		assertFalse(TypeHeaderReader.isCached(kept));
+		project.open(null);
+	}
+
+	@Test
+	public void headersOfLargeLibraryMatchTheLoadedTypes() throws CoreException {
+		final List<IFile> files = new ArrayList<>(TYPE_COUNT);
+		for (int i = 0; i < TYPE_COUNT; i++) {
+			final String name = "Type" + i; //$NON-NLS-1$
+			files.add(createFile(name + ".fbt", createFBType(name, FB_KINDS[i % FB_KINDS.length]))); //$NON-NLS-1$
+		}
+
+		final List<TypeHeader> headers = new ArrayList<>(TYPE_COUNT);
+		for (final IFile file : files) {
+			headers.add(TypeHeaderReader.getHeader(file));
+		}
+		for (int i = 0; i < TYPE_COUNT; i++) {
+			assertSame(headers.get(i), TypeHeaderReader.getHeader(files.get(i)));
+		}
+
+		final List<LibraryElement> types = new ArrayList<>(TYPE_COUNT);
+		for (final IFile file : files) {
+			final FBTImporter importer = new FBTImporter(file);
+			importer.loadElement();
+			types.add(importer.getElement());
+		}
+
+		for (int i = 0; i < TYPE_COUNT; i++) {
+			final TypeHeader header = headers.get(i);
+			assertNotNull(header);
+			assertEquals(FB_KINDS[i % FB_KINDS.length], header.getKind());
+			assertEquals(getKind(types.get(i)), header.getKind());
+			assertEquals(types.get(i).getName(), header.getName());
+			assertEquals(types.get(i).getComment(), header.getComment());
+		}
+	}
+}
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.model.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.fordiac.ide.model.helpers.FBNetworkTraversal.ConnectionKind;
+import org.eclipse.fordiac.ide.model.helpers.FBNetworkTraversal.Direction;
+import org.eclipse.fordiac.ide.model.libraryElement.Connection;
+import org.eclipse.fordiac.ide.model.libraryElement.DataConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.Event;
+import org.eclipse.fordiac.ide.model.libraryElement.EventConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.FB;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetworkElement;
+import org.eclipse.fordiac.ide.model.libraryElement.IInterfaceElement;
+import org.eclipse.fordiac.ide.model.libraryElement.InterfaceList;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.SubApp;
+import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
+import org.junit.jupiter.api.Test;
+
+public class FBNetworkTraversalTest {
+
+	private static final int CHAIN_LENGTH = 100000;
+	private static final int DEPTH = 10;
+
+	private static InterfaceList createInterface() {
+		final InterfaceList interfaceList = LibraryElementFactory.eINSTANCE.createInterfaceList();
+		final Event ei = LibraryElementFactory.eINSTANCE.createEvent();
+		ei.setName("REQ"); //$NON-NLS-1$
+		ei.setIsInput(true);
+		interfaceList.getEventInputs().add(ei);
+		final Event eo = LibraryElementFactory.eINSTANCE.createEvent();
+		eo.setName("CNF"); //$NON-NLS-1$
+		interfaceList.getEventOutputs().add(eo);
+		final VarDeclaration di = LibraryElementFactory.eINSTANCE.createVarDeclaration();
+		di.setName("IN"); //$NON-NLS-1$
+		di.setIsInput(true);
+		interfaceList.getInputVars().add(di);
+		final VarDeclaration dout = LibraryElementFactory.eINSTANCE.createVarDeclaration();
+		dout.setName("OUT"); //$NON-NLS-1$
+		interfaceList.getOutputVars().add(dout);
+		return interfaceList;
+	}
+
+	private static FB createFB(final FBNetwork network, final String name) {
+		final FB fb = LibraryElementFactory.eINSTANCE.createFB();
+		fb.setName(name);
+		fb.setInterface(createInterface());
+		network.getNetworkElements().add(fb);
+		return fb;
+	}
+
+	private static SubApp createSubApp(final FBNetwork network, final String name) {
+		final SubApp subApp = LibraryElementFactory.eINSTANCE.createSubApp();
+		subApp.setName(name);
+		subApp.setInterface(createInterface());
+		subApp.setSubAppNetwork(LibraryElementFactory.eINSTANCE.createFBNetwork());
+		network.getNetworkElements().add(subApp);
+		return subApp;
+	}
+
+	private static EventConnection connectEvents(final FBNetwork network, final IInterfaceElement source,
+			final IInterfaceElement destination) {
+		final EventConnection connection = LibraryElementFactory.eINSTANCE.createEventConnection();
+		connection.setSource(source);
+		connection.setDestination(destination);
+		network.getEventConnections().add(connection);
+		return connection;
+	}
+
+	private static DataConnection connectData(final FBNetwork network, final IInterfaceElement source,
+			final IInterfaceElement destination) {
+		final DataConnection connection = LibraryElementFactory.eINSTANCE.createDataConnection();
+		connection.setSource(source);
+		connection.setDestination(destination);
+		network.getDataConnections().add(connection);
+		return connection;
+	}
+
+	private static void connect(final FBNetwork network, final FBNetworkElement source,
+			final FBNetworkElement destination) {
+		connectEvents(network, source.getInterface().getEventOutputs().get(0),
+				destination.getInterface().getEventInputs().get(0));
+		connectData(network, source.getInterface().getOutputVars().get(0),
+				destination.getInterface().getInputVars().get(0));
+	}
+
+	private static List<FB> createChain(final FBNetwork network, final int length) {
+		final List<FB> chain = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) {
+			chain.add(createFB(network, "FB" + i)); //$NON-NLS-1$
+			if (i > 0) {
+				connect(network, chain.get(i - 1), chain.get(i));
+			}
+		}
+		return chain;
+	}
+
+	@Test
+	public void longChainsAreTracedWithoutRecursion() {
+		final FBNetwork network = LibraryElementFactory.eINSTANCE.createFBNetwork();
+		final List<FB> chain = createChain(network, CHAIN_LENGTH);
+
+		final FBNetworkTraversal.Result predecessors = new FBNetworkTraversal(Direction.PREDECESSORS)
+				.trace(chain.get(CHAIN_LENGTH - 1));
+		final FBNetworkTraversal.Result successors = new FBNetworkTraversal(Direction.SUCCESSORS).trace(chain.get(0));
+
+		assertEquals(CHAIN_LENGTH, predecessors.getElements().size());
+		assertEquals(2 * (CHAIN_LENGTH - 1), predecessors.getConnections().size());
+		assertEquals(chain.get(0), new ArrayList<>(predecessors.getElements()).get(CHAIN_LENGTH - 1));
+		assertEquals(CHAIN_LENGTH, successors.getElements().size());
+		assertEquals(2 * (CHAIN_LENGTH - 1), successors.getConnections().size());
+	}
+
+	@Test
+	public void depthLimitsTheTrace() {
+		final FBNetwork network = LibraryElementFactory.eINSTANCE.createFBNetwork();
+		final List<FB> chain = createChain(network, CHAIN_LENGTH);
+
+		final FBNetworkTraversal.Result result = new FBNetworkTraversal(Direction.SUCCESSORS,
+				EnumSet.allOf(ConnectionKind.class), DEPTH).trace(chain.get(0));
+		assertEquals(chain.subList(0, DEPTH + 1), new ArrayList<>(result.getElements()));
+		assertEquals(2 * DEPTH, result.getConnections().size());
+
+		assertEquals(Set.of(chain.get(5)), new FBNetworkTraversal(Direction.PREDECESSORS,
+				EnumSet.allOf(ConnectionKind.class), 0).trace(chain.get(5)).getElements());
+	}
+
+	@Test
+	public void onlySelectedConnectionKindsAreFollowed() {
+		final FBNetwork network = LibraryElementFactory.eINSTANCE.createFBNetwork();
+		final FB a = createFB(network, "A"); //$NON-NLS-1$
+		final FB b = createFB(network, "B"); //$NON-NLS-1$
+		final FB c = createFB(network, "C"); //$NON-NLS-1$
+		connectEvents(network, a.getInterface().getEventOutputs().get(0), b.getInterface().getEventInputs().get(0));
+		final Connection data = connectData(network, b.getInterface().getOutputVars().get(0),
+				c.getInterface().getInputVars().get(0));
+
+		final FBNetworkTraversal dataOnly = new FBNetworkTraversal(Direction.PREDECESSORS,
+				EnumSet.of(ConnectionKind.DATA), FBNetworkTraversal.UNLIMITED_DEPTH);
+		assertEquals(Set.of(b, c), dataOnly.trace(c).getElements());
+		assertEquals(Set.of(data), dataOnly.trace(c).getConnections());
+		assertEquals(Set.of(a, b, c), new FBNetworkTraversal(Direction.PREDECESSORS).trace(c).getElements());
+	}
+
+	@Test
+	public void cyclesAreTracedOnce() {
+		final FBNetwork network = LibraryElementFactory.eINSTANCE.createFBNetwork();
+		final List<FB> chain = createChain(network, DEPTH);
+		connect(network, chain.get(DEPTH - 1), chain.get(0));
+
+		final FBNetworkTraversal.Result result = new FBNetworkTraversal(Direction.SUCCESSORS).trace(chain.get(3));
+		assertEquals(DEPTH, result.getElements().size());
+		assertEquals(2 * DEPTH, result.getConnections().size());
+	}
+
+	@Test
+	public void subAppBordersAreCrossed() {
+		final FBNetwork network = LibraryElementFactory.eINSTANCE.createFBNetwork();
+		final FB a = createFB(network, "A"); //$NON-NLS-1$
+		final SubApp subApp = createSubApp(network, "SubApp"); //$NON-NLS-1$
+		final FB b = createFB(network, "B"); //$NON-NLS-1$
+		final FB inner = createFB(subApp.getSubAppNetwork(), "Inner"); //$NON-NLS-1$
+		final FB unconnected = createFB(subApp.getSubAppNetwork(), "Unconnected"); //$NON-NLS-1$
+		connect(network, a, subApp);
+		connect(network, subApp, b);
+		final FBNetwork subAppNetwork = subApp.getSubAppNetwork();
+		connectData(subAppNetwork, subApp.getInterface().getInputVars().get(0), inner.getInterface().getInputVars().get(0));
+		connectData(subAppNetwork, inner.getInterface().getOutputVars().get(0), subApp.getInterface().getOutputVars().get(0));
+		connectEvents(subAppNetwork, subApp.getInterface().getEventInputs().get(0),
+				unconnected.getInterface().getEventInputs().get(0));
+
+		final FBNetworkTraversal dataOnly = new FBNetworkTraversal(Direction.SUCCESSORS,
+				EnumSet.of(ConnectionKind.DATA), FBNetworkTraversal.UNLIMITED_DEPTH);
+		assertEquals(Set.of(a, subApp, inner, b), dataOnly.trace(a).getElements());
+
+		// inside of the subapp to the outside
+		final FBNetworkTraversal.Result predecessors = new FBNetworkTraversal(Direction.PREDECESSORS).trace(inner);
+		assertEquals(Set.of(inner, subApp, a), predecessors.getElements());
+		assertFalse(predecessors.getElements().contains(unconnected));
+
+		// crossing the border of the subapp is not counted as a step
+		final Set<FBNetworkElement> depthOne = new FBNetworkTraversal(Direction.SUCCESSORS,
+				EnumSet.of(ConnectionKind.DATA), 1).trace(a).getElements();
+		assertTrue(depthOne.containsAll(Arrays.asList(subApp, inner)));
+		assertFalse(depthOne.contains(b));
+	}
+
+	@Test
+	public void subAppsWithoutInnerConnectionsArePassedAsBlock() {
+		final FBNetwork network = LibraryElementFactory.eINSTANCE.createFBNetwork();
+		final FB a = createFB(network, "A"); //$NON-NLS-1$
+		final SubApp subApp = createSubApp(network, "SubApp"); //$NON-NLS-1$
+		final FB b = createFB(network, "B"); //$NON-NLS-1$
+		connect(network, a, subApp);
+		connect(network, subApp, b);
+
+		assertEquals(Set.of(a, subApp, b), new FBNetworkTraversal(Direction.SUCCESSORS).trace(a).getElements());
+		assertEquals(Set.of(a, subApp, b), new FBNetworkTraversal(Direction.PREDECESSORS).trace(b).getElements());
+	}
+}
@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.Launch;
+import org.eclipse.fordiac.ide.runtime.RuntimeLaunchService.LaunchRequest;
+import org.eclipse.fordiac.ide.runtime.RuntimeLaunchService.RuntimeStatus;
+import org.eclipse.fordiac.ide.runtime.RuntimeLaunchService.State;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RuntimeLaunchServiceTest {
+
+	private static final int RUNTIME_COUNT = 8;
+	private static final long STARTUP_DELAY = 1500; // ms
+	private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+	private static final long PROBE_TIME = 10; // ms on the fake clock
+	private static final int NEVER = Integer.MAX_VALUE;
+
+	/* fake ports which open after they were probed a number of times, each probe advances the fake clock */
+	private static final class FakePorts implements RuntimeLaunchService.PortProbe {
+		private final Map<Integer, Integer> probesUntilOpen = new HashMap<>();
+		private final AtomicLong clock = new AtomicLong();
+		private final AtomicInteger starts = new AtomicInteger();
+		private final List<Integer> startsWhenOpened = new ArrayList<>();
+		private int nextPort = 1;
+
+		/* the first probe checks that the port is free before the runtime is started */
+		private LaunchRequest createRequest(final String name, final int probes, final FakeLaunch launch) {
+			final int port = nextPort++;
+			probesUntilOpen.put(Integer.valueOf(port), Integer.valueOf(probes));
+			return new LaunchRequest(name, port, () -> {
+				starts.incrementAndGet();
+				return launch;
+			});
+		}
+
+		@Override
+		public boolean isOpen(final int port) {
+			clock.addAndGet(PROBE_TIME);
+			final int remaining = probesUntilOpen.get(Integer.valueOf(port)).intValue();
+			if (NEVER == remaining) {
+				return false;
+			}
+			if (remaining > 0) {
+				probesUntilOpen.put(Integer.valueOf(port), Integer.valueOf(remaining - 1));
+				return false;
+			}
+			startsWhenOpened.add(Integer.valueOf(starts.get()));
+			return true;
+		}
+
+		private RuntimeLaunchService createService(final Duration readyTimeout) {
+			return new RuntimeLaunchService(readyTimeout, this, clock::get);
+		}
+	}
+
+	/* a launch without a process, it only terminates when it is asked to */
+	private static final class FakeLaunch extends Launch {
+		private boolean terminated;
+
+		private FakeLaunch(final boolean terminated) {
+			super(null, ILaunchManager.RUN_MODE, null);
+			this.terminated = terminated;
+		}
+
+		@Override
+		public synchronized boolean isTerminated() {
+			return terminated;
+		}
+
+		@Override
+		public synchronized boolean canTerminate() {
+			return !terminated;
+		}
+
+		@Override
+		public synchronized void terminate() {
+			terminated = true;
+		}
+	}
+
+	/* stand-in for a runtime: waits, then serves its port until it is killed, a negative delay exits at once */
+	private static final String STAND_IN = String.join("\n", //$NON-NLS-1$
+			"public class StandIn {", //$NON-NLS-1$
+			"	public static void main(String[] args) throws Exception {", //$NON-NLS-1$
+			"		long delay = Long.parseLong(args[1]);", //$NON-NLS-1$
+			"		if (delay < 0) {", //$NON-NLS-1$
+			"			System.exit(1);", //$NON-NLS-1$
+			"		}", //$NON-NLS-1$
+			"		Thread.sleep(delay);", //$NON-NLS-1$
+			"		try (java.net.ServerSocket server = new java.net.ServerSocket(Integer.parseInt(args[0]))) {", //$NON-NLS-1$
+			"			while (true) {", //$NON-NLS-1$
+			"				server.accept().close();", //$NON-NLS-1$
+			"			}", //$NON-NLS-1$
+			"		}", //$NON-NLS-1$
+			"	}", //$NON-NLS-1$
+			"}"); //$NON-NLS-1$
+
+	private static Path writeStandIn(final Path directory) throws IOException {
+		return Files.write(directory.resolve("StandIn.java"), STAND_IN.getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+	}
+
+	private static int getFreePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private static LaunchRequest createRequest(final Path standIn, final String name, final long delay)
+			throws IOException {
+		final int port = getFreePort();
+		final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		final ProcessBuilder builder = new ProcessBuilder(java, standIn.toString(), Integer.toString(port),
+				Long.toString(delay));
+		return new LaunchRequest(name, port, () -> {
+			try {
+				final ILaunch launch = new Launch(null, ILaunchManager.RUN_MODE, null);
+				DebugPlugin.newProcess(launch, builder.start(), name);
+				return launch;
+			} catch (final IOException e) {
+				throw new LaunchRuntimeException(e.getMessage(), e);
+			}
+		});
+	}
+
+	@Test
+	public void runtimesAreStartedConcurrentlyUntilTheirPortsOpen(@TempDir final Path directory) throws Exception {
+		final Path standIn = writeStandIn(directory);
+		final List<LaunchRequest> requests = new ArrayList<>();
+		for (int i = 0; i < RUNTIME_COUNT; i++) {
+			requests.add(createRequest(standIn, "Runtime" + i, STARTUP_DELAY)); //$NON-NLS-1$
+		}
+
+		final List<RuntimeStatus> runtimes = new RuntimeLaunchService().launchAll(requests);
+		try {
+			assertEquals(RUNTIME_COUNT, runtimes.size());
+			for (int i = 0; i < RUNTIME_COUNT; i++) {
+				final RuntimeStatus status = runtimes.get(i);
+				assertEquals(requests.get(i), status.getRequest());
+				assertEquals(State.READY, status.getState(), status.getMessage());
+				assertTrue(RuntimeLaunchService.isPortOpen(status.getRequest().getPort()));
+			}
+		} finally {
+			assertTrue(RuntimeLaunchService.terminateAll(runtimes, SHUTDOWN_TIMEOUT));
+		}
+		for (final RuntimeStatus status : runtimes) {
+			assertEquals(State.TERMINATED, status.getState());
+			assertTrue(status.getLaunch().isTerminated());
+			assertFalse(RuntimeLaunchService.isPortOpen(status.getRequest().getPort()));
+		}
+	}
+
+	@Test
+	public void allRuntimesAreStartedBeforeTheFirstIsReady() throws Exception {
+		final FakePorts ports = new FakePorts();
+		final List<LaunchRequest> requests = new ArrayList<>();
+		for (int i = 0; i < RUNTIME_COUNT; i++) {
+			requests.add(ports.createRequest("Runtime" + i, 1 + (RUNTIME_COUNT - i), new FakeLaunch(false))); //$NON-NLS-1$
+		}
+
+		final List<RuntimeStatus> runtimes = ports.createService(Duration.ofSeconds(60)).launchAll(requests);
+
+		for (final RuntimeStatus status : runtimes) {
+			assertEquals(State.READY, status.getState(), status.getMessage());
+			assertFalse(status.getLaunch().isTerminated());
+		}
+		assertEquals(RUNTIME_COUNT, ports.starts.get());
+		// every port opened while all runtimes were already booting
+		assertEquals(RUNTIME_COUNT, ports.startsWhenOpened.size());
+		assertTrue(ports.startsWhenOpened.stream().allMatch(starts -> RUNTIME_COUNT == starts.intValue()));
+		// the first runtime needs the most probes
+		assertTrue(runtimes.get(0).getStartupTime() > runtimes.get(RUNTIME_COUNT - 1).getStartupTime());
+	}
+
+	@Test
+	public void slowRuntimesTimeOutAndAreTerminated() throws Exception {
+		final FakePorts ports = new FakePorts();
+		final FakeLaunch launch = new FakeLaunch(false);
+		final RuntimeStatus status = ports.createService(Duration.ofMillis(5 * PROBE_TIME))
+				.launch(ports.createRequest("Slow", NEVER, launch)); //$NON-NLS-1$
+
+		assertEquals(State.TIMED_OUT, status.getState());
+		assertTrue(launch.isTerminated());
+		assertTrue(status.getStartupTime() > (5 * PROBE_TIME));
+	}
+
+	@Test
+	public void runtimesAreNotStartedOnAPortInUse() throws Exception {
+		final FakePorts ports = new FakePorts();
+		final RuntimeStatus status = ports.createService(Duration.ofSeconds(60))
+				.launch(ports.createRequest("Blocked", 0, new FakeLaunch(false))); //$NON-NLS-1$
+
+		assertEquals(State.FAILED, status.getState());
+		assertNull(status.getLaunch());
+		assertEquals(0, ports.starts.get());
+	}
+
+	@Test
+	public void terminatedRuntimesAreNotReadyOnAnOpenPort() throws Exception {
+		final FakePorts ports = new FakePorts();
+		// the port is free before the launch and opened by someone else afterwards
+		final RuntimeStatus status = ports.createService(Duration.ofSeconds(60))
+				.launch(ports.createRequest("Crashed", 1, new FakeLaunch(true))); //$NON-NLS-1$
+
+		assertEquals(State.FAILED, status.getState());
+		assertEquals(1, ports.starts.get());
+	}
+
+	@Test
+	public void crashedRuntimesFailBeforeTheTimeout(@TempDir final Path directory) throws Exception {
+		final Path standIn = writeStandIn(directory);
+		final RuntimeStatus status = new RuntimeLaunchService(Duration.ofSeconds(60))
+				.launch(createRequest(standIn, "Crashing", -1)); //$NON-NLS-1$
+
+		assertEquals(State.FAILED, status.getState());
+		assertTrue(status.getLaunch().isTerminated());
+	}
+
+	@Test
+	public void runtimesThatCannotBeStartedFail(@TempDir final Path directory) throws Exception {
+		final Path standIn = writeStandIn(directory);
+		final LaunchRequest broken = new LaunchRequest("Broken", getFreePort(), () -> { //$NON-NLS-1$
+			throw new LaunchRuntimeException("runtime not found"); //$NON-NLS-1$
+		});
+		final List<RuntimeStatus> runtimes = new RuntimeLaunchService()
+				.launchAll(Arrays.asList(broken, createRequest(standIn, "Working", 0))); //$NON-NLS-1$
+		try {
+			assertEquals(State.FAILED, runtimes.get(0).getState());
+			assertEquals("runtime not found", runtimes.get(0).getMessage()); //$NON-NLS-1$
+			assertNull(runtimes.get(0).getLaunch());
+			// the other runtimes are not affected
+			assertEquals(State.READY, runtimes.get(1).getState(), runtimes.get(1).getMessage());
+		} finally {
+			assertTrue(RuntimeLaunchService.terminateAll(runtimes, SHUTDOWN_TIMEOUT));
+		}
+		assertEquals(State.FAILED, runtimes.get(0).getState());
+		assertEquals(State.TERMINATED, runtimes.get(1).getState());
+	}
+}
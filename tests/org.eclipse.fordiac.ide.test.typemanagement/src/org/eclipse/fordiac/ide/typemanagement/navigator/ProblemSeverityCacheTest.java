@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.typemanagement.navigator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.jobs.Job;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ProblemSeverityCacheTest {
+
+	private static final int FILE_COUNT = 3000;
+	private static final int MARKERS_PER_FILE = 3;
+
+	private IProject project;
+	private ProblemSeverityCache cache;
+	private final List<Collection<IFile>> notifications = new ArrayList<>();
+	private final AtomicInteger lookups = new AtomicInteger();
+	private final Set<Thread> lookupThreads = ConcurrentHashMap.newKeySet();
+
+	@BeforeEach
+	public void createProject() throws CoreException {
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject("ProblemSeverityCacheTest"); //$NON-NLS-1$
+		project.create(null);
+		project.open(null);
+		cache = new ProblemSeverityCache(file -> {
+			lookups.incrementAndGet();
+			lookupThreads.add(Thread.currentThread());
+			return ProblemSeverityCache.findSeverity(file);
+		});
+		cache.install();
+		cache.addListener(files -> {
+			synchronized (notifications) {
+				notifications.add(files);
+			}
+		});
+	}
+
+	@AfterEach
+	public void deleteProject() throws CoreException {
+		cache.uninstall();
+		project.delete(true, null);
+	}
+
+	private List<IFile> createFiles() throws CoreException {
+		final List<IFile> files = new ArrayList<>(FILE_COUNT);
+		ResourcesPlugin.getWorkspace().run(monitor -> {
+			for (int i = 0; i < FILE_COUNT; i++) {
+				final IFile file = project.getFile("Type" + i + ".fbt"); //$NON-NLS-1$ //$NON-NLS-2$
+				file.create(new ByteArrayInputStream(new byte[0]), true, null);
+				files.add(file);
+			}
+		}, null);
+		return files;
+	}
+
+	private static int expectedSeverity(final int index) {
+		// every third file stays clean, the others get warnings or errors
+		switch (index % 3) {
+		case 0:
+			return ProblemSeverityCache.NO_PROBLEMS;
+		case 1:
+			return IMarker.SEVERITY_WARNING;
+		default:
+			return IMarker.SEVERITY_ERROR;
+		}
+	}
+
+	private static void addMarkers(final List<IFile> files) throws CoreException {
+		ResourcesPlugin.getWorkspace().run(monitor -> {
+			for (int i = 0; i < files.size(); i++) {
+				final int severity = expectedSeverity(i);
+				for (int j = 0; (ProblemSeverityCache.NO_PROBLEMS != severity) && (j < MARKERS_PER_FILE); j++) {
+					final IMarker marker = files.get(i).createMarker(IMarker.PROBLEM);
+					// the highest severity is added last
+					marker.setAttribute(IMarker.SEVERITY, (j == (MARKERS_PER_FILE - 1)) ? severity : IMarker.SEVERITY_INFO);
+				}
+			}
+		}, null);
+	}
+
+	private void waitForLookups() throws InterruptedException {
+		Job.getJobManager().join(cache, null);
+	}
+
+	private int countNotifications() {
+		synchronized (notifications) {
+			return notifications.size();
+		}
+	}
+
+	@Test
+	public void severitiesFollowMarkerChangesInOneBatch() throws CoreException, InterruptedException {
+		final List<IFile> files = createFiles();
+		for (final IFile file : files) {
+			assertEquals(ProblemSeverityCache.NO_PROBLEMS, cache.getSeverity(file));
+		}
+		waitForLookups();
+		// the lookup finds no problems, which is what the labels already show
+		assertEquals(0, countNotifications());
+
+		addMarkers(files);
+		assertEquals(1, countNotifications());
+		final Set<IFile> changed = new HashSet<>(notifications.get(0));
+		for (int i = 0; i < FILE_COUNT; i++) {
+			assertEquals(expectedSeverity(i), cache.getSeverity(files.get(i)));
+			assertEquals(ProblemSeverityCache.NO_PROBLEMS != expectedSeverity(i), changed.contains(files.get(i)));
+		}
+
+		project.deleteMarkers(IMarker.PROBLEM, true, IResource.DEPTH_INFINITE);
+		assertEquals(2, countNotifications());
+		for (final IFile file : files) {
+			assertEquals(ProblemSeverityCache.NO_PROBLEMS, cache.getSeverity(file));
+		}
+	}
+
+	@Test
+	public void removedFilesAreDropped() throws CoreException, InterruptedException {
+		final List<IFile> files = createFiles();
+		addMarkers(files);
+		final IFile file = files.get(2);
+		// the first request is answered before the markers are looked up
+		assertEquals(ProblemSeverityCache.NO_PROBLEMS, cache.getSeverity(file));
+		waitForLookups();
+		assertEquals(List.of(file), new ArrayList<>(notifications.get(0)));
+		assertEquals(IMarker.SEVERITY_ERROR, cache.getSeverity(file));
+		assertTrue(cache.hasProblems(file));
+
+		file.delete(true, null);
+		assertEquals(ProblemSeverityCache.NO_PROBLEMS, cache.getSeverity(file));
+		waitForLookups();
+
+		// a new file with the same name starts without problems
+		file.create(new ByteArrayInputStream(new byte[0]), true, null);
+		assertEquals(ProblemSeverityCache.NO_PROBLEMS, cache.getSeverity(file));
+		assertEquals(1, countNotifications());
+	}
+
+	@Test
+	public void refreshingLabelsDoesNotQueryMarkers() throws CoreException, InterruptedException {
+		final List<IFile> files = createFiles();
+		// the first refresh looks up the markers of each file, but not in the thread
+		// which renders the labels
+		for (final IFile file : files) {
+			assertEquals(ProblemSeverityCache.NO_PROBLEMS, cache.getSeverity(file));
+		}
+		waitForLookups();
+		assertEquals(FILE_COUNT, lookups.get());
+		assertFalse(lookupThreads.contains(Thread.currentThread()));
+
+		ResourcesPlugin.getWorkspace().run(monitor -> {
+			addMarkers(files);
+			// the marker changes are only reported at the end of the operation, until then
+			// only a marker query could see them
+			for (final IFile file : files) {
+				assertFalse(cache.hasProblems(file));
+			}
+			assertEquals(FILE_COUNT, lookups.get());
+		}, null);
+
+		// the marker delta updates only the files with new markers
+		final int filesWithMarkers = FILE_COUNT - ((FILE_COUNT + 2) / 3);
+		assertEquals(FILE_COUNT + filesWithMarkers, lookups.get());
+		for (int i = 0; i < FILE_COUNT; i++) {
+			assertEquals(ProblemSeverityCache.NO_PROBLEMS != expectedSeverity(i), cache.hasProblems(files.get(i)));
+		}
+		assertEquals(FILE_COUNT + filesWithMarkers, lookups.get());
+	}
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.typemanagement.navigator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.viewers.LabelProviderChangedEvent;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.PlatformUI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TypeProblemDecoratorTest {
+
+	private final List<LabelProviderChangedEvent> events = new ArrayList<>();
+	private ProblemSeverityCache cache;
+	private TypeProblemDecorator decorator;
+
+	@BeforeEach
+	public void createDecorator() {
+		// every file has an error, the files do not need to exist for that
+		cache = new ProblemSeverityCache(file -> IMarker.SEVERITY_ERROR);
+		decorator = new TypeProblemDecorator(cache);
+		decorator.addListener(events::add);
+	}
+
+	@AfterEach
+	public void disposeDecorator() {
+		decorator.dispose();
+		cache.uninstall();
+	}
+
+	private static IFile getFile(final String name) {
+		return ResourcesPlugin.getWorkspace().getRoot().getFile(new Path("/TypeProblemDecoratorTest/" + name)); //$NON-NLS-1$
+	}
+
+	/* every lookup run reports its files in a notification of its own */
+	private void lookUp(final IFile... files) throws InterruptedException {
+		for (final IFile file : files) {
+			cache.getSeverity(file);
+		}
+		Job.getJobManager().join(cache, null);
+	}
+
+	private static void runPendingRefreshes() {
+		final Display display = PlatformUI.getWorkbench().getDisplay();
+		while (display.readAndDispatch()) {
+			// run every runnable posted with asyncExec
+		}
+	}
+
+	private static Set<Object> getElements(final LabelProviderChangedEvent event) {
+		return new HashSet<>(Arrays.asList(event.getElements()));
+	}
+
+	@Test
+	public void severityChangesAreRefreshedOncePerUICycle() throws InterruptedException {
+		final IFile a = getFile("A.fbt"); //$NON-NLS-1$
+		final IFile b = getFile("B.fbt"); //$NON-NLS-1$
+		final IFile c = getFile("C.fbt"); //$NON-NLS-1$
+		lookUp(a);
+		lookUp(b);
+		lookUp(c, a);
+		assertEquals(0, events.size());
+
+		runPendingRefreshes();
+		assertEquals(1, events.size());
+		assertEquals(decorator, events.get(0).getSource());
+		assertEquals(Set.of(a, b, c), getElements(events.get(0)));
+
+		// a change after the refresh gets a refresh of its own
+		final IFile d = getFile("D.fbt"); //$NON-NLS-1$
+		lookUp(d);
+		runPendingRefreshes();
+		assertEquals(2, events.size());
+		assertEquals(Set.of(d), getElements(events.get(1)));
+	}
+
+	@Test
+	public void unchangedSeveritiesAreNotRefreshed() throws InterruptedException {
+		final IFile a = getFile("A.fbt"); //$NON-NLS-1$
+		lookUp(a);
+		runPendingRefreshes();
+		assertEquals(1, events.size());
+
+		// the cached severity is answered without a lookup or a refresh
+		lookUp(a);
+		runPendingRefreshes();
+		assertEquals(1, events.size());
+	}
+}
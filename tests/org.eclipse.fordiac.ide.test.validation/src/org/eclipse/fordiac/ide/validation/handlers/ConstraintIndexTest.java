@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.validation.handlers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.fordiac.ide.model.libraryElement.Application;
+import org.eclipse.fordiac.ide.model.libraryElement.Event;
+import org.eclipse.fordiac.ide.model.libraryElement.EventConnection;
+import org.eclipse.fordiac.ide.model.libraryElement.FB;
+import org.eclipse.fordiac.ide.model.libraryElement.FBNetwork;
+import org.eclipse.fordiac.ide.model.libraryElement.InterfaceList;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.VarDeclaration;
+import org.eclipse.ocl.ecore.Constraint;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class ConstraintIndexTest {
+
+	private static final int NETWORK_SIZE = 10000;
+
+	private static Application application;
+	private static List<Constraint> constraints;
+
+	@BeforeAll
+	public static void createApplication() {
+		application = LibraryElementFactory.eINSTANCE.createApplication();
+		application.setName("BenchmarkApp"); //$NON-NLS-1$
+		final FBNetwork network = LibraryElementFactory.eINSTANCE.createFBNetwork();
+		application.setFBNetwork(network);
+		Event previousOutput = null;
+		for (int i = 0; i < NETWORK_SIZE; i++) {
+			final FB fb = createFB("FB" + i); //$NON-NLS-1$
+			network.getNetworkElements().add(fb);
+			if (null != previousOutput) {
+				final EventConnection connection = LibraryElementFactory.eINSTANCE.createEventConnection();
+				connection.setSource(previousOutput);
+				connection.setDestination(fb.getInterface().getEventInputs().get(0));
+				network.getEventConnections().add(connection);
+			}
+			previousOutput = fb.getInterface().getEventOutputs().get(0);
+		}
+		constraints = OCLParser.loadOCLConstraints(application);
+	}
+
+	private static FB createFB(final String name) {
+		final FB fb = LibraryElementFactory.eINSTANCE.createFB();
+		fb.setName(name);
+		final InterfaceList interfaceList = LibraryElementFactory.eINSTANCE.createInterfaceList();
+		final Event req = LibraryElementFactory.eINSTANCE.createEvent();
+		req.setName("REQ"); //$NON-NLS-1$
+		req.setIsInput(true);
+		interfaceList.getEventInputs().add(req);
+		final Event cnf = LibraryElementFactory.eINSTANCE.createEvent();
+		cnf.setName("CNF"); //$NON-NLS-1$
+		interfaceList.getEventOutputs().add(cnf);
+		final VarDeclaration in = LibraryElementFactory.eINSTANCE.createVarDeclaration();
+		in.setName("IN"); //$NON-NLS-1$
+		in.setIsInput(true);
+		interfaceList.getInputVars().add(in);
+		fb.setInterface(interfaceList);
+		return fb;
+	}
+
+	@Test
+	public void indexReturnsTheConstraintsOfTheContextClass() {
+		final ConstraintIndex index = new ConstraintIndex(constraints);
+		assertFalse(constraints.isEmpty());
+		assertEquals(constraints.size(), index.size());
+		final FB fb = (FB) application.getFBNetwork().getNetworkElements().get(0);
+		final List<Constraint> fbConstraints = index.getConstraints(fb.eClass());
+		assertFalse(fbConstraints.isEmpty());
+		fbConstraints.forEach(constraint -> assertEquals(fb.eClass().getName(),
+				constraint.getSpecification().getContextVariable().getType().getName()));
+		assertTrue(index.getConstraints(application.getFBNetwork().eClass()).isEmpty());
+	}
+
+	@Test
+	public void indexedDispatchVisitsOnlyApplicableConstraints() {
+		// previous dispatch: every object compares its class name with the context
+		// of every constraint
+		final List<String> namedDispatch = new ArrayList<>();
+		int namedCandidates = 0;
+		for (final TreeIterator<EObject> iterator = application.eAllContents(); iterator.hasNext();) {
+			final EObject object = iterator.next();
+			for (final Constraint constraint : constraints) {
+				namedCandidates++;
+				if (constraint.getSpecification().getContextVariable().getType().getName()
+						.equals(object.eClass().getName())) {
+					namedDispatch.add(constraint.getName());
+				}
+			}
+		}
+
+		final ConstraintIndex index = new ConstraintIndex(constraints);
+		final List<String> indexedDispatch = new ArrayList<>();
+		for (final TreeIterator<EObject> iterator = application.eAllContents(); iterator.hasNext();) {
+			final EObject object = iterator.next();
+			index.getConstraints(object.eClass()).forEach(constraint -> indexedDispatch.add(constraint.getName()));
+		}
+
+		assertEquals(namedDispatch, indexedDispatch);
+		assertTrue(indexedDispatch.size() < namedCandidates);
+	}
+}
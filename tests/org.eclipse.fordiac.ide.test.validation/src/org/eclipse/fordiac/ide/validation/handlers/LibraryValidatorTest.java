@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.validation.handlers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.fordiac.ide.model.Palette.FBTypePaletteEntry;
+import org.eclipse.fordiac.ide.model.Palette.PaletteFactory;
+import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.ECC;
+import org.eclipse.fordiac.ide.model.libraryElement.ECState;
+import org.eclipse.fordiac.ide.model.libraryElement.ECTransition;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LibraryValidatorTest {
+
+	private static final int TYPE_COUNT = 20;
+
+	private IProject project;
+	private final List<FBTypePaletteEntry> entries = new ArrayList<>();
+
+	@BeforeEach
+	public void createLibrary() throws CoreException {
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject("LibraryValidatorTest"); //$NON-NLS-1$
+		project.create(null);
+		project.open(null);
+		for (int i = 0; i < TYPE_COUNT; i++) {
+			final IFile file = project.getFile("Type" + i + ".fbt"); //$NON-NLS-1$ //$NON-NLS-2$
+			file.create(content("Type" + i), true, null); //$NON-NLS-1$
+			final FBTypePaletteEntry entry = PaletteFactory.eINSTANCE.createFBTypePaletteEntry();
+			entry.setFile(file);
+			entry.setType(createFBType("Type" + i)); //$NON-NLS-1$
+			entry.setLastModificationTimestamp(file.getModificationStamp());
+			entries.add(entry);
+		}
+	}
+
+	@AfterEach
+	public void deleteLibrary() throws CoreException {
+		project.delete(true, null);
+	}
+
+	private static ByteArrayInputStream content(final String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static BasicFBType createFBType(final String name) {
+		final BasicFBType fbType = LibraryElementFactory.eINSTANCE.createBasicFBType();
+		fbType.setName(name);
+		fbType.setInterfaceList(LibraryElementFactory.eINSTANCE.createInterfaceList());
+		final ECC ecc = LibraryElementFactory.eINSTANCE.createECC();
+		final ECState start = LibraryElementFactory.eINSTANCE.createECState();
+		start.setName("START"); //$NON-NLS-1$
+		ecc.getECState().add(start);
+		// a self cycle without event violates SelfCycleMustBeGatedByEvent
+		final ECTransition selfCycle = LibraryElementFactory.eINSTANCE.createECTransition();
+		selfCycle.setSource(start);
+		selfCycle.setDestination(start);
+		selfCycle.setConditionExpression("1"); //$NON-NLS-1$
+		selfCycle.setPosition(LibraryElementFactory.eINSTANCE.createPosition());
+		ecc.getECTransition().add(selfCycle);
+		fbType.setECC(ecc);
+		return fbType;
+	}
+
+	@Test
+	public void allTypesAreCheckedAndMarked() throws Exception {
+		final LibraryValidator validator = new LibraryValidator(4);
+		final LibraryValidator.Result result = validator.validate(entries, null);
+
+		assertEquals(TYPE_COUNT, result.getCheckedTypes());
+		assertEquals(0, result.getSkippedTypes());
+		for (final FBTypePaletteEntry entry : entries) {
+			final List<ValidationProblem> problems = result.getProblems().get(entry.getFile());
+			assertFalse(problems.isEmpty());
+			assertEquals(problems.size(),
+					entry.getFile().findMarkers(IValidationMarker.TYPE, true, IResource.DEPTH_ZERO).length);
+		}
+	}
+
+	@Test
+	public void resultsMatchTheSequentialValidation() throws Exception {
+		final LibraryValidator.Result result = new LibraryValidator(4).validate(entries, null);
+		final LibraryValidator.Result sequential = new LibraryValidator(1).validate(entries, null);
+		for (final FBTypePaletteEntry entry : entries) {
+			assertEquals(sequential.getProblems().get(entry.getFile()).size(),
+					result.getProblems().get(entry.getFile()).size());
+		}
+	}
+
+	@Test
+	public void unchangedTypesAreSkipped() throws Exception {
+		final LibraryValidator validator = new LibraryValidator(4);
+		validator.validate(entries, null);
+
+		final IFile changed = entries.get(0).getFile();
+		changed.setContents(content("changed"), true, false, null); //$NON-NLS-1$
+		entries.get(0).setLastModificationTimestamp(changed.getModificationStamp());
+
+		final LibraryValidator.Result result = validator.validate(entries, null);
+		assertEquals(1, result.getCheckedTypes());
+		assertEquals(TYPE_COUNT - 1, result.getSkippedTypes());
+		assertEquals(TYPE_COUNT, result.getProblems().size());
+		assertTrue(changed.findMarkers(IValidationMarker.TYPE, true, IResource.DEPTH_ZERO).length > 0);
+
+		validator.clear();
+		assertEquals(TYPE_COUNT, validator.validate(entries, null).getCheckedTypes());
+	}
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Johannes Kepler University Linz
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.fordiac.ide.validation.handlers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.eclipse.fordiac.ide.model.libraryElement.BasicFBType;
+import org.eclipse.fordiac.ide.model.libraryElement.ECC;
+import org.eclipse.fordiac.ide.model.libraryElement.ECState;
+import org.eclipse.fordiac.ide.model.libraryElement.ECTransition;
+import org.eclipse.fordiac.ide.model.libraryElement.LibraryElementFactory;
+import org.eclipse.fordiac.ide.validation.Activator;
+import org.eclipse.ocl.ecore.Constraint;
+import org.eclipse.ocl.ecore.EcoreEnvironmentFactory;
+import org.eclipse.ocl.ecore.OCL;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class OCLParserTest {
+
+	private static final int VALIDATION_RUNS = 100;
+
+	private BasicFBType fbType;
+
+	@BeforeEach
+	public void createFBType() {
+		fbType = LibraryElementFactory.eINSTANCE.createBasicFBType();
+		fbType.setName("TestFB"); //$NON-NLS-1$
+		fbType.setInterfaceList(LibraryElementFactory.eINSTANCE.createInterfaceList());
+		final ECC ecc = LibraryElementFactory.eINSTANCE.createECC();
+		final ECState start = LibraryElementFactory.eINSTANCE.createECState();
+		start.setName("START"); //$NON-NLS-1$
+		ecc.getECState().add(start);
+		final ECTransition selfCycle = LibraryElementFactory.eINSTANCE.createECTransition();
+		selfCycle.setSource(start);
+		selfCycle.setDestination(start);
+		selfCycle.setConditionExpression("1"); //$NON-NLS-1$
+		ecc.getECTransition().add(selfCycle);
+		fbType.setECC(ecc);
+		OCLParser.clearCache();
+	}
+
+	@Test
+	public void constraintsAreParsedOnlyOnce() {
+		final List<Constraint> first = OCLParser.loadOCLConstraints(fbType);
+		assertFalse(first.isEmpty());
+		assertSame(first, OCLParser.loadOCLConstraints(fbType));
+		assertSame(first, OCLParser.loadOCLConstraints(LibraryElementFactory.eINSTANCE.createBasicFBType()));
+		assertThrows(UnsupportedOperationException.class, () -> first.remove(0));
+	}
+
+	@Test
+	public void clearedCacheParsesAgain() {
+		final List<Constraint> first = OCLParser.loadOCLConstraints(fbType);
+		OCLParser.clearCache();
+		final List<Constraint> second = OCLParser.loadOCLConstraints(fbType);
+		assertNotSame(first, second);
+		assertEquals(first.size(), second.size());
+	}
+
+	@Test
+	public void otherOCLInstancesGetTheirOwnConstraints() {
+		final OCL ocl = OCL.newInstance(EcoreEnvironmentFactory.INSTANCE);
+		final ConstraintIndex index = OCLParser.loadConstraintIndex(fbType, ocl);
+		assertNotSame(OCLParser.loadConstraintIndex(fbType), index);
+		assertSame(index, OCLParser.loadConstraintIndex(fbType, ocl));
+	}
+
+	@Test
+	public void repeatedValidationDoesNotParseAgain() {
+		// every parse creates new constraints, so getting the same ones means the file
+		// was not parsed again
+		final List<Constraint> constraints = OCLParser.loadOCLConstraints(fbType);
+		final ConstraintIndex index = OCLParser.loadConstraintIndex(fbType);
+		for (int i = 0; i < VALIDATION_RUNS; i++) {
+			assertSame(constraints, OCLParser.loadOCLConstraints(fbType), "cached constraints must not be parsed again"); //$NON-NLS-1$
+			assertSame(index, OCLParser.loadConstraintIndex(fbType));
+		}
+
+		// the constraints are still usable for checking
+		for (final Constraint constraint : constraints) {
+			fbType.getECC().getECTransition()
+			.forEach(transition -> Activator.getDefault().getOclInstance().check(transition, constraint));
+		}
+	}
+}